@@ -0,0 +1,75 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.service.BatchResult;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a gate flushing a burst of plate reads through the batch API
+ * against the same vehicles parked and exited one call at a time.
+ * Scores are per vehicle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final int BATCH_SIZE = 64;
+
+    ParkingService parkingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 10_000; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Burst {
+        List<Vehicle> vehicles;
+        List<String> ticketIds = new ArrayList<>(BATCH_SIZE);
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            vehicles = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                vehicles.add(new Vehicle("B" + threadParams.getThreadIndex() + "-" + i, VehicleType.CAR));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void singleCalls(Burst burst, Blackhole blackhole) {
+        burst.ticketIds.clear();
+        for (Vehicle vehicle : burst.vehicles) {
+            burst.ticketIds.add(parkingService.parkVehicle(vehicle).getTicketId());
+        }
+        for (String ticketId : burst.ticketIds) {
+            blackhole.consume(parkingService.exitVehicle(ticketId));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void batchCalls(Burst burst, Blackhole blackhole) {
+        burst.ticketIds.clear();
+        for (BatchResult<ParkingTicket> result : parkingService.parkVehicles(burst.vehicles)) {
+            burst.ticketIds.add(result.getValue().getTicketId());
+        }
+        blackhole.consume(parkingService.exitVehicles(burst.ticketIds));
+    }
+}
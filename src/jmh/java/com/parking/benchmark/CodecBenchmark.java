@@ -0,0 +1,89 @@
+package com.parking.benchmark;
+
+import com.parking.codec.ParkingCodec;
+import com.parking.codec.SpotResolver;
+import com.parking.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the binary model codec, against a reused direct buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    ParkingCodec codec;
+    ParkingTicket ticket;
+    Reservation reservation;
+    ByteBuffer buffer;
+    ByteBuffer encodedTicket;
+    ByteBuffer encodedReservation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ParkingSpot[] spots = new ParkingSpot[1024];
+        for (int i = 0; i < spots.length; i++) {
+            spots[i] = new ParkingSpot("A" + i);
+        }
+        codec = new ParkingCodec(new SpotResolver() {
+            @Override
+            public int indexOf(ParkingSpot spot) {
+                return Integer.parseInt(spot.getSpotId(), 1, spot.getSpotId().length(), 10);
+            }
+
+            @Override
+            public ParkingSpot spotAt(int index) {
+                return spots[index];
+            }
+        });
+        LocalDateTime entry = LocalDateTime.of(2025, 6, 1, 8, 30);
+        ticket = new ParkingTicket("TKT-01HZX3K5Q8M2N", new Vehicle("KA01AB1234", VehicleType.CAR), spots[517], entry);
+        reservation = new Reservation("RES-01HZX3K5Q8M2P", "user-42", new Vehicle("KA01AB1234", VehicleType.CAR),
+                entry, entry.plusHours(3));
+        reservation.setAssignedSpot(spots[12]);
+        reservation.setPaidAmount(18.0);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+
+        buffer = ByteBuffer.allocateDirect(256);
+        encodedTicket = ByteBuffer.allocateDirect(256);
+        codec.writeTicket(encodedTicket, ticket);
+        encodedTicket.flip();
+        encodedReservation = ByteBuffer.allocateDirect(256);
+        codec.writeReservation(encodedReservation, reservation);
+        encodedReservation.flip();
+    }
+
+    @Benchmark
+    public int encodeTicket() {
+        buffer.clear();
+        codec.writeTicket(buffer, ticket);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public ParkingTicket decodeTicket() {
+        encodedTicket.rewind();
+        return codec.readTicket(encodedTicket);
+    }
+
+    @Benchmark
+    public int encodeReservation() {
+        buffer.clear();
+        codec.writeReservation(buffer, reservation);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public Reservation decodeReservation() {
+        encodedReservation.rewind();
+        return codec.readReservation(encodedReservation);
+    }
+}
@@ -0,0 +1,88 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.service.ParkingOperations;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import com.parking.service.SingleWriterParkingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-based versus single-writer execution under contention. Thread count comes from
+ * the command line; compare the modes across it, e.g.
+ * {@code -Djmh.args="ExecutionModeBenchmark -t 1"} and again with {@code -t 4},
+ * {@code -t 16} and {@code -t 64}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+    private static final int VEHICLES_PER_THREAD = 1024;
+
+    @Param({"LOCKED", "SINGLE_WRITER"})
+    public String mode;
+
+    @Param({"10000"})
+    public int lotSize;
+
+    ParkingOperations parkingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ParkingService service = new ParkingService(new PricingService());
+        parkingService = mode.equals("SINGLE_WRITER") ? new SingleWriterParkingService(service) : service;
+        for (int i = 0; i < lotSize; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (parkingService instanceof SingleWriterParkingService) {
+            ((SingleWriterParkingService) parkingService).close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        Vehicle[] vehicles;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            vehicles = new Vehicle[VEHICLES_PER_THREAD];
+            for (int i = 0; i < vehicles.length; i++) {
+                vehicles[i] = new Vehicle("G" + threadParams.getThreadIndex() + "-" + i, VehicleType.CAR);
+            }
+        }
+
+        Vehicle nextVehicle() {
+            Vehicle vehicle = vehicles[next];
+            next = (next + 1) % vehicles.length;
+            return vehicle;
+        }
+    }
+
+    @Benchmark
+    public void parkThenExit(Gate gate, Blackhole blackhole) {
+        try {
+            ParkingTicket ticket = parkingService.parkVehicle(gate.nextVehicle());
+            blackhole.consume(parkingService.exitVehicle(ticket.getTicketId()));
+        } catch (IllegalStateException lotFull) {
+            blackhole.consume(lotFull);
+        }
+    }
+
+    @Benchmark
+    public Object parkingStatus() {
+        return parkingService.getParkingStatusSnapshot();
+    }
+}
@@ -0,0 +1,72 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.persistence.WriteAheadJournal;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of a park/exit pair with and without a write-ahead journal.
+ * Compare the p99 of "NONE" against "ASYNC" and "SYNC"; run with several threads
+ * (-t) to see group commit amortise fsyncs across gates.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"NONE", "ASYNC", "SYNC"})
+    public String durability;
+
+    ParkingService parkingService;
+    WriteAheadJournal journal;
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        parkingService = new ParkingService(new PricingService());
+        if (!"NONE".equals(durability)) {
+            directory = Files.createTempDirectory("parking-journal");
+            journal = WriteAheadJournal.open(directory.resolve("parking.journal"),
+                    WriteAheadJournal.Durability.valueOf(durability));
+            journal.attach(parkingService);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+            Files.deleteIfExists(journal.getPath());
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        Vehicle vehicle;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            vehicle = new Vehicle("J" + threadParams.getThreadIndex(), VehicleType.CAR);
+        }
+    }
+
+    @Benchmark
+    public double parkThenExit(Gate gate) {
+        return parkingService.exitVehicle(parkingService.parkVehicle(gate.vehicle).getTicketId());
+    }
+}
@@ -0,0 +1,142 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the ParkingService hot paths under a configurable lot size,
+ * starting occupancy and park/exit/reserve mix. Thread count is chosen on the
+ * command line, e.g. {@code -Djmh.args="ParkingServiceBenchmark -t 16"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParkingServiceBenchmark {
+
+    private static final String[] ZONES = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private static final int VEHICLES_PER_THREAD = 4096;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int lotSize;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double occupancy;
+
+    ParkingService parkingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < lotSize; i++) {
+            parkingService.addParkingSpot(new ParkingSpot(ZONES[i % ZONES.length] + i));
+        }
+        List<Vehicle> prefill = new ArrayList<>();
+        for (int i = 0, count = (int) (lotSize * occupancy); i < count; i++) {
+            prefill.add(new Vehicle("PREFILL-" + i, VehicleType.CAR));
+        }
+        parkingService.parkVehicles(prefill);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mix {
+        /** Relative weights of park, exit and reserve operations. */
+        @Param({"50:50:0", "45:45:10"})
+        public String mix;
+
+        int parkWeight;
+        int exitWeight;
+        int totalWeight;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            String[] weights = mix.split(":");
+            parkWeight = Integer.parseInt(weights[0]);
+            exitWeight = Integer.parseInt(weights[1]);
+            totalWeight = parkWeight + exitWeight + Integer.parseInt(weights[2]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        final ArrayDeque<String> openTickets = new ArrayDeque<>();
+        final SplittableRandom random = new SplittableRandom(42);
+        Vehicle[] vehicles;
+        int nextVehicle;
+        int reservationSequence;
+        String userId;
+        LocalDateTime reservationBase;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            int thread = threadParams.getThreadIndex();
+            userId = "user-" + thread;
+            vehicles = new Vehicle[VEHICLES_PER_THREAD];
+            VehicleType[] types = VehicleType.values();
+            for (int i = 0; i < vehicles.length; i++) {
+                vehicles[i] = new Vehicle("G" + thread + "-" + i, types[i % types.length]);
+            }
+            reservationBase = LocalDateTime.now().plusDays(1);
+        }
+
+        Vehicle nextVehicle() {
+            Vehicle vehicle = vehicles[nextVehicle];
+            nextVehicle = (nextVehicle + 1) % vehicles.length;
+            return vehicle;
+        }
+    }
+
+    @Benchmark
+    public Object mixedOperations(Mix mix, Gate gate) {
+        int roll = gate.random.nextInt(mix.totalWeight);
+        boolean mustExit = gate.openTickets.size() == VEHICLES_PER_THREAD;
+        try {
+            if (!mustExit && roll < mix.parkWeight) {
+                ParkingTicket ticket = parkingService.parkVehicle(gate.nextVehicle());
+                gate.openTickets.addLast(ticket.getTicketId());
+                return ticket;
+            }
+            if (mustExit || roll < mix.parkWeight + mix.exitWeight) {
+                String ticketId = gate.openTickets.pollFirst();
+                return ticketId == null ? null : parkingService.exitVehicle(ticketId);
+            }
+            LocalDateTime start = gate.reservationBase.plusHours(gate.reservationSequence++ % (24 * 30));
+            return parkingService.createReservation(gate.userId, gate.nextVehicle(), start, start.plusHours(2));
+        } catch (IllegalStateException lotFullOrFullyBooked) {
+            return lotFullOrFullyBooked;
+        }
+    }
+
+    @Benchmark
+    public void parkThenExit(Gate gate, Blackhole blackhole) {
+        try {
+            ParkingTicket ticket = parkingService.parkVehicle(gate.nextVehicle());
+            blackhole.consume(parkingService.exitVehicle(ticket.getTicketId()));
+        } catch (IllegalStateException lotFull) {
+            blackhole.consume(lotFull);
+        }
+    }
+
+    @Benchmark
+    public Object parkingStatus() {
+        return parkingService.getParkingStatus();
+    }
+
+    @Benchmark
+    public Object parkingStatusSnapshot() {
+        return parkingService.getParkingStatusSnapshot();
+    }
+}
@@ -0,0 +1,69 @@
+package com.parking.benchmark;
+
+import com.parking.model.VehicleType;
+import com.parking.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single fee calculation over a spread of stay lengths (minutes to weeks).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    private static final int STAYS = 1024;
+
+    @Param({"CAR", "BUS"})
+    public VehicleType vehicleType;
+
+    PricingService pricingService;
+    LocalDateTime[] entryTimes;
+    LocalDateTime[] exitTimes;
+    long[] entryEpochSeconds;
+    long[] exitEpochSeconds;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pricingService = new PricingService();
+        entryTimes = new LocalDateTime[STAYS];
+        exitTimes = new LocalDateTime[STAYS];
+        entryEpochSeconds = new long[STAYS];
+        exitEpochSeconds = new long[STAYS];
+        SplittableRandom random = new SplittableRandom(7);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 6, 0, 0);
+        for (int i = 0; i < STAYS; i++) {
+            entryTimes[i] = base.plusMinutes(random.nextInt(7 * 24 * 60));
+            exitTimes[i] = entryTimes[i].plusMinutes(1 + random.nextInt(14 * 24 * 60));
+            entryEpochSeconds[i] = entryTimes[i].toEpochSecond(ZoneOffset.UTC);
+            exitEpochSeconds[i] = exitTimes[i].toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+
+    @Benchmark
+    public double calculateFee() {
+        int i = next++ & (STAYS - 1);
+        return pricingService.calculateFee(vehicleType, entryTimes[i], exitTimes[i]);
+    }
+
+    @Benchmark
+    public double calculateFeeEpochSeconds() {
+        int i = next++ & (STAYS - 1);
+        return pricingService.calculateFee(vehicleType, entryEpochSeconds[i], exitEpochSeconds[i]);
+    }
+
+    @Benchmark
+    public double calculateReservationFee() {
+        int i = next++ & (STAYS - 1);
+        return pricingService.calculateReservationFee(vehicleType, entryTimes[i], exitTimes[i]);
+    }
+}
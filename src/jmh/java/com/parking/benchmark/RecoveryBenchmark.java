@@ -0,0 +1,72 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.persistence.ParkingStore;
+import com.parking.persistence.WriteAheadJournal;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Restart time of a lot restored from a snapshot versus replaying its full journal.
+ * Half of the spots hold an open ticket.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+
+    @Param({"100000"})
+    public int lotSize;
+
+    @Param({"true", "false"})
+    public boolean snapshot;
+
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("parking-recovery");
+        try (ParkingStore store = ParkingStore.open(directory, WriteAheadJournal.Durability.ASYNC)) {
+            ParkingService parkingService = new ParkingService(new PricingService());
+            store.recover(parkingService);
+            for (int i = 0; i < lotSize; i++) {
+                parkingService.addParkingSpot(new ParkingSpot("A" + i));
+            }
+            for (int i = 0; i < lotSize / 2; i++) {
+                parkingService.parkVehicle(new Vehicle("R" + i, VehicleType.CAR));
+            }
+            if (snapshot) {
+                store.snapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ParkingService recover() throws IOException {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        try (ParkingStore store = ParkingStore.open(directory, WriteAheadJournal.Durability.ASYNC)) {
+            store.recover(parkingService);
+        }
+        return parkingService;
+    }
+}
@@ -0,0 +1,59 @@
+package com.parking.benchmark;
+
+import com.parking.model.*;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import com.parking.service.SpotSharding;
+import com.parking.service.StorageEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady churn on a nearly full lot, one exit and one arrival per operation, for each
+ * storage engine. Run with {@code -prof gc} to compare allocation and collection counts;
+ * the columnar engine keeps the open tickets out of the object graph the collector traces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+@State(Scope.Thread)
+public class StorageBenchmark {
+
+    @Param({"HEAP", "COLUMNAR"})
+    public StorageEngine engine;
+
+    @Param({"100000"})
+    public int lotSize;
+
+    ParkingService parkingService;
+    String[] ticketIds;
+    Vehicle[] vehicles;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        parkingService = new ParkingService(new PricingService(), SpotSharding.byZonePrefix(), 0, engine);
+        for (int i = 0; i < lotSize; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        int parked = lotSize * 9 / 10;
+        ticketIds = new String[parked];
+        vehicles = new Vehicle[parked];
+        for (int i = 0; i < parked; i++) {
+            vehicles[i] = new Vehicle("KA" + i, VehicleType.values()[i % VehicleType.values().length]);
+            ticketIds[i] = parkingService.parkVehicle(vehicles[i]).getTicketId();
+        }
+    }
+
+    @Benchmark
+    public double exitAndPark() {
+        int i = next;
+        next = i + 1 == ticketIds.length ? 0 : i + 1;
+        double fee = parkingService.exitVehicle(ticketIds[i]);
+        ticketIds[i] = parkingService.parkVehicle(vehicles[i]).getTicketId();
+        return fee;
+    }
+}
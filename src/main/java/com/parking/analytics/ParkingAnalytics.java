@@ -0,0 +1,329 @@
+package com.parking.analytics;
+
+import com.parking.model.ParkingTicket;
+import com.parking.model.VehicleType;
+import com.parking.service.ParkingEventListener;
+import com.parking.service.ParkingService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming aggregates of a parking service's traffic, kept per minute and per vehicle
+ * type in fixed rings of primitive arrays covering the retention period (24 hours by
+ * default). Park and exit events are folded in as they happen, by the time on the
+ * ticket: arrivals in the minute of entry, and departures, time parked and fee in the
+ * minute of exit. Occupancy is tracked live and recorded per minute as its peak and its
+ * value at the end of the minute, per type and, since types peak at different moments,
+ * for all types together. Minutes that roll out of the ring are overwritten, so memory
+ * stays constant and recording never allocates.
+ * <p>
+ * A query adds up the minutes of its window, at most one ring's worth per vehicle type,
+ * instead of walking tickets. Events and queries share one lock; both hold it only for
+ * a few array operations.
+ */
+public final class ParkingAnalytics implements ParkingEventListener, AutoCloseable {
+
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(24);
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    private final ParkingService service;
+    private final Clock clock;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Minute held by each slot of the ring, in minutes since the epoch of local time. */
+    private final long[] slotMinute;
+    /** Per type and slot, at {@code type * capacity + slot}. */
+    private final long[] arrivals;
+    private final long[] exits;
+    private final long[] dwellSeconds;
+    private final long[] revenueCents;
+    private final int[] peakOccupancy;
+    private final int[] closingOccupancy;
+    /** Peak of all types together, per slot. */
+    private final int[] totalPeakOccupancy;
+    private final int[] occupied = new int[TYPES.length];
+    private int totalOccupied;
+    /**
+     * IDs of the tickets counted as parked on attach. A park racing the attach may be
+     * both counted there and notified afterwards; its ID is dropped on whichever of its
+     * park or exit events comes first, so the park is counted once.
+     */
+    private Set<String> countedOnAttach = Set.of();
+    private long headMinute;
+
+    private ParkingAnalytics(ParkingService service, Duration retention, Clock clock) {
+        if (service == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        if (retention == null || retention.toMinutes() < 1) {
+            throw new IllegalArgumentException("Retention must be at least one minute");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.service = service;
+        this.clock = clock;
+        this.capacity = Math.toIntExact(retention.toMinutes());
+        int cells = TYPES.length * capacity;
+        slotMinute = new long[capacity];
+        arrivals = new long[cells];
+        exits = new long[cells];
+        dwellSeconds = new long[cells];
+        revenueCents = new long[cells];
+        peakOccupancy = new int[cells];
+        closingOccupancy = new int[cells];
+        totalPeakOccupancy = new int[capacity];
+        Arrays.fill(slotMinute, Long.MIN_VALUE);
+    }
+
+    /**
+     * Starts aggregating the service's traffic over the last 24 hours.
+     */
+    public static ParkingAnalytics attach(ParkingService service) {
+        return attach(service, DEFAULT_RETENTION, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Starts aggregating the service's traffic over the given retention period. Vehicles
+     * already parked count towards occupancy from now on; their arrivals are not replayed.
+     * A vehicle parking during the attach is counted once.
+     *
+     * @param clock tells queries what the current minute is, so minutes without events
+     *              still carry the occupancy forward
+     */
+    public static ParkingAnalytics attach(ParkingService service, Duration retention, Clock clock) {
+        ParkingAnalytics analytics = new ParkingAnalytics(service, retention, clock);
+        analytics.lock.lock();
+        try {
+            analytics.headMinute = minuteOf(LocalDateTime.now(clock));
+            analytics.stamp(analytics.headMinute);
+            // Registered first so no park is missed; parks notified after the count are
+            // told apart by ticket ID.
+            service.addEventListener(analytics);
+            Set<String> counted = new HashSet<>();
+            for (ParkingTicket ticket : service.getActiveTickets()) {
+                counted.add(ticket.getTicketId());
+                analytics.occupied[ticket.getVehicle().getType().ordinal()]++;
+                analytics.totalOccupied++;
+            }
+            analytics.countedOnAttach = counted;
+            analytics.recordOccupancy();
+        } finally {
+            analytics.lock.unlock();
+        }
+        return analytics;
+    }
+
+    @Override
+    public void onVehicleParked(ParkingTicket ticket) {
+        int type = ticket.getVehicle().getType().ordinal();
+        long minute = minuteOf(ticket.getEntryTime());
+        lock.lock();
+        try {
+            advanceTo(minute);
+            if (countedOnAttach.isEmpty() || !countedOnAttach.remove(ticket.getTicketId())) {
+                occupied[type]++;
+                totalOccupied++;
+            }
+            int slot = slotOf(minute);
+            if (slot >= 0) {
+                arrivals[type * capacity + slot]++;
+            }
+            recordOccupancy(type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onVehicleExited(ParkingTicket ticket, double fee) {
+        int type = ticket.getVehicle().getType().ordinal();
+        long entered = ticket.getEntryTime().toEpochSecond(ZoneOffset.UTC);
+        long exited = ticket.getExitTime().toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(exited, 60);
+        lock.lock();
+        try {
+            advanceTo(minute);
+            if (!countedOnAttach.isEmpty()) {
+                countedOnAttach.remove(ticket.getTicketId());
+            }
+            if (occupied[type] > 0) {
+                occupied[type]--;
+                totalOccupied--;
+            }
+            int slot = slotOf(minute);
+            if (slot >= 0) {
+                int cell = type * capacity + slot;
+                exits[cell]++;
+                dwellSeconds[cell] += Math.max(0, exited - entered);
+                revenueCents[cell] += Math.round(fee * 100);
+            }
+            recordOccupancy(type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of vehicles of the given type parked right now.
+     */
+    public int getOccupancy(VehicleType type) {
+        lock.lock();
+        try {
+            return occupied[type.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Summarizes all vehicle types over the minutes from {@code from} up to {@code to}.
+     */
+    public WindowSummary summarize(LocalDateTime from, LocalDateTime to) {
+        return summarize(null, from, to);
+    }
+
+    /**
+     * Summarizes one vehicle type over the minutes from {@code from} up to {@code to}.
+     * The window is widened to whole minutes; the parts of it that fall before the
+     * retention period or after the current minute are left out.
+     *
+     * @param type vehicle type, or {@code null} for all of them
+     */
+    public WindowSummary summarize(VehicleType type, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Window start must be before its end");
+        }
+        long fromMinute = minuteOf(from);
+        long toMinute = Math.floorDiv(to.toEpochSecond(ZoneOffset.UTC) + 59, 60);
+        int firstType = type == null ? 0 : type.ordinal();
+        int lastType = type == null ? TYPES.length - 1 : type.ordinal();
+        int minutes = 0;
+        long arrivalCount = 0;
+        long exitCount = 0;
+        long dwell = 0;
+        long revenue = 0;
+        long occupancyMinutes = 0;
+        int peak = 0;
+        lock.lock();
+        try {
+            advanceTo(minuteOf(LocalDateTime.now(clock)));
+            long first = Math.max(fromMinute, headMinute - capacity + 1);
+            long last = Math.min(toMinute - 1, headMinute);
+            for (long minute = first; minute <= last; minute++) {
+                int slot = slotOf(minute);
+                if (slot < 0) {
+                    continue;
+                }
+                minutes++;
+                for (int t = firstType; t <= lastType; t++) {
+                    int cell = t * capacity + slot;
+                    arrivalCount += arrivals[cell];
+                    exitCount += exits[cell];
+                    dwell += dwellSeconds[cell];
+                    revenue += revenueCents[cell];
+                    occupancyMinutes += closingOccupancy[cell];
+                }
+                peak = Math.max(peak, type == null ? totalPeakOccupancy[slot]
+                        : peakOccupancy[type.ordinal() * capacity + slot]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new WindowSummary(timeOf(fromMinute), timeOf(toMinute), minutes, arrivalCount, exitCount,
+                dwell, revenue, occupancyMinutes, peak);
+    }
+
+    /**
+     * Summarizes one vehicle type, or all of them for {@code null}, over the last
+     * {@code minutes} minutes including the current one.
+     */
+    public WindowSummary summarizeLast(VehicleType type, int minutes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("Window must be at least one minute");
+        }
+        LocalDateTime to = timeOf(minuteOf(LocalDateTime.now(clock)) + 1);
+        return summarize(type, to.minusMinutes(minutes), to);
+    }
+
+    /**
+     * Stops receiving the service's events; figures already aggregated can still be queried.
+     */
+    @Override
+    public void close() {
+        service.removeEventListener(this);
+    }
+
+    /**
+     * Moves the head of the ring forward to the given minute, clearing the slots it
+     * passes and carrying the current occupancy into them. Earlier minutes are a no-op.
+     */
+    private void advanceTo(long minute) {
+        if (minute <= headMinute) {
+            return;
+        }
+        for (long next = Math.max(headMinute + 1, minute - capacity + 1); next <= minute; next++) {
+            stamp(next);
+        }
+        headMinute = minute;
+        recordOccupancy();
+    }
+
+    private void stamp(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) capacity);
+        slotMinute[slot] = minute;
+        totalPeakOccupancy[slot] = totalOccupied;
+        for (int type = 0; type < TYPES.length; type++) {
+            int cell = type * capacity + slot;
+            arrivals[cell] = 0;
+            exits[cell] = 0;
+            dwellSeconds[cell] = 0;
+            revenueCents[cell] = 0;
+            peakOccupancy[cell] = occupied[type];
+            closingOccupancy[cell] = occupied[type];
+        }
+    }
+
+    private void recordOccupancy() {
+        for (int type = 0; type < TYPES.length; type++) {
+            recordOccupancy(type);
+        }
+    }
+
+    /**
+     * Records the live occupancy of one type in the head minute: events are folded by
+     * ticket time, but occupancy changes now, whichever minute the ticket names.
+     */
+    private void recordOccupancy(int type) {
+        int slot = (int) Math.floorMod(headMinute, (long) capacity);
+        int cell = type * capacity + slot;
+        closingOccupancy[cell] = occupied[type];
+        peakOccupancy[cell] = Math.max(peakOccupancy[cell], occupied[type]);
+        totalPeakOccupancy[slot] = Math.max(totalPeakOccupancy[slot], totalOccupied);
+    }
+
+    /**
+     * Returns the ring slot holding the given minute, or -1 if it is not retained.
+     */
+    private int slotOf(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) capacity);
+        return slotMinute[slot] == minute ? slot : -1;
+    }
+
+    private static long minuteOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static LocalDateTime timeOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,109 @@
+package com.parking.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Aggregates over a window of whole minutes, for one vehicle type or for all of them.
+ * Averages are taken over the minutes of the window that are still retained.
+ */
+public final class WindowSummary {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final int minutes;
+    private final long arrivals;
+    private final long exits;
+    private final long dwellSeconds;
+    private final long revenueCents;
+    private final long occupancyMinutes;
+    private final int peakOccupancy;
+
+    WindowSummary(LocalDateTime from, LocalDateTime to, int minutes, long arrivals, long exits,
+                  long dwellSeconds, long revenueCents, long occupancyMinutes, int peakOccupancy) {
+        this.from = from;
+        this.to = to;
+        this.minutes = minutes;
+        this.arrivals = arrivals;
+        this.exits = exits;
+        this.dwellSeconds = dwellSeconds;
+        this.revenueCents = revenueCents;
+        this.occupancyMinutes = occupancyMinutes;
+        this.peakOccupancy = peakOccupancy;
+    }
+
+    /**
+     * Start of the first minute covered.
+     */
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    /**
+     * End of the last minute covered, exclusive.
+     */
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    /**
+     * Minutes of the window that were retained and went into the figures.
+     */
+    public int getMinutes() {
+        return minutes;
+    }
+
+    public long getArrivals() {
+        return arrivals;
+    }
+
+    public double getArrivalsPerMinute() {
+        return minutes == 0 ? 0 : (double) arrivals / minutes;
+    }
+
+    public long getExits() {
+        return exits;
+    }
+
+    /**
+     * Average time parked of the vehicles that left during the window.
+     */
+    public Duration getAverageDwell() {
+        return exits == 0 ? Duration.ZERO : Duration.ofSeconds(dwellSeconds / exits);
+    }
+
+    /**
+     * Fees charged on exit during the window.
+     */
+    public double getRevenue() {
+        return revenueCents / 100.0;
+    }
+
+    /**
+     * Vehicles parked at the end of each minute, averaged over the window.
+     */
+    public double getAverageOccupancy() {
+        return minutes == 0 ? 0 : (double) occupancyMinutes / minutes;
+    }
+
+    /**
+     * Most vehicles parked at once during the window.
+     */
+    public int getPeakOccupancy() {
+        return peakOccupancy;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowSummary{" +
+                "from=" + from +
+                ", to=" + to +
+                ", arrivals=" + arrivals +
+                ", exits=" + exits +
+                ", averageDwell=" + getAverageDwell() +
+                ", revenue=" + getRevenue() +
+                ", averageOccupancy=" + getAverageOccupancy() +
+                ", peakOccupancy=" + peakOccupancy +
+                '}';
+    }
+}
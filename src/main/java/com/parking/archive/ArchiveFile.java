@@ -0,0 +1,216 @@
+package com.parking.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk layout of a ticket archive, shared by {@link TicketArchive} and {@link ArchiveReader}.
+ * <p>
+ * The file starts with {@code [magic : int][format version : byte]}, followed by blocks
+ * of {@code [length : int][crc32 : int][body]}, where the CRC covers the body. A body is
+ * {@code [rows : int][first exit : long][last exit : long][new plates : int][new spots : int]
+ * [section lengths : int x 8]} followed by the sections, each holding one column of the
+ * block's rows:
+ * <ol>
+ *     <li>dictionary: plates, then spot IDs, first seen in this block; their codes follow
+ *     on from those of earlier blocks</li>
+ *     <li>entry times: epoch seconds as a zigzag varint delta from the previous row,
+ *     the first row from zero</li>
+ *     <li>stays: exit minus entry in seconds, as a varint</li>
+ *     <li>plates and</li>
+ *     <li>spots: dictionary codes as varints</li>
+ *     <li>vehicle types: one ordinal byte each</li>
+ *     <li>fees: whole cents as zigzag varints</li>
+ *     <li>ticket IDs: strings</li>
+ * </ol>
+ * Times are local date-times counted as if they were UTC, as in {@code ParkingCodec}.
+ */
+final class ArchiveFile {
+
+    /** "PKA1". */
+    static final int MAGIC = 0x504B4131;
+    static final byte FORMAT_VERSION = 1;
+    static final int FILE_HEADER_BYTES = Integer.BYTES + 1;
+    static final int BLOCK_HEADER_BYTES = 2 * Integer.BYTES;
+    static final int SECTIONS = 8;
+    static final int BODY_HEADER_BYTES = Integer.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES + SECTIONS * Integer.BYTES;
+    static final int MAX_BLOCK_BYTES = 1 << 26;
+
+    static final int DICTIONARY = 0;
+    static final int ENTRY = 1;
+    static final int STAY = 2;
+    static final int PLATE = 3;
+    static final int SPOT = 4;
+    static final int TYPE = 5;
+    static final int FEE = 6;
+    static final int TICKET_ID = 7;
+
+    /** Blocks are mapped a segment at a time; a segment is cut short at a block boundary. */
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    private ArchiveFile() {
+    }
+
+    static void writeFileHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        header.putInt(MAGIC).put(FORMAT_VERSION).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, FILE_HEADER_BYTES - header.remaining());
+        }
+    }
+
+    /**
+     * Maps the blocks of an archive read-only, stopping at the first one that is torn
+     * or fails its checksum.
+     *
+     * @throws IOException if the file is not an archive or has an unknown version
+     */
+    static Scan scan(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Read the whole header.
+        }
+        header.flip();
+        if (header.remaining() < FILE_HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("Not a ticket archive");
+        }
+        byte version = header.get();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported archive version: " + version);
+        }
+        List<Block> blocks = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+        MappedByteBuffer segment = null;
+        long segmentStart = 0;
+        long offset = FILE_HEADER_BYTES;
+        while (offset + BLOCK_HEADER_BYTES <= size) {
+            if (segment == null || offset + BLOCK_HEADER_BYTES > segmentStart + segment.capacity()) {
+                segmentStart = offset;
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, SEGMENT_BYTES));
+            }
+            int length = segment.getInt((int) (offset - segmentStart));
+            int expected = segment.getInt((int) (offset - segmentStart) + Integer.BYTES);
+            if (length < BODY_HEADER_BYTES || length > MAX_BLOCK_BYTES || offset + BLOCK_HEADER_BYTES + length > size) {
+                break;
+            }
+            if (offset + BLOCK_HEADER_BYTES + length > segmentStart + segment.capacity()) {
+                segmentStart = offset;
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset, SEGMENT_BYTES));
+            }
+            ByteBuffer body = segment.slice((int) (offset - segmentStart) + BLOCK_HEADER_BYTES, length);
+            checksum.reset();
+            checksum.update(body.duplicate());
+            if ((int) checksum.getValue() != expected) {
+                break;
+            }
+            Block block = Block.parse(body);
+            if (block == null) {
+                break;
+            }
+            blocks.add(block);
+            offset += BLOCK_HEADER_BYTES + length;
+        }
+        return new Scan(blocks, offset);
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the varint runs past 64 bits
+     */
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    static final class Scan {
+        final List<Block> blocks;
+        /** Length of the file up to the end of the last intact block. */
+        final long validBytes;
+
+        Scan(List<Block> blocks, long validBytes) {
+            this.blocks = blocks;
+            this.validBytes = validBytes;
+        }
+    }
+
+    /**
+     * One block's header, with its sections located in the mapped body.
+     */
+    static final class Block {
+        final ByteBuffer body;
+        final int rows;
+        final long firstExit;
+        final long lastExit;
+        final int newPlates;
+        final int newSpots;
+        private final int[] sectionStarts = new int[SECTIONS + 1];
+
+        private Block(ByteBuffer body) {
+            this.body = body;
+            this.rows = body.getInt(0);
+            this.firstExit = body.getLong(Integer.BYTES);
+            this.lastExit = body.getLong(Integer.BYTES + Long.BYTES);
+            this.newPlates = body.getInt(Integer.BYTES + 2 * Long.BYTES);
+            this.newSpots = body.getInt(2 * Integer.BYTES + 2 * Long.BYTES);
+        }
+
+        /**
+         * Returns the block, or null if its header does not add up to its length.
+         */
+        static Block parse(ByteBuffer body) {
+            Block block = new Block(body);
+            if (block.rows < 0 || block.newPlates < 0 || block.newSpots < 0) {
+                return null;
+            }
+            long start = BODY_HEADER_BYTES;
+            for (int section = 0; section < SECTIONS; section++) {
+                block.sectionStarts[section] = (int) start;
+                int length = body.getInt(BODY_HEADER_BYTES - (SECTIONS - section) * Integer.BYTES);
+                if (length < 0) {
+                    return null;
+                }
+                start += length;
+            }
+            if (start != body.capacity()) {
+                return null;
+            }
+            block.sectionStarts[SECTIONS] = (int) start;
+            return block;
+        }
+
+        /**
+         * Returns a buffer over one section, positioned at its start.
+         */
+        ByteBuffer section(int section) {
+            return body.slice(sectionStarts[section], sectionStarts[section + 1] - sectionStarts[section]);
+        }
+    }
+}
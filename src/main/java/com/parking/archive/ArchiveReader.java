@@ -0,0 +1,184 @@
+package com.parking.archive;
+
+import com.parking.model.VehicleType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.parking.archive.ArchiveFile.*;
+import static com.parking.codec.ParkingCodec.readString;
+
+/**
+ * Read-only view of a {@link TicketArchive} file through a memory mapping, covering the
+ * blocks written when it was opened. Revenue scans decode only the time, type and fee
+ * columns, and skip whole blocks whose exits fall outside the requested days, so they
+ * never build tickets; {@link #forEach} decodes every column for audits.
+ * <p>
+ * Not thread-safe; each thread should open its own reader.
+ */
+public final class ArchiveReader implements Closeable {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final FileChannel channel;
+    private final List<Block> blocks;
+    private final long ticketCount;
+
+    private ArchiveReader(FileChannel channel, List<Block> blocks) {
+        this.channel = channel;
+        this.blocks = blocks;
+        long count = 0;
+        for (Block block : blocks) {
+            count += block.rows;
+        }
+        this.ticketCount = count;
+    }
+
+    /**
+     * Maps the archive at the given path. A torn block at the tail and anything after
+     * it are ignored.
+     *
+     * @throws IOException if the file cannot be read or is not an archive
+     */
+    public static ArchiveReader open(Path path) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ArchiveReader(channel, scan(channel).blocks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getTicketCount() {
+        return ticketCount;
+    }
+
+    /**
+     * Returns the earliest exit time archived, or empty if the archive is empty.
+     */
+    public Optional<LocalDateTime> getFirstExit() {
+        return blocks.stream().mapToLong(block -> block.firstExit).min().stream()
+                .mapToObj(ArchiveReader::timeOf).findFirst();
+    }
+
+    /**
+     * Returns the latest exit time archived, or empty if the archive is empty.
+     */
+    public Optional<LocalDateTime> getLastExit() {
+        return blocks.stream().mapToLong(block -> block.lastExit).max().stream()
+                .mapToObj(ArchiveReader::timeOf).findFirst();
+    }
+
+    /**
+     * Adds up fees and tickets by day of exit and vehicle type.
+     *
+     * @param from first day to include
+     * @param to   day after the last one to include
+     */
+    public RevenueReport revenueByDay(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Start day must be before end day");
+        }
+        long fromSecond = from.toEpochDay() * SECONDS_PER_DAY;
+        long toSecond = to.toEpochDay() * SECONDS_PER_DAY;
+        int cells = Math.toIntExact((to.toEpochDay() - from.toEpochDay()) * TYPES.length);
+        long[] cents = new long[cells];
+        long[] tickets = new long[cells];
+        for (Block block : blocks) {
+            if (block.lastExit < fromSecond || block.firstExit >= toSecond) {
+                continue;
+            }
+            ByteBuffer entries = block.section(ENTRY);
+            ByteBuffer stays = block.section(STAY);
+            ByteBuffer types = block.section(TYPE);
+            ByteBuffer fees = block.section(FEE);
+            long entry = 0;
+            for (int i = 0; i < block.rows; i++) {
+                entry += unzigzag(getVarLong(entries));
+                long exit = entry + getVarLong(stays);
+                int type = types.get(i);
+                long fee = unzigzag(getVarLong(fees));
+                if (exit >= fromSecond && exit < toSecond) {
+                    int cell = (int) ((exit - fromSecond) / SECONDS_PER_DAY) * TYPES.length + vehicleType(type);
+                    cents[cell] += fee;
+                    tickets[cell]++;
+                }
+            }
+        }
+        return new RevenueReport(from, to, cents, tickets);
+    }
+
+    /**
+     * Decodes every archived ticket, in the order they were archived.
+     */
+    public void forEach(Consumer<ArchivedTicket> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        List<String> plateDictionary = new ArrayList<>();
+        List<String> spotDictionary = new ArrayList<>();
+        for (Block block : blocks) {
+            ByteBuffer dictionary = block.section(DICTIONARY);
+            for (int i = 0; i < block.newPlates; i++) {
+                plateDictionary.add(readString(dictionary));
+            }
+            for (int i = 0; i < block.newSpots; i++) {
+                spotDictionary.add(readString(dictionary));
+            }
+            ByteBuffer entries = block.section(ENTRY);
+            ByteBuffer stays = block.section(STAY);
+            ByteBuffer plates = block.section(PLATE);
+            ByteBuffer spots = block.section(SPOT);
+            ByteBuffer types = block.section(TYPE);
+            ByteBuffer fees = block.section(FEE);
+            ByteBuffer ticketIds = block.section(TICKET_ID);
+            long entry = 0;
+            for (int i = 0; i < block.rows; i++) {
+                entry += unzigzag(getVarLong(entries));
+                long exit = entry + getVarLong(stays);
+                String plate = plateDictionary.get((int) getVarLong(plates));
+                String spot = spotDictionary.get((int) getVarLong(spots));
+                VehicleType type = TYPES[vehicleType(types.get(i))];
+                double fee = unzigzag(getVarLong(fees)) / 100.0;
+                action.accept(new ArchivedTicket(readString(ticketIds), plate, type, spot,
+                        timeOf(entry), timeOf(exit), fee));
+            }
+        }
+    }
+
+    /**
+     * Closes the file; the mapping itself is released once the reader is unreachable,
+     * as Java has no explicit unmap.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int vehicleType(int ordinal) {
+        if (ordinal < 0 || ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown vehicle type ordinal: " + ordinal);
+        }
+        return ordinal;
+    }
+
+    private static LocalDateTime timeOf(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
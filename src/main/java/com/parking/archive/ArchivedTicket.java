@@ -0,0 +1,71 @@
+package com.parking.archive;
+
+import com.parking.model.VehicleType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A processed ticket as read back from a {@link TicketArchive}, to the second.
+ */
+public final class ArchivedTicket {
+
+    private final String ticketId;
+    private final String licensePlate;
+    private final VehicleType vehicleType;
+    private final String spotId;
+    private final LocalDateTime entryTime;
+    private final LocalDateTime exitTime;
+    private final double fee;
+
+    ArchivedTicket(String ticketId, String licensePlate, VehicleType vehicleType, String spotId,
+                   LocalDateTime entryTime, LocalDateTime exitTime, double fee) {
+        this.ticketId = ticketId;
+        this.licensePlate = licensePlate;
+        this.vehicleType = vehicleType;
+        this.spotId = spotId;
+        this.entryTime = entryTime;
+        this.exitTime = exitTime;
+        this.fee = fee;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public VehicleType getVehicleType() {
+        return vehicleType;
+    }
+
+    public String getSpotId() {
+        return spotId;
+    }
+
+    public LocalDateTime getEntryTime() {
+        return entryTime;
+    }
+
+    public LocalDateTime getExitTime() {
+        return exitTime;
+    }
+
+    public double getFee() {
+        return fee;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedTicket{" +
+                "ticketId='" + ticketId + '\'' +
+                ", licensePlate='" + licensePlate + '\'' +
+                ", vehicleType=" + vehicleType +
+                ", spotId='" + spotId + '\'' +
+                ", entryTime=" + entryTime +
+                ", exitTime=" + exitTime +
+                ", fee=" + fee +
+                '}';
+    }
+}
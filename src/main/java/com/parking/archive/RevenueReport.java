@@ -0,0 +1,74 @@
+package com.parking.archive;
+
+import com.parking.model.VehicleType;
+
+import java.time.LocalDate;
+
+/**
+ * Fees and tickets per day of exit and vehicle type, from an {@link ArchiveReader} scan.
+ */
+public final class RevenueReport {
+
+    private static final int TYPES = VehicleType.values().length;
+
+    private final LocalDate from;
+    private final LocalDate to;
+    /** Per day and type, at {@code day * TYPES + type}. */
+    private final long[] cents;
+    private final long[] tickets;
+
+    RevenueReport(LocalDate from, LocalDate to, long[] cents, long[] tickets) {
+        this.from = from;
+        this.to = to;
+        this.cents = cents;
+        this.tickets = tickets;
+    }
+
+    /**
+     * First day covered.
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /**
+     * Day after the last one covered.
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public double getRevenue(LocalDate day, VehicleType type) {
+        return cents[cell(day, type)] / 100.0;
+    }
+
+    public double getRevenue(LocalDate day) {
+        long total = 0;
+        for (VehicleType type : VehicleType.values()) {
+            total += cents[cell(day, type)];
+        }
+        return total / 100.0;
+    }
+
+    public long getTicketCount(LocalDate day, VehicleType type) {
+        return tickets[cell(day, type)];
+    }
+
+    public double getTotalRevenue() {
+        long total = 0;
+        for (long dayCents : cents) {
+            total += dayCents;
+        }
+        return total / 100.0;
+    }
+
+    private int cell(LocalDate day, VehicleType type) {
+        if (day == null || type == null) {
+            throw new IllegalArgumentException("Day and vehicle type cannot be null");
+        }
+        if (day.isBefore(from) || !day.isBefore(to)) {
+            throw new IllegalArgumentException("Day " + day + " is outside the report");
+        }
+        return (int) (day.toEpochDay() - from.toEpochDay()) * TYPES + type.ordinal();
+    }
+}
@@ -0,0 +1,401 @@
+package com.parking.archive;
+
+import com.parking.model.ParkingTicket;
+import com.parking.service.ParkingEventListener;
+import com.parking.service.ParkingService;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import static com.parking.archive.ArchiveFile.*;
+import static com.parking.codec.ParkingCodec.readString;
+import static com.parking.codec.ParkingCodec.writeString;
+
+/**
+ * Append-only archive of processed tickets, kept off the heap in the columnar file
+ * format of {@link ArchiveFile}: exited tickets are gathered column by column into
+ * primitive arrays and written out as one block when the block is full, on
+ * {@link #flush()} and on {@link #close()}. Plates and spot IDs are dictionary-encoded
+ * across the whole file, so only their codes are stored per ticket; read the archive
+ * back with {@link ArchiveReader}.
+ * <p>
+ * Full blocks are written on the thread of the exit that fills them, without a force;
+ * {@link #flush()} also forces. Tickets still gathering when the process dies, up to a
+ * block of them, are lost from the archive. Their exit records stay in the journal only
+ * until the next snapshot truncates it, so register the archive with
+ * {@link com.parking.persistence.ParkingStore#flushBeforeTruncation} to have every
+ * snapshot flush it first; otherwise those tickets are gone from both.
+ * <p>
+ * An archive failure never fails an exit: a ticket the attached archive cannot take is
+ * counted in {@link #getFailedAppendCount()} and the exit goes on. A block whose write
+ * failed stays gathered and is written again by the next append or flush.
+ */
+public final class TicketArchive implements ParkingEventListener, Closeable, Flushable {
+
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+
+    /** Longest string {@code ParkingCodec.writeString} is sure to take, at three bytes a char. */
+    private static final int MAX_STRING_CHARS = 0xFFFF / 3;
+    /** Largest encoding of one row without its ticket ID: five varints and a type byte. */
+    private static final int MAX_ROW_BYTES = 4 * 10 + 5 + 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int blockRows;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder failedAppends = new LongAdder();
+
+    // Guarded by lock.
+    private final HashMap<String, Integer> plateCodes = new HashMap<>();
+    private final HashMap<String, Integer> spotCodes = new HashMap<>();
+    private final List<String> newPlates = new ArrayList<>();
+    private final List<String> newSpots = new ArrayList<>();
+    private final long[] entrySeconds;
+    private final long[] exitSeconds;
+    private final long[] feeCents;
+    private final int[] plates;
+    private final int[] spots;
+    private final byte[] types;
+    private final String[] ticketIds;
+    private int rows;
+    private int pendingStringBytes;
+    private long position;
+    private long ticketCount;
+    private ByteBuffer block = ByteBuffer.allocate(1 << 16);
+    private ParkingService attached;
+    private boolean closed;
+
+    private TicketArchive(Path path, FileChannel channel, int blockRows) {
+        this.path = path;
+        this.channel = channel;
+        this.blockRows = blockRows;
+        entrySeconds = new long[blockRows];
+        exitSeconds = new long[blockRows];
+        feeCents = new long[blockRows];
+        plates = new int[blockRows];
+        spots = new int[blockRows];
+        types = new byte[blockRows];
+        ticketIds = new String[blockRows];
+    }
+
+    /**
+     * Opens the archive at the given path for appending, creating it if needed.
+     */
+    public static TicketArchive open(Path path) throws IOException {
+        return open(path, DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * Opens the archive at the given path for appending, creating it if needed. A torn
+     * or corrupt block at the tail, left by a crash in the middle of a write, is cut off
+     * together with everything after it.
+     *
+     * @param blockRows tickets gathered before a block is written
+     */
+    public static TicketArchive open(Path path, int blockRows) throws IOException {
+        if (path == null) {
+            throw new IllegalArgumentException("Path cannot be null");
+        }
+        if (blockRows < 1 || blockRows > 1 << 20) {
+            throw new IllegalArgumentException("Block rows must be between 1 and " + (1 << 20));
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                writeFileHeader(channel);
+                channel.force(true);
+            }
+            TicketArchive archive = new TicketArchive(path, channel, blockRows);
+            Scan scan = scan(channel);
+            for (Block block : scan.blocks) {
+                ByteBuffer dictionary = block.section(DICTIONARY);
+                for (int i = 0; i < block.newPlates; i++) {
+                    archive.plateCodes.put(readString(dictionary), archive.plateCodes.size());
+                }
+                for (int i = 0; i < block.newSpots; i++) {
+                    archive.spotCodes.put(readString(dictionary), archive.spotCodes.size());
+                }
+                archive.ticketCount += block.rows;
+            }
+            if (scan.validBytes < channel.size()) {
+                channel.truncate(scan.validBytes);
+                channel.force(true);
+            }
+            archive.position = scan.validBytes;
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts archiving every ticket the service processes from now on.
+     */
+    public void attach(ParkingService service) {
+        if (service == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        lock.lock();
+        try {
+            if (attached != null) {
+                throw new IllegalStateException("Archive is already attached to a service");
+            }
+            attached = service;
+        } finally {
+            lock.unlock();
+        }
+        service.addEventListener(this);
+    }
+
+    @Override
+    public void onVehicleExited(ParkingTicket ticket, double fee) {
+        try {
+            append(ticket, fee);
+        } catch (IOException | RuntimeException e) {
+            failedAppends.increment();
+        }
+    }
+
+    /**
+     * Adds a processed ticket and the fee charged for it.
+     *
+     * @throws IOException if the block this ticket fills, or a full block an earlier
+     *                     append failed to write, cannot be written; in the latter case
+     *                     the ticket is not added
+     */
+    public void append(ParkingTicket ticket, double fee) throws IOException {
+        if (ticket == null || ticket.getExitTime() == null) {
+            throw new IllegalArgumentException("Only exited tickets can be archived");
+        }
+        if (ticket.getTicketId().length() > MAX_STRING_CHARS
+                || ticket.getVehicle().getLicensePlate().length() > MAX_STRING_CHARS
+                || ticket.getSpot().getSpotId().length() > MAX_STRING_CHARS) {
+            throw new IllegalArgumentException("Ticket " + ticket.getTicketId() + " has an ID too long to archive");
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Archive is closed");
+            }
+            if (rows == blockRows) {
+                writeBlock();
+            }
+            int row = rows;
+            entrySeconds[row] = ticket.getEntryTime().toEpochSecond(ZoneOffset.UTC);
+            exitSeconds[row] = ticket.getExitTime().toEpochSecond(ZoneOffset.UTC);
+            feeCents[row] = Math.round(fee * 100);
+            plates[row] = code(plateCodes, newPlates, ticket.getVehicle().getLicensePlate());
+            spots[row] = code(spotCodes, newSpots, ticket.getSpot().getSpotId());
+            types[row] = (byte) ticket.getVehicle().getType().ordinal();
+            ticketIds[row] = ticket.getTicketId();
+            pendingStringBytes += stringBytes(ticket.getTicketId());
+            rows = row + 1;
+            ticketCount++;
+            if (rows == blockRows) {
+                writeBlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the tickets gathered so far as a block and forces the file to disk.
+     */
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            writeBlock();
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tickets archived, including those not yet written.
+     */
+    public long getTicketCount() {
+        lock.lock();
+        try {
+            return ticketCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of exits the attached archive failed to append or to write out.
+     */
+    public long getFailedAppendCount() {
+        return failedAppends.sum();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Stops archiving the attached service's tickets, writes those gathered so far and
+     * closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        ParkingService service;
+        lock.lock();
+        try {
+            service = attached;
+            attached = null;
+        } finally {
+            lock.unlock();
+        }
+        if (service != null) {
+            service.removeEventListener(this);
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            try {
+                writeBlock();
+                channel.force(false);
+            } finally {
+                closed = true;
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int code(HashMap<String, Integer> codes, List<String> added, String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int assigned = codes.size();
+        codes.put(value, assigned);
+        added.add(value);
+        pendingStringBytes += stringBytes(value);
+        return assigned;
+    }
+
+    /**
+     * Encodes the gathered rows as one block and appends it. Caller holds the lock.
+     */
+    private void writeBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        long bound = BLOCK_HEADER_BYTES + BODY_HEADER_BYTES + (long) rows * MAX_ROW_BYTES + pendingStringBytes;
+        if (bound > MAX_BLOCK_BYTES) {
+            throw new IllegalStateException("Block of " + rows + " tickets is too large to archive");
+        }
+        if (block.capacity() < bound) {
+            block = ByteBuffer.allocate(Integer.highestOneBit((int) bound) << 1);
+        }
+        ByteBuffer out = block.clear();
+        int[] sectionLengths = new int[SECTIONS];
+        out.position(BLOCK_HEADER_BYTES + BODY_HEADER_BYTES);
+
+        int start = out.position();
+        for (String plate : newPlates) {
+            writeString(out, plate);
+        }
+        for (String spot : newSpots) {
+            writeString(out, spot);
+        }
+        start = endSection(out, sectionLengths, DICTIONARY, start);
+        long previous = 0;
+        long firstExit = Long.MAX_VALUE;
+        long lastExit = Long.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            putVarLong(out, zigzag(entrySeconds[i] - previous));
+            previous = entrySeconds[i];
+            firstExit = Math.min(firstExit, exitSeconds[i]);
+            lastExit = Math.max(lastExit, exitSeconds[i]);
+        }
+        start = endSection(out, sectionLengths, ENTRY, start);
+        for (int i = 0; i < rows; i++) {
+            putVarLong(out, Math.max(0, exitSeconds[i] - entrySeconds[i]));
+        }
+        start = endSection(out, sectionLengths, STAY, start);
+        for (int i = 0; i < rows; i++) {
+            putVarLong(out, plates[i]);
+        }
+        start = endSection(out, sectionLengths, PLATE, start);
+        for (int i = 0; i < rows; i++) {
+            putVarLong(out, spots[i]);
+        }
+        start = endSection(out, sectionLengths, SPOT, start);
+        out.put(types, 0, rows);
+        start = endSection(out, sectionLengths, TYPE, start);
+        for (int i = 0; i < rows; i++) {
+            putVarLong(out, zigzag(feeCents[i]));
+        }
+        start = endSection(out, sectionLengths, FEE, start);
+        for (int i = 0; i < rows; i++) {
+            writeString(out, ticketIds[i]);
+        }
+        endSection(out, sectionLengths, TICKET_ID, start);
+
+        int bodyLength = out.position() - BLOCK_HEADER_BYTES;
+        out.putInt(BLOCK_HEADER_BYTES, rows);
+        out.putLong(BLOCK_HEADER_BYTES + Integer.BYTES, firstExit);
+        out.putLong(BLOCK_HEADER_BYTES + Integer.BYTES + Long.BYTES, lastExit);
+        out.putInt(BLOCK_HEADER_BYTES + Integer.BYTES + 2 * Long.BYTES, newPlates.size());
+        out.putInt(BLOCK_HEADER_BYTES + 2 * Integer.BYTES + 2 * Long.BYTES, newSpots.size());
+        for (int section = 0; section < SECTIONS; section++) {
+            out.putInt(BLOCK_HEADER_BYTES + BODY_HEADER_BYTES - (SECTIONS - section) * Integer.BYTES,
+                    sectionLengths[section]);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(out.array(), BLOCK_HEADER_BYTES, bodyLength);
+        out.putInt(0, bodyLength);
+        out.putInt(Integer.BYTES, (int) checksum.getValue());
+        out.flip();
+        long written = position;
+        while (out.hasRemaining()) {
+            written += channel.write(out, written);
+        }
+        position = written;
+
+        newPlates.clear();
+        newSpots.clear();
+        Arrays.fill(ticketIds, 0, rows, null);
+        rows = 0;
+        pendingStringBytes = 0;
+    }
+
+    private static int endSection(ByteBuffer out, int[] sectionLengths, int section, int start) {
+        sectionLengths[section] = out.position() - start;
+        return out.position();
+    }
+
+    /**
+     * Upper bound on a string's encoded length.
+     */
+    private static int stringBytes(String value) {
+        return Short.BYTES + 3 * value.length();
+    }
+}
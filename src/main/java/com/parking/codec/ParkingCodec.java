@@ -0,0 +1,293 @@
+package com.parking.codec;
+
+import com.parking.model.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary encoding of the model classes, shared by persistence, replication and export.
+ * <p>
+ * Values are written into and read from caller-supplied, reusable {@link ByteBuffer}s in
+ * the buffer's byte order. Strings are an unsigned 16-bit UTF-8 length followed by the
+ * bytes, encoded and decoded by hand so nothing is allocated besides the decoded objects
+ * themselves. Enums are single bytes, times are UTC epoch seconds (sub-second precision
+ * is dropped) and spots are 32-bit indexes resolved through a {@link SpotResolver}.
+ * <p>
+ * The encoding carries no per-record version: a container (file, frame, stream) writes
+ * {@link #writeVersion} once up front and checks it with {@link #readVersion} before
+ * decoding. A write that does not fit throws {@link BufferOverflowException} and may leave
+ * a partial value behind; callers reset the position and retry with a larger buffer.
+ */
+public final class ParkingCodec {
+
+    /** Current encoding version, bumped on any incompatible change. */
+    public static final byte VERSION = 1;
+
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final ReservationStatus[] RESERVATION_STATUSES = ReservationStatus.values();
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final byte TICKET_EXITED = 1;
+    private static final byte TICKET_PROCESSED = 2;
+    /** Set in a reservation's status byte once its vehicle has checked in. */
+    private static final int RESERVATION_CHECKED_IN = 0x40;
+    private static final int NO_SPOT = -1;
+    private static final ThreadLocal<char[]> DECODE_BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private final SpotResolver spots;
+
+    public ParkingCodec(SpotResolver spots) {
+        if (spots == null) {
+            throw new IllegalArgumentException("Spot resolver cannot be null");
+        }
+        this.spots = spots;
+    }
+
+    public static void writeVersion(ByteBuffer buffer) {
+        buffer.put(VERSION);
+    }
+
+    /**
+     * @return the version read
+     * @throws IllegalArgumentException if this codec cannot decode that version
+     */
+    public static byte readVersion(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported codec version " + version);
+        }
+        return version;
+    }
+
+    public static void writeString(ByteBuffer buffer, String value) {
+        int length = utf8Length(value);
+        if (length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long to encode: " + length + " bytes");
+        }
+        if (buffer.remaining() < Short.BYTES + length) {
+            throw new BufferOverflowException();
+        }
+        buffer.putShort((short) length);
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not valid UTF-8
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        char[] chars = DECODE_BUFFER.get();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            DECODE_BUFFER.set(chars);
+        }
+        int count = 0;
+        int end = buffer.position() + length;
+        while (buffer.position() < end) {
+            int b = buffer.get();
+            if (b >= 0) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) ((b & 0x1F) << 6 | continuation(buffer));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) ((b & 0x0F) << 12 | continuation(buffer) << 6 | continuation(buffer));
+            } else if ((b & 0xF8) == 0xF0) {
+                int codePoint = (b & 0x07) << 18 | continuation(buffer) << 12
+                        | continuation(buffer) << 6 | continuation(buffer);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                throw new IllegalArgumentException("Malformed UTF-8 string");
+            }
+        }
+        if (buffer.position() != end) {
+            throw new IllegalArgumentException("Malformed UTF-8 string");
+        }
+        return new String(chars, 0, count);
+    }
+
+    public static void writeTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    public static LocalDateTime readTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+    }
+
+    public static void writeVehicleType(ByteBuffer buffer, VehicleType type) {
+        buffer.put((byte) type.ordinal());
+    }
+
+    public static VehicleType readVehicleType(ByteBuffer buffer) {
+        int code = buffer.get();
+        if (code < 0 || code >= VEHICLE_TYPES.length) {
+            throw new IllegalArgumentException("Unknown vehicle type code " + code);
+        }
+        return VEHICLE_TYPES[code];
+    }
+
+    public static void writeReservationStatus(ByteBuffer buffer, ReservationStatus status) {
+        buffer.put((byte) status.ordinal());
+    }
+
+    public static ReservationStatus readReservationStatus(ByteBuffer buffer) {
+        int code = buffer.get();
+        if (code < 0 || code >= RESERVATION_STATUSES.length) {
+            throw new IllegalArgumentException("Unknown reservation status code " + code);
+        }
+        return RESERVATION_STATUSES[code];
+    }
+
+    public static void writeVehicle(ByteBuffer buffer, Vehicle vehicle) {
+        writeString(buffer, vehicle.getLicensePlate());
+        writeVehicleType(buffer, vehicle.getType());
+    }
+
+    public static Vehicle readVehicle(ByteBuffer buffer) {
+        String licensePlate = readString(buffer);
+        return new Vehicle(licensePlate, readVehicleType(buffer));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the resolver does not know the spot
+     */
+    public void writeSpot(ByteBuffer buffer, ParkingSpot spot) {
+        int index = spots.indexOf(spot);
+        if (index < 0) {
+            throw new IllegalArgumentException("Parking spot " + spot.getSpotId() + " has no index");
+        }
+        buffer.putInt(index);
+    }
+
+    public ParkingSpot readSpot(ByteBuffer buffer) {
+        return spots.spotAt(buffer.getInt());
+    }
+
+    /**
+     * Layout: id, vehicle, spot, entry time, flags, then the exit time if the ticket has one.
+     */
+    public void writeTicket(ByteBuffer buffer, ParkingTicket ticket) {
+        writeString(buffer, ticket.getTicketId());
+        writeVehicle(buffer, ticket.getVehicle());
+        writeSpot(buffer, ticket.getSpot());
+        writeTime(buffer, ticket.getEntryTime());
+        LocalDateTime exitTime = ticket.getExitTime();
+        byte flags = 0;
+        if (exitTime != null) {
+            flags |= TICKET_EXITED;
+        }
+        if (ticket.isProcessed()) {
+            flags |= TICKET_PROCESSED;
+        }
+        buffer.put(flags);
+        if (exitTime != null) {
+            writeTime(buffer, exitTime);
+        }
+    }
+
+    public ParkingTicket readTicket(ByteBuffer buffer) {
+        String ticketId = readString(buffer);
+        Vehicle vehicle = readVehicle(buffer);
+        ParkingSpot spot = readSpot(buffer);
+        ParkingTicket ticket = new ParkingTicket(ticketId, vehicle, spot, readTime(buffer));
+        byte flags = buffer.get();
+        if ((flags & TICKET_EXITED) != 0) {
+            ticket.setExitTime(readTime(buffer));
+        }
+        if ((flags & TICKET_PROCESSED) != 0) {
+            ticket.markAsProcessed();
+        }
+        return ticket;
+    }
+
+    /**
+     * Layout: id, user, vehicle, start, end, spot (-1 if unassigned), paid amount, then
+     * the status with the checked-in flag in the same byte.
+     */
+    public void writeReservation(ByteBuffer buffer, Reservation reservation) {
+        writeString(buffer, reservation.getReservationId());
+        writeString(buffer, reservation.getUserId());
+        writeVehicle(buffer, reservation.getVehicle());
+        writeTime(buffer, reservation.getStartTime());
+        writeTime(buffer, reservation.getEndTime());
+        ParkingSpot spot = reservation.getAssignedSpot();
+        if (spot == null) {
+            buffer.putInt(NO_SPOT);
+        } else {
+            writeSpot(buffer, spot);
+        }
+        buffer.putDouble(reservation.getPaidAmount());
+        int status = reservation.getStatus().ordinal();
+        buffer.put((byte) (reservation.isCheckedIn() ? status | RESERVATION_CHECKED_IN : status));
+    }
+
+    public Reservation readReservation(ByteBuffer buffer) {
+        String reservationId = readString(buffer);
+        String userId = readString(buffer);
+        Vehicle vehicle = readVehicle(buffer);
+        LocalDateTime startTime = readTime(buffer);
+        LocalDateTime endTime = readTime(buffer);
+        Reservation reservation = new Reservation(reservationId, userId, vehicle, startTime, endTime);
+        int spotIndex = buffer.getInt();
+        if (spotIndex != NO_SPOT) {
+            reservation.setAssignedSpot(spots.spotAt(spotIndex));
+        }
+        reservation.setPaidAmount(buffer.getDouble());
+        int status = buffer.get();
+        if ((status & RESERVATION_CHECKED_IN) != 0) {
+            reservation.checkIn();
+            status &= ~RESERVATION_CHECKED_IN;
+        }
+        if (status < 0 || status >= RESERVATION_STATUSES.length) {
+            throw new IllegalArgumentException("Unknown reservation status code " + status);
+        }
+        reservation.setStatus(RESERVATION_STATUSES[status]);
+        return reservation;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int continuation(ByteBuffer buffer) {
+        int b = buffer.get();
+        if ((b & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("Malformed UTF-8 string");
+        }
+        return b & 0x3F;
+    }
+}
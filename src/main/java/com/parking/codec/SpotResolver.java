@@ -0,0 +1,21 @@
+package com.parking.codec;
+
+import com.parking.model.ParkingSpot;
+
+/**
+ * Maps parking spots to the dense indexes {@link ParkingCodec} writes in their place.
+ * Both sides of an exchange must resolve the same index to the same spot, e.g. a spot
+ * table sent ahead of the records or a service whose spots were registered in the same order.
+ */
+public interface SpotResolver {
+
+    /**
+     * @return the spot's index, or -1 if it is unknown
+     */
+    int indexOf(ParkingSpot spot);
+
+    /**
+     * @throws IllegalArgumentException if no spot has the index
+     */
+    ParkingSpot spotAt(int index);
+}
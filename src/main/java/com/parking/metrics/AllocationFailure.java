@@ -0,0 +1,11 @@
+package com.parking.metrics;
+
+/**
+ * Why a vehicle could not be given a spot, counted separately by {@link ParkingMetrics}.
+ */
+public enum AllocationFailure {
+    /** No free spot fits the vehicle ("No available parking spots"). */
+    NO_SPOT,
+    /** The plate already has an open ticket. */
+    DUPLICATE_VEHICLE
+}
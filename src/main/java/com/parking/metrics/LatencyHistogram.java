@@ -0,0 +1,144 @@
+package com.parking.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds with log-linear buckets, in the
+ * manner of HdrHistogram: values below {@value #LINEAR_BUCKETS} get a bucket each, and
+ * every power of two above is split into {@value #SUB_BUCKETS} equal buckets, so a
+ * reported percentile is within about 3% of the recorded value across the whole range.
+ * <p>
+ * Recording is two array updates, a bucket and the running sum, and never allocates;
+ * the count is not kept separately but added up from the buckets when read, since
+ * reads are rare pulls and recording is on every call. Threads are spread over a few
+ * stripes of counters by thread ID so gates recording at the same time rarely write the
+ * same cache line; reads add the stripes up, and may see a recording in its bucket
+ * before the sum.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+    /** Powers of two from 2^6 up to 2^62 each have their own run of sub-buckets. */
+    private static final int BUCKETS = LINEAR_BUCKETS + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int STRIPE_LENGTH = BUCKETS + 2;
+    private static final int STRIPES = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+        }
+    }
+
+    /**
+     * Records one latency; negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        stripe.getAndIncrement(bucketOf(value));
+        stripe.getAndAdd(SUM, value);
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                count += stripe.get(i);
+            }
+        }
+        return count;
+    }
+
+    public long getMaxNanos() {
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return max;
+    }
+
+    public double getMeanNanos() {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            sum += stripe.get(SUM);
+        }
+        return (double) sum / count;
+    }
+
+    /**
+     * Returns the latency at or below which the given percentage of recordings fall,
+     * reported as the highest value of its bucket, or 0 if nothing is recorded.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = stripe.get(i);
+                counts[i] += bucketCount;
+                count += bucketCount;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Takes the current count, mean, percentiles and maximum together with the given
+     * number of failed calls.
+     */
+    OperationStats snapshot(long failures) {
+        return new OperationStats(getCount(), failures, getMeanNanos(), getValueAtPercentile(50),
+                getValueAtPercentile(99), getValueAtPercentile(99.9), getMaxNanos());
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS
+                + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int run = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = run + 1;
+        long highest = ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
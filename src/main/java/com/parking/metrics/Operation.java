@@ -0,0 +1,16 @@
+package com.parking.metrics;
+
+/**
+ * Hot-path operations whose calls and latency are recorded by {@link ParkingMetrics}.
+ * Batch calls are recorded once per batch under their own operation, so their latency
+ * does not skew that of single calls; a batch counts as failed if any of its items did.
+ */
+public enum Operation {
+    PARK,
+    EXIT,
+    RESERVE,
+    FIND_SPOT,
+    CALCULATE_FEE,
+    PARK_BATCH,
+    EXIT_BATCH
+}
@@ -0,0 +1,70 @@
+package com.parking.metrics;
+
+/**
+ * Point-in-time figures for one {@link Operation}. Latencies are in nanoseconds.
+ */
+public final class OperationStats {
+
+    private final long calls;
+    private final long failures;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public OperationStats(long calls, long failures, double meanNanos, long p50Nanos, long p99Nanos,
+                          long p999Nanos, long maxNanos) {
+        this.calls = calls;
+        this.failures = failures;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * Calls that ended in an exception or a failed result; included in {@link #getCalls()}.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationStats{" +
+                "calls=" + calls +
+                ", failures=" + failures +
+                ", meanNanos=" + meanNanos +
+                ", p50Nanos=" + p50Nanos +
+                ", p99Nanos=" + p99Nanos +
+                ", p999Nanos=" + p999Nanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
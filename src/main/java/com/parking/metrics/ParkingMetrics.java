@@ -0,0 +1,149 @@
+package com.parking.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Always-on counters and latency histograms for the hot path of a parking service.
+ * Nothing is pushed anywhere: callers pull figures through the getters, or scrape
+ * them over JMX once {@link #registerMBean registered}. Recording never allocates.
+ */
+public final class ParkingMetrics implements ParkingMetricsMXBean {
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final LongAdder[] failures = new LongAdder[OPERATIONS.length];
+    private final LongAdder[] allocationFailures = new LongAdder[AllocationFailure.values().length];
+    private final LongSupplier lockContention;
+
+    /**
+     * @param lockContention reads how often a thread has had to wait for a lock or retry
+     *                       a lost compare-and-set in the instrumented service
+     */
+    public ParkingMetrics(LongSupplier lockContention) {
+        if (lockContention == null) {
+            throw new IllegalArgumentException("Lock contention source cannot be null");
+        }
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            failures[i] = new LongAdder();
+        }
+        for (int i = 0; i < allocationFailures.length; i++) {
+            allocationFailures[i] = new LongAdder();
+        }
+        this.lockContention = lockContention;
+    }
+
+    /**
+     * Records one call that started at the given {@link System#nanoTime()} reading and
+     * has just ended.
+     */
+    public void record(Operation operation, long startNanos, boolean succeeded) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+        if (!succeeded) {
+            failures[operation.ordinal()].increment();
+        }
+    }
+
+    public void recordFailure(AllocationFailure reason) {
+        allocationFailures[reason.ordinal()].increment();
+    }
+
+    public OperationStats getStats(Operation operation) {
+        return latencies[operation.ordinal()].snapshot(failures[operation.ordinal()].sum());
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    public long getAllocationFailures(AllocationFailure reason) {
+        return allocationFailures[reason.ordinal()].sum();
+    }
+
+    @Override
+    public OperationStats getPark() {
+        return getStats(Operation.PARK);
+    }
+
+    @Override
+    public OperationStats getExit() {
+        return getStats(Operation.EXIT);
+    }
+
+    @Override
+    public OperationStats getReserve() {
+        return getStats(Operation.RESERVE);
+    }
+
+    @Override
+    public OperationStats getFindSpot() {
+        return getStats(Operation.FIND_SPOT);
+    }
+
+    @Override
+    public OperationStats getCalculateFee() {
+        return getStats(Operation.CALCULATE_FEE);
+    }
+
+    @Override
+    public OperationStats getParkBatch() {
+        return getStats(Operation.PARK_BATCH);
+    }
+
+    @Override
+    public OperationStats getExitBatch() {
+        return getStats(Operation.EXIT_BATCH);
+    }
+
+    @Override
+    public long getNoSpotFailures() {
+        return getAllocationFailures(AllocationFailure.NO_SPOT);
+    }
+
+    @Override
+    public long getDuplicateVehicleFailures() {
+        return getAllocationFailures(AllocationFailure.DUPLICATE_VEHICLE);
+    }
+
+    @Override
+    public long getLockContention() {
+        return lockContention.getAsLong();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * {@code com.parking:type=ParkingMetrics,name=<name>}.
+     *
+     * @return the name registered, for {@link #unregisterMBean}
+     * @throws IllegalStateException if the name is taken or cannot be registered
+     */
+    public ObjectName registerMBean(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("MBean name cannot be null or empty");
+        }
+        try {
+            ObjectName objectName = ObjectName.getInstance("com.parking:type=ParkingMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register parking metrics as " + name, e);
+        }
+    }
+
+    public static void unregisterMBean(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.parking.metrics;
+
+/**
+ * JMX view of {@link ParkingMetrics}; each operation is exposed as composite data.
+ */
+public interface ParkingMetricsMXBean {
+
+    OperationStats getPark();
+
+    OperationStats getExit();
+
+    OperationStats getReserve();
+
+    OperationStats getFindSpot();
+
+    OperationStats getCalculateFee();
+
+    OperationStats getParkBatch();
+
+    OperationStats getExitBatch();
+
+    long getNoSpotFailures();
+
+    long getDuplicateVehicleFailures();
+
+    long getLockContention();
+}
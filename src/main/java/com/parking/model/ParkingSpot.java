@@ -1,26 +1,48 @@
 package com.parking.model;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Represents a parking spot with a unique identifier and occupancy status.
- * Each spot can hold one vehicle at a time.
+ * Each spot can hold one vehicle at a time; occupancy is claimed atomically
+ * so concurrent allocators can never double-book the same spot.
+ * A spot's size class is the largest {@link VehicleType#getSize() vehicle size} it fits.
  */
 public class ParkingSpot {
+    /** Largest size class, fitting every vehicle type. */
+    public static final int MAX_SIZE = 4;
+
     private final String spotId;
-    private boolean occupied;
-    private Vehicle parkedVehicle;
+    private final int size;
+    private final AtomicBoolean occupied;
+    private volatile Vehicle parkedVehicle;
 
     /**
-     * Creates a new ParkingSpot with the given ID.
+     * Creates a new ParkingSpot with the given ID that fits every vehicle type.
      *
      * @param spotId unique identifier for the parking spot (e.g., "A1", "B2")
      * @throws IllegalArgumentException if spotId is null or empty
      */
     public ParkingSpot(String spotId) {
+        this(spotId, MAX_SIZE);
+    }
+
+    /**
+     * Creates a new ParkingSpot with the given ID and size class.
+     *
+     * @param size largest vehicle size the spot fits, 1 (motorcycle) to {@link #MAX_SIZE} (bus)
+     * @throws IllegalArgumentException if spotId is null or empty or the size is out of range
+     */
+    public ParkingSpot(String spotId, int size) {
         if (spotId == null || spotId.trim().isEmpty()) {
             throw new IllegalArgumentException("Spot ID cannot be null or empty");
         }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Spot size must be between 1 and " + MAX_SIZE);
+        }
         this.spotId = spotId;
-        this.occupied = false;
+        this.size = size;
+        this.occupied = new AtomicBoolean(false);
         this.parkedVehicle = null;
     }
 
@@ -28,12 +50,20 @@ public class ParkingSpot {
         return spotId;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public boolean fits(VehicleType vehicleType) {
+        return vehicleType.getSize() <= size;
+    }
+
     public boolean isOccupied() {
-        return occupied;
+        return occupied.get();
     }
 
     public void setOccupied(boolean occupied) {
-        this.occupied = occupied;
+        this.occupied.set(occupied);
     }
 
     public Vehicle getParkedVehicle() {
@@ -51,11 +81,23 @@ public class ParkingSpot {
      * @throws IllegalStateException if the spot is already occupied
      */
     public void parkVehicle(Vehicle vehicle) {
-        if (occupied) {
+        if (!tryParkVehicle(vehicle)) {
             throw new IllegalStateException("Spot is already occupied");
         }
+    }
+
+    /**
+     * Atomically claims this spot for a vehicle.
+     *
+     * @param vehicle the vehicle to park
+     * @return true if the spot was free and is now held by the vehicle, false if it was already occupied
+     */
+    public boolean tryParkVehicle(Vehicle vehicle) {
+        if (!occupied.compareAndSet(false, true)) {
+            return false;
+        }
         this.parkedVehicle = vehicle;
-        this.occupied = true;
+        return true;
     }
 
     /**
@@ -63,14 +105,15 @@ public class ParkingSpot {
      */
     public void releaseSpot() {
         this.parkedVehicle = null;
-        this.occupied = false;
+        this.occupied.set(false);
     }
 
     @Override
     public String toString() {
         return "ParkingSpot{" +
                 "spotId='" + spotId + '\'' +
-                ", occupied=" + occupied +
+                ", size=" + size +
+                ", occupied=" + occupied.get() +
                 ", parkedVehicle=" + parkedVehicle +
                 '}';
     }
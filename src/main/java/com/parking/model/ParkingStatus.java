@@ -0,0 +1,67 @@
+package com.parking.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Point-in-time view of lot occupancy and booking counts.
+ * Values are read from live counters, so under concurrent traffic each field
+ * is individually accurate but the fields are not taken atomically together.
+ */
+public final class ParkingStatus {
+    private final long totalSpots;
+    private final long occupiedSpots;
+    private final long activeTickets;
+    private final long activeReservations;
+
+    public ParkingStatus(long totalSpots, long occupiedSpots, long activeTickets, long activeReservations) {
+        this.totalSpots = totalSpots;
+        this.occupiedSpots = occupiedSpots;
+        this.activeTickets = activeTickets;
+        this.activeReservations = activeReservations;
+    }
+
+    public long getTotalSpots() {
+        return totalSpots;
+    }
+
+    public long getOccupiedSpots() {
+        return occupiedSpots;
+    }
+
+    public long getAvailableSpots() {
+        return totalSpots - occupiedSpots;
+    }
+
+    public long getActiveTickets() {
+        return activeTickets;
+    }
+
+    public long getActiveReservations() {
+        return activeReservations;
+    }
+
+    /**
+     * Returns the status in the map layout used by {@code ParkingService.getParkingStatus()}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("totalSpots", totalSpots);
+        status.put("occupiedSpots", occupiedSpots);
+        status.put("availableSpots", getAvailableSpots());
+        status.put("activeTickets", activeTickets);
+        status.put("activeReservations", activeReservations);
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingStatus{" +
+                "totalSpots=" + totalSpots +
+                ", occupiedSpots=" + occupiedSpots +
+                ", availableSpots=" + getAvailableSpots() +
+                ", activeTickets=" + activeTickets +
+                ", activeReservations=" + activeReservations +
+                '}';
+    }
+}
@@ -2,14 +2,15 @@ package com.parking.model;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ParkingTicket {
     private final String ticketId;
     private final Vehicle vehicle;
     private final ParkingSpot spot;
     private final LocalDateTime entryTime; // LocalDateTime currentTime = LocalDateTime.now();
-    private LocalDateTime exitTime;
-    private boolean processed;
+    private volatile LocalDateTime exitTime;
+    private final AtomicBoolean processed;
 
     public ParkingTicket(String ticketId, Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime) {
         if (ticketId == null || ticketId.trim().isEmpty()) {
@@ -28,7 +29,7 @@ public class ParkingTicket {
         this.vehicle = vehicle;
         this.spot = spot;
         this.entryTime = entryTime;
-        this.processed = false;
+        this.processed = new AtomicBoolean(false);
     }
 
     public String getTicketId() {
@@ -56,11 +57,28 @@ public class ParkingTicket {
     }
 
     public boolean isProcessed() {
-        return processed;
+        return processed.get();
     }
 
     public void markAsProcessed() {
-        this.processed = true;
+        this.processed.set(true);
+    }
+
+    /**
+     * Atomically marks the ticket as processed.
+     *
+     * @return true if this call processed the ticket, false if it had already been processed
+     */
+    public boolean tryMarkAsProcessed() {
+        return processed.compareAndSet(false, true);
+    }
+
+    /**
+     * Clears the processed mark and the exit time, undoing an exit that could not be recorded.
+     */
+    public void reopen() {
+        this.exitTime = null;
+        this.processed.set(false);
     }
 
     @Override
@@ -84,7 +102,7 @@ public class ParkingTicket {
                 ", spot=" + spot +
                 ", entryTime=" + entryTime +
                 ", exitTime=" + exitTime +
-                ", processed=" + processed +
+                ", processed=" + processed.get() +
                 '}';
     }
 }
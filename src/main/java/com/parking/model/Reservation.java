@@ -2,16 +2,24 @@ package com.parking.model;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Reservation {
+    private static final int ARRIVAL_PENDING = 0;
+    private static final int ARRIVAL_CHECKED_IN = 1;
+    private static final int ARRIVAL_NO_SHOW = 2;
+
     private final String reservationId;
     private final String userId;
     private final Vehicle vehicle;
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
-    private ParkingSpot assignedSpot;
-    private ReservationStatus status;
-    private double paidAmount;
+    private volatile ParkingSpot assignedSpot;
+    private final AtomicReference<ReservationStatus> status;
+    private volatile double paidAmount;
+    /** Whether the reserved vehicle showed up; decided once, by check-in or by writing it off. */
+    private final AtomicInteger arrival = new AtomicInteger(ARRIVAL_PENDING);
 
     public Reservation(String reservationId, String userId, Vehicle vehicle,
                        LocalDateTime startTime, LocalDateTime endTime) {
@@ -35,7 +43,7 @@ public class Reservation {
         this.vehicle = vehicle;
         this.startTime = startTime;
         this.endTime = endTime;
-        this.status = ReservationStatus.PENDING;
+        this.status = new AtomicReference<>(ReservationStatus.PENDING);
     }
 
     public String getReservationId() {
@@ -67,11 +75,49 @@ public class Reservation {
     }
 
     public ReservationStatus getStatus() {
-        return status;
+        return status.get();
     }
 
     public void setStatus(ReservationStatus status) {
-        this.status = status;
+        this.status.set(status);
+    }
+
+    /**
+     * Atomically moves the reservation from one status to another.
+     *
+     * @return true if the reservation was in the expected status and has been transitioned
+     */
+    public boolean transitionStatus(ReservationStatus expected, ReservationStatus newStatus) {
+        return status.compareAndSet(expected, newStatus);
+    }
+
+    public boolean isCheckedIn() {
+        return arrival.get() == ARRIVAL_CHECKED_IN;
+    }
+
+    /**
+     * Records that the reserved vehicle has arrived.
+     *
+     * @return false if arrival was already checked in or written off as a no-show
+     */
+    public boolean checkIn() {
+        return arrival.compareAndSet(ARRIVAL_PENDING, ARRIVAL_CHECKED_IN);
+    }
+
+    /**
+     * Writes the reservation off as a no-show, so it can no longer be checked in.
+     *
+     * @return false if the vehicle has already checked in
+     */
+    public boolean markNoShow() {
+        return arrival.compareAndSet(ARRIVAL_PENDING, ARRIVAL_NO_SHOW) || arrival.get() == ARRIVAL_NO_SHOW;
+    }
+
+    /**
+     * Returns the arrival to pending, undoing a check-in or no-show that could not be recorded.
+     */
+    public void resetArrival() {
+        arrival.set(ARRIVAL_PENDING);
     }
 
     public double getPaidAmount() {
@@ -88,7 +134,7 @@ public class Reservation {
     }
 
     public boolean isActive(LocalDateTime currentTime) {
-        return status == ReservationStatus.CONFIRMED &&
+        return status.get() == ReservationStatus.CONFIRMED &&
                 !currentTime.isBefore(startTime) &&
                 currentTime.isBefore(endTime);
     }
@@ -119,8 +165,9 @@ public class Reservation {
                 ", startTime=" + startTime +
                 ", endTime=" + endTime +
                 ", assignedSpot=" + assignedSpot +
-                ", status=" + status +
+                ", status=" + status.get() +
                 ", paidAmount=" + paidAmount +
+                ", checkedIn=" + isCheckedIn() +
                 '}';
     }
 }
\ No newline at end of file
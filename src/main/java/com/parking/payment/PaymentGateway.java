@@ -0,0 +1,17 @@
+package com.parking.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Charges parking fees. Implementations answer asynchronously, so a caller waiting on a
+ * payment holds no thread while the provider decides.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Charges the amount against the given reference, such as a ticket or reservation ID.
+     * A declined payment completes the future exceptionally with an
+     * {@link IllegalStateException}.
+     */
+    CompletableFuture<PaymentReceipt> charge(String reference, double amount);
+}
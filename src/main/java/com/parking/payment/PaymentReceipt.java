@@ -0,0 +1,46 @@
+package com.parking.payment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proof of an approved payment.
+ */
+public final class PaymentReceipt {
+    private final String transactionId;
+    private final String reference;
+    private final double amount;
+    private final LocalDateTime paidAt;
+
+    public PaymentReceipt(String transactionId, String reference, double amount, LocalDateTime paidAt) {
+        this.transactionId = transactionId;
+        this.reference = reference;
+        this.amount = amount;
+        this.paidAt = paidAt;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getPaidAt() {
+        return paidAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentReceipt{" +
+                "transactionId='" + transactionId + '\'' +
+                ", reference='" + reference + '\'' +
+                ", amount=" + amount +
+                ", paidAt=" + paidAt +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.parking.payment;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for a card provider. Each charge is approved or declined after a fixed
+ * latency; the wait is a timer, not a sleeping thread, so thousands of payments can be
+ * pending at once.
+ */
+public final class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final Executor delay;
+    private final double declineRate;
+    private final AtomicLong transactions = new AtomicLong();
+
+    /**
+     * @param latency     time the provider takes to answer
+     * @param declineRate fraction of charges declined at random, 0 to 1
+     * @param executor    runs the answers and the stages that callers chain onto them
+     */
+    public SimulatedPaymentGateway(Duration latency, double declineRate, Executor executor) {
+        if (latency == null || latency.isNegative()) {
+            throw new IllegalArgumentException("Latency cannot be null or negative");
+        }
+        if (!(declineRate >= 0 && declineRate <= 1)) {
+            throw new IllegalArgumentException("Decline rate must be between 0 and 1");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.delay = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS, executor);
+        this.declineRate = declineRate;
+    }
+
+    /**
+     * Creates a gateway that approves every charge after the given latency, answering on
+     * the common pool.
+     */
+    public SimulatedPaymentGateway(Duration latency) {
+        this(latency, 0, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public CompletableFuture<PaymentReceipt> charge(String reference, double amount) {
+        if (reference == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Payment reference cannot be null"));
+        }
+        if (!(amount >= 0)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid payment amount: " + amount));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (declineRate > 0 && ThreadLocalRandom.current().nextDouble() < declineRate) {
+                throw new IllegalStateException("Payment declined for " + reference);
+            }
+            return new PaymentReceipt("PAY-" + transactions.incrementAndGet(), reference, amount, LocalDateTime.now());
+        }, delay);
+    }
+}
@@ -0,0 +1,180 @@
+package com.parking.persistence;
+
+import com.parking.service.ParkingService;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable home of one {@link ParkingService}: a snapshot file plus the journal of
+ * changes made since it was taken, both kept in one directory.
+ * <p>
+ * Snapshots are fuzzy checkpoints. The journal's current LSN is recorded first and the
+ * live maps are then copied while traffic carries on, so a snapshot holds every change
+ * up to that LSN and possibly some later ones. The LSN is read while parks and exits are
+ * briefly held off and those under way finish journaling, so no exit at or before it
+ * can belong to a park journaled after it; replay would otherwise bring the ticket back.
+ * Recovery loads the snapshot and replays the journal records after its LSN on top;
+ * replay is idempotent, so changes present in both are harmless. Once the snapshot is
+ * safely on disk the journal prefix it covers is dropped, which keeps restart time
+ * proportional to the lot size rather than its history.
+ */
+public final class ParkingStore implements Closeable {
+
+    static final String SNAPSHOT_FILE = "parking.snapshot";
+    static final String JOURNAL_FILE = "parking.journal";
+
+    private final Path snapshotPath;
+    private final WriteAheadJournal journal;
+    private final List<Flushable> flushedBeforeTruncation = new CopyOnWriteArrayList<>();
+    private volatile ParkingService service;
+    private ScheduledExecutorService scheduler;
+    private volatile IOException lastSnapshotFailure;
+    private long lastSnapshotLsn = -1;
+
+    private ParkingStore(Path directory, WriteAheadJournal journal) {
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.journal = journal;
+    }
+
+    /**
+     * Opens the store in the given directory, creating the directory if needed.
+     */
+    public static ParkingStore open(Path directory, WriteAheadJournal.Durability durability) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        Files.createDirectories(directory);
+        return new ParkingStore(directory, WriteAheadJournal.open(directory.resolve(JOURNAL_FILE), durability));
+    }
+
+    /**
+     * Restores the persisted state into a freshly created service and journals every
+     * further change it makes.
+     */
+    public synchronized void recover(ParkingService service) throws IOException {
+        if (this.service != null) {
+            throw new IllegalStateException("Store is already attached to a service");
+        }
+        RecoveredState state = new RecoveredState();
+        if (Files.exists(snapshotPath)) {
+            SnapshotFile.read(snapshotPath, state);
+            lastSnapshotLsn = state.lsn();
+        }
+        journal.replay(state);
+        state.restoreInto(service);
+        journal.bind(service);
+        this.service = service;
+    }
+
+    /**
+     * Writes a snapshot of the service and truncates the journal behind it.
+     * Does nothing if no change has been journaled since the previous snapshot.
+     *
+     * @return the journal LSN the snapshot covers
+     */
+    public synchronized long snapshot() throws IOException {
+        if (service == null) {
+            throw new IllegalStateException("Store has not recovered a service yet");
+        }
+        long lsn = service.whileQuiescent(journal::checkpoint);
+        if (lsn == lastSnapshotLsn) {
+            return lsn;
+        }
+        SnapshotFile.write(snapshotPath, lsn, service.getParkingSpots(),
+                service.getActiveTickets(), service.getAllReservations());
+        for (Flushable stage : flushedBeforeTruncation) {
+            stage.flush();
+        }
+        lastSnapshotLsn = lsn;
+        journal.truncateThrough(lsn);
+        return lsn;
+    }
+
+    /**
+     * Makes every snapshot flush the stage after writing the snapshot and before
+     * truncating the journal. Register stages that keep what the snapshot leaves out,
+     * such as an archive of processed tickets, so the journal records they were built
+     * from are only dropped once the stage has them on disk. If a flush fails, the
+     * snapshot fails and the journal is kept.
+     */
+    public void flushBeforeTruncation(Flushable stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Stage cannot be null");
+        }
+        flushedBeforeTruncation.add(stage);
+    }
+
+    /**
+     * Takes a snapshot every {@code interval} on a background thread. A failed snapshot
+     * leaves the previous one and the full journal in place and is retried next time.
+     */
+    public synchronized void scheduleSnapshots(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        if (scheduler != null) {
+            throw new IllegalStateException("Snapshots are already scheduled");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parking-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+                lastSnapshotFailure = null;
+            } catch (IOException e) {
+                lastSnapshotFailure = e;
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the error of the latest scheduled snapshot, or null if it succeeded.
+     */
+    public IOException getLastSnapshotFailure() {
+        return lastSnapshotFailure;
+    }
+
+    public WriteAheadJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Stops scheduled snapshots and closes the journal; the service stays usable but
+     * its further changes are no longer persisted.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ParkingService attached = service;
+        if (attached != null) {
+            attached.removeEventListener(journal);
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.parking.persistence;
+
+import com.parking.codec.SpotResolver;
+import com.parking.model.*;
+import com.parking.service.ParkingService;
+
+import java.util.*;
+
+/**
+ * State accumulated from a snapshot and the journal records that follow it, before it
+ * is installed into a service. Applying a change is idempotent and tolerant of changes
+ * arriving out of order, because concurrent threads may journal related changes out of
+ * order and a snapshot may already contain changes that are also in the journal.
+ * Spots keep the indexes they had in the original service.
+ */
+final class RecoveredState implements SpotResolver {
+
+    private final List<ParkingSpot> spots = new ArrayList<>();
+    private final Map<String, Integer> spotIndexes = new HashMap<>();
+    private final Map<String, ParkingTicket> tickets = new LinkedHashMap<>();
+    private final Set<String> exitedTicketIds = new HashSet<>();
+    private final Map<String, Reservation> reservations = new LinkedHashMap<>();
+    private final Map<String, ReservationStatus> reservationStatuses = new HashMap<>();
+    private final Set<String> checkedInReservationIds = new HashSet<>();
+    private long lsn;
+
+    /**
+     * LSN of the last change already reflected in this state; journal records up to it are skipped.
+     */
+    long lsn() {
+        return lsn;
+    }
+
+    void setLsn(long lsn) {
+        this.lsn = lsn;
+    }
+
+    /**
+     * Records the spot registered with the given index; repeating a known spot is a no-op.
+     *
+     * @throws IllegalStateException if the index already belongs to a different spot
+     */
+    void spotAdded(int index, String spotId, int size) {
+        while (spots.size() <= index) {
+            spots.add(null);
+        }
+        ParkingSpot existing = spots.get(index);
+        if (existing == null) {
+            spots.set(index, new ParkingSpot(spotId, size));
+            spotIndexes.put(spotId, index);
+        } else if (!existing.getSpotId().equals(spotId)) {
+            throw new IllegalStateException("Spot index " + index + " belongs to both "
+                    + existing.getSpotId() + " and " + spotId);
+        }
+    }
+
+    @Override
+    public int indexOf(ParkingSpot spot) {
+        Integer index = spotIndexes.get(spot.getSpotId());
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public ParkingSpot spotAt(int index) {
+        ParkingSpot spot = index >= 0 && index < spots.size() ? spots.get(index) : null;
+        if (spot == null) {
+            throw new IllegalArgumentException("Invalid spot index: " + index);
+        }
+        return spot;
+    }
+
+    void vehicleParked(ParkingTicket ticket) {
+        if (!exitedTicketIds.remove(ticket.getTicketId())) {
+            tickets.put(ticket.getTicketId(), ticket);
+        }
+    }
+
+    void vehicleExited(String ticketId) {
+        if (tickets.remove(ticketId) == null) {
+            exitedTicketIds.add(ticketId);
+        }
+    }
+
+    void reservationCreated(Reservation reservation) {
+        reservations.putIfAbsent(reservation.getReservationId(), reservation);
+        advance(reservation.getReservationId(), reservation.getStatus());
+    }
+
+    /**
+     * Keeps the furthest status seen; a reservation only ever moves forward.
+     */
+    void advance(String reservationId, ReservationStatus status) {
+        reservationStatuses.merge(reservationId, status,
+                (current, next) -> next.compareTo(current) > 0 ? next : current);
+    }
+
+    void checkedIn(String reservationId) {
+        checkedInReservationIds.add(reservationId);
+    }
+
+    void restoreInto(ParkingService service) {
+        int gap = spots.indexOf(null);
+        if (gap >= 0) {
+            throw new IllegalStateException("No record of the spot with index " + gap);
+        }
+        for (Reservation reservation : reservations.values()) {
+            reservation.setStatus(reservationStatuses.get(reservation.getReservationId()));
+            if (checkedInReservationIds.contains(reservation.getReservationId())) {
+                reservation.checkIn();
+            }
+        }
+        service.restore(spots, tickets.values(), reservations.values());
+    }
+}
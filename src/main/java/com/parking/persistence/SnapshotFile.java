@@ -0,0 +1,205 @@
+package com.parking.persistence;
+
+import com.parking.codec.ParkingCodec;
+import com.parking.codec.SpotResolver;
+import com.parking.model.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static com.parking.codec.ParkingCodec.*;
+
+/**
+ * Binary image of a service's spots, open tickets and reservations, tagged with the
+ * journal LSN it covers.
+ * <p>
+ * Layout: {@code [magic : int][codec version : byte][lsn : long][spots : int][tickets : int]
+ * [reservations : int][crc32 : int]} followed by each spot's ID and size class in index
+ * order, then the tickets and reservations in {@link ParkingCodec} form, which refer to
+ * their spot by index. Files are written to a temporary name and atomically renamed,
+ * and read through a read-only memory mapping so loading is one pass over the page cache.
+ */
+final class SnapshotFile {
+
+    /** "PKS1". */
+    private static final int MAGIC = 0x504B5331;
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES + 4 * Integer.BYTES;
+    private static final int BUFFER_BYTES = 1 << 20;
+    /** Largest possible entry: a reservation with three maximum-length strings. */
+    private static final int MAX_ENTRY_BYTES = 3 * (2 + 0xFFFF) + 64;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot. Tickets and reservations on a spot missing from {@code spots}
+     * are left out: such a spot was registered after the checkpoint, so their records
+     * come after it in the journal and are replayed from there. Tickets already being
+     * processed are left out too, since the vehicle has left.
+     *
+     * @param spots the service's spots in index order
+     */
+    static void write(Path target, long lsn, List<ParkingSpot> spots,
+                      Collection<ParkingTicket> tickets, Collection<Reservation> reservations) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new Writer(channel);
+            SpotTable table = new SpotTable(spots);
+            ParkingCodec codec = new ParkingCodec(table);
+            for (ParkingSpot spot : spots) {
+                ByteBuffer entry = writer.entry();
+                writeString(entry, spot.getSpotId());
+                entry.put((byte) spot.getSize());
+            }
+            int ticketCount = 0;
+            for (ParkingTicket ticket : tickets) {
+                if (ticket.isProcessed() || table.indexOf(ticket.getSpot()) < 0) {
+                    continue;
+                }
+                codec.writeTicket(writer.entry(), ticket);
+                ticketCount++;
+            }
+            int reservationCount = 0;
+            for (Reservation reservation : reservations) {
+                ParkingSpot spot = reservation.getAssignedSpot();
+                if (spot != null && table.indexOf(spot) < 0) {
+                    continue;
+                }
+                codec.writeReservation(writer.entry(), reservation);
+                reservationCount++;
+            }
+            writer.drain();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            writeVersion(header);
+            header.putLong(lsn)
+                    .putInt(spots.size()).putInt(ticketCount).putInt(reservationCount)
+                    .putInt((int) writer.crc.getValue())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads the snapshot into the state and sets the state's LSN to the one it covers.
+     *
+     * @throws IOException if the file is not a snapshot or is corrupt
+     */
+    static void read(Path file, RecoveredState state) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a parking snapshot: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a parking snapshot: " + file);
+            }
+            try {
+                readVersion(buffer);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unreadable parking snapshot: " + file, e);
+            }
+            long lsn = buffer.getLong();
+            int spotCount = buffer.getInt();
+            int ticketCount = buffer.getInt();
+            int reservationCount = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt parking snapshot: " + file);
+            }
+
+            ParkingCodec codec = new ParkingCodec(state);
+            for (int i = 0; i < spotCount; i++) {
+                String spotId = readString(buffer);
+                state.spotAdded(i, spotId, buffer.get());
+            }
+            for (int i = 0; i < ticketCount; i++) {
+                state.vehicleParked(codec.readTicket(buffer));
+            }
+            for (int i = 0; i < reservationCount; i++) {
+                state.reservationCreated(codec.readReservation(buffer));
+            }
+            state.setLsn(lsn);
+        }
+    }
+
+    /**
+     * Resolves spots by their position in the list being written.
+     */
+    private static final class SpotTable implements SpotResolver {
+        private final List<ParkingSpot> spots;
+        private final Map<String, Integer> indexes;
+
+        private SpotTable(List<ParkingSpot> spots) {
+            this.spots = spots;
+            this.indexes = new HashMap<>(spots.size() * 2);
+            for (ParkingSpot spot : spots) {
+                indexes.put(spot.getSpotId(), indexes.size());
+            }
+        }
+
+        @Override
+        public int indexOf(ParkingSpot spot) {
+            Integer index = indexes.get(spot.getSpotId());
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public ParkingSpot spotAt(int index) {
+            return spots.get(index);
+        }
+    }
+
+    /**
+     * Streams entries to the file through one buffer, keeping a running CRC of the body.
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final CRC32 crc = new CRC32();
+
+        private Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER_BYTES);
+        }
+
+        /**
+         * Returns the buffer to encode the next entry into, with room for any entry.
+         */
+        ByteBuffer entry() throws IOException {
+            if (buffer.remaining() < MAX_ENTRY_BYTES) {
+                drain();
+            }
+            return buffer;
+        }
+
+        void drain() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,808 @@
+package com.parking.persistence;
+
+import com.parking.codec.ParkingCodec;
+import com.parking.codec.SpotResolver;
+import com.parking.model.*;
+import com.parking.service.ParkingEventListener;
+import com.parking.service.ParkingService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import static com.parking.codec.ParkingCodec.*;
+
+/**
+ * Append-only journal of every state change of a {@link ParkingService}, used to
+ * rebuild spots, open tickets and reservations after a restart.
+ * <p>
+ * The file starts with {@code [magic : int][codec version : byte][base lsn : long]},
+ * followed by records of
+ * {@code [length : int][lsn : long][type : byte][payload][crc32 : int]}, where the CRC
+ * covers the LSN, type and payload, and payloads use {@link ParkingCodec}. Callers
+ * encode their record into a per-thread buffer and copy it into a shared pending buffer
+ * under a short lock; a single flusher thread writes whatever has accumulated with one
+ * {@code write} and one {@code force}, so concurrent callers share fsyncs (group
+ * commit). With {@link Durability#SYNC} an operation returns only once its record is on
+ * disk. With {@link Durability#ASYNC} it returns straight away and the flusher writes
+ * about once a millisecond without forcing: records already written survive a process
+ * crash but not a power loss, and records still in the pending buffer, up to about one
+ * flush interval of operations, are lost if the process dies.
+ * <p>
+ * Records are appended after the change is applied, so two threads may journal related
+ * changes out of order (an exit before its park, say); replay tolerates that. If an
+ * append fails, the {@link java.io.UncheckedIOException} makes the service revert the
+ * change. Once a snapshot covers a prefix of the journal, {@link #truncateThrough(long)}
+ * drops it.
+ */
+public final class WriteAheadJournal implements ParkingEventListener, Closeable {
+
+    /**
+     * When a journaled operation is allowed to return to its caller.
+     */
+    public enum Durability {
+        /** After the record has been forced to disk. */
+        SYNC,
+        /**
+         * As soon as the record is queued for writing; the last millisecond or so of
+         * records is lost if the process dies before the flusher writes them.
+         */
+        ASYNC
+    }
+
+    static final byte SPOT_ADDED = 1;
+    static final byte VEHICLE_PARKED = 2;
+    static final byte VEHICLE_EXITED = 3;
+    static final byte RESERVATION_CREATED = 4;
+    static final byte RESERVATION_ACTIVATED = 5;
+    static final byte RESERVATION_COMPLETED = 6;
+    static final byte RESERVATION_CHECKED_IN = 7;
+    static final byte RESERVATION_CANCELLED = 8;
+    static final byte RESERVATION_EXPIRED = 9;
+
+    /** "PKJ1". */
+    private static final int FILE_MAGIC = 0x504B4A31;
+    private static final int FILE_HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int INITIAL_BUFFER_BYTES = 1 << 16;
+    private static final long ASYNC_FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(512));
+    private static final ThreadLocal<CRC32> CHECKSUM = ThreadLocal.withInitial(CRC32::new);
+
+    private final Path path;
+    private final Durability durability;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+    private volatile ParkingCodec codec;
+    // Replaced by the flusher when the journal is truncated.
+    private volatile FileChannel channel;
+
+    // Guarded by lock. Offsets are logical: positions in the file as if it had never been truncated.
+    private ByteBuffer pending = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    private long nextLsn;
+    private long appendedBytes;
+    private boolean closed;
+    private boolean flusherIdle;
+    private boolean flushRequested;
+    private long checkpointLsn = -1;
+    private long checkpointOffset;
+    private long truncateLsn;
+    private long truncateOffset;
+    private long truncatedLsn;
+
+    // Only touched by the flusher.
+    private long discardedBytes;
+
+    private volatile long durableLsn;
+    private volatile long forcedLsn;
+    private volatile IOException failure;
+
+    private WriteAheadJournal(Path path, FileChannel channel, Durability durability, ScanResult scan) {
+        this.path = path;
+        this.channel = channel;
+        this.durability = durability;
+        this.nextLsn = scan.lastLsn + 1;
+        this.appendedBytes = scan.validBytes;
+        this.truncateLsn = scan.baseLsn;
+        this.truncatedLsn = scan.baseLsn;
+        this.durableLsn = scan.lastLsn;
+        this.forcedLsn = scan.lastLsn;
+        this.flusher = new Thread(this::runFlusher, "parking-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens the journal at the given path, creating it if needed. A torn or corrupt
+     * record at the tail, left by a crash in the middle of a write, is cut off together
+     * with everything after it.
+     */
+    public static WriteAheadJournal open(Path path, Durability durability) throws IOException {
+        if (path == null || durability == null) {
+            throw new IllegalArgumentException("Path and durability cannot be null");
+        }
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < FILE_HEADER_BYTES) {
+                channel.truncate(0);
+                writeFileHeader(channel, 0);
+                channel.force(true);
+            }
+            ScanResult scan = scan(channel, null);
+            if (scan.validBytes < channel.size()) {
+                channel.truncate(scan.validBytes);
+                channel.force(true);
+            }
+            channel.position(scan.validBytes);
+            return new WriteAheadJournal(path, channel, durability, scan);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuilds the state recorded in this journal into a freshly created service.
+     * Only valid while the journal still holds the full history; once it has been
+     * truncated behind a snapshot, recover through {@link ParkingStore} instead.
+     *
+     * @return number of records replayed
+     */
+    public long replayInto(ParkingService service) throws IOException {
+        RecoveredState state = new RecoveredState();
+        long records = replay(state);
+        state.restoreInto(service);
+        return records;
+    }
+
+    /**
+     * Replays the journal into the service and then journals every further change it makes.
+     */
+    public void attach(ParkingService service) throws IOException {
+        replayInto(service);
+        bind(service);
+    }
+
+    /**
+     * Starts journaling the service's changes, encoding spots by their index in it.
+     */
+    void bind(ParkingService service) {
+        if (codec != null) {
+            throw new IllegalStateException("Journal is already attached to a service");
+        }
+        codec = new ParkingCodec(new SpotResolver() {
+            @Override
+            public int indexOf(ParkingSpot spot) {
+                return service.getSpotIndex(spot);
+            }
+
+            @Override
+            public ParkingSpot spotAt(int index) {
+                return service.getSpotAt(index);
+            }
+        });
+        service.addEventListener(this);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * LSN of the last record known to be written, 0 if none.
+     */
+    public long getDurableLsn() {
+        return durableLsn;
+    }
+
+    @Override
+    public void onSpotAdded(ParkingSpot spot) {
+        ByteBuffer payload = scratch();
+        while (true) {
+            try {
+                codec().writeSpot(payload, spot);
+                writeString(payload, spot.getSpotId());
+                payload.put((byte) spot.getSize());
+                break;
+            } catch (BufferOverflowException e) {
+                payload = growScratch(payload);
+            }
+        }
+        append(SPOT_ADDED, payload);
+    }
+
+    @Override
+    public void onVehicleParked(ParkingTicket ticket) {
+        ByteBuffer payload = scratch();
+        while (true) {
+            try {
+                codec().writeTicket(payload, ticket);
+                break;
+            } catch (BufferOverflowException e) {
+                payload = growScratch(payload);
+            }
+        }
+        append(VEHICLE_PARKED, payload);
+    }
+
+    @Override
+    public void onVehicleExited(ParkingTicket ticket, double fee) {
+        ByteBuffer payload = scratch();
+        while (true) {
+            try {
+                writeString(payload, ticket.getTicketId());
+                writeTime(payload, ticket.getExitTime());
+                payload.putDouble(fee);
+                break;
+            } catch (BufferOverflowException e) {
+                payload = growScratch(payload);
+            }
+        }
+        append(VEHICLE_EXITED, payload);
+    }
+
+    @Override
+    public void onReservationCreated(Reservation reservation) {
+        ByteBuffer payload = scratch();
+        while (true) {
+            try {
+                codec().writeReservation(payload, reservation);
+                break;
+            } catch (BufferOverflowException e) {
+                payload = growScratch(payload);
+            }
+        }
+        append(RESERVATION_CREATED, payload);
+    }
+
+    @Override
+    public void onReservationActivated(Reservation reservation) {
+        appendReservationId(RESERVATION_ACTIVATED, reservation);
+    }
+
+    @Override
+    public void onReservationCompleted(Reservation reservation) {
+        appendReservationId(RESERVATION_COMPLETED, reservation);
+    }
+
+    @Override
+    public void onReservationCheckedIn(Reservation reservation) {
+        appendReservationId(RESERVATION_CHECKED_IN, reservation);
+    }
+
+    @Override
+    public void onReservationCancelled(Reservation reservation) {
+        appendReservationId(RESERVATION_CANCELLED, reservation);
+    }
+
+    @Override
+    public void onReservationExpired(Reservation reservation) {
+        appendReservationId(RESERVATION_EXPIRED, reservation);
+    }
+
+    /**
+     * Blocks until every record appended so far has been forced to disk.
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            long target = nextLsn - 1;
+            flushRequested = true;
+            workAvailable.signal();
+            boolean interrupted = false;
+            while (forcedLsn < target) {
+                if (failure != null) {
+                    throw failure;
+                }
+                try {
+                    flushed.await(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes out pending records, stops the flusher and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Marks the current end of the journal. Every change whose record is at or before the
+     * returned LSN has already been applied to the service, so a snapshot taken after this
+     * call contains all of them and may contain later ones too.
+     */
+    long checkpoint() {
+        lock.lock();
+        try {
+            checkpointLsn = nextLsn - 1;
+            checkpointOffset = appendedBytes;
+            return checkpointLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every record up to the given checkpoint, which a durable snapshot now covers.
+     * The remaining records are copied to a new file that atomically replaces the old one;
+     * appends carry on into the pending buffer meanwhile.
+     *
+     * @param lsn value returned by the latest {@link #checkpoint()}
+     */
+    void truncateThrough(long lsn) throws IOException {
+        lock.lock();
+        try {
+            if (lsn != checkpointLsn) {
+                throw new IllegalArgumentException("LSN " + lsn + " is not the latest checkpoint");
+            }
+            if (lsn <= truncatedLsn) {
+                return;
+            }
+            truncateLsn = lsn;
+            truncateOffset = checkpointOffset;
+            workAvailable.signal();
+            while (truncatedLsn < lsn) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (closed) {
+                    throw new IllegalStateException("Journal is closed");
+                }
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the records after {@link RecoveredState#lsn()} to the state.
+     *
+     * @return number of records applied
+     */
+    long replay(RecoveredState state) throws IOException {
+        flush();
+        lock.lock();
+        try {
+            if (truncatedLsn > state.lsn()) {
+                throw new IOException("Journal starts after LSN " + truncatedLsn
+                        + " but the state only covers LSN " + state.lsn() + "; recover from the snapshot");
+            }
+        } finally {
+            lock.unlock();
+        }
+        return scan(channel, state).records;
+    }
+
+    private ParkingCodec codec() {
+        ParkingCodec current = codec;
+        if (current == null) {
+            throw new IllegalStateException("Journal is not attached to a service");
+        }
+        return current;
+    }
+
+    private void appendReservationId(byte type, Reservation reservation) {
+        ByteBuffer payload = scratch();
+        while (true) {
+            try {
+                writeString(payload, reservation.getReservationId());
+                break;
+            } catch (BufferOverflowException e) {
+                payload = growScratch(payload);
+            }
+        }
+        append(type, payload);
+    }
+
+    /**
+     * Queues one record and, in SYNC mode, waits for the flusher to make it durable.
+     */
+    private void append(byte type, ByteBuffer payload) {
+        payload.flip();
+        int bodyBytes = Long.BYTES + 1 + payload.remaining();
+        int recordBytes = HEADER_BYTES + bodyBytes + TRAILER_BYTES;
+        CRC32 crc = CHECKSUM.get();
+        long lsn;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (pending.remaining() < recordBytes) {
+                pending = grow(pending, recordBytes);
+            }
+            lsn = nextLsn++;
+            pending.putInt(bodyBytes);
+            int bodyStart = pending.position();
+            pending.putLong(lsn);
+            pending.put(type);
+            pending.put(payload);
+            crc.reset();
+            crc.update(pending.duplicate().position(bodyStart).limit(pending.position()));
+            pending.putInt((int) crc.getValue());
+            appendedBytes += recordBytes;
+            if (flusherIdle) {
+                // A busy flusher picks the record up on its next pass; waking it costs a futex call.
+                workAvailable.signal();
+            }
+            if (durability == Durability.SYNC) {
+                awaitDurable(lsn);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long lsn) {
+        boolean interrupted = false;
+        while (durableLsn < lsn) {
+            if (failure != null) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+            try {
+                flushed.await(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // The record is already queued; give up on waiting only once it is durable.
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            long batchLsn;
+            ByteBuffer batch;
+            boolean force;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed && !flushRequested && truncateLsn <= truncatedLsn) {
+                    flusherIdle = true;
+                    workAvailable.awaitUninterruptibly();
+                    flusherIdle = false;
+                }
+                if (pending.position() == 0 && closed) {
+                    return;
+                }
+                if (durability == Durability.ASYNC) {
+                    // Let records pile up so one write covers many operations.
+                    long nanos = ASYNC_FLUSH_INTERVAL_NANOS;
+                    try {
+                        while (nanos > 0 && !closed && !flushRequested && truncateLsn <= truncatedLsn) {
+                            nanos = workAvailable.awaitNanos(nanos);
+                        }
+                    } catch (InterruptedException e) {
+                        // Nothing interrupts the flusher on purpose; write what is pending now.
+                    }
+                }
+                force = durability == Durability.SYNC || flushRequested;
+                flushRequested = false;
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                batchLsn = nextLsn - 1;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                batch.flip();
+                FileChannel current = channel;
+                while (batch.hasRemaining()) {
+                    current.write(batch);
+                }
+                batch.clear();
+                if (force) {
+                    current.force(false);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            long truncateThroughLsn = 0;
+            long truncateThroughOffset = 0;
+            lock.lock();
+            try {
+                if (failure == null) {
+                    durableLsn = batchLsn;
+                    if (force) {
+                        forcedLsn = batchLsn;
+                    }
+                    if (truncateLsn > truncatedLsn) {
+                        truncateThroughLsn = truncateLsn;
+                        truncateThroughOffset = truncateOffset;
+                    }
+                } else {
+                    closed = true;
+                }
+                flushed.signalAll();
+                if (failure != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (truncateThroughLsn > 0) {
+                try {
+                    rewriteFrom(truncateThroughLsn, truncateThroughOffset);
+                } catch (IOException e) {
+                    failure = e;
+                }
+                lock.lock();
+                try {
+                    if (failure == null) {
+                        truncatedLsn = truncateThroughLsn;
+                    } else {
+                        closed = true;
+                    }
+                    flushed.signalAll();
+                    if (failure != null) {
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the file with one holding only the records after {@code logicalOffset}.
+     * Runs on the flusher, the only thread that writes to the file.
+     */
+    private void rewriteFrom(long baseLsn, long logicalOffset) throws IOException {
+        FileChannel current = channel;
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFileHeader(out, baseLsn);
+            long from = logicalOffset - discardedBytes;
+            long size = current.size();
+            while (from < size) {
+                from += current.transferTo(from, size - from, out);
+            }
+            out.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        FileChannel reopened = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        reopened.position(reopened.size());
+        channel = reopened;
+        current.close();
+        discardedBytes = logicalOffset - FILE_HEADER_BYTES;
+    }
+
+    private static void writeFileHeader(FileChannel channel, long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        header.putInt(FILE_MAGIC);
+        writeVersion(header);
+        header.putLong(baseLsn).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.position(FILE_HEADER_BYTES);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static ByteBuffer scratch() {
+        ByteBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    private static ByteBuffer growScratch(ByteBuffer buffer) {
+        if (buffer.capacity() >= MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Journal record exceeds " + MAX_BODY_BYTES + " bytes");
+        }
+        ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+        SCRATCH.set(grown);
+        return grown;
+    }
+
+    /**
+     * Reads records after the file header until the end or the first torn or corrupt one.
+     *
+     * @param state receives each valid record after its LSN, or null to only validate
+     */
+    private static ScanResult scan(FileChannel channel, RecoveredState state) throws IOException {
+        ScanResult result = new ScanResult();
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // Keep reading; the header was written before any record.
+        }
+        header.flip();
+        if (header.remaining() < FILE_HEADER_BYTES || header.getInt() != FILE_MAGIC) {
+            throw new IOException("Not a parking journal");
+        }
+        try {
+            readVersion(header);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unreadable parking journal", e);
+        }
+        result.baseLsn = header.getLong();
+        result.lastLsn = result.baseLsn;
+
+        long size = channel.size();
+        long offset = FILE_HEADER_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        ParkingCodec decoder = state == null ? null : new ParkingCodec(state);
+        while (true) {
+            if (!fill(channel, buffer, offset, size, HEADER_BYTES)) {
+                break;
+            }
+            int bodyBytes = buffer.getInt(buffer.position());
+            if (bodyBytes < Long.BYTES + 1 || bodyBytes > MAX_BODY_BYTES) {
+                break;
+            }
+            int recordBytes = HEADER_BYTES + bodyBytes + TRAILER_BYTES;
+            if (buffer.capacity() < recordBytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Integer.highestOneBit(recordBytes) << 1);
+                larger.put(buffer).flip();
+                buffer = larger;
+            }
+            if (!fill(channel, buffer, offset, size, recordBytes)) {
+                break;
+            }
+            int start = buffer.position();
+            ByteBuffer body = buffer.duplicate().position(start + HEADER_BYTES).limit(start + HEADER_BYTES + bodyBytes);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(start + HEADER_BYTES + bodyBytes)) {
+                break;
+            }
+            long lsn = body.getLong();
+            if (lsn <= result.lastLsn) {
+                break;
+            }
+            byte type = body.get();
+            if (state != null && lsn > state.lsn()) {
+                apply(state, decoder, type, body.slice());
+                result.records++;
+            }
+            result.lastLsn = lsn;
+            buffer.position(start + recordBytes);
+            offset += recordBytes;
+        }
+        result.validBytes = offset;
+        return result;
+    }
+
+    /**
+     * Makes sure the buffer holds at least {@code needed} unread bytes starting at file {@code offset}.
+     *
+     * @return false if the file ends first
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, long offset, long size, int needed)
+            throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        if (offset + needed > size) {
+            return false;
+        }
+        long readFrom = offset + buffer.remaining();
+        buffer.compact();
+        while (buffer.position() < needed) {
+            int read = channel.read(buffer, readFrom);
+            if (read < 0) {
+                buffer.flip();
+                return false;
+            }
+            readFrom += read;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static void apply(RecoveredState state, ParkingCodec decoder, byte type, ByteBuffer payload) {
+        switch (type) {
+            case SPOT_ADDED: {
+                int index = payload.getInt();
+                String spotId = readString(payload);
+                state.spotAdded(index, spotId, payload.get());
+                break;
+            }
+            case VEHICLE_PARKED:
+                state.vehicleParked(decoder.readTicket(payload));
+                break;
+            case VEHICLE_EXITED:
+                state.vehicleExited(readString(payload));
+                break;
+            case RESERVATION_CREATED:
+                state.reservationCreated(decoder.readReservation(payload));
+                break;
+            case RESERVATION_ACTIVATED:
+                state.advance(readString(payload), ReservationStatus.ACTIVE);
+                break;
+            case RESERVATION_COMPLETED:
+                state.advance(readString(payload), ReservationStatus.COMPLETED);
+                break;
+            case RESERVATION_CHECKED_IN:
+                state.checkedIn(readString(payload));
+                break;
+            case RESERVATION_CANCELLED:
+                state.advance(readString(payload), ReservationStatus.CANCELLED);
+                break;
+            case RESERVATION_EXPIRED:
+                state.advance(readString(payload), ReservationStatus.EXPIRED);
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private static final class ScanResult {
+        private long baseLsn;
+        private long validBytes;
+        private long lastLsn;
+        private long records;
+    }
+}
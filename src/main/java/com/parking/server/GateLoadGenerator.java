@@ -0,0 +1,244 @@
+package com.parking.server;
+
+import com.parking.model.ParkingSpot;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a {@link GateServer} with many concurrent gate clients, each parking a
+ * vehicle and then exiting it in a loop. Clients are chains of asynchronous HTTP
+ * calls rather than threads, so ten thousand of them fit in one process. A client
+ * refused with 503 backs off briefly and retries.
+ * <p>
+ * Run standalone against an embedded server:
+ * <pre>
+ * java -cp target/classes com.parking.server.GateLoadGenerator [clients] [seconds] [maxInFlight]
+ * </pre>
+ * The lot gets one spot per client, so the service is never full and every refusal
+ * comes from backpressure. The generator turns on {@code sun.net.httpserver.nodelay}
+ * unless it is given on the command line.
+ */
+public final class GateLoadGenerator {
+
+    private static final long BACKOFF_MILLIS = 5;
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final long deadline;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private GateLoadGenerator(URI baseUri, Duration duration) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.baseUri = baseUri;
+        this.deadline = System.nanoTime() + duration.toNanos();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // This process only hosts the embedded server, so it can turn on TCP_NODELAY for
+        // it; see GateServer. Must happen before the server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < clients; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("G" + i));
+        }
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (GateServer server = GateServer.start(parkingService, address, maxInFlight)) {
+            URI baseUri = URI.create("http://" + address.getHostString() + ":" + server.getAddress().getPort());
+            System.out.println("Gate server on " + baseUri + (server.usesVirtualThreads()
+                    ? " using virtual threads" : " using platform threads") + ", max in flight " + server.getMaxInFlight());
+            System.out.println(run(baseUri, clients, Duration.ofSeconds(seconds)));
+        }
+    }
+
+    /**
+     * Runs {@code clients} concurrent park/exit loops against the server for the given
+     * duration and waits for the last requests to finish.
+     */
+    public static Report run(URI baseUri, int clients, Duration duration) {
+        if (clients <= 0) {
+            throw new IllegalArgumentException("Client count must be positive");
+        }
+        GateLoadGenerator generator = new GateLoadGenerator(baseUri, duration);
+        long start = System.nanoTime();
+        Client[] all = new Client[clients];
+        CompletableFuture<?>[] done = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            all[i] = new Client("LG-" + i);
+            done[i] = all[i].done;
+            generator.next(all[i]);
+        }
+        CompletableFuture.allOf(done).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        int samples = 0;
+        for (Client client : all) {
+            samples += client.latencyCount;
+        }
+        long[] latencies = new long[samples];
+        int offset = 0;
+        for (Client client : all) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.latencyCount);
+            offset += client.latencyCount;
+        }
+        Arrays.sort(latencies);
+        return new Report(clients, elapsedNanos, generator.completed.sum(), generator.rejected.sum(),
+                generator.failed.sum(), percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    /**
+     * Sends the client's next request, or completes the client once the run is over.
+     * A client's callbacks run one after another, so its state needs no locking.
+     */
+    private void next(Client client) {
+        if (System.nanoTime() >= deadline) {
+            client.done.complete(null);
+            return;
+        }
+        String path = client.ticketId == null
+                ? "/park?plate=" + client.plate + "&type=CAR"
+                : "/exit?ticket=" + client.ticketId;
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long sent = System.nanoTime();
+        http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            if (error != null) {
+                failed.increment();
+                backOff(client);
+            } else if (response.statusCode() == 503) {
+                rejected.increment();
+                backOff(client);
+            } else {
+                if (response.statusCode() == 200) {
+                    completed.increment();
+                    client.record(System.nanoTime() - sent);
+                } else {
+                    failed.increment();
+                }
+                client.ticketId = client.ticketId == null ? ticketIdOf(response.body()) : null;
+                next(client);
+            }
+        });
+    }
+
+    private void backOff(Client client) {
+        CompletableFuture.runAsync(() -> next(client),
+                CompletableFuture.delayedExecutor(BACKOFF_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static String ticketIdOf(String body) {
+        String field = "\"ticketId\":\"";
+        int start = body.indexOf(field);
+        if (start < 0) {
+            return null;
+        }
+        start += field.length();
+        return body.substring(start, body.indexOf('"', start));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))];
+    }
+
+    private static final class Client {
+        final String plate;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        String ticketId;
+        long[] latencies = new long[64];
+        int latencyCount;
+
+        Client(String plate) {
+            this.plate = plate;
+        }
+
+        void record(long nanos) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencyCount * 2);
+            }
+            latencies[latencyCount++] = nanos;
+        }
+    }
+
+    /**
+     * Outcome of one run. Latencies cover successful requests only.
+     */
+    public static final class Report {
+        private final int clients;
+        private final long elapsedNanos;
+        private final long completed;
+        private final long rejected;
+        private final long failed;
+        private final long p50Nanos;
+        private final long p99Nanos;
+
+        Report(int clients, long elapsedNanos, long completed, long rejected, long failed,
+               long p50Nanos, long p99Nanos) {
+            this.clients = clients;
+            this.elapsedNanos = elapsedNanos;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.failed = failed;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getThroughputPerSecond() {
+            return completed * 1e9 / elapsedNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d clients: %d requests in %.1f s (%.0f req/s), %d rejected with 503, "
+                            + "%d failed, p50 %.2f ms, p99 %.2f ms",
+                    clients, completed, elapsedNanos / 1e9, getThroughputPerSecond(), rejected, failed,
+                    p50Nanos / 1e6, p99Nanos / 1e6);
+        }
+    }
+}
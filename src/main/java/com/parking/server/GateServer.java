@@ -0,0 +1,384 @@
+package com.parking.server;
+
+import com.parking.model.ParkingStatus;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Reservation;
+import com.parking.model.Vehicle;
+import com.parking.model.VehicleType;
+import com.parking.service.ParkingOperations;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP front end for the entry and exit gates. Each request runs on its own
+ * virtual thread when the runtime has them (Java 21+) and on a fixed platform pool
+ * otherwise. At most {@code maxInFlight} requests are handed to the
+ * {@link ParkingOperations} at once, capped at the pool size when running on platform
+ * threads so every admitted request has a thread to run on. Requests beyond that are
+ * answered straight away with 503 and a {@code Retry-After} header rather than queued,
+ * so a saturated service pushes back on the gates instead of building an unbounded
+ * backlog.
+ * <p>
+ * Endpoints, all taking query parameters and answering JSON:
+ * <ul>
+ *   <li>{@code POST /park?plate=&type=[&zone=][&stay=]}, the expected stay as an ISO-8601 duration</li>
+ *   <li>{@code POST /exit?ticket=} or {@code POST /exit?plate=}</li>
+ *   <li>{@code POST /reserve?user=&plate=&type=&start=&end=}, times in ISO-8601 local form</li>
+ *   <li>{@code GET /status}</li>
+ * </ul>
+ * Invalid input is answered with 400, a request that conflicts with the lot state
+ * (lot full, plate already parked, ticket already processed) with 409.
+ * <p>
+ * Start the JVM with {@code -Dsun.net.httpserver.nodelay=true}. Responses are written as
+ * headers then body, and without TCP_NODELAY every keep-alive request stalls about 40 ms
+ * on Nagle's algorithm against the client's delayed ACK. The JDK server reads the property
+ * once, when its first instance is created, and it applies to every server in the JVM,
+ * so it is left to the deployment rather than set here.
+ */
+public final class GateServer implements Closeable {
+
+    /** Platform threads serving requests when virtual threads are not available. */
+    private static final int FALLBACK_THREADS = 256;
+    /** Extra platform threads so refusals are still answered while every permit is held. */
+    private static final int REFUSAL_THREADS = 4;
+    private static final int BACKLOG = 8192;
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ParkingOperations parkingService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final LongAdder rejected = new LongAdder();
+
+    private GateServer(ParkingOperations parkingService, HttpServer server, int maxInFlight) {
+        this.parkingService = parkingService;
+        this.server = server;
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        // A platform pool queues work it has no thread for, so admitting more requests than
+        // it has threads would park the excess in that queue instead of refusing it.
+        this.maxInFlight = virtualThreads ? maxInFlight : Math.min(maxInFlight, FALLBACK_THREADS);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.executor = virtualThreads ? virtual
+                : Executors.newFixedThreadPool(this.maxInFlight + REFUSAL_THREADS, new GateThreadFactory());
+    }
+
+    /**
+     * Binds the server to the address and starts serving.
+     *
+     * @param address     address to listen on; port 0 picks a free port
+     * @param maxInFlight requests handed to the service at once before new ones are refused;
+     *                    without virtual threads at most {@value #FALLBACK_THREADS}
+     */
+    public static GateServer start(ParkingOperations parkingService, InetSocketAddress address, int maxInFlight)
+            throws IOException {
+        if (parkingService == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive");
+        }
+        HttpServer server = HttpServer.create(address, BACKLOG);
+        GateServer gateServer = new GateServer(parkingService, server, maxInFlight);
+        server.createContext("/", gateServer::handle);
+        server.setExecutor(gateServer.executor);
+        server.start();
+        return gateServer;
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Requests handed to the service at once, after capping at the platform pool size.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Number of requests refused with 503 because the service was saturated.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getRequestBody().readAllBytes();
+            if (!inFlight.tryAcquire()) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+                respond(exchange, 503, error("Service busy, retry later"));
+                return;
+            }
+            int status;
+            String body;
+            try {
+                body = dispatch(exchange);
+                status = 200;
+            } catch (RequestException e) {
+                status = e.status;
+                body = error(e.getMessage());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                status = 400;
+                body = error(e.getMessage());
+            } catch (IllegalStateException e) {
+                status = 409;
+                body = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                body = error(String.valueOf(e.getMessage()));
+            } finally {
+                inFlight.release();
+            }
+            respond(exchange, status, body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Runs the request against the service and returns the JSON response.
+     */
+    private String dispatch(HttpExchange exchange) {
+        String method = exchange.getRequestMethod();
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        switch (exchange.getRequestURI().getPath()) {
+            case "/park":
+                requireMethod(method, "POST");
+                return park(params);
+            case "/exit":
+                requireMethod(method, "POST");
+                return exit(params);
+            case "/reserve":
+                requireMethod(method, "POST");
+                return reserve(params);
+            case "/status":
+                requireMethod(method, "GET");
+                return status();
+            default:
+                throw new RequestException(404, "No such endpoint: " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private String park(Map<String, String> params) {
+        Vehicle vehicle = new Vehicle(required(params, "plate"), vehicleType(required(params, "type")));
+        String stay = params.get("stay");
+        ParkingTicket ticket = stay == null ? parkingService.parkVehicle(vehicle, params.get("zone"))
+                : parkingService.parkVehicle(vehicle, params.get("zone"), Duration.parse(stay));
+        return new Json()
+                .field("ticketId", ticket.getTicketId())
+                .field("spotId", ticket.getSpot().getSpotId())
+                .field("entryTime", ticket.getEntryTime().toString())
+                .toString();
+    }
+
+    private String exit(Map<String, String> params) {
+        String ticketId = params.get("ticket");
+        if (ticketId != null) {
+            return new Json().field("ticketId", ticketId).field("fee", parkingService.exitVehicle(ticketId)).toString();
+        }
+        String plate = required(params, "plate");
+        return new Json().field("plate", plate).field("fee", parkingService.exitVehicleByPlate(plate)).toString();
+    }
+
+    private String reserve(Map<String, String> params) {
+        Vehicle vehicle = new Vehicle(required(params, "plate"), vehicleType(required(params, "type")));
+        Reservation reservation = parkingService.createReservation(required(params, "user"), vehicle,
+                LocalDateTime.parse(required(params, "start")), LocalDateTime.parse(required(params, "end")));
+        return new Json()
+                .field("reservationId", reservation.getReservationId())
+                .field("spotId", reservation.getAssignedSpot().getSpotId())
+                .field("paidAmount", reservation.getPaidAmount())
+                .toString();
+    }
+
+    private String status() {
+        ParkingStatus status = parkingService.getParkingStatusSnapshot();
+        return new Json()
+                .field("totalSpots", status.getTotalSpots())
+                .field("occupiedSpots", status.getOccupiedSpots())
+                .field("availableSpots", status.getAvailableSpots())
+                .field("activeTickets", status.getActiveTickets())
+                .field("activeReservations", status.getActiveReservations())
+                .field("inFlight", (long) inFlightCount())
+                .field("rejected", getRejectedCount())
+                .toString();
+    }
+
+    private int inFlightCount() {
+        // Not counting the status request itself.
+        return maxInFlight - inFlight.availablePermits() - 1;
+    }
+
+    private static VehicleType vehicleType(String type) {
+        try {
+            return VehicleType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown vehicle type: " + type);
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new RequestException(405, "Method " + method + " not allowed, use " + expected);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String error(String message) {
+        return new Json().field("error", message).toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} so the server can run
+     * on a Java 17 runtime and still use virtual threads on a newer one.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static final class GateThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "gate-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * A request the server refuses before it reaches the service.
+     */
+    private static final class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Minimal writer for the flat JSON objects the endpoints answer with.
+     */
+    private static final class Json {
+        private final StringBuilder out = new StringBuilder("{");
+
+        Json field(String name, String value) {
+            name(name);
+            if (value == null) {
+                out.append("null");
+                return this;
+            }
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.append('\\').append(c);
+                } else if (c < 0x20) {
+                    out.append(String.format("\\u%04x", (int) c));
+                } else {
+                    out.append(c);
+                }
+            }
+            out.append('"');
+            return this;
+        }
+
+        Json field(String name, long value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        Json field(String name, double value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        private void name(String name) {
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            out.append('"').append(name).append("\":");
+        }
+
+        @Override
+        public String toString() {
+            return out + "}";
+        }
+    }
+}
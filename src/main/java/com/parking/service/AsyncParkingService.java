@@ -0,0 +1,98 @@
+package com.parking.service;
+
+import com.parking.model.ParkingTicket;
+import com.parking.model.Reservation;
+import com.parking.model.Vehicle;
+import com.parking.payment.PaymentGateway;
+import com.parking.payment.PaymentReceipt;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking facade over {@link ParkingOperations}. Each call runs the synchronous
+ * operation on the configured executor and returns at once; the future completes with
+ * the operation's result or, if the synchronous method throws, exceptionally with a
+ * {@link java.util.concurrent.CompletionException} whose cause is that exception. So
+ * {@code join()} throws the {@code CompletionException}, {@code get()} an
+ * {@code ExecutionException} with the same cause, and stages such as
+ * {@code exceptionally} are handed the wrapper; unwrap with {@code getCause()}. Lanes
+ * that chain payment, barrier and printer steps onto these futures only occupy a thread
+ * while the service is actually working, so a small executor can serve many lanes.
+ */
+public final class AsyncParkingService {
+
+    private final ParkingOperations parkingService;
+    private final Executor executor;
+
+    /**
+     * @param executor runs the service calls and, unless a stage names its own executor,
+     *                 the stages chained onto the returned futures
+     */
+    public AsyncParkingService(ParkingOperations parkingService, Executor executor) {
+        if (parkingService == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.parkingService = parkingService;
+        this.executor = executor;
+    }
+
+    public ParkingOperations getParkingService() {
+        return parkingService;
+    }
+
+    /**
+     * Asynchronous {@link ParkingOperations#parkVehicle(Vehicle)}.
+     */
+    public CompletableFuture<ParkingTicket> parkVehicleAsync(Vehicle vehicle) {
+        return CompletableFuture.supplyAsync(() -> parkingService.parkVehicle(vehicle), executor);
+    }
+
+    /**
+     * Asynchronous {@link ParkingOperations#parkVehicle(Vehicle, String)}.
+     */
+    public CompletableFuture<ParkingTicket> parkVehicleAsync(Vehicle vehicle, String homeZone) {
+        return CompletableFuture.supplyAsync(() -> parkingService.parkVehicle(vehicle, homeZone), executor);
+    }
+
+    /**
+     * Asynchronous {@link ParkingOperations#parkVehicle(Vehicle, String, Duration)}.
+     */
+    public CompletableFuture<ParkingTicket> parkVehicleAsync(Vehicle vehicle, String homeZone, Duration expectedStay) {
+        return CompletableFuture.supplyAsync(() -> parkingService.parkVehicle(vehicle, homeZone, expectedStay), executor);
+    }
+
+    /**
+     * Asynchronous {@link ParkingOperations#exitVehicle(String)}; completes with the fee.
+     */
+    public CompletableFuture<Double> exitVehicleAsync(String ticketId) {
+        return CompletableFuture.supplyAsync(() -> parkingService.exitVehicle(ticketId), executor);
+    }
+
+    /**
+     * Asynchronous {@link ParkingOperations#createReservation(String, Vehicle, LocalDateTime, LocalDateTime)}.
+     */
+    public CompletableFuture<Reservation> createReservationAsync(String userId, Vehicle vehicle,
+                                                                 LocalDateTime startTime, LocalDateTime endTime) {
+        return CompletableFuture.supplyAsync(
+                () -> parkingService.createReservation(userId, vehicle, startTime, endTime), executor);
+    }
+
+    /**
+     * Exits the vehicle and charges the fee against the ticket, as at a pay-on-exit
+     * barrier that lifts once the payment is approved. The exit is recorded before the
+     * charge, so a declined payment leaves the ticket processed with its fee owed; the
+     * future then completes exceptionally with the gateway's error as the cause.
+     */
+    public CompletableFuture<PaymentReceipt> exitAndPayAsync(String ticketId, PaymentGateway paymentGateway) {
+        if (paymentGateway == null) {
+            throw new IllegalArgumentException("Payment gateway cannot be null");
+        }
+        return exitVehicleAsync(ticketId).thenCompose(fee -> paymentGateway.charge(ticketId, fee));
+    }
+}
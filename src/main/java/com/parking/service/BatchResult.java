@@ -0,0 +1,50 @@
+package com.parking.service;
+
+/**
+ * Outcome of one item in a batch operation: either a value or the reason the item failed.
+ * A failed item never aborts the rest of its batch.
+ *
+ * @param <T> type of the value produced on success
+ */
+public final class BatchResult<T> {
+    private final T value;
+    private final String failureReason;
+
+    private BatchResult(T value, String failureReason) {
+        this.value = value;
+        this.failureReason = failureReason;
+    }
+
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    public static <T> BatchResult<T> failure(String reason) {
+        return new BatchResult<>(null, reason);
+    }
+
+    public boolean isSuccess() {
+        return failureReason == null;
+    }
+
+    /**
+     * @throws IllegalStateException if the item failed
+     */
+    public T getValue() {
+        if (failureReason != null) {
+            throw new IllegalStateException(failureReason);
+        }
+        return value;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess()
+                ? "BatchResult{value=" + value + '}'
+                : "BatchResult{failureReason='" + failureReason + "'}";
+    }
+}
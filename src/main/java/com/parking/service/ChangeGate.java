@@ -0,0 +1,72 @@
+package com.parking.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Lets one caller briefly hold off parks and exits and wait for those already under way,
+ * so it observes a moment at which every applied change has also been published to the
+ * listeners. Changes register in padded per-thread-stripe counters, so they never
+ * contend with each other; only {@link #quiesce} reads all of them.
+ */
+final class ChangeGate {
+
+    private static final int STRIPES = 32;
+    /** Longs per counter, so neighbouring counters never share a 64-byte cache line. */
+    private static final int STRIDE = 8;
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+
+    private final AtomicLongArray inFlight = new AtomicLongArray(STRIPES * STRIDE);
+    private volatile boolean closed;
+
+    /**
+     * Registers a change that is about to be applied, waiting while the gate is closed.
+     *
+     * @return the token to hand to {@link #leave(int)} once listeners have been notified
+     */
+    int enter() {
+        long threadId = Thread.currentThread().getId();
+        int counter = (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 59) * STRIDE;
+        while (true) {
+            inFlight.getAndIncrement(counter);
+            // Paired with the write of closed in quiesce: either it sees this count or we see it closed.
+            if (!closed) {
+                return counter;
+            }
+            inFlight.getAndDecrement(counter);
+            for (int spins = 0; closed; spins++) {
+                backOff(spins);
+            }
+        }
+    }
+
+    void leave(int token) {
+        inFlight.getAndDecrement(token);
+    }
+
+    /**
+     * Closes the gate, waits for the changes under way to finish and runs the action
+     * before reopening it. The action must not park or exit vehicles itself.
+     */
+    synchronized <T> T quiesce(Supplier<T> action) {
+        closed = true;
+        try {
+            for (int counter = 0; counter < STRIPES * STRIDE; counter += STRIDE) {
+                for (int spins = 0; inFlight.get(counter) != 0; spins++) {
+                    backOff(spins);
+                }
+            }
+            return action.get();
+        } finally {
+            closed = false;
+        }
+    }
+
+    private static void backOff(int spins) {
+        if (spins < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Vehicle;
+import com.parking.model.VehicleType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps open tickets as rows of parallel primitive arrays instead of objects: numeric
+ * ticket ID, entry epoch second, vehicle type ordinal, plate bytes and spot index.
+ * Rows are spread over stripes by ticket ID; each stripe has its own monitor and finds
+ * rows through an open-addressing table of primitive IDs. The ticket on each spot is
+ * recorded in a paged array indexed by spot index.
+ * <p>
+ * ASCII plates of up to {@link #PLATE_BYTES} characters are stored inline; longer ones
+ * keep a reference to their String. Tickets and spots are handed out as views built
+ * from a row when asked for, so the store retains no per-ticket objects.
+ */
+final class ColumnarTicketStore implements TicketStore {
+
+    static final int PLATE_BYTES = 16;
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_ROWS = 64;
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final VarHandle OCCUPANTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private final IdGenerator ids;
+    private final SpotAllocator spots;
+    private final TicketRows[] rows = new TicketRows[STRIPES];
+    /** Numeric ID of the ticket on each spot, 0 if none; pages are never moved. */
+    private volatile long[][] occupantPages = new long[0][];
+
+    ColumnarTicketStore(IdGenerator ids, SpotAllocator spots) {
+        this.ids = ids;
+        this.spots = spots;
+        for (int i = 0; i < STRIPES; i++) {
+            rows[i] = new TicketRows();
+        }
+    }
+
+    @Override
+    public ParkingTicket open(String ticketId, Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime) {
+        long id = ids.parse(ticketId);
+        int spotIndex = spots.indexOf(spot);
+        long entrySecond = entryTime.toEpochSecond(ZoneOffset.UTC);
+        add(id, entrySecond, vehicle, spotIndex);
+        return new ParkingTicket(ticketId, vehicle, SpotView.of(spotIndex, spots, this),
+                LocalDateTime.ofEpochSecond(entrySecond, 0, ZoneOffset.UTC));
+    }
+
+    @Override
+    public void restore(ParkingTicket ticket) {
+        add(ids.parse(ticket.getTicketId()), ticket.getEntryTime().toEpochSecond(ZoneOffset.UTC),
+                ticket.getVehicle(), spots.indexOf(ticket.getSpot()));
+    }
+
+    private void add(long id, long entrySecond, Vehicle vehicle, int spotIndex) {
+        TicketRows stripe = rowsOf(id);
+        synchronized (stripe) {
+            stripe.add(id, entrySecond, (byte) vehicle.getType().ordinal(), vehicle.getLicensePlate(), spotIndex);
+        }
+        OCCUPANTS.setVolatile(occupantPage(spotIndex), spotIndex & (PAGE_SIZE - 1), id);
+    }
+
+    @Override
+    public boolean contains(String ticketId) {
+        long id = idOf(ticketId);
+        if (id == 0) {
+            return false;
+        }
+        TicketRows stripe = rowsOf(id);
+        synchronized (stripe) {
+            return stripe.find(id) >= 0;
+        }
+    }
+
+    @Override
+    public ParkingTicket get(String ticketId) {
+        long id = idOf(ticketId);
+        if (id == 0) {
+            return null;
+        }
+        TicketRows stripe = rowsOf(id);
+        synchronized (stripe) {
+            int row = stripe.find(id);
+            return row < 0 ? null : stripe.ticket(row, ticketId);
+        }
+    }
+
+    @Override
+    public ParkingTicket close(String ticketId, LocalDateTime exitTime) {
+        long id = idOf(ticketId);
+        if (id == 0) {
+            return null;
+        }
+        TicketRows stripe = rowsOf(id);
+        ParkingTicket ticket;
+        int spotIndex;
+        synchronized (stripe) {
+            int row = stripe.find(id);
+            if (row < 0) {
+                return null;
+            }
+            ticket = stripe.ticket(row, ticketId);
+            spotIndex = stripe.spotIndexes[row];
+            stripe.remove(row);
+        }
+        OCCUPANTS.compareAndSet(occupantPage(spotIndex), spotIndex & (PAGE_SIZE - 1), id, 0L);
+        ticket.markAsProcessed();
+        ticket.setExitTime(exitTime);
+        return ticket;
+    }
+
+    @Override
+    public void reopen(ParkingTicket ticket) {
+        ticket.reopen();
+        restore(ticket);
+    }
+
+    /**
+     * Returns the vehicle parked on the spot under an open ticket, or null if there is none.
+     */
+    Vehicle vehicleOn(int spotIndex) {
+        long[][] pages = occupantPages;
+        int page = spotIndex >>> PAGE_SHIFT;
+        long id = page < pages.length
+                ? (long) OCCUPANTS.getVolatile(pages[page], spotIndex & (PAGE_SIZE - 1)) : 0L;
+        if (id == 0) {
+            return null;
+        }
+        TicketRows stripe = rowsOf(id);
+        synchronized (stripe) {
+            int row = stripe.find(id);
+            return row < 0 ? null : stripe.vehicle(row);
+        }
+    }
+
+    @Override
+    public List<ParkingTicket> openTickets() {
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (TicketRows stripe : rows) {
+            synchronized (stripe) {
+                for (int row = 0; row < stripe.rowCount; row++) {
+                    if (stripe.ids[row] != 0) {
+                        tickets.add(stripe.ticket(row, ids.format(stripe.ids[row])));
+                    }
+                }
+            }
+        }
+        return tickets;
+    }
+
+    /**
+     * Returns the numeric form of a ticket ID, or 0 if it is not one of ours.
+     */
+    private long idOf(String ticketId) {
+        try {
+            return ids.parse(ticketId);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private TicketRows rowsOf(long id) {
+        return rows[(int) mix(id) & (STRIPES - 1)];
+    }
+
+    private long[] occupantPage(int spotIndex) {
+        int page = spotIndex >>> PAGE_SHIFT;
+        long[][] pages = occupantPages;
+        return page < pages.length ? pages[page] : growOccupants(page);
+    }
+
+    private synchronized long[] growOccupants(int page) {
+        long[][] current = occupantPages;
+        if (page >= current.length) {
+            long[][] grown = Arrays.copyOf(current, page + 1);
+            for (int i = current.length; i <= page; i++) {
+                grown[i] = new long[PAGE_SIZE];
+            }
+            occupantPages = grown;
+            current = grown;
+        }
+        return current[page];
+    }
+
+    private static long mix(long id) {
+        long h = (id ^ (id >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static boolean isInline(String plate) {
+        if (plate.length() > PLATE_BYTES) {
+            return false;
+        }
+        for (int i = 0; i < plate.length(); i++) {
+            if (plate.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeInline(String plate, byte[] bytes, int offset) {
+        for (int i = 0; i < plate.length(); i++) {
+            bytes[offset + i] = (byte) plate.charAt(i);
+        }
+    }
+
+    /**
+     * One stripe of ticket rows. Every method must be called holding the stripe's monitor.
+     */
+    private final class TicketRows {
+        /** Numeric ticket ID of each row, 0 for a free row. */
+        private long[] ids = new long[INITIAL_ROWS];
+        private long[] entrySeconds = new long[INITIAL_ROWS];
+        private byte[] types = new byte[INITIAL_ROWS];
+        private int[] spotIndexes = new int[INITIAL_ROWS];
+        private byte[] plateBytes = new byte[INITIAL_ROWS * PLATE_BYTES];
+        /** Inline plate length, or -1 if the plate is kept in {@link #longPlates}. */
+        private byte[] plateLengths = new byte[INITIAL_ROWS];
+        private String[] longPlates = new String[INITIAL_ROWS];
+        private int[] freeRows = new int[INITIAL_ROWS];
+        private int freeCount;
+        private int rowCount;
+
+        /** Open-addressing index from ticket ID to row, 0 keys marking empty buckets. */
+        private long[] keys = new long[INITIAL_ROWS * 2];
+        private int[] keyRows = new int[INITIAL_ROWS * 2];
+        private int keyCount;
+
+        void add(long id, long entrySecond, byte type, String plate, int spotIndex) {
+            int row = freeCount > 0 ? freeRows[--freeCount] : nextRow();
+            ids[row] = id;
+            entrySeconds[row] = entrySecond;
+            types[row] = type;
+            spotIndexes[row] = spotIndex;
+            if (isInline(plate)) {
+                writeInline(plate, plateBytes, row * PLATE_BYTES);
+                plateLengths[row] = (byte) plate.length();
+            } else {
+                plateLengths[row] = -1;
+                longPlates[row] = plate;
+            }
+            index(id, row);
+        }
+
+        int find(long id) {
+            int mask = keys.length - 1;
+            for (int i = position(id) & mask; ; i = (i + 1) & mask) {
+                long key = keys[i];
+                if (key == id) {
+                    return keyRows[i];
+                }
+                if (key == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void remove(int row) {
+            unindex(ids[row]);
+            ids[row] = 0;
+            longPlates[row] = null;
+            freeRows[freeCount++] = row;
+        }
+
+        ParkingTicket ticket(int row, String ticketId) {
+            return new ParkingTicket(ticketId, vehicle(row),
+                    SpotView.of(spotIndexes[row], spots, ColumnarTicketStore.this),
+                    LocalDateTime.ofEpochSecond(entrySeconds[row], 0, ZoneOffset.UTC));
+        }
+
+        Vehicle vehicle(int row) {
+            int length = plateLengths[row];
+            String plate = length < 0 ? longPlates[row]
+                    : new String(plateBytes, row * PLATE_BYTES, length, StandardCharsets.ISO_8859_1);
+            return new Vehicle(plate, VEHICLE_TYPES[types[row]]);
+        }
+
+        private int nextRow() {
+            if (rowCount == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                entrySeconds = Arrays.copyOf(entrySeconds, capacity);
+                types = Arrays.copyOf(types, capacity);
+                spotIndexes = Arrays.copyOf(spotIndexes, capacity);
+                plateBytes = Arrays.copyOf(plateBytes, capacity * PLATE_BYTES);
+                plateLengths = Arrays.copyOf(plateLengths, capacity);
+                longPlates = Arrays.copyOf(longPlates, capacity);
+                freeRows = Arrays.copyOf(freeRows, capacity);
+            }
+            return rowCount++;
+        }
+
+        private void index(long id, int row) {
+            if ((keyCount + 1) * 2 > keys.length) {
+                long[] oldKeys = keys;
+                int[] oldRows = keyRows;
+                keys = new long[oldKeys.length * 2];
+                keyRows = new int[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != 0) {
+                        insert(oldKeys[i], oldRows[i]);
+                    }
+                }
+            }
+            insert(id, row);
+            keyCount++;
+        }
+
+        private void insert(long id, int row) {
+            int mask = keys.length - 1;
+            int i = position(id) & mask;
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            keyRows[i] = row;
+        }
+
+        /**
+         * Deletes by shifting later entries of the probe run back, so lookups never need tombstones.
+         */
+        private void unindex(long id) {
+            int mask = keys.length - 1;
+            int hole = position(id) & mask;
+            while (keys[hole] != id) {
+                hole = (hole + 1) & mask;
+            }
+            for (int i = (hole + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                int home = position(keys[i]) & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    keyRows[hole] = keyRows[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = 0;
+            keyCount--;
+        }
+
+        private int position(long id) {
+            return (int) (mix(id) >>> 32);
+        }
+    }
+}
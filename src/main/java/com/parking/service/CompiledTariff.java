@@ -0,0 +1,243 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TariffDefinition} compiled into a week of rate segments.
+ * <p>
+ * The week (Monday 00:00 to Sunday 24:00, minute resolution) is cut into segments of
+ * constant rate multiplier. Billing hours start every 60 minutes from entry, so the
+ * number of hours starting inside a segment is plain arithmetic; a stay is priced by
+ * walking segments, not hours. A band occurrence is capped as a whole, even where it
+ * straddles a daily-maximum window or a week of the stay, so each run of hours is
+ * charged only what it adds to its occurrence and its window. Because 168 hours are
+ * exactly seven 24-hour windows and no occurrence outlasts a day, every full week after
+ * the first starts in the same state and costs the same: it is priced once and
+ * multiplied, making multi-week stays as cheap as a two-week stay. Flat tariffs skip all
+ * of this and use a {@link TariffTable} lookup.
+ */
+final class CompiledTariff {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final int HOURS_PER_WEEK = 7 * 24;
+    private static final long SECONDS_PER_DAY = 86_400;
+    /** 1970-01-01 was a Thursday: Monday-based index 3. */
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private final TariffDefinition definition;
+    private final TariffTable flatTable;
+    private final double[] hourlyRates;
+    private final long graceSeconds;
+    private final double dailyMaximumHours;
+    private final double premium;
+
+    /** Start minute of each segment; the last segment runs to the end of the week. */
+    private final int[] segmentStarts;
+    private final double[] segmentMultipliers;
+    /** Cap in base-rate hours per occurrence, 0 for none. */
+    private final double[] segmentCapHours;
+    /**
+     * Segments sharing an occurrence ID are one band occurrence for capping: the same band
+     * started on the same day, split only where another band overrides part of it or the
+     * week wraps.
+     */
+    private final int[] segmentOccurrences;
+
+    CompiledTariff(TariffDefinition definition) {
+        this.definition = definition;
+        VehicleType[] types = VehicleType.values();
+        this.hourlyRates = new double[types.length];
+        for (VehicleType type : types) {
+            hourlyRates[type.ordinal()] = definition.getHourlyRate(type);
+        }
+        this.premium = definition.getReservationPremium();
+        this.flatTable = new TariffTable(hourlyRates, premium);
+        this.graceSeconds = definition.getGracePeriod().getSeconds();
+        this.dailyMaximumHours = definition.getDailyMaximumHours();
+
+        int[] bandAtMinute = new int[MINUTES_PER_WEEK];
+        int[] startDayAtMinute = new int[MINUTES_PER_WEEK];
+        paintBands(definition.getBands(), bandAtMinute, startDayAtMinute);
+        int segments = 1;
+        for (int minute = 1; minute < MINUTES_PER_WEEK; minute++) {
+            if (startsSegment(bandAtMinute, startDayAtMinute, minute)) {
+                segments++;
+            }
+        }
+        segmentStarts = new int[segments];
+        segmentMultipliers = new double[segments];
+        segmentCapHours = new double[segments];
+        segmentOccurrences = new int[segments];
+        List<TariffBand> bands = definition.getBands();
+        for (int minute = 0, segment = -1; minute < MINUTES_PER_WEEK; minute++) {
+            if (minute == 0 || startsSegment(bandAtMinute, startDayAtMinute, minute)) {
+                segment++;
+                int band = bandAtMinute[minute];
+                segmentStarts[segment] = minute;
+                segmentMultipliers[segment] = band < 0 ? 1.0 : bands.get(band).getRateMultiplier();
+                segmentCapHours[segment] = band < 0 ? 0 : bands.get(band).getCapHours();
+                segmentOccurrences[segment] = segment;
+            }
+        }
+        // A band running over Sunday midnight is one occurrence split across the week boundary.
+        if (segments > 1 && bandAtMinute[0] >= 0 && bandAtMinute[0] == bandAtMinute[MINUTES_PER_WEEK - 1]
+                && startDayAtMinute[0] == startDayAtMinute[MINUTES_PER_WEEK - 1]) {
+            segmentOccurrences[segments - 1] = segmentOccurrences[0];
+        }
+    }
+
+    TariffDefinition definition() {
+        return definition;
+    }
+
+    double premium() {
+        return premium;
+    }
+
+    double fee(VehicleType vehicleType, long entryEpochSecond, long exitEpochSecond) {
+        if (exitEpochSecond - entryEpochSecond <= graceSeconds && graceSeconds > 0) {
+            return 0;
+        }
+        long hours = TariffTable.billableHours(entryEpochSecond, exitEpochSecond);
+        if (isFlat()) {
+            return flatTable.fee(vehicleType, hours);
+        }
+        double rate = hourlyRates[vehicleType.ordinal()];
+        Walk walk = new Walk(minuteOfWeek(entryEpochSecond));
+
+        double total = 0;
+        long fullWeeks = hours / HOURS_PER_WEEK;
+        if (fullWeeks > 0) {
+            total += walk.advance(HOURS_PER_WEEK);
+        }
+        if (fullWeeks > 1) {
+            // The second week ends in the state it started in, so every later week repeats it.
+            total += (fullWeeks - 1) * walk.advance(HOURS_PER_WEEK);
+        }
+        total += walk.advance((int) (hours - fullWeeks * HOURS_PER_WEEK));
+        return total * rate;
+    }
+
+    double premiumFee(VehicleType vehicleType, long startEpochSecond, long endEpochSecond) {
+        if (isFlat()) {
+            return flatTable.premiumFee(vehicleType, TariffTable.billableHours(startEpochSecond, endEpochSecond));
+        }
+        return fee(vehicleType, startEpochSecond, endEpochSecond) * premium;
+    }
+
+    private boolean isFlat() {
+        return segmentStarts.length == 1 && segmentMultipliers[0] == 1.0 && segmentCapHours[0] == 0
+                && dailyMaximumHours == 0 && graceSeconds == 0;
+    }
+
+    /**
+     * Billing hours walked from an entry minute, carrying the open band occurrence and
+     * daily-maximum window from one call to the next.
+     */
+    private final class Walk {
+        private int minute;
+        private int segment;
+        private int occurrence;
+        /** Base-rate hours started in the open occurrence, before its cap. */
+        private double occurrenceHours;
+        /** Charge in the open 24-hour window, before the daily maximum. */
+        private double windowCharge;
+        private int windowHours;
+
+        Walk(int entryMinute) {
+            this.minute = entryMinute;
+            this.segment = segmentAt(entryMinute);
+            this.occurrence = segmentOccurrences[segment];
+        }
+
+        /**
+         * Walks the next {@code hours} billing hours and returns their cost in base-rate hours.
+         */
+        double advance(int hours) {
+            double total = 0;
+            int remaining = hours;
+            while (remaining > 0) {
+                int segmentEnd = segment + 1 < segmentStarts.length ? segmentStarts[segment + 1] : MINUTES_PER_WEEK;
+                int starting = Math.min(remaining, (segmentEnd - minute + 59) / 60);
+                if (dailyMaximumHours > 0) {
+                    starting = Math.min(starting, 24 - windowHours);
+                }
+                double uncapped = starting * segmentMultipliers[segment];
+                double cap = segmentCapHours[segment];
+                double charge = cap > 0
+                        ? Math.min(occurrenceHours + uncapped, cap) - Math.min(occurrenceHours, cap)
+                        : uncapped;
+                occurrenceHours += uncapped;
+                if (dailyMaximumHours > 0) {
+                    double windowed = Math.min(windowCharge + charge, dailyMaximumHours)
+                            - Math.min(windowCharge, dailyMaximumHours);
+                    windowCharge += charge;
+                    windowHours += starting;
+                    if (windowHours == 24) {
+                        windowHours = 0;
+                        windowCharge = 0;
+                    }
+                    charge = windowed;
+                }
+                total += charge;
+                remaining -= starting;
+                minute += starting * 60;
+
+                if (minute >= MINUTES_PER_WEEK) {
+                    minute -= MINUTES_PER_WEEK;
+                }
+                int nextSegment = segmentAt(minute);
+                if (segmentOccurrences[nextSegment] != occurrence) {
+                    occurrence = segmentOccurrences[nextSegment];
+                    occurrenceHours = 0;
+                }
+                segment = nextSegment;
+            }
+            return total;
+        }
+    }
+
+    private int segmentAt(int minuteOfWeek) {
+        int index = Arrays.binarySearch(segmentStarts, minuteOfWeek);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static int minuteOfWeek(long epochSecond) {
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int dayOfWeek = Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        return dayOfWeek * MINUTES_PER_DAY + secondOfDay / 60;
+    }
+
+    private static boolean startsSegment(int[] bandAtMinute, int[] startDayAtMinute, int minute) {
+        return bandAtMinute[minute] != bandAtMinute[minute - 1]
+                || startDayAtMinute[minute] != startDayAtMinute[minute - 1];
+    }
+
+    /**
+     * Marks every minute of the week with the index of the band in force, -1 for the base
+     * rate, and the day of the week on which that band's occurrence started, -1 for none.
+     */
+    private static void paintBands(List<TariffBand> bands, int[] bandAtMinute, int[] startDayAtMinute) {
+        Arrays.fill(bandAtMinute, -1);
+        Arrays.fill(startDayAtMinute, -1);
+        for (int band = 0; band < bands.size(); band++) {
+            TariffBand tariffBand = bands.get(band);
+            int from = tariffBand.getFrom().toSecondOfDay() / 60;
+            int to = tariffBand.getTo().toSecondOfDay() / 60;
+            int length = to > from ? to - from : MINUTES_PER_DAY - from + to;
+            for (DayOfWeek day : tariffBand.getDays()) {
+                int start = (day.getValue() - 1) * MINUTES_PER_DAY + from;
+                for (int i = 0; i < length; i++) {
+                    bandAtMinute[(start + i) % MINUTES_PER_WEEK] = band;
+                    startDayAtMinute[(start + i) % MINUTES_PER_WEEK] = day.getValue() - 1;
+                }
+            }
+        }
+    }
+}
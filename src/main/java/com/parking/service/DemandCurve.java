@@ -0,0 +1,69 @@
+package com.parking.service;
+
+import java.time.Duration;
+
+/**
+ * Maps smoothed occupancy to a price multiplier.
+ * At or below {@code lowOccupancy} prices are multiplied by {@code minMultiplier}; at or
+ * above {@code highOccupancy} by {@code maxMultiplier}; in between the multiplier is
+ * interpolated linearly. Occupancy is smoothed with an exponentially weighted moving
+ * average over {@code smoothingWindow} so short bursts of arrivals do not make prices flap.
+ */
+public final class DemandCurve {
+    private final double lowOccupancy;
+    private final double highOccupancy;
+    private final double minMultiplier;
+    private final double maxMultiplier;
+    private final Duration smoothingWindow;
+
+    public DemandCurve(double lowOccupancy, double highOccupancy,
+                       double minMultiplier, double maxMultiplier, Duration smoothingWindow) {
+        if (lowOccupancy < 0 || highOccupancy > 1 || lowOccupancy >= highOccupancy) {
+            throw new IllegalArgumentException("Occupancy thresholds must satisfy 0 <= low < high <= 1");
+        }
+        if (minMultiplier <= 0 || maxMultiplier < minMultiplier) {
+            throw new IllegalArgumentException("Multipliers must satisfy 0 < min <= max");
+        }
+        if (smoothingWindow == null || smoothingWindow.isNegative() || smoothingWindow.isZero()) {
+            throw new IllegalArgumentException("Smoothing window must be positive");
+        }
+        this.lowOccupancy = lowOccupancy;
+        this.highOccupancy = highOccupancy;
+        this.minMultiplier = minMultiplier;
+        this.maxMultiplier = maxMultiplier;
+        this.smoothingWindow = smoothingWindow;
+    }
+
+    /**
+     * 10% discount below 30% occupancy rising to a 50% surcharge above 90%, smoothed over 15 minutes.
+     */
+    public static DemandCurve standard() {
+        return new DemandCurve(0.3, 0.9, 0.9, 1.5, Duration.ofMinutes(15));
+    }
+
+    public double multiplier(double occupancy) {
+        if (occupancy <= lowOccupancy) {
+            return minMultiplier;
+        }
+        if (occupancy >= highOccupancy) {
+            return maxMultiplier;
+        }
+        double position = (occupancy - lowOccupancy) / (highOccupancy - lowOccupancy);
+        return minMultiplier + position * (maxMultiplier - minMultiplier);
+    }
+
+    public Duration getSmoothingWindow() {
+        return smoothingWindow;
+    }
+
+    @Override
+    public String toString() {
+        return "DemandCurve{" +
+                "lowOccupancy=" + lowOccupancy +
+                ", highOccupancy=" + highOccupancy +
+                ", minMultiplier=" + minMultiplier +
+                ", maxMultiplier=" + maxMultiplier +
+                ", smoothingWindow=" + smoothingWindow +
+                '}';
+    }
+}
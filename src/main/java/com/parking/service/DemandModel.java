@@ -0,0 +1,60 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Smoothed occupancy per vehicle type, sampled lazily from an {@link OccupancySignal}.
+ * At most one quoting thread per sample interval refreshes a type's average (a CAS on
+ * the sample timestamp); every other quote just reads the published value, so quoting
+ * never blocks and never contends with park/exit beyond reading their counters.
+ */
+final class DemandModel {
+
+    /** Averages are refreshed at most this often. */
+    private static final long SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final OccupancySignal signal;
+    private final DemandCurve curve;
+    private final double windowNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLongArray sampledAt;
+    /** Smoothed occupancy per type, stored as double bits. */
+    private final AtomicLongArray smoothed;
+
+    DemandModel(OccupancySignal signal, DemandCurve curve, LongSupplier nanoClock) {
+        this.signal = signal;
+        this.curve = curve;
+        this.windowNanos = curve.getSmoothingWindow().toNanos();
+        this.nanoClock = nanoClock;
+        int types = VehicleType.values().length;
+        this.sampledAt = new AtomicLongArray(types);
+        this.smoothed = new AtomicLongArray(types);
+        long now = nanoClock.getAsLong();
+        for (VehicleType type : VehicleType.values()) {
+            sampledAt.set(type.ordinal(), now);
+            smoothed.set(type.ordinal(), Double.doubleToRawLongBits(signal.occupancy(type)));
+        }
+    }
+
+    double multiplier(VehicleType vehicleType) {
+        return curve.multiplier(smoothedOccupancy(vehicleType));
+    }
+
+    double smoothedOccupancy(VehicleType vehicleType) {
+        int type = vehicleType.ordinal();
+        long now = nanoClock.getAsLong();
+        long last = sampledAt.get(type);
+        long elapsed = now - last;
+        if (elapsed >= SAMPLE_INTERVAL_NANOS && sampledAt.compareAndSet(type, last, now)) {
+            double previous = Double.longBitsToDouble(smoothed.get(type));
+            double alpha = 1 - Math.exp(-elapsed / windowNanos);
+            double current = previous + alpha * (signal.occupancy(vehicleType) - previous);
+            smoothed.set(type, Double.doubleToRawLongBits(current));
+            return current;
+        }
+        return Double.longBitsToDouble(smoothed.get(type));
+    }
+}
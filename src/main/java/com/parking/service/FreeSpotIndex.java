@@ -0,0 +1,179 @@
+package com.parking.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Lock-free bitmap of free parking slots. A set bit means the slot is free.
+ * Claiming a slot clears its bit with a single CAS on the containing word, so
+ * concurrent allocators never serialize on a monitor and never hand out the
+ * same slot twice. Storage grows in fixed-size pages that are never moved, so
+ * registration of new slots does not disturb in-flight claims.
+ * The complement of the bitmap is the occupancy map of the shard that owns it.
+ */
+final class FreeSpotIndex {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;           // slots per page
+    private static final int WORDS_PER_PAGE = PAGE_SIZE >>> 6;
+
+    private volatile long[][] pages = new long[0][];
+    private volatile int capacity;
+
+    /**
+     * Word index where the next search starts. Purely a hint: stale values only
+     * cost a few extra word reads, never correctness.
+     */
+    private volatile int searchHint;
+
+    /** Claims that lost a compare-and-set to a concurrent claim or release and retried. */
+    private final LongAdder contended = new LongAdder();
+
+    /**
+     * Makes room for slots up to (but excluding) the given index.
+     * Callers must publish slot contents before releasing the slot into the index.
+     */
+    synchronized void ensureCapacity(int slots) {
+        if (slots <= capacity) {
+            return;
+        }
+        long[][] current = pages;
+        int required = (slots + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        if (required > current.length) {
+            long[][] grown = Arrays.copyOf(current, required);
+            for (int i = current.length; i < required; i++) {
+                grown[i] = new long[WORDS_PER_PAGE];
+            }
+            pages = grown;
+        }
+        capacity = slots;
+    }
+
+    /**
+     * Marks a slot as free.
+     *
+     * @return true if the slot was claimed before this call
+     */
+    boolean release(int slot) {
+        long[] page = pages[slot >>> PAGE_SHIFT];
+        int word = (slot & (PAGE_SIZE - 1)) >>> 6;
+        long mask = 1L << slot;
+        long previous = (long) WORDS.getAndBitwiseOr(page, word, mask);
+        return (previous & mask) == 0;
+    }
+
+    /**
+     * Claims one specific slot.
+     *
+     * @return true if the slot was free and is now claimed by the caller
+     */
+    boolean claim(int slot) {
+        long[] page = pages[slot >>> PAGE_SHIFT];
+        int word = (slot & (PAGE_SIZE - 1)) >>> 6;
+        long mask = 1L << slot;
+        long previous = (long) WORDS.getAndBitwiseAnd(page, word, ~mask);
+        return (previous & mask) != 0;
+    }
+
+    /**
+     * Claims any free slot.
+     *
+     * @return the claimed slot, or -1 if every slot is taken
+     */
+    int claimAny() {
+        return claimAny(null);
+    }
+
+    /**
+     * Claims any free slot the filter accepts. Rejected slots are skipped without being
+     * claimed, so they stay free for callers that accept them.
+     *
+     * @param accept filter on slot numbers, or null to accept any
+     * @return the claimed slot, or -1 if no free slot is accepted
+     */
+    int claimAny(IntPredicate accept) {
+        long[][] snapshot = pages;
+        int totalWords = wordCount(snapshot);
+        if (totalWords == 0) {
+            return -1;
+        }
+        int start = searchHint;
+        if (start >= totalWords) {
+            start = 0;
+        }
+        for (int i = 0; i < totalWords; i++) {
+            int globalWord = start + i;
+            if (globalWord >= totalWords) {
+                globalWord -= totalWords;
+            }
+            long[] page = snapshot[globalWord / WORDS_PER_PAGE];
+            int word = globalWord % WORDS_PER_PAGE;
+            long bits = (long) WORDS.getVolatile(page, word);
+            long rejected = 0;
+            while ((bits & ~rejected) != 0) {
+                long lowest = Long.lowestOneBit(bits & ~rejected);
+                int slot = (globalWord << 6) + Long.numberOfTrailingZeros(lowest);
+                if (accept != null && !accept.test(slot)) {
+                    rejected |= lowest;
+                    continue;
+                }
+                if (WORDS.compareAndSet(page, word, bits, bits & ~lowest)) {
+                    if (globalWord != start) {
+                        searchHint = globalWord;
+                    }
+                    return slot;
+                }
+                contended.increment();
+                bits = (long) WORDS.getVolatile(page, word);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns any currently free slot without claiming it, or -1 if none is free.
+     */
+    int peekAny() {
+        return peekAny(null);
+    }
+
+    /**
+     * Returns any currently free slot the filter accepts without claiming it, or -1 if
+     * there is none.
+     *
+     * @param accept filter on slot numbers, or null to accept any
+     */
+    int peekAny(IntPredicate accept) {
+        long[][] snapshot = pages;
+        int totalWords = wordCount(snapshot);
+        for (int globalWord = 0; globalWord < totalWords; globalWord++) {
+            long bits = (long) WORDS.getVolatile(snapshot[globalWord / WORDS_PER_PAGE], globalWord % WORDS_PER_PAGE);
+            while (bits != 0) {
+                int slot = (globalWord << 6) + Long.numberOfTrailingZeros(bits);
+                if (accept == null || accept.test(slot)) {
+                    return slot;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return -1;
+    }
+
+    boolean isFree(int slot) {
+        long[] page = pages[slot >>> PAGE_SHIFT];
+        int word = (slot & (PAGE_SIZE - 1)) >>> 6;
+        return ((long) WORDS.getVolatile(page, word) & (1L << slot)) != 0;
+    }
+
+    long contendedCount() {
+        return contended.sum();
+    }
+
+    private static int wordCount(long[][] snapshot) {
+        return snapshot.length * WORDS_PER_PAGE;
+    }
+}
@@ -0,0 +1,62 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Vehicle;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps every open ticket as a live {@link ParkingTicket} in a concurrent map.
+ */
+final class HeapTicketStore implements TicketStore {
+
+    private final ConcurrentHashMap<String, ParkingTicket> activeTickets = new ConcurrentHashMap<>();
+
+    @Override
+    public ParkingTicket open(String ticketId, Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime) {
+        ParkingTicket ticket = new ParkingTicket(ticketId, vehicle, spot, entryTime);
+        activeTickets.put(ticketId, ticket);
+        return ticket;
+    }
+
+    @Override
+    public void restore(ParkingTicket ticket) {
+        activeTickets.put(ticket.getTicketId(), ticket);
+    }
+
+    @Override
+    public boolean contains(String ticketId) {
+        return activeTickets.containsKey(ticketId);
+    }
+
+    @Override
+    public ParkingTicket get(String ticketId) {
+        return activeTickets.get(ticketId);
+    }
+
+    @Override
+    public ParkingTicket close(String ticketId, LocalDateTime exitTime) {
+        ParkingTicket ticket = activeTickets.get(ticketId);
+        if (ticket == null || !ticket.tryMarkAsProcessed()) {
+            return null;
+        }
+        ticket.setExitTime(exitTime);
+        activeTickets.remove(ticketId);
+        return ticket;
+    }
+
+    @Override
+    public void reopen(ParkingTicket ticket) {
+        ticket.reopen();
+        activeTickets.put(ticket.getTicketId(), ticket);
+    }
+
+    @Override
+    public List<ParkingTicket> openTickets() {
+        return new ArrayList<>(activeTickets.values());
+    }
+}
@@ -0,0 +1,162 @@
+package com.parking.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free generator of unique, time-ordered IDs such as ticket and reservation numbers.
+ * <p>
+ * An ID is a 64-bit value laid out as {@code [millis since 2024-01-01 : 41][sequence : 12][node : 10]}.
+ * The millisecond and sequence parts form one counter advanced with a single CAS; when more
+ * than 4096 IDs are taken in one millisecond the counter simply borrows from the next
+ * millisecond, so there is no lock and no waiting for the clock. The node part keeps IDs
+ * from different service instances apart. IDs are rendered as a prefix followed by 13
+ * fixed-width Crockford base-32 digits, which sort in the same order as the numeric values.
+ */
+public final class IdGenerator {
+
+    /** 2024-01-01T00:00:00Z. */
+    private static final long CUSTOM_EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int DIGITS = 13;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DIGIT_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGIT_VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final String prefix;
+    private final byte[] prefixBytes;
+    private final int nodeId;
+    private final LongSupplier clock;
+    private final AtomicLong lastCounter = new AtomicLong();
+    private final ThreadLocal<byte[]> formatBuffer;
+
+    /**
+     * @param prefix text placed before every formatted ID, e.g. "TKT-"; must be ASCII
+     * @param nodeId identifies this service instance, 0 to 1023
+     */
+    public IdGenerator(String prefix, int nodeId) {
+        this(prefix, nodeId, System::currentTimeMillis);
+    }
+
+    IdGenerator(String prefix, int nodeId, LongSupplier clock) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+        }
+        this.prefix = prefix;
+        this.prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.formatBuffer = ThreadLocal.withInitial(() -> {
+            byte[] buffer = new byte[prefixBytes.length + DIGITS];
+            System.arraycopy(prefixBytes, 0, buffer, 0, prefixBytes.length);
+            return buffer;
+        });
+    }
+
+    public long nextId() {
+        return nextBlock(1);
+    }
+
+    /**
+     * Reserves {@code count} consecutive IDs with one CAS.
+     *
+     * @return the first ID of the block; use {@link #idInBlock(long, int)} for the others
+     */
+    public long nextBlock(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        while (true) {
+            long last = lastCounter.get();
+            long now = (clock.getAsLong() - CUSTOM_EPOCH_MILLIS) << SEQUENCE_BITS;
+            long first = Math.max(last + 1, now);
+            if (lastCounter.compareAndSet(last, first + count - 1)) {
+                return (first << NODE_BITS) | nodeId;
+            }
+        }
+    }
+
+    /**
+     * Makes every later ID sort after {@code id}, e.g. one restored from disk that was
+     * minted before a restart whose clock now reads earlier. IDs of other nodes are
+     * treated alike, which only skips a few sequence numbers.
+     */
+    public void advancePast(long id) {
+        long counter = id >>> NODE_BITS;
+        lastCounter.accumulateAndGet(counter, Math::max);
+    }
+
+    /**
+     * Returns the {@code index}-th ID of a block starting at {@code firstId}.
+     */
+    public static long idInBlock(long firstId, int index) {
+        return firstId + ((long) index << NODE_BITS);
+    }
+
+    public String nextFormattedId() {
+        return format(nextId());
+    }
+
+    /**
+     * Renders an ID as prefix plus fixed-width base-32 digits.
+     * The digits are written into a per-thread buffer, so the only allocation is the String itself.
+     */
+    public String format(long id) {
+        byte[] buffer = formatBuffer.get();
+        long remaining = id;
+        for (int i = buffer.length - 1; i >= prefixBytes.length; i--) {
+            buffer[i] = ALPHABET[(int) (remaining & 31)];
+            remaining >>>= 5;
+        }
+        return new String(buffer, 0, buffer.length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Parses an ID previously produced by {@link #format(long)}.
+     *
+     * @throws IllegalArgumentException if the text is not an ID of this generator
+     */
+    public long parse(String formattedId) {
+        if (formattedId == null || formattedId.length() != prefixBytes.length + DIGITS
+                || !formattedId.startsWith(prefix)) {
+            throw new IllegalArgumentException("Invalid ID: " + formattedId);
+        }
+        long id = 0;
+        for (int i = prefixBytes.length; i < formattedId.length(); i++) {
+            char c = formattedId.charAt(i);
+            int value = c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid ID: " + formattedId);
+            }
+            id = (id << 5) | value;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the node that generated the ID.
+     */
+    public static int nodeOf(long id) {
+        return (int) (id & MAX_NODE_ID);
+    }
+
+    /**
+     * Returns the approximate creation time of the ID in epoch milliseconds.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + CUSTOM_EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,16 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+
+/**
+ * Live occupancy feed consumed by demand pricing.
+ * Implementations must be cheap and non-blocking: they are read on every quote.
+ */
+@FunctionalInterface
+public interface OccupancySignal {
+
+    /**
+     * @return fraction of the spots able to take this vehicle type that are currently taken, 0.0 to 1.0
+     */
+    double occupancy(VehicleType vehicleType);
+}
@@ -0,0 +1,44 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Reservation;
+
+/**
+ * Receives every state change made by a {@link ParkingService}, after the change is
+ * applied and on the thread that made it. Listeners back the journal, analytics and
+ * archive stages, so implementations must be fast and thread-safe. An exception thrown
+ * by a listener propagates to the caller of the operation, and the service reverts the
+ * park, exit or reservation change it was told about, so a journal that fails to append
+ * never leaves unrecorded state behind. Listeners notified before the failing one have
+ * already seen the change; register the journal first.
+ */
+public interface ParkingEventListener {
+
+    default void onSpotAdded(ParkingSpot spot) {
+    }
+
+    default void onVehicleParked(ParkingTicket ticket) {
+    }
+
+    default void onVehicleExited(ParkingTicket ticket, double fee) {
+    }
+
+    default void onReservationCreated(Reservation reservation) {
+    }
+
+    default void onReservationActivated(Reservation reservation) {
+    }
+
+    default void onReservationCompleted(Reservation reservation) {
+    }
+
+    default void onReservationCheckedIn(Reservation reservation) {
+    }
+
+    default void onReservationCancelled(Reservation reservation) {
+    }
+
+    default void onReservationExpired(Reservation reservation) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingStatus;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Reservation;
+import com.parking.model.Vehicle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Gate-facing operations of a parking lot, shared by the lock-based
+ * {@link ParkingService} and the {@link SingleWriterParkingService} so front ends can
+ * run on either execution mode.
+ */
+public interface ParkingOperations {
+
+    void addParkingSpot(ParkingSpot spot);
+
+    ParkingTicket parkVehicle(Vehicle vehicle);
+
+    ParkingTicket parkVehicle(Vehicle vehicle, String homeZone);
+
+    ParkingTicket parkVehicle(Vehicle vehicle, String homeZone, Duration expectedStay);
+
+    double exitVehicle(String ticketId);
+
+    double exitVehicleByPlate(String licensePlate);
+
+    Reservation createReservation(String userId, Vehicle vehicle, LocalDateTime startTime, LocalDateTime endTime);
+
+    void activateReservation(String reservationId);
+
+    void completeReservation(String reservationId);
+
+    void checkInReservation(String reservationId);
+
+    void cancelReservation(String reservationId);
+
+    void expireReservation(String reservationId);
+
+    Object getParkingStatus();
+
+    ParkingStatus getParkingStatusSnapshot();
+
+    List<ParkingTicket> getActiveTickets();
+}
@@ -1,41 +1,249 @@
 package com.parking.service;
 
+import com.parking.metrics.AllocationFailure;
+import com.parking.metrics.Operation;
+import com.parking.metrics.ParkingMetrics;
 import com.parking.model.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Core service for managing parking operations including spot allocation,
- * ticket management, and reservations. All data is stored in-memory.
+ * ticket management, and reservations. Live state is held in memory; every change is
+ * published to the registered {@link ParkingEventListener}s, which is how a journal
+ * makes it durable, and {@link #restore} rebuilds the state after a restart.
  */
-public class ParkingService {
+public class ParkingService implements ParkingOperations {
+
+    /** Stay assumed for walk-ins that do not say how long they will park. */
+    public static final Duration DEFAULT_EXPECTED_STAY = Duration.ofHours(1);
 
     private final PricingService pricingService;
-    private int ticketCounter = 0;
-    private int reservationCounter = 0;
+    private final SpotAllocator spotAllocator;
+    private final TicketStore tickets;
+    /** Non-null if tickets and spots are handed out as views; see {@link StorageEngine#COLUMNAR}. */
+    private final ColumnarTicketStore columnarTickets;
+    private final PlateIndex activePlates = new PlateIndex();
+    /** Published views of the open tickets; null in columnar mode, whose tickets are built on demand. */
+    private final SnapshotPublisher<ParkingTicket> ticketSnapshots;
+    private final SnapshotPublisher<Reservation> reservationSnapshots = new SnapshotPublisher<>();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final LongAdder activeTicketCount = new LongAdder();
+    private final LongAdder activeReservationCount = new LongAdder();
+    private final ReservationIndex reservationIndex = new ReservationIndex();
+    private final IdGenerator ticketIds;
+    private final IdGenerator reservationIds;
+    private final CopyOnWriteArrayList<ParkingEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final ChangeGate changeGate = new ChangeGate();
+    private final ParkingMetrics metrics = new ParkingMetrics(this::lockContention);
 
     public ParkingService(PricingService pricingService) {
+        this(pricingService, SpotSharding.byZonePrefix());
+    }
+
+    /**
+     * Creates a service whose spots are partitioned into allocation shards by the given strategy.
+     */
+    public ParkingService(PricingService pricingService, SpotSharding sharding) {
+        this(pricingService, sharding, 0);
+    }
+
+    /**
+     * Creates a service for one node of a multi-instance deployment.
+     *
+     * @param nodeId distinguishes the ticket and reservation IDs minted by this instance, 0 to 1023
+     */
+    public ParkingService(PricingService pricingService, SpotSharding sharding, int nodeId) {
+        this(pricingService, sharding, nodeId, StorageEngine.HEAP);
+    }
+
+    /**
+     * Creates a service that keeps its open tickets and spot occupancy in the given engine.
+     *
+     * @param nodeId distinguishes the ticket and reservation IDs minted by this instance, 0 to 1023
+     */
+    public ParkingService(PricingService pricingService, SpotSharding sharding, int nodeId,
+                          StorageEngine storageEngine) {
+        if (sharding == null) {
+            throw new IllegalArgumentException("Spot sharding cannot be null");
+        }
+        if (storageEngine == null) {
+            throw new IllegalArgumentException("Storage engine cannot be null");
+        }
         this.pricingService = pricingService;
+        this.ticketIds = new IdGenerator("TKT-", nodeId);
+        this.reservationIds = new IdGenerator("RES-", nodeId);
+        if (storageEngine == StorageEngine.COLUMNAR) {
+            this.spotAllocator = new SpotAllocator(sharding, false);
+            this.columnarTickets = new ColumnarTicketStore(ticketIds, spotAllocator);
+            this.tickets = columnarTickets;
+            this.ticketSnapshots = null;
+        } else {
+            this.spotAllocator = new SpotAllocator(sharding);
+            this.columnarTickets = null;
+            this.tickets = new HeapTicketStore();
+            this.ticketSnapshots = new SnapshotPublisher<>(ticket -> !ticket.isProcessed());
+        }
     }
 
     /**
      * Registers a parking spot in the system.
+     * Listeners hear about the spot before it can be parked in or booked, so every
+     * later event that refers to the spot is published after its addition.
      */
     public void addParkingSpot(ParkingSpot spot) {
         if (spot == null) {
             throw new IllegalArgumentException("Parking spot cannot be null");
         }
+        spotAllocator.register(spot);
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onSpotAdded(spot);
+            }
+        } finally {
+            reservationIndex.addSpot(spot);
+            spotAllocator.publish(spot);
+        }
+    }
 
+    /**
+     * Returns the index the spot was given at registration, or -1 if it is not registered.
+     * Indexes are dense, start at 0 and follow registration order; {@link #restore}
+     * assigns them again in the order the spots are passed.
+     */
+    public int getSpotIndex(ParkingSpot spot) {
+        return spot == null ? -1 : spotAllocator.indexOf(spot);
     }
 
     /**
-     * Finds an available parking spot.
+     * Returns the spot registered with the given index.
+     *
+     * @throws IllegalArgumentException if no spot has that index
+     */
+    public ParkingSpot getSpotAt(int index) {
+        ParkingSpot spot = spotAllocator.spotAt(index);
+        if (spot == null) {
+            throw new IllegalArgumentException("Invalid spot index: " + index);
+        }
+        return columnarTickets == null ? spot : SpotView.of(index, spotAllocator, columnarTickets);
+    }
+
+    /**
+     * Returns what callers see of a registered spot: the spot itself, or a view of it.
+     */
+    private ParkingSpot exposed(ParkingSpot spot) {
+        return columnarTickets == null ? spot
+                : SpotView.of(spotAllocator.indexOf(spot), spotAllocator, columnarTickets);
+    }
+
+    public void addEventListener(ParkingEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeEventListener(ParkingEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Runs the action at a moment when no park or exit is between changing the state
+     * and notifying the listeners, holding new ones off meanwhile. A journal position
+     * read this way follows the park record of every ticket whose exit it follows.
+     */
+    public <T> T whileQuiescent(Supplier<T> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        return changeGate.quiesce(action);
+    }
+
+    /**
+     * Installs previously persisted state, e.g. replayed from a journal at startup.
+     * Spots are registered, each ticket re-occupies its spot and confirmed or active
+     * reservations are put back into their spot's calendar. The ID generators are moved
+     * past every restored ID, so new IDs cannot collide with them even if the clock now
+     * reads earlier than when they were minted. Listeners are not notified, since the
+     * state being restored is already recorded.
+     *
+     * @throws IllegalStateException if the state is inconsistent, e.g. two tickets share a spot
+     */
+    public void restore(Collection<ParkingSpot> spots, Collection<ParkingTicket> restoredTickets,
+                        Collection<Reservation> restoredReservations) {
+        for (ParkingSpot spot : spots) {
+            spotAllocator.register(spot);
+            spotAllocator.publish(spot);
+        }
+        reservationIndex.addSpots(spots);
+        for (ParkingTicket ticket : restoredTickets) {
+            String licensePlate = ticket.getVehicle().getLicensePlate();
+            long numericId = ticketIds.parse(ticket.getTicketId());
+            ticketIds.advancePast(numericId);
+            if (!activePlates.putIfAbsent(licensePlate, numericId)) {
+                throw new IllegalStateException("Vehicle " + licensePlate + " already has an active parking ticket");
+            }
+            if (!spotAllocator.claim(ticket.getSpot(), ticket.getVehicle())) {
+                throw new IllegalStateException("Parking spot " + ticket.getSpot().getSpotId()
+                        + " of ticket " + ticket.getTicketId() + " is already occupied");
+            }
+            tickets.restore(ticket);
+            if (ticketSnapshots != null) {
+                ticketSnapshots.put(numericId, ticket);
+            }
+            activeTicketCount.increment();
+        }
+        for (Reservation reservation : restoredReservations) {
+            long numericId = reservationIds.parse(reservation.getReservationId());
+            reservationIds.advancePast(numericId);
+            reservations.put(reservation.getReservationId(), reservation);
+            reservationSnapshots.put(numericId, reservation);
+            ReservationStatus status = reservation.getStatus();
+            if (status != ReservationStatus.CONFIRMED && status != ReservationStatus.ACTIVE) {
+                continue;
+            }
+            if (!reservationIndex.restore(reservation)) {
+                throw new IllegalStateException("Reservation " + reservation.getReservationId()
+                        + " conflicts with another booking");
+            }
+            activeReservationCount.increment();
+            if (status == ReservationStatus.ACTIVE
+                    && !spotAllocator.claim(reservation.getAssignedSpot(), reservation.getVehicle())) {
+                throw new IllegalStateException("Reserved spot " + reservation.getAssignedSpot().getSpotId()
+                        + " is currently occupied");
+            }
+        }
+    }
+
+    /**
+     * Finds an available parking spot, one a walk-in staying for the
+     * {@link #DEFAULT_EXPECTED_STAY default stay} would be given.
      */
     public Optional<ParkingSpot> findAvailableSpot() {
-        return null;
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            Optional<ParkingSpot> spot;
+            if (reservationIndex.hasBookings()) {
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime until = now.plus(DEFAULT_EXPECTED_STAY);
+                spot = spotAllocator.peekFree(candidate -> reservationIndex.isClear(candidate, now, until));
+            } else {
+                spot = spotAllocator.peekFree();
+            }
+            succeeded = true;
+            return spot.map(this::exposed);
+        } finally {
+            metrics.record(Operation.FIND_SPOT, started, succeeded);
+        }
     }
 
 
@@ -44,18 +252,178 @@ public class ParkingService {
      * Must handle concurrent access safely.
      */
     public ParkingTicket parkVehicle(Vehicle vehicle) {
-        // TODO: Implement parking logic
-        // LocalDateTime currentTime = LocalDateTime.now();
-        return null;
+        return parkVehicle(vehicle, null);
+    }
+
+    /**
+     * Parks a vehicle, preferring spots in the gate's home zone.
+     * Spots from other zones are only handed out once the home zone is full.
+     * A vehicle is rejected if its plate already has an open ticket; plates are compared
+     * ignoring case, spaces, hyphens and dots.
+     *
+     * @param homeZone shard key of the gate's zone (see {@link SpotSharding}), or null for no preference
+     */
+    public ParkingTicket parkVehicle(Vehicle vehicle, String homeZone) {
+        return parkVehicle(vehicle, homeZone, DEFAULT_EXPECTED_STAY);
     }
 
     /**
-     * Finds and atomically reserves an available spot.
-     * Critical for preventing race conditions.
+     * Parks a vehicle that expects to stay for the given time. Spots with a reservation
+     * starting before then are passed over, so a walk-in does not take a spot a booking
+     * is about to need; the check is one calendar lookup per candidate spot.
+     *
+     * @param homeZone     shard key of the gate's zone, or null for no preference
+     * @param expectedStay how long the vehicle expects to park, positive
      */
-    private ParkingSpot findAndReserveAvailableSpot() {
-        // TODO: Implement spot allocation
-        return null;
+    public ParkingTicket parkVehicle(Vehicle vehicle, String homeZone, Duration expectedStay) {
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            if (vehicle == null) {
+                throw new IllegalArgumentException("Vehicle cannot be null");
+            }
+            if (expectedStay == null || expectedStay.isNegative() || expectedStay.isZero()) {
+                throw new IllegalArgumentException("Expected stay must be positive");
+            }
+            LocalDateTime entryTime = LocalDateTime.now();
+            ParkingTicket ticket;
+            int token = changeGate.enter();
+            try {
+                ticket = park(vehicle, homeZone, ticketIds.nextId(), entryTime,
+                        entryTime.plus(expectedStay)).getValue();
+                try {
+                    for (ParkingEventListener listener : listeners) {
+                        listener.onVehicleParked(ticket);
+                    }
+                } catch (RuntimeException e) {
+                    undoPark(ticket);
+                    throw e;
+                }
+            } finally {
+                changeGate.leave(token);
+            }
+            succeeded = true;
+            return ticket;
+        } finally {
+            metrics.record(Operation.PARK, started, succeeded);
+        }
+    }
+
+    /**
+     * Parks a burst of vehicles in one pass, sharing one entry timestamp and one
+     * block of ticket IDs across the batch. Each vehicle gets its own result, in
+     * input order; a vehicle that cannot be parked does not stop the others.
+     */
+    public List<BatchResult<ParkingTicket>> parkVehicles(List<Vehicle> vehicles) {
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            List<BatchResult<ParkingTicket>> results = parkBatch(vehicles);
+            succeeded = allSucceeded(results);
+            return results;
+        } finally {
+            metrics.record(Operation.PARK_BATCH, started, succeeded);
+        }
+    }
+
+    private List<BatchResult<ParkingTicket>> parkBatch(List<Vehicle> vehicles) {
+        if (vehicles == null) {
+            throw new IllegalArgumentException("Vehicles cannot be null");
+        }
+        int size = vehicles.size();
+        List<BatchResult<ParkingTicket>> results = new ArrayList<>(size);
+        if (size == 0) {
+            return results;
+        }
+        int token = changeGate.enter();
+        try {
+            parkAll(vehicles, results);
+        } finally {
+            changeGate.leave(token);
+        }
+        return results;
+    }
+
+    private void parkAll(List<Vehicle> vehicles, List<BatchResult<ParkingTicket>> results) {
+        int size = vehicles.size();
+        long firstTicketId = ticketIds.nextBlock(size);
+        LocalDateTime entryTime = LocalDateTime.now();
+        LocalDateTime expectedExit = entryTime.plus(DEFAULT_EXPECTED_STAY);
+        for (int i = 0; i < size; i++) {
+            Vehicle vehicle = vehicles.get(i);
+            if (vehicle == null) {
+                results.add(BatchResult.failure("Vehicle cannot be null"));
+            } else {
+                results.add(park(vehicle, null, IdGenerator.idInBlock(firstTicketId, i), entryTime, expectedExit));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            BatchResult<ParkingTicket> result = results.get(i);
+            if (!result.isSuccess()) {
+                continue;
+            }
+            try {
+                for (ParkingEventListener listener : listeners) {
+                    listener.onVehicleParked(result.getValue());
+                }
+            } catch (RuntimeException e) {
+                undoPark(result.getValue());
+                results.set(i, BatchResult.failure(String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    private BatchResult<ParkingTicket> park(Vehicle vehicle, String homeZone, long ticketId,
+                                            LocalDateTime entryTime, LocalDateTime expectedExit) {
+        String licensePlate = vehicle.getLicensePlate();
+        if (!activePlates.putIfAbsent(licensePlate, ticketId)) {
+            metrics.recordFailure(AllocationFailure.DUPLICATE_VEHICLE);
+            return BatchResult.failure("Vehicle " + licensePlate + " already has an active parking ticket");
+        }
+
+        ParkingSpot spot = findAndReserveAvailableSpot(vehicle, homeZone, entryTime, expectedExit);
+        if (spot == null) {
+            activePlates.remove(licensePlate, ticketId);
+            metrics.recordFailure(AllocationFailure.NO_SPOT);
+            return BatchResult.failure("No available parking spots");
+        }
+
+        ParkingTicket ticket = tickets.open(ticketIds.format(ticketId), vehicle, spot, entryTime);
+        if (ticketSnapshots != null) {
+            ticketSnapshots.put(ticketId, ticket);
+        }
+        activeTicketCount.increment();
+        return BatchResult.success(ticket);
+    }
+
+    /**
+     * Reverts a park that a listener, such as the journal, failed to record. Does nothing
+     * if an exit has closed the ticket in the meantime.
+     */
+    private void undoPark(ParkingTicket ticket) {
+        if (tickets.close(ticket.getTicketId(), ticket.getEntryTime()) == null) {
+            return;
+        }
+        long numericId = ticketIds.parse(ticket.getTicketId());
+        if (ticketSnapshots != null) {
+            ticketSnapshots.remove(numericId);
+        }
+        activeTicketCount.decrement();
+        activePlates.remove(ticket.getVehicle().getLicensePlate(), numericId);
+        spotAllocator.release(ticket.getSpot());
+    }
+
+    /**
+     * Finds and atomically reserves an available spot that no booking needs before the
+     * expected exit. Critical for preventing race conditions.
+     */
+    private ParkingSpot findAndReserveAvailableSpot(Vehicle vehicle, String homeZone,
+                                                    LocalDateTime entryTime, LocalDateTime expectedExit) {
+        if (!reservationIndex.hasBookings()) {
+            return spotAllocator.claim(vehicle, homeZone);
+        }
+        return spotAllocator.claim(vehicle, homeZone,
+                spot -> reservationIndex.isClear(spot, entryTime, expectedExit));
     }
 
     /**
@@ -63,8 +431,151 @@ public class ParkingService {
      * Must handle concurrent ticket processing.
      */
     public double exitVehicle(String ticketId) {
-        // TODO: Implement exit processing
-        return 0;
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            if (ticketId == null || !tickets.contains(ticketId)) {
+                throw new IllegalArgumentException("Invalid ticket ID: " + ticketId);
+            }
+            double fee = processExit(ticketId, LocalDateTime.now());
+            if (Double.isNaN(fee)) {
+                throw new IllegalStateException("Ticket " + ticketId + " has already been processed");
+            }
+            succeeded = true;
+            return fee;
+        } finally {
+            metrics.record(Operation.EXIT, started, succeeded);
+        }
+    }
+
+    /**
+     * Processes the exit of the vehicle with the given plate, as read by an ANPR camera.
+     *
+     * @throws IllegalArgumentException if the plate has no open ticket
+     */
+    public double exitVehicleByPlate(String licensePlate) {
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            long ticketId = licensePlate == null ? 0 : activePlates.get(licensePlate);
+            if (ticketId == 0) {
+                throw new IllegalArgumentException("No active parking ticket for vehicle " + licensePlate);
+            }
+            String formattedId = ticketIds.format(ticketId);
+            double fee = processExit(formattedId, LocalDateTime.now());
+            if (Double.isNaN(fee)) {
+                throw new IllegalStateException("Ticket " + formattedId + " has already been processed");
+            }
+            succeeded = true;
+            return fee;
+        } finally {
+            metrics.record(Operation.EXIT, started, succeeded);
+        }
+    }
+
+    /**
+     * Returns the open ticket of the vehicle with the given plate, compared ignoring case,
+     * spaces, hyphens and dots.
+     */
+    public Optional<ParkingTicket> findActiveTicket(String licensePlate) {
+        long ticketId = licensePlate == null ? 0 : activePlates.get(licensePlate);
+        return ticketId == 0 ? Optional.empty() : Optional.ofNullable(tickets.get(ticketIds.format(ticketId)));
+    }
+
+    /**
+     * Processes a burst of exits in one pass, sharing one exit timestamp across the batch.
+     * Each ticket gets its own result holding the fee, in input order; an invalid or
+     * already processed ticket does not stop the others.
+     */
+    public List<BatchResult<Double>> exitVehicles(List<String> ticketIds) {
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            List<BatchResult<Double>> results = exitBatch(ticketIds);
+            succeeded = allSucceeded(results);
+            return results;
+        } finally {
+            metrics.record(Operation.EXIT_BATCH, started, succeeded);
+        }
+    }
+
+    private List<BatchResult<Double>> exitBatch(List<String> ticketIds) {
+        if (ticketIds == null) {
+            throw new IllegalArgumentException("Ticket IDs cannot be null");
+        }
+        List<BatchResult<Double>> results = new ArrayList<>(ticketIds.size());
+        LocalDateTime exitTime = LocalDateTime.now();
+        for (String ticketId : ticketIds) {
+            if (ticketId == null || !tickets.contains(ticketId)) {
+                results.add(BatchResult.failure("Invalid ticket ID: " + ticketId));
+                continue;
+            }
+            double fee;
+            try {
+                fee = processExit(ticketId, exitTime);
+            } catch (RuntimeException e) {
+                results.add(BatchResult.failure(String.valueOf(e.getMessage())));
+                continue;
+            }
+            results.add(Double.isNaN(fee)
+                    ? BatchResult.failure("Ticket " + ticketId + " has already been processed")
+                    : BatchResult.success(fee));
+        }
+        return results;
+    }
+
+    private static boolean allSucceeded(List<? extends BatchResult<?>> results) {
+        for (BatchResult<?> result : results) {
+            if (!result.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Closes the ticket and frees its spot. Listeners hear of the exit while the spot and
+     * plate are still held, so if one fails to record it the ticket is simply reopened.
+     *
+     * @return the fee, or NaN if another caller already processed the ticket
+     */
+    private double processExit(String ticketId, LocalDateTime exitTime) {
+        int token = changeGate.enter();
+        try {
+            return closeTicket(ticketId, exitTime);
+        } finally {
+            changeGate.leave(token);
+        }
+    }
+
+    private double closeTicket(String ticketId, LocalDateTime exitTime) {
+        ParkingTicket ticket = tickets.close(ticketId, exitTime);
+        if (ticket == null) {
+            return Double.NaN;
+        }
+        long numericId = ticketIds.parse(ticketId);
+        double fee;
+        try {
+            long pricingStarted = System.nanoTime();
+            fee = pricingService.calculateFee(ticket.getVehicle().getType(), ticket.getEntryTime(), exitTime);
+            metrics.record(Operation.CALCULATE_FEE, pricingStarted, true);
+            for (ParkingEventListener listener : listeners) {
+                listener.onVehicleExited(ticket, fee);
+            }
+        } catch (RuntimeException e) {
+            tickets.reopen(ticket);
+            if (ticketSnapshots != null) {
+                ticketSnapshots.put(numericId, ticket);
+            }
+            throw e;
+        }
+        if (ticketSnapshots != null) {
+            ticketSnapshots.remove(numericId);
+        }
+        activeTicketCount.decrement();
+        activePlates.remove(ticket.getVehicle().getLicensePlate(), numericId);
+        spotAllocator.release(ticket.getSpot());
+        return fee;
     }
 
     /**
@@ -73,28 +584,318 @@ public class ParkingService {
      */
     public Reservation createReservation(String userId, Vehicle vehicle,
                                          LocalDateTime startTime, LocalDateTime endTime) {
-        // TODO: Implement reservation logic
-        return null;
+        long started = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            if (startTime == null || endTime == null) {
+                throw new IllegalArgumentException("Start and end times cannot be null");
+            }
+            if (startTime.isBefore(LocalDateTime.now())) {
+                throw new IllegalArgumentException("Reservation cannot start in the past");
+            }
+            long numericId = reservationIds.nextId();
+            String reservationId = reservationIds.format(numericId);
+            Reservation reservation = new Reservation(reservationId, userId, vehicle, startTime, endTime);
+
+            // Quote before booking, so a pricing failure cannot leave the window booked.
+            reservation.setPaidAmount(pricingService.quoteReservation(vehicle.getType(), startTime, endTime));
+            if (reservationIndex.book(reservation).isEmpty()) {
+                throw new IllegalStateException("No spots available for the requested time window");
+            }
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservations.put(reservationId, reservation);
+            reservationSnapshots.put(numericId, reservation);
+            activeReservationCount.increment();
+            try {
+                for (ParkingEventListener listener : listeners) {
+                    listener.onReservationCreated(reservation);
+                }
+            } catch (RuntimeException e) {
+                reservations.remove(reservationId);
+                reservationSnapshots.remove(numericId);
+                activeReservationCount.decrement();
+                reservationIndex.remove(reservation);
+                throw e;
+            }
+            succeeded = true;
+            return reservation;
+        } finally {
+            metrics.record(Operation.RESERVE, started, succeeded);
+        }
     }
 
+    /**
+     * Finds a spot that has no reservation overlapping [startTime, endTime).
+     * Does not book the spot.
+     */
+    public Optional<ParkingSpot> findSpotFreeBetween(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        return reservationIndex.findFreeSpot(startTime, endTime).map(this::exposed);
+    }
+
+    /**
+     * Returns lot status as a map with "totalSpots", "occupiedSpots", "availableSpots",
+     * "activeTickets" and "activeReservations".
+     */
     public Object getParkingStatus() {
-        // TODO: Implement reservation logic
-        return new HashMap();
+        return getParkingStatusSnapshot().toMap();
+    }
+
+    /**
+     * Returns lot status read from live counters; O(1) regardless of lot size.
+     */
+    public ParkingStatus getParkingStatusSnapshot() {
+        return new ParkingStatus(spotAllocator.size(), spotAllocator.occupiedCount(),
+                activeTicketCount.sum(), activeReservationCount.sum());
+    }
+
+    /**
+     * Returns a live occupancy feed for demand pricing, backed by the allocator's
+     * per-shard counters; reading it never scans spots or takes a lock.
+     * A vehicle type sees the occupancy of the spots large enough for it.
+     */
+    public OccupancySignal getOccupancySignal() {
+        return vehicleType -> {
+            long total = spotAllocator.size(vehicleType.getSize());
+            return total == 0 ? 1.0 : (double) spotAllocator.occupiedCount(vehicleType.getSize()) / total;
+        };
     }
 
+    /**
+     * Returns the registered spots in index order.
+     */
+    public List<ParkingSpot> getParkingSpots() {
+        List<ParkingSpot> spots = spotAllocator.spots();
+        if (columnarTickets != null) {
+            for (int i = 0; i < spots.size(); i++) {
+                spots.set(i, SpotView.of(i, spotAllocator, columnarTickets));
+            }
+        }
+        return spots;
+    }
+
+    /**
+     * Returns the open tickets in the order they were issued, as an immutable
+     * point-in-time list. The list is republished incrementally as tickets open and
+     * close, so repeated calls while nothing changes return the same instance and a call
+     * after a few changes copies only the chunks they touched. The columnar engine keeps
+     * no ticket objects to share and builds a fresh list on every call instead.
+     */
     public List<ParkingTicket> getActiveTickets() {
-        // TODO: Implement active tickets logic
-        return null;
+        return ticketSnapshots != null ? ticketSnapshots.snapshot() : tickets.openTickets();
+    }
+
+    /**
+     * Returns one page of the open tickets, in the order they were issued.
+     *
+     * @param vehicleType   only tickets for this type of vehicle, or null for any
+     * @param enteredFrom   only tickets entered at or after this time, or null
+     * @param enteredBefore only tickets entered before this time, or null
+     * @param offset        matching tickets to skip
+     * @param limit         maximum number of tickets to return
+     */
+    public List<ParkingTicket> findActiveTickets(VehicleType vehicleType, LocalDateTime enteredFrom,
+                                                 LocalDateTime enteredBefore, int offset, int limit) {
+        Predicate<ParkingTicket> filter = ticket ->
+                (vehicleType == null || ticket.getVehicle().getType() == vehicleType)
+                        && (enteredFrom == null || !ticket.getEntryTime().isBefore(enteredFrom))
+                        && (enteredBefore == null || ticket.getEntryTime().isBefore(enteredBefore));
+        if (ticketSnapshots != null) {
+            return ticketSnapshots.snapshot().page(filter, offset, limit);
+        }
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        return tickets.openTickets().stream().filter(filter).skip(offset).limit(limit).collect(Collectors.toUnmodifiableList());
     }
 
+    /**
+     * Returns every reservation ever made, in the order they were made, as an immutable
+     * point-in-time list republished incrementally like {@link #getActiveTickets()}.
+     */
     public List<Reservation> getAllReservations() {
-        // TODO: Implement allreservation logic
-        return null;
+        return reservationSnapshots.snapshot();
+    }
+
+    /**
+     * Returns one page of the reservations, in the order they were made.
+     *
+     * @param status      only reservations currently in this status, or null for any
+     * @param vehicleType only reservations for this type of vehicle, or null for any
+     * @param from        only reservations ending after this time, or null
+     * @param to          only reservations starting before this time, or null
+     * @param offset      matching reservations to skip
+     * @param limit       maximum number of reservations to return
+     */
+    public List<Reservation> findReservations(ReservationStatus status, VehicleType vehicleType,
+                                              LocalDateTime from, LocalDateTime to, int offset, int limit) {
+        return reservationSnapshots.snapshot().page(reservation ->
+                (status == null || reservation.getStatus() == status)
+                        && (vehicleType == null || reservation.getVehicle().getType() == vehicleType)
+                        && (from == null || reservation.getEndTime().isAfter(from))
+                        && (to == null || reservation.getStartTime().isBefore(to)), offset, limit);
     }
 
+    /**
+     * Starts a confirmed reservation, holding its assigned spot for the reserved vehicle.
+     */
     public void activateReservation(String reservationId) {
+        Reservation reservation = getReservation(reservationId);
+        if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be activated from status " + reservation.getStatus());
+        }
+        // Claim the spot first so a reservation is never seen ACTIVE without holding its spot.
+        ParkingSpot spot = reservation.getAssignedSpot();
+        if (!spotAllocator.claim(spot, reservation.getVehicle())) {
+            throw new IllegalStateException("Reserved spot " + spot.getSpotId() + " is currently occupied");
+        }
+        if (!reservation.transitionStatus(ReservationStatus.CONFIRMED, ReservationStatus.ACTIVE)) {
+            spotAllocator.release(spot);
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be activated from status " + reservation.getStatus());
+        }
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onReservationActivated(reservation);
+            }
+        } catch (RuntimeException e) {
+            reservation.transitionStatus(ReservationStatus.ACTIVE, ReservationStatus.CONFIRMED);
+            spotAllocator.release(spot);
+            throw e;
+        }
     }
 
+    /**
+     * Completes an active reservation and frees its spot.
+     */
     public void completeReservation(String reservationId) {
+        Reservation reservation = getReservation(reservationId);
+        if (!reservation.transitionStatus(ReservationStatus.ACTIVE, ReservationStatus.COMPLETED)) {
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be completed from status " + reservation.getStatus());
+        }
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onReservationCompleted(reservation);
+            }
+        } catch (RuntimeException e) {
+            reservation.transitionStatus(ReservationStatus.COMPLETED, ReservationStatus.ACTIVE);
+            throw e;
+        }
+        activeReservationCount.decrement();
+        reservationIndex.remove(reservation);
+        spotAllocator.release(reservation.getAssignedSpot());
+    }
+
+    /**
+     * Records that the vehicle of an active reservation has arrived, so the reservation
+     * is no longer at risk of expiring as a no-show.
+     */
+    public void checkInReservation(String reservationId) {
+        Reservation reservation = getReservation(reservationId);
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be checked in from status " + reservation.getStatus());
+        }
+        if (!reservation.checkIn()) {
+            throw new IllegalStateException("Reservation " + reservationId
+                    + (reservation.isCheckedIn() ? " is already checked in" : " has expired"));
+        }
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onReservationCheckedIn(reservation);
+            }
+        } catch (RuntimeException e) {
+            reservation.resetArrival();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels a confirmed reservation and frees its slot in the spot's calendar.
+     */
+    public void cancelReservation(String reservationId) {
+        Reservation reservation = getReservation(reservationId);
+        if (!reservation.transitionStatus(ReservationStatus.CONFIRMED, ReservationStatus.CANCELLED)) {
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be cancelled from status " + reservation.getStatus());
+        }
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onReservationCancelled(reservation);
+            }
+        } catch (RuntimeException e) {
+            reservation.transitionStatus(ReservationStatus.CANCELLED, ReservationStatus.CONFIRMED);
+            throw e;
+        }
+        activeReservationCount.decrement();
+        reservationIndex.remove(reservation);
+    }
+
+    /**
+     * Expires a reservation whose vehicle never showed up: a confirmed one that could not
+     * be started, or an active one that was not checked in. An active reservation's held
+     * spot is freed.
+     */
+    public void expireReservation(String reservationId) {
+        Reservation reservation = getReservation(reservationId);
+        ReservationStatus status = reservation.getStatus();
+        if (status == ReservationStatus.ACTIVE && !reservation.markNoShow()) {
+            throw new IllegalStateException("Reservation " + reservationId + " is checked in");
+        }
+        if ((status != ReservationStatus.CONFIRMED && status != ReservationStatus.ACTIVE)
+                || !reservation.transitionStatus(status, ReservationStatus.EXPIRED)) {
+            if (status == ReservationStatus.ACTIVE && reservation.getStatus() != ReservationStatus.EXPIRED) {
+                // Another transition won, so the write-off must not stick; a concurrent expire keeps it.
+                reservation.resetArrival();
+            }
+            throw new IllegalStateException("Reservation " + reservationId
+                    + " cannot be expired from status " + reservation.getStatus());
+        }
+        try {
+            for (ParkingEventListener listener : listeners) {
+                listener.onReservationExpired(reservation);
+            }
+        } catch (RuntimeException e) {
+            reservation.transitionStatus(ReservationStatus.EXPIRED, status);
+            if (status == ReservationStatus.ACTIVE) {
+                reservation.resetArrival();
+            }
+            throw e;
+        }
+        activeReservationCount.decrement();
+        reservationIndex.remove(reservation);
+        if (status == ReservationStatus.ACTIVE) {
+            spotAllocator.release(reservation.getAssignedSpot());
+        }
+    }
+
+    /**
+     * Returns the always-on call counts, latency histograms and failure counters of
+     * this service, for polling or for {@link ParkingMetrics#registerMBean JMX}.
+     */
+    public ParkingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Lock waits on the plate index and snapshot publishing, plus claims that lost a
+     * race on a free-spot bitmap and retried.
+     */
+    private long lockContention() {
+        long total = spotAllocator.contendedCount() + activePlates.contendedCount()
+                + reservationSnapshots.contendedCount();
+        return ticketSnapshots == null ? total : total + ticketSnapshots.contendedCount();
+    }
+
+    private Reservation getReservation(String reservationId) {
+        Reservation reservation = reservationId == null ? null : reservations.get(reservationId);
+        if (reservation == null) {
+            throw new IllegalArgumentException("Invalid reservation ID: " + reservationId);
+        }
+        return reservation;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,307 @@
+package com.parking.service;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap map from licence plate to the numeric ID of the plate's open ticket.
+ * <p>
+ * Plates are keyed in normalized form: ASCII letters upper-cased and spaces, hyphens
+ * and dots dropped, so "ka-01 ab 1234" and "KA01AB1234" are the same vehicle, as an
+ * ANPR camera would read them. Keys are stored as bytes in direct buffers split into
+ * segments, each an open-addressing table with linear probing behind its own
+ * {@link StampedLock}; lookups are optimistic reads that never block writers. Neither
+ * lookups nor updates allocate: the plate is normalized into a per-thread scratch array
+ * and hashed from there. Plates whose normalized form is longer than {@link #KEY_BYTES}
+ * or contains other characters are rare and kept in an on-heap map instead.
+ */
+final class PlateIndex {
+
+    static final int KEY_BYTES = 23;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_BUCKETS = 64;
+    /** Bucket layout: [ticket id : long][hash : int][key length : byte][key : KEY_BYTES]; id 0 marks an empty bucket. */
+    private static final int HASH_OFFSET = Long.BYTES;
+    private static final int LENGTH_OFFSET = HASH_OFFSET + Integer.BYTES;
+    private static final int KEY_OFFSET = LENGTH_OFFSET + 1;
+    private static final int BUCKET_BYTES = KEY_OFFSET + KEY_BYTES;
+
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[KEY_BYTES]);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final ConcurrentHashMap<String, Long> irregularPlates = new ConcurrentHashMap<>();
+    /** Updates that found their segment locked and had to wait. */
+    private final LongAdder contended = new LongAdder();
+
+    PlateIndex() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(contended);
+        }
+    }
+
+    /**
+     * Maps the plate to the ticket unless the plate already has one.
+     *
+     * @param ticketId numeric ticket ID, never 0
+     * @return true if the plate had no open ticket
+     */
+    boolean putIfAbsent(String plate, long ticketId) {
+        byte[] key = SCRATCH.get();
+        int length = normalize(plate, key);
+        if (length < 0) {
+            return irregularPlates.putIfAbsent(irregularKey(plate), ticketId) == null;
+        }
+        int hash = hash(key, length);
+        return segments[hash & (SEGMENTS - 1)].putIfAbsent(key, length, hash, ticketId);
+    }
+
+    /**
+     * Removes the plate's mapping if it still points at the given ticket.
+     */
+    void remove(String plate, long ticketId) {
+        byte[] key = SCRATCH.get();
+        int length = normalize(plate, key);
+        if (length < 0) {
+            irregularPlates.remove(irregularKey(plate), ticketId);
+            return;
+        }
+        int hash = hash(key, length);
+        segments[hash & (SEGMENTS - 1)].remove(key, length, hash, ticketId);
+    }
+
+    /**
+     * Returns the ID of the plate's open ticket, or 0 if it has none.
+     */
+    long get(String plate) {
+        byte[] key = SCRATCH.get();
+        int length = normalize(plate, key);
+        if (length < 0) {
+            Long ticketId = irregularPlates.get(irregularKey(plate));
+            return ticketId == null ? 0 : ticketId;
+        }
+        int hash = hash(key, length);
+        return segments[hash & (SEGMENTS - 1)].get(key, length, hash);
+    }
+
+    long size() {
+        long size = irregularPlates.size();
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Number of updates that had to wait for another update to the same segment.
+     */
+    long contendedCount() {
+        return contended.sum();
+    }
+
+    /**
+     * Writes the normalized plate into {@code key}.
+     *
+     * @return the key length, or -1 if the plate does not fit the byte form
+     */
+    static int normalize(String plate, byte[] key) {
+        int length = 0;
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (c == ' ' || c == '-' || c == '.') {
+                continue;
+            }
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            } else if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                return -1;
+            }
+            if (length == KEY_BYTES) {
+                return -1;
+            }
+            key[length++] = (byte) c;
+        }
+        return length;
+    }
+
+    private static String irregularKey(String plate) {
+        StringBuilder key = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (c != ' ' && c != '-' && c != '.') {
+                key.append(c);
+            }
+        }
+        return key.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static int hash(byte[] key, int length) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ key[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * One open-addressing table. Home buckets use the hash bits above the segment bits.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final LongAdder contended;
+        private ByteBuffer buckets = ByteBuffer.allocateDirect(INITIAL_BUCKETS * BUCKET_BYTES);
+        private int capacity = INITIAL_BUCKETS;
+        private int size;
+
+        Segment(LongAdder contended) {
+            this.contended = contended;
+        }
+
+        private long lockForWrite() {
+            long stamp = lock.tryWriteLock();
+            if (stamp == 0) {
+                contended.increment();
+                stamp = lock.writeLock();
+            }
+            return stamp;
+        }
+
+        boolean putIfAbsent(byte[] key, int length, int hash, long ticketId) {
+            long stamp = lockForWrite();
+            try {
+                if ((size + 1) * 4 > capacity * 3) {
+                    grow();
+                }
+                int mask = capacity - 1;
+                int bucket = (hash >>> SEGMENT_BITS) & mask;
+                for (; buckets.getLong(bucket * BUCKET_BYTES) != 0; bucket = (bucket + 1) & mask) {
+                    if (matches(buckets, bucket, key, length, hash)) {
+                        return false;
+                    }
+                }
+                int offset = bucket * BUCKET_BYTES;
+                buckets.putInt(offset + HASH_OFFSET, hash);
+                buckets.put(offset + LENGTH_OFFSET, (byte) length);
+                buckets.put(offset + KEY_OFFSET, key, 0, length);
+                buckets.putLong(offset, ticketId);
+                size++;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(byte[] key, int length, int hash, long ticketId) {
+            long stamp = lockForWrite();
+            try {
+                int mask = capacity - 1;
+                int hole = (hash >>> SEGMENT_BITS) & mask;
+                while (true) {
+                    long current = buckets.getLong(hole * BUCKET_BYTES);
+                    if (current == 0) {
+                        return;
+                    }
+                    if (current == ticketId && matches(buckets, hole, key, length, hash)) {
+                        break;
+                    }
+                    hole = (hole + 1) & mask;
+                }
+                // Shift later entries of the probe run back so lookups never need tombstones.
+                for (int i = (hole + 1) & mask; buckets.getLong(i * BUCKET_BYTES) != 0; i = (i + 1) & mask) {
+                    int home = (buckets.getInt(i * BUCKET_BYTES + HASH_OFFSET) >>> SEGMENT_BITS) & mask;
+                    if (((i - home) & mask) >= ((i - hole) & mask)) {
+                        buckets.put(hole * BUCKET_BYTES, buckets, i * BUCKET_BYTES, BUCKET_BYTES);
+                        hole = i;
+                    }
+                }
+                buckets.putLong(hole * BUCKET_BYTES, 0);
+                size--;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long get(byte[] key, int length, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                long ticketId = find(buckets, capacity, key, length, hash);
+                if (lock.validate(stamp)) {
+                    return ticketId;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(buckets, capacity, key, length, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Probes for the key. Under an optimistic read the table may change underneath,
+         * so the probe is bounded and its result is only trusted once the stamp validates.
+         */
+        private static long find(ByteBuffer buckets, int capacity, byte[] key, int length, int hash) {
+            if (buckets.capacity() < capacity * BUCKET_BYTES) {
+                return 0;
+            }
+            int mask = capacity - 1;
+            int bucket = (hash >>> SEGMENT_BITS) & mask;
+            for (int probes = 0; probes < capacity; probes++, bucket = (bucket + 1) & mask) {
+                long ticketId = buckets.getLong(bucket * BUCKET_BYTES);
+                if (ticketId == 0) {
+                    return 0;
+                }
+                if (matches(buckets, bucket, key, length, hash)) {
+                    return ticketId;
+                }
+            }
+            return 0;
+        }
+
+        private static boolean matches(ByteBuffer buckets, int bucket, byte[] key, int length, int hash) {
+            int offset = bucket * BUCKET_BYTES;
+            if (buckets.getInt(offset + HASH_OFFSET) != hash || buckets.get(offset + LENGTH_OFFSET) != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buckets.get(offset + KEY_OFFSET + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            ByteBuffer old = buckets;
+            int oldCapacity = capacity;
+            ByteBuffer grown = ByteBuffer.allocateDirect(oldCapacity * 2 * BUCKET_BYTES);
+            int mask = oldCapacity * 2 - 1;
+            for (int from = 0; from < oldCapacity; from++) {
+                if (old.getLong(from * BUCKET_BYTES) == 0) {
+                    continue;
+                }
+                int to = (old.getInt(from * BUCKET_BYTES + HASH_OFFSET) >>> SEGMENT_BITS) & mask;
+                while (grown.getLong(to * BUCKET_BYTES) != 0) {
+                    to = (to + 1) & mask;
+                }
+                grown.put(to * BUCKET_BYTES, old, from * BUCKET_BYTES, BUCKET_BYTES);
+            }
+            buckets = grown;
+            capacity = oldCapacity * 2;
+        }
+    }
+}
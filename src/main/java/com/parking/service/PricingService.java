@@ -2,46 +2,125 @@ package com.parking.service;
 
 import com.parking.model.VehicleType;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
+/**
+ * Prices parking stays and reservations from a compiled {@link TariffDefinition}.
+ * The tariff can be replaced at runtime with {@link #reloadTariff(TariffDefinition)}:
+ * the new definition is compiled on the caller's thread and then swapped in with a
+ * single volatile write, so concurrent exits are never paused and each fee is computed
+ * entirely under either the old or the new tariff.
+ * <p>
+ * With demand pricing enabled, {@link #quote} and {@link #quoteReservation} scale the
+ * tariff by a multiplier derived from smoothed live occupancy. Exit fees from
+ * {@link #calculateFee} always use the plain tariff.
+ */
 public class PricingService {
-    private static final double MOTORCYCLE_RATE = 2.0;
-    private static final double CAR_RATE = 5.0;
-    private static final double VAN_RATE = 7.5;
-    private static final double BUS_RATE = 10.0;
-    private static final double RESERVATION_PREMIUM = 1.2;
+
+    private volatile CompiledTariff tariff;
+    private volatile DemandModel demandModel;
+
+    public PricingService() {
+        this(TariffDefinition.standard());
+    }
+
+    public PricingService(TariffDefinition tariffDefinition) {
+        this.tariff = compile(tariffDefinition);
+    }
 
     public double calculateFee(VehicleType vehicleType, LocalDateTime entryTime, LocalDateTime exitTime) {
         if (entryTime == null || exitTime == null) {
             throw new IllegalArgumentException("Entry and exit times cannot be null");
         }
-        if (exitTime.isBefore(entryTime)) {
+        return calculateFee(vehicleType, toEpochSecond(entryTime), toEpochSecond(exitTime));
+    }
+
+    /**
+     * Calculates the fee for a stay given as epoch seconds, avoiding any date-time objects.
+     * Local date-times map to epoch seconds as if they were UTC.
+     */
+    public double calculateFee(VehicleType vehicleType, long entryEpochSecond, long exitEpochSecond) {
+        if (exitEpochSecond < entryEpochSecond) {
             throw new IllegalArgumentException("Exit time cannot be before entry time");
         }
-
-        Duration duration = Duration.between(entryTime, exitTime);
-        double hours = Math.max(1, Math.ceil(duration.toMinutes() / 60.0));
-
-        double hourlyRate = getHourlyRate(vehicleType);
-        return hourlyRate * hours;
+        return tariff.fee(vehicleType, entryEpochSecond, exitEpochSecond);
     }
 
     public double calculateReservationFee(VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
-        double baseFee = calculateFee(vehicleType, startTime, endTime);
-        return baseFee * RESERVATION_PREMIUM;
+        if (startTime == null || endTime == null) {
+            throw new IllegalArgumentException("Entry and exit times cannot be null");
+        }
+        return calculateReservationFee(vehicleType, toEpochSecond(startTime), toEpochSecond(endTime));
     }
 
-    private double getHourlyRate(VehicleType vehicleType) {
-        return switch (vehicleType) {
-            case MOTORCYCLE -> MOTORCYCLE_RATE;
-            case CAR -> CAR_RATE;
-            case VAN -> VAN_RATE;
-            case BUS -> BUS_RATE;
-        };
+    public double calculateReservationFee(VehicleType vehicleType, long startEpochSecond, long endEpochSecond) {
+        if (endEpochSecond < startEpochSecond) {
+            throw new IllegalArgumentException("Exit time cannot be before entry time");
+        }
+        return tariff.premiumFee(vehicleType, startEpochSecond, endEpochSecond);
     }
 
     public double getReservationPremium() {
-        return RESERVATION_PREMIUM;
+        return tariff.premium();
+    }
+
+    /**
+     * Prices a prospective stay at the current demand-adjusted rate.
+     */
+    public double quote(VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
+        return calculateFee(vehicleType, startTime, endTime) * demandMultiplier(vehicleType);
+    }
+
+    /**
+     * Prices a prospective reservation at the current demand-adjusted rate, premium included.
+     */
+    public double quoteReservation(VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
+        return calculateReservationFee(vehicleType, startTime, endTime) * demandMultiplier(vehicleType);
+    }
+
+    /**
+     * Returns the multiplier currently applied to quotes for the vehicle type; 1.0 without demand pricing.
+     */
+    public double demandMultiplier(VehicleType vehicleType) {
+        DemandModel model = demandModel;
+        return model == null ? 1.0 : model.multiplier(vehicleType);
+    }
+
+    /**
+     * Starts adjusting quotes to occupancy read from the given signal,
+     * typically {@code ParkingService.getOccupancySignal()}.
+     */
+    public void enableDemandPricing(OccupancySignal occupancySignal, DemandCurve demandCurve) {
+        if (occupancySignal == null || demandCurve == null) {
+            throw new IllegalArgumentException("Occupancy signal and demand curve cannot be null");
+        }
+        this.demandModel = new DemandModel(occupancySignal, demandCurve, System::nanoTime);
+    }
+
+    public void disableDemandPricing() {
+        this.demandModel = null;
+    }
+
+    /**
+     * Replaces the tariff used for all subsequent fee calculations.
+     */
+    public void reloadTariff(TariffDefinition tariffDefinition) {
+        this.tariff = compile(tariffDefinition);
+    }
+
+    public TariffDefinition getTariffDefinition() {
+        return tariff.definition();
+    }
+
+    private static CompiledTariff compile(TariffDefinition tariffDefinition) {
+        if (tariffDefinition == null) {
+            throw new IllegalArgumentException("Tariff definition cannot be null");
+        }
+        return new CompiledTariff(tariffDefinition);
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
     }
-}
\ No newline at end of file
+}
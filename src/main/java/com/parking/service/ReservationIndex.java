@@ -0,0 +1,278 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.Reservation;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-spot calendars of booked reservation windows.
+ * Windows on one spot never overlap, so they are kept in a sorted map keyed by
+ * start time and a conflict check only has to look at the single window that
+ * starts latest before the requested end: O(log n) instead of comparing the
+ * request against every booking. Readers are lock-free; booking a window locks
+ * only the calendar of the spot being booked. Bookings go to the smallest spot size
+ * that fits the reserved vehicle, like walk-in allocation.
+ * <p>
+ * The calendars double as holds on live allocation: a walk-in is only given a spot
+ * whose next booking starts after the vehicle is expected to leave, which is the same
+ * single-window lookup per candidate spot.
+ * <p>
+ * Each size class also keeps its calendars sorted by the time they are free from, the
+ * end of their last booked window (or the distant past for an empty calendar). Any spot
+ * free from no later than a request's start is free for it, so a booking or a free-spot
+ * lookup finds one in O(log n), taking the spot free the longest. Only a request that
+ * fills a gap, starting before the last booking of every fitting spot, scans the
+ * calendars of the size class: O(spots) per size class. The sorted keys are hints: a spot
+ * is checked again before it is booked, and the scan still covers spots whose key is
+ * being moved.
+ */
+class ReservationIndex {
+
+    private final ConcurrentHashMap<String, SpotCalendar> calendarsBySpotId = new ConcurrentHashMap<>();
+    private volatile SpotCalendar[] calendars = new SpotCalendar[0];
+    /** Calendars indexed by spot size class. */
+    private volatile SpotCalendar[][] calendarsBySize = new SpotCalendar[ParkingSpot.MAX_SIZE + 1][0];
+    /** Calendars by the time they are free from, by spot size class. */
+    private final ConcurrentSkipListSet<FreeFrom>[] freeFromBySize = newFreeFromSets();
+    private final LongAdder bookedWindows = new LongAdder();
+
+    void addSpot(ParkingSpot spot) {
+        addSpots(List.of(spot));
+    }
+
+    /**
+     * Adds many spots with a single copy of the calendar array.
+     */
+    synchronized void addSpots(Collection<ParkingSpot> spots) {
+        SpotCalendar[] current = calendars;
+        SpotCalendar[] grown = Arrays.copyOf(current, current.length + spots.size());
+        int[] addedBySize = new int[ParkingSpot.MAX_SIZE + 1];
+        int size = current.length;
+        for (ParkingSpot spot : spots) {
+            SpotCalendar calendar = new SpotCalendar(spot, size);
+            if (calendarsBySpotId.putIfAbsent(spot.getSpotId(), calendar) == null) {
+                grown[size++] = calendar;
+                addedBySize[spot.getSize()]++;
+            }
+        }
+        SpotCalendar[][] bySize = calendarsBySize.clone();
+        int[] filled = new int[bySize.length];
+        for (int spotSize = 1; spotSize < bySize.length; spotSize++) {
+            filled[spotSize] = bySize[spotSize].length;
+            if (addedBySize[spotSize] > 0) {
+                bySize[spotSize] = Arrays.copyOf(bySize[spotSize], filled[spotSize] + addedBySize[spotSize]);
+            }
+        }
+        for (int i = current.length; i < size; i++) {
+            int spotSize = grown[i].spot.getSize();
+            bySize[spotSize][filled[spotSize]++] = grown[i];
+        }
+        calendarsBySize = bySize;
+        calendars = size == grown.length ? grown : Arrays.copyOf(grown, size);
+        for (int i = current.length; i < size; i++) {
+            grown[i].indexFreeFrom();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConcurrentSkipListSet<FreeFrom>[] newFreeFromSets() {
+        ConcurrentSkipListSet<FreeFrom>[] sets = new ConcurrentSkipListSet[ParkingSpot.MAX_SIZE + 1];
+        for (int spotSize = 0; spotSize < sets.length; spotSize++) {
+            sets[spotSize] = new ConcurrentSkipListSet<>(FreeFrom.ORDER);
+        }
+        return sets;
+    }
+
+    /**
+     * Books the reservation's window on the first spot of the smallest fitting size that
+     * is free for it and assigns that spot to the reservation.
+     *
+     * @return the booked spot, or empty if every fitting spot has a conflicting booking
+     */
+    Optional<ParkingSpot> book(Reservation reservation) {
+        SpotCalendar[][] bySize = calendarsBySize;
+        int minSize = reservation.getVehicle() == null ? 1 : reservation.getVehicle().getType().getSize();
+        for (int spotSize = minSize; spotSize < bySize.length; spotSize++) {
+            for (FreeFrom key : freeFromBySize[spotSize]) {
+                if (key.time.isAfter(reservation.getStartTime())) {
+                    break;
+                }
+                // Fails only if the spot was booked since; the next key is free from no earlier.
+                if (key.calendar.tryBook(reservation)) {
+                    return Optional.of(key.calendar.spot);
+                }
+            }
+            SpotCalendar[] snapshot = bySize[spotSize];
+            if (snapshot.length == 0) {
+                continue;
+            }
+            // Start at a random spot so concurrent bookings spread over different calendar locks.
+            int start = ThreadLocalRandom.current().nextInt(snapshot.length);
+            for (int i = 0; i < snapshot.length; i++) {
+                SpotCalendar calendar = snapshot[(start + i) % snapshot.length];
+                if (calendar.tryBook(reservation)) {
+                    return Optional.of(calendar.spot);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds a spot with no booking overlapping [startTime, endTime) without booking it.
+     */
+    Optional<ParkingSpot> findFreeSpot(LocalDateTime startTime, LocalDateTime endTime) {
+        for (ConcurrentSkipListSet<FreeFrom> freeFrom : freeFromBySize) {
+            for (FreeFrom key : freeFrom) {
+                if (key.time.isAfter(startTime)) {
+                    break;
+                }
+                if (key.calendar.isFree(startTime, endTime)) {
+                    return Optional.of(key.calendar.spot);
+                }
+            }
+        }
+        for (SpotCalendar calendar : calendars) {
+            if (calendar.isFree(startTime, endTime)) {
+                return Optional.of(calendar.spot);
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean isFree(ParkingSpot spot, LocalDateTime startTime, LocalDateTime endTime) {
+        SpotCalendar calendar = calendarsBySpotId.get(spot.getSpotId());
+        return calendar != null && calendar.isFree(startTime, endTime);
+    }
+
+    /**
+     * Whether a vehicle parked in the spot from {@code from} until {@code until} stays
+     * clear of every booking on it. Unlike {@link #isFree(ParkingSpot, LocalDateTime, LocalDateTime)},
+     * a spot without a calendar has nothing booked and is clear.
+     */
+    boolean isClear(ParkingSpot spot, LocalDateTime from, LocalDateTime until) {
+        SpotCalendar calendar = calendarsBySpotId.get(spot.getSpotId());
+        return calendar == null || calendar.isFree(from, until);
+    }
+
+    /**
+     * Whether any spot has a booking, so callers can skip hold checks while none does.
+     */
+    boolean hasBookings() {
+        return bookedWindows.sum() > 0;
+    }
+
+    /**
+     * Puts an already assigned reservation back into its spot's calendar, e.g. during recovery.
+     *
+     * @return false if the assigned spot is unknown or the window conflicts with an existing booking
+     */
+    boolean restore(Reservation reservation) {
+        ParkingSpot spot = reservation.getAssignedSpot();
+        SpotCalendar calendar = spot == null ? null : calendarsBySpotId.get(spot.getSpotId());
+        return calendar != null && calendar.tryBook(reservation);
+    }
+
+    /**
+     * Frees the reservation's window on its assigned spot.
+     */
+    void remove(Reservation reservation) {
+        ParkingSpot spot = reservation.getAssignedSpot();
+        if (spot == null) {
+            return;
+        }
+        SpotCalendar calendar = calendarsBySpotId.get(spot.getSpotId());
+        if (calendar != null) {
+            calendar.unbook(reservation);
+        }
+    }
+
+    /**
+     * A calendar's position in its size class's free-from order. Keys are immutable; a
+     * calendar whose last booking changes swaps its key for a new one.
+     */
+    private static final class FreeFrom {
+        static final Comparator<FreeFrom> ORDER = Comparator.<FreeFrom, LocalDateTime>comparing(key -> key.time)
+                .thenComparingLong(key -> key.calendar.order);
+
+        final LocalDateTime time;
+        final SpotCalendar calendar;
+
+        FreeFrom(LocalDateTime time, SpotCalendar calendar) {
+            this.time = time;
+            this.calendar = calendar;
+        }
+    }
+
+    private final class SpotCalendar {
+        private final ParkingSpot spot;
+        /** Tie-break between calendars free from the same time. */
+        private final long order;
+        private final ConcurrentSkipListMap<LocalDateTime, Reservation> windows = new ConcurrentSkipListMap<>();
+        /** The calendar's current key in its size class's free-from set; guarded by this. */
+        private FreeFrom freeFrom;
+
+        private SpotCalendar(ParkingSpot spot, long order) {
+            this.spot = spot;
+            this.order = order;
+        }
+
+        synchronized void indexFreeFrom() {
+            Map.Entry<LocalDateTime, Reservation> last = windows.lastEntry();
+            // Windows are disjoint, so the one starting last also ends last.
+            LocalDateTime time = last == null ? LocalDateTime.MIN : last.getValue().getEndTime();
+            if (freeFrom != null && freeFrom.time.equals(time)) {
+                return;
+            }
+            ConcurrentSkipListSet<FreeFrom> keys = freeFromBySize[spot.getSize()];
+            FreeFrom previous = freeFrom;
+            freeFrom = new FreeFrom(time, this);
+            // Add before removing, so lookups never miss a calendar that is being moved.
+            keys.add(freeFrom);
+            if (previous != null) {
+                keys.remove(previous);
+            }
+        }
+
+        boolean isFree(LocalDateTime startTime, LocalDateTime endTime) {
+            // Booked windows are disjoint, so only the last one starting before endTime can overlap.
+            Map.Entry<LocalDateTime, Reservation> candidate = windows.lowerEntry(endTime);
+            return candidate == null || !candidate.getValue().getEndTime().isAfter(startTime);
+        }
+
+        boolean tryBook(Reservation reservation) {
+            if (!isFree(reservation.getStartTime(), reservation.getEndTime())) {
+                return false;
+            }
+            synchronized (this) {
+                if (!isFree(reservation.getStartTime(), reservation.getEndTime())) {
+                    return false;
+                }
+                reservation.setAssignedSpot(spot);
+                windows.put(reservation.getStartTime(), reservation);
+                bookedWindows.increment();
+                indexFreeFrom();
+                return true;
+            }
+        }
+
+        synchronized void unbook(Reservation reservation) {
+            if (windows.remove(reservation.getStartTime(), reservation)) {
+                bookedWindows.decrement();
+                indexFreeFrom();
+            }
+        }
+    }
+}
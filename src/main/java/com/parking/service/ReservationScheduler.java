@@ -0,0 +1,427 @@
+package com.parking.service;
+
+import com.parking.model.Reservation;
+import com.parking.model.ReservationStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves reservations through their lifecycle as time passes. A confirmed reservation
+ * is started at its start time; if its spot is still occupied then, starting is retried
+ * every tick. A reservation whose vehicle has not checked in by the end of the grace
+ * period (or by its end time, if that comes first) is expired and its held spot freed,
+ * and a checked-in one is completed at its end time.
+ * <p>
+ * Each pending reservation has one timer in a hierarchical timing wheel: {@value #LEVELS}
+ * wheels of {@value #WHEEL_SIZE} buckets, each bucket of a level spanning a whole turn of
+ * the level below. A timer is put in the finest wheel that reaches its deadline and
+ * moves down a level whenever the wheel above turns onto its bucket, so scheduling and
+ * cancelling are O(1) and a tick only visits the bucket it lands on, however many
+ * reservations are pending. Timers are set and cancelled from the service's events, so
+ * reservations started, completed or cancelled by hand are followed too.
+ * <p>
+ * One daemon thread owns the wheel. Events arrive on whichever thread made the change
+ * and only queue the timer for that thread, which applies the queue before each tick.
+ */
+public final class ReservationScheduler implements ParkingEventListener, AutoCloseable {
+
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+
+    static final int WHEEL_BITS = 8;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int LEVELS = 4;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int ACTIVATE = 0;
+    private static final int EXPIRE = 1;
+    private static final int COMPLETE = 2;
+
+    private final ParkingService service;
+    private final ParkingOperations commands;
+    private final Duration gracePeriod;
+    private final long tickMillis;
+    private final Clock clock;
+    /** Current timer of each pending reservation, by reservation ID. */
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    /** Timers set or cancelled since the last tick, for the wheel thread to apply. */
+    private final ConcurrentLinkedQueue<Timer> changes = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private volatile boolean running = true;
+
+    // Owned by the wheel thread.
+    /** Head of each bucket's list, level by level. */
+    private final Timer[] buckets = new Timer[LEVELS * WHEEL_SIZE];
+    private final ArrayDeque<Timer> due = new ArrayDeque<>();
+    private long currentTick;
+
+    private ReservationScheduler(ParkingService service, ParkingOperations commands, Duration gracePeriod,
+                                 Duration tick, Clock clock, boolean background) {
+        if (service == null || commands == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        if (gracePeriod == null || gracePeriod.isNegative()) {
+            throw new IllegalArgumentException("Grace period cannot be negative");
+        }
+        if (tick == null || tick.toMillis() < 1) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.service = service;
+        this.commands = commands;
+        this.gracePeriod = gracePeriod;
+        this.tickMillis = tick.toMillis();
+        this.clock = clock;
+        this.currentTick = Math.floorDiv(clock.millis(), tickMillis);
+        service.addEventListener(this);
+        for (Reservation reservation : service.getAllReservations()) {
+            ReservationStatus status = reservation.getStatus();
+            if (status == ReservationStatus.CONFIRMED || status == ReservationStatus.ACTIVE) {
+                scheduleNext(reservation, true);
+            }
+        }
+        if (background) {
+            ticker = new Thread(this::runTicker, "reservation-scheduler");
+            ticker.setDaemon(true);
+            ticker.start();
+        } else {
+            ticker = null;
+        }
+    }
+
+    /**
+     * Starts scheduling the reservations of the service, ticking once a second on the
+     * system clock.
+     */
+    public static ReservationScheduler start(ParkingService service, Duration gracePeriod) {
+        return start(service, service, gracePeriod, DEFAULT_TICK, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Starts scheduling the reservations of the service.
+     *
+     * @param commands    where lifecycle changes are applied: the service itself, or the
+     *                    single-writer front end wrapping it
+     * @param gracePeriod how long after its start a reservation waits for its vehicle
+     * @param tick        resolution of the wheel; timers fire up to one tick late
+     * @param clock       time source, in the zone reservation times are given in
+     */
+    public static ReservationScheduler start(ParkingService service, ParkingOperations commands,
+                                             Duration gracePeriod, Duration tick, Clock clock) {
+        return new ReservationScheduler(service, commands, gracePeriod, tick, clock, true);
+    }
+
+    /**
+     * Creates a scheduler without a wheel thread, driven by calls to {@link #advance()}.
+     */
+    static ReservationScheduler manual(ParkingService service, Duration gracePeriod, Duration tick, Clock clock) {
+        return new ReservationScheduler(service, service, gracePeriod, tick, clock, false);
+    }
+
+    /**
+     * Returns the number of reservations waiting for their next transition.
+     */
+    public int getPendingCount() {
+        return timers.size();
+    }
+
+    /**
+     * Stops the wheel thread and stops following the service. Pending timers are dropped.
+     */
+    @Override
+    public void close() {
+        running = false;
+        service.removeEventListener(this);
+        if (ticker != null) {
+            LockSupport.unpark(ticker);
+            try {
+                ticker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void onReservationCreated(Reservation reservation) {
+        schedule(reservation, ACTIVATE, tickAtOrAfter(reservation.getStartTime()), false);
+    }
+
+    @Override
+    public void onReservationActivated(Reservation reservation) {
+        scheduleNext(reservation, false);
+    }
+
+    @Override
+    public void onReservationCheckedIn(Reservation reservation) {
+        schedule(reservation, COMPLETE, tickAtOrAfter(reservation.getEndTime()), false);
+    }
+
+    @Override
+    public void onReservationCompleted(Reservation reservation) {
+        cancel(reservation);
+    }
+
+    @Override
+    public void onReservationCancelled(Reservation reservation) {
+        cancel(reservation);
+    }
+
+    @Override
+    public void onReservationExpired(Reservation reservation) {
+        cancel(reservation);
+    }
+
+    /**
+     * Applies queued timer changes and fires every timer due by the clock's current time.
+     * Called by the wheel thread, or by tests driving a {@link #manual} scheduler.
+     */
+    void advance() {
+        long target = Math.floorDiv(clock.millis(), tickMillis);
+        applyChanges();
+        fireDue();
+        while (currentTick < target) {
+            currentTick++;
+            int level = 0;
+            while (level < LEVELS - 1 && (currentTick & ((1L << (WHEEL_BITS * (level + 1))) - 1)) == 0) {
+                level++;
+            }
+            for (; level > 0; level--) {
+                cascade(level, (int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            }
+            Timer timer = takeBucket((int) currentTick & WHEEL_MASK);
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.next = null;
+                due.add(timer);
+                timer = next;
+            }
+            fireDue();
+            applyChanges();
+            fireDue();
+        }
+    }
+
+    private void runTicker() {
+        while (running) {
+            advance();
+            long sleepMillis = (currentTick + 1) * tickMillis - clock.millis();
+            if (sleepMillis > 0 && running) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+            }
+        }
+    }
+
+    /**
+     * Sets the timer for what comes after the reservation's current status.
+     */
+    private void scheduleNext(Reservation reservation, boolean ifAbsent) {
+        if (reservation.getStatus() == ReservationStatus.CONFIRMED) {
+            schedule(reservation, ACTIVATE, tickAtOrAfter(reservation.getStartTime()), ifAbsent);
+        } else if (reservation.isCheckedIn()) {
+            schedule(reservation, COMPLETE, tickAtOrAfter(reservation.getEndTime()), ifAbsent);
+        } else {
+            schedule(reservation, EXPIRE, tickAtOrAfter(noShowTime(reservation)), ifAbsent);
+        }
+    }
+
+    private void schedule(Reservation reservation, int action, long deadline, boolean ifAbsent) {
+        Timer timer = new Timer(reservation, action, deadline);
+        if (ifAbsent) {
+            if (timers.putIfAbsent(reservation.getReservationId(), timer) != null) {
+                return;
+            }
+        } else {
+            Timer previous = timers.put(reservation.getReservationId(), timer);
+            if (previous != null) {
+                previous.cancelled = true;
+                changes.add(previous);
+            }
+        }
+        changes.add(timer);
+    }
+
+    private void cancel(Reservation reservation) {
+        Timer timer = timers.remove(reservation.getReservationId());
+        if (timer != null) {
+            timer.cancelled = true;
+            changes.add(timer);
+        }
+    }
+
+    private void applyChanges() {
+        for (Timer timer; (timer = changes.poll()) != null; ) {
+            if (timer.cancelled) {
+                unlink(timer);
+            } else if (timer.bucket < 0 && !timer.fired) {
+                place(timer);
+            }
+        }
+    }
+
+    /**
+     * Puts the timer into the finest level whose wheel still reaches its deadline, or
+     * onto the due list if the deadline has passed.
+     */
+    private void place(Timer timer) {
+        long deadline = timer.deadline;
+        if (deadline <= currentTick) {
+            due.add(timer);
+            return;
+        }
+        long delay = deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        // The wheel turns onto the deadline's bucket of that level within one turn of it.
+        int slot = (int) (deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+        if (delay >= 1L << (WHEEL_BITS * LEVELS)) {
+            // Past the span of the whole wheel: park it in the top bucket the wheel reaches
+            // last, and it is placed again from there.
+            slot = (int) ((currentTick >>> (WHEEL_BITS * level)) - 1) & WHEEL_MASK;
+        }
+        int bucket = level * WHEEL_SIZE + slot;
+        Timer head = buckets[bucket];
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        buckets[bucket] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        int bucket = timer.bucket;
+        if (bucket < 0) {
+            return;
+        }
+        if (timer.prev == null) {
+            buckets[bucket] = timer.next;
+        } else {
+            timer.prev.next = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+    }
+
+    /**
+     * Empties the bucket and returns its list, detached from the wheel.
+     */
+    private Timer takeBucket(int bucket) {
+        Timer head = buckets[bucket];
+        buckets[bucket] = null;
+        for (Timer timer = head; timer != null; timer = timer.next) {
+            timer.bucket = -1;
+            timer.prev = null;
+        }
+        return head;
+    }
+
+    /**
+     * Moves the timers of a bucket the wheel has just turned onto down to finer levels.
+     */
+    private void cascade(int level, int slot) {
+        Timer timer = takeBucket(level * WHEEL_SIZE + slot);
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void fireDue() {
+        for (Timer timer; (timer = due.poll()) != null; ) {
+            if (timer.cancelled || timer.fired) {
+                continue;
+            }
+            timer.fired = true;
+            timers.remove(timer.reservation.getReservationId(), timer);
+            fire(timer);
+        }
+    }
+
+    private void fire(Timer timer) {
+        Reservation reservation = timer.reservation;
+        String reservationId = reservation.getReservationId();
+        try {
+            switch (timer.action) {
+                case ACTIVATE:
+                    if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+                        return;
+                    }
+                    if (currentTick >= tickAtOrAfter(noShowTime(reservation))) {
+                        commands.expireReservation(reservationId);
+                        return;
+                    }
+                    try {
+                        commands.activateReservation(reservationId);
+                    } catch (IllegalStateException occupied) {
+                        if (reservation.getStatus() == ReservationStatus.CONFIRMED) {
+                            schedule(reservation, ACTIVATE, currentTick + 1, true);
+                        }
+                    }
+                    return;
+                case EXPIRE:
+                    if (reservation.getStatus() == ReservationStatus.ACTIVE && !reservation.isCheckedIn()) {
+                        commands.expireReservation(reservationId);
+                    }
+                    return;
+                case COMPLETE:
+                    if (reservation.getStatus() == ReservationStatus.ACTIVE) {
+                        commands.completeReservation(reservationId);
+                    }
+                    return;
+                default:
+                    throw new IllegalStateException("Unknown timer action " + timer.action);
+            }
+        } catch (IllegalStateException raced) {
+            // Checked in, completed or cancelled by hand since the status was read; the
+            // event of that change has already set or cleared the timer.
+        }
+    }
+
+    private LocalDateTime noShowTime(Reservation reservation) {
+        LocalDateTime graceEnd = reservation.getStartTime().plus(gracePeriod);
+        return graceEnd.isBefore(reservation.getEndTime()) ? graceEnd : reservation.getEndTime();
+    }
+
+    private long tickAtOrAfter(LocalDateTime time) {
+        long millis = time.atZone(clock.getZone()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+
+    /**
+     * One pending transition. Linked into a bucket by the wheel thread only.
+     */
+    private static final class Timer {
+        final Reservation reservation;
+        final int action;
+        final long deadline;
+        volatile boolean cancelled;
+        boolean fired;
+        int bucket = -1;
+        Timer prev;
+        Timer next;
+
+        Timer(Reservation reservation, int action, long deadline) {
+            this.reservation = reservation;
+            this.action = action;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingStatus;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Reservation;
+import com.parking.model.Vehicle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link ParkingService} in single-writer mode. Callers never touch the lot
+ * state: each mutating call is written into a slot of a preallocated ring buffer and
+ * applied, in sequence order, by one writer thread, so the allocator's atomics and the
+ * ticket maps are only ever written from one core and their cache lines stop bouncing
+ * between gate threads. The writer drains whatever is queued in one batch and wakes the
+ * callers once the batch is applied; the calling thread blocks until then and receives
+ * the result, or the exception the operation threw.
+ * <p>
+ * Reads do not enter the ring. After each batch the writer publishes an immutable
+ * {@link ParkingStatus}; the active ticket list is copied by the writer on the first
+ * request after a change and shared by every reader until the next one. A caller sees
+ * its own completed writes in both.
+ * <p>
+ * Listeners registered on the wrapped service run on the writer thread. The wrapped
+ * service must not be mutated directly once wrapped.
+ */
+public final class SingleWriterParkingService implements ParkingOperations, AutoCloseable {
+
+    public static final int DEFAULT_RING_SIZE = 1024;
+
+    private static final int OP_ADD_SPOT = 0;
+    private static final int OP_PARK = 1;
+    private static final int OP_EXIT = 2;
+    private static final int OP_EXIT_BY_PLATE = 3;
+    private static final int OP_RESERVE = 4;
+    private static final int OP_ACTIVATE = 5;
+    private static final int OP_COMPLETE = 6;
+    private static final int OP_COPY_TICKETS = 7;
+    private static final int OP_CHECK_IN = 8;
+    private static final int OP_CANCEL = 9;
+    private static final int OP_EXPIRE = 10;
+
+    /** Longs per slot state, so neighbouring slots never share a 64-byte cache line. */
+    private static final int STATE_STRIDE = 8;
+    /** Busy-wait rounds before yielding; spinning only pays off with a core to spare for the writer. */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    private static final int YIELDS = 16;
+    private static final int MAX_BATCH = 256;
+
+    private final ParkingService delegate;
+    private final Slot[] slots;
+    private final int mask;
+    /**
+     * Lifecycle of the slot for sequence s, per slot: s free to claim, s + 1 published
+     * by its caller, s + 2 applied by the writer, s + ring size freed by the caller.
+     */
+    private final AtomicLongArray states;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    private volatile ParkingStatus statusSnapshot;
+    private volatile long publishedVersion;
+    private volatile TicketsSnapshot ticketsSnapshot;
+    /** Writer-only count of applied mutations. */
+    private long version;
+
+    public SingleWriterParkingService(ParkingService delegate) {
+        this(delegate, DEFAULT_RING_SIZE);
+    }
+
+    /**
+     * Wraps the service and starts its writer thread.
+     *
+     * @param ringSize commands that can be queued before callers wait; a power of two, at least 4
+     */
+    public SingleWriterParkingService(ParkingService delegate, int ringSize) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Parking service cannot be null");
+        }
+        if (ringSize < 4 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two of at least 4");
+        }
+        this.delegate = delegate;
+        this.slots = new Slot[ringSize];
+        this.mask = ringSize - 1;
+        this.states = new AtomicLongArray(ringSize * STATE_STRIDE);
+        for (int i = 0; i < ringSize; i++) {
+            slots[i] = new Slot();
+            states.set(i * STATE_STRIDE, i);
+        }
+        this.statusSnapshot = delegate.getParkingStatusSnapshot();
+        this.writer = new Thread(this::runWriter, "parking-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void addParkingSpot(ParkingSpot spot) {
+        call(OP_ADD_SPOT, null, null, null, null, spot);
+    }
+
+    @Override
+    public ParkingTicket parkVehicle(Vehicle vehicle) {
+        return parkVehicle(vehicle, null, ParkingService.DEFAULT_EXPECTED_STAY);
+    }
+
+    @Override
+    public ParkingTicket parkVehicle(Vehicle vehicle, String homeZone) {
+        return parkVehicle(vehicle, homeZone, ParkingService.DEFAULT_EXPECTED_STAY);
+    }
+
+    @Override
+    public ParkingTicket parkVehicle(Vehicle vehicle, String homeZone, Duration expectedStay) {
+        return (ParkingTicket) call(OP_PARK, vehicle, homeZone, null, null, null, expectedStay);
+    }
+
+    @Override
+    public double exitVehicle(String ticketId) {
+        return (Double) call(OP_EXIT, null, ticketId, null, null, null);
+    }
+
+    @Override
+    public double exitVehicleByPlate(String licensePlate) {
+        return (Double) call(OP_EXIT_BY_PLATE, null, licensePlate, null, null, null);
+    }
+
+    @Override
+    public Reservation createReservation(String userId, Vehicle vehicle,
+                                         LocalDateTime startTime, LocalDateTime endTime) {
+        return (Reservation) call(OP_RESERVE, vehicle, userId, startTime, endTime, null);
+    }
+
+    @Override
+    public void activateReservation(String reservationId) {
+        call(OP_ACTIVATE, null, reservationId, null, null, null);
+    }
+
+    @Override
+    public void completeReservation(String reservationId) {
+        call(OP_COMPLETE, null, reservationId, null, null, null);
+    }
+
+    @Override
+    public void checkInReservation(String reservationId) {
+        call(OP_CHECK_IN, null, reservationId, null, null, null);
+    }
+
+    @Override
+    public void cancelReservation(String reservationId) {
+        call(OP_CANCEL, null, reservationId, null, null, null);
+    }
+
+    @Override
+    public void expireReservation(String reservationId) {
+        call(OP_EXPIRE, null, reservationId, null, null, null);
+    }
+
+    @Override
+    public Object getParkingStatus() {
+        return statusSnapshot.toMap();
+    }
+
+    /**
+     * Returns the status published after the last applied batch.
+     */
+    @Override
+    public ParkingStatus getParkingStatusSnapshot() {
+        return statusSnapshot;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the open tickets, shared between readers until
+     * the next change.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ParkingTicket> getActiveTickets() {
+        TicketsSnapshot snapshot = ticketsSnapshot;
+        if (snapshot != null && snapshot.version == publishedVersion) {
+            return snapshot.tickets;
+        }
+        return (List<ParkingTicket>) call(OP_COPY_TICKETS, null, null, null, null, null);
+    }
+
+    /**
+     * Applies the commands already queued, then stops the writer. Later calls fail with
+     * an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Object call(int op, Vehicle vehicle, String text, LocalDateTime start, LocalDateTime end,
+                        ParkingSpot spot) {
+        return call(op, vehicle, text, start, end, spot, null);
+    }
+
+    private Object call(int op, Vehicle vehicle, String text, LocalDateTime start, LocalDateTime end,
+                        ParkingSpot spot, Duration stay) {
+        if (!running) {
+            throw new IllegalStateException("Single-writer parking service is closed");
+        }
+        long sequence = claimed.getAndIncrement();
+        int index = (int) sequence & mask;
+        int state = index * STATE_STRIDE;
+        for (int spins = 0; states.get(state) != sequence; spins++) {
+            // The ring is full: wait for the caller of the previous lap to take its result.
+            awaitWriter();
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        Slot slot = slots[index];
+        slot.op = op;
+        slot.vehicle = vehicle;
+        slot.text = text;
+        slot.start = start;
+        slot.end = end;
+        slot.spot = spot;
+        slot.stay = stay;
+        slot.waiter = Thread.currentThread();
+        states.set(state, sequence + 1);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+
+        long applied = sequence + 2;
+        for (int spins = 0; states.get(state) != applied; spins++) {
+            if (spins < SPINS) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (spins < SPINS + YIELDS) {
+                Thread.yield();
+                continue;
+            }
+            awaitWriter();
+            slot.waiting = true;
+            if (states.get(state) != applied) {
+                LockSupport.park(this);
+            }
+            slot.waiting = false;
+        }
+        Object result = slot.result;
+        RuntimeException error = slot.error;
+        slot.clear();
+        states.set(state, sequence + slots.length);
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private void awaitWriter() {
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("Single-writer parking service is closed");
+        }
+    }
+
+    private void runWriter() {
+        long next = 0;
+        int idleSpins = 0;
+        while (true) {
+            long end = next;
+            while (end - next < MAX_BATCH && states.get(((int) end & mask) * STATE_STRIDE) == end + 1) {
+                apply(slots[(int) end & mask]);
+                end++;
+            }
+            if (end > next) {
+                if (publishedVersion != version) {
+                    statusSnapshot = delegate.getParkingStatusSnapshot();
+                    publishedVersion = version;
+                }
+                for (long sequence = next; sequence < end; sequence++) {
+                    Slot slot = slots[(int) sequence & mask];
+                    Thread waiter = slot.waiter;
+                    states.set(((int) sequence & mask) * STATE_STRIDE, sequence + 2);
+                    if (slot.waiting) {
+                        LockSupport.unpark(waiter);
+                    }
+                }
+                next = end;
+                idleSpins = 0;
+                continue;
+            }
+            if (!running && claimed.get() == next) {
+                return;
+            }
+            if (idleSpins++ < SPINS + YIELDS) {
+                if (idleSpins <= SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                continue;
+            }
+            writerParked = true;
+            if (states.get(((int) next & mask) * STATE_STRIDE) != next + 1 && running) {
+                LockSupport.park(this);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void apply(Slot slot) {
+        try {
+            switch (slot.op) {
+                case OP_ADD_SPOT:
+                    delegate.addParkingSpot(slot.spot);
+                    break;
+                case OP_PARK:
+                    slot.result = delegate.parkVehicle(slot.vehicle, slot.text, slot.stay);
+                    break;
+                case OP_EXIT:
+                    slot.result = delegate.exitVehicle(slot.text);
+                    break;
+                case OP_EXIT_BY_PLATE:
+                    slot.result = delegate.exitVehicleByPlate(slot.text);
+                    break;
+                case OP_RESERVE:
+                    slot.result = delegate.createReservation(slot.text, slot.vehicle, slot.start, slot.end);
+                    break;
+                case OP_ACTIVATE:
+                    delegate.activateReservation(slot.text);
+                    break;
+                case OP_COMPLETE:
+                    delegate.completeReservation(slot.text);
+                    break;
+                case OP_CHECK_IN:
+                    delegate.checkInReservation(slot.text);
+                    break;
+                case OP_CANCEL:
+                    delegate.cancelReservation(slot.text);
+                    break;
+                case OP_EXPIRE:
+                    delegate.expireReservation(slot.text);
+                    break;
+                case OP_COPY_TICKETS:
+                    slot.result = copyTickets();
+                    return;
+                default:
+                    throw new IllegalStateException("Unknown command " + slot.op);
+            }
+        } catch (RuntimeException e) {
+            slot.error = e;
+        }
+        version++;
+    }
+
+    private List<ParkingTicket> copyTickets() {
+        TicketsSnapshot snapshot = ticketsSnapshot;
+        if (snapshot == null || snapshot.version != version) {
+            List<ParkingTicket> active = delegate.getActiveTickets();
+            snapshot = new TicketsSnapshot(version, active instanceof SnapshotList ? active : List.copyOf(active));
+            ticketsSnapshot = snapshot;
+        }
+        return snapshot.tickets;
+    }
+
+    /**
+     * One preallocated command. Plain fields are handed between caller and writer by
+     * the volatile writes to the slot's state.
+     */
+    private static final class Slot {
+        int op;
+        Vehicle vehicle;
+        String text;
+        LocalDateTime start;
+        LocalDateTime end;
+        ParkingSpot spot;
+        Duration stay;
+        Thread waiter;
+        Object result;
+        RuntimeException error;
+        volatile boolean waiting;
+
+        void clear() {
+            vehicle = null;
+            text = null;
+            start = null;
+            end = null;
+            spot = null;
+            stay = null;
+            waiter = null;
+            result = null;
+            error = null;
+        }
+    }
+
+    private static final class TicketsSnapshot {
+        final long version;
+        final List<ParkingTicket> tickets;
+
+        TicketsSnapshot(long version, List<ParkingTicket> tickets) {
+            this.version = version;
+            this.tickets = tickets;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.parking.service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Immutable point-in-time list of tickets or reservations, in ID order, which is the
+ * order they were issued in. Successive versions share every chunk of elements that did
+ * not change between them, so publishing a new version after a few changes costs a few
+ * chunk copies rather than a copy of the whole list. The list fixes which elements are
+ * present; the elements themselves are the live objects, so a ticket's processed flag
+ * or a reservation's status reads as of now.
+ *
+ * @param <T> element type
+ */
+public final class SnapshotList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int CHUNK_SIZE = 64;
+
+    private static final SnapshotList<?> EMPTY = new SnapshotList<>(0, new Chunk[0]);
+
+    private final long version;
+    private final Chunk[] chunks;
+    /** Index of each chunk's first element within the list. */
+    private final int[] offsets;
+    private final int size;
+
+    private SnapshotList(long version, Chunk[] chunks) {
+        this.version = version;
+        this.chunks = chunks;
+        this.offsets = new int[chunks.length];
+        int total = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i] = total;
+            total += chunks[i].keys.length;
+        }
+        this.size = total;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> SnapshotList<T> empty() {
+        return (SnapshotList<T>) EMPTY;
+    }
+
+    /**
+     * Grows with every published change, so a reader holding an older list can tell it
+     * has been superseded.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int chunk = Arrays.binarySearch(offsets, index);
+        if (chunk < 0) {
+            chunk = -chunk - 2;
+        }
+        return (T) chunks[chunk].items[index - offsets[chunk]];
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int slot;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < chunks.length && slot == chunks[chunk].keys.length) {
+                    chunk++;
+                    slot = 0;
+                }
+                return chunk < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (T) chunks[chunk].items[slot++];
+            }
+        };
+    }
+
+    /**
+     * Returns one page of the elements that pass the filter, in list order.
+     *
+     * @param offset matching elements to skip
+     * @param limit  maximum number of elements to return
+     */
+    public List<T> page(Predicate<? super T> filter, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        List<T> page = new ArrayList<>(Math.min(limit, CHUNK_SIZE));
+        int skipped = 0;
+        for (T item : this) {
+            if (filter != null && !filter.test(item)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(item);
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * Returns the next version: this list with the changes applied, keys sorted and
+     * unique. Only the chunks a change falls into are copied.
+     *
+     * @param keys  keys of the changed elements, ascending
+     * @param items new element for each key, or null to remove it
+     */
+    SnapshotList<T> apply(long[] keys, Object[] items, int count) {
+        if (count == 0) {
+            return this;
+        }
+        List<Chunk> result = new ArrayList<>(chunks.length + count / CHUNK_SIZE + 1);
+        int change = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            // The last chunk also takes every key past the end; the first every key before the start.
+            long limitKey = c + 1 < chunks.length ? chunks[c + 1].keys[0] : Long.MAX_VALUE;
+            int end = change;
+            while (end < count && keys[end] < limitKey) {
+                end++;
+            }
+            if (end == change) {
+                result.add(chunk);
+                continue;
+            }
+            addMerged(result, chunk, keys, items, change, end);
+            change = end;
+        }
+        if (change < count) {
+            addMerged(result, new Chunk(new long[0], new Object[0]), keys, items, change, count);
+        }
+        return new SnapshotList<>(version + count, result.toArray(new Chunk[0]));
+    }
+
+    /**
+     * Merges a run of changes into a copy of the chunk and appends the outcome, split to
+     * at most {@link #CHUNK_SIZE} elements per chunk. A chunk left small is folded into
+     * the one before it when both fit, so removals do not leave the list fragmented.
+     */
+    private static void addMerged(List<Chunk> result, Chunk chunk, long[] keys, Object[] items, int from, int to) {
+        long[] mergedKeys = new long[chunk.keys.length + to - from];
+        Object[] mergedItems = new Object[mergedKeys.length];
+        int size = 0;
+        int i = 0;
+        int j = from;
+        while (i < chunk.keys.length || j < to) {
+            if (j == to || (i < chunk.keys.length && chunk.keys[i] < keys[j])) {
+                mergedKeys[size] = chunk.keys[i];
+                mergedItems[size++] = chunk.items[i++];
+                continue;
+            }
+            if (i < chunk.keys.length && chunk.keys[i] == keys[j]) {
+                i++;
+            }
+            if (items[j] != null) {
+                mergedKeys[size] = keys[j];
+                mergedItems[size++] = items[j];
+            }
+            j++;
+        }
+        int start = 0;
+        if (!result.isEmpty()) {
+            Chunk previous = result.get(result.size() - 1);
+            int room = CHUNK_SIZE - previous.keys.length;
+            if (size > 0 && size <= room) {
+                result.set(result.size() - 1, previous.append(mergedKeys, mergedItems, 0, size));
+                return;
+            }
+        }
+        while (start < size) {
+            int length = Math.min(CHUNK_SIZE, size - start);
+            result.add(new Chunk(Arrays.copyOfRange(mergedKeys, start, start + length),
+                    Arrays.copyOfRange(mergedItems, start, start + length)));
+            start += length;
+        }
+    }
+
+    /**
+     * Immutable run of elements with their keys, ascending.
+     */
+    private static final class Chunk {
+        final long[] keys;
+        final Object[] items;
+
+        Chunk(long[] keys, Object[] items) {
+            this.keys = keys;
+            this.items = items;
+        }
+
+        Chunk append(long[] moreKeys, Object[] moreItems, int from, int to) {
+            long[] joinedKeys = Arrays.copyOf(keys, keys.length + to - from);
+            Object[] joinedItems = Arrays.copyOf(items, joinedKeys.length);
+            System.arraycopy(moreKeys, from, joinedKeys, keys.length, to - from);
+            System.arraycopy(moreItems, from, joinedItems, keys.length, to - from);
+            return new Chunk(joinedKeys, joinedItems);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.parking.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a {@link SnapshotList} in step with a live collection. Writers record each
+ * change on a lock-free queue (one atomic swap, never a wait) and move on; the next
+ * reader folds the pending changes into a new version and publishes it, and readers
+ * return the published version directly while nothing is pending. Readers only
+ * serialize among themselves, and only when there is something to publish. So that
+ * the queue stays short when nobody reads, every {@value #FOLD_EVERY}th change also
+ * publishes, unless a reader is already doing so.
+ * <p>
+ * An element may be recorded after it has already gone: a writer can make it reachable
+ * before recording it, and another writer can remove it in between. Elements the
+ * {@code retained} predicate rejects when a change is folded are therefore dropped as
+ * if removed, so such a late put cannot bring them back.
+ *
+ * @param <T> element type
+ */
+final class SnapshotPublisher<T> {
+
+    static final int FOLD_EVERY = 4096;
+
+    private final AtomicReference<Change> head;
+    /** Last change folded into {@link #published}; only advanced under {@link #publishLock}. */
+    private volatile Change tail;
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private volatile SnapshotList<T> published = SnapshotList.empty();
+    /** Readers that found another reader publishing and had to wait for it. */
+    private final LongAdder contended = new LongAdder();
+    private final Predicate<? super T> retained;
+
+    SnapshotPublisher() {
+        this(item -> true);
+    }
+
+    /**
+     * @param retained tells whether an element still belongs in the list when its change is folded
+     */
+    SnapshotPublisher(Predicate<? super T> retained) {
+        this.retained = retained;
+        Change stub = new Change(0, null);
+        head = new AtomicReference<>(stub);
+        tail = stub;
+    }
+
+    /**
+     * Records that the element with the given key was added or replaced.
+     */
+    void put(long key, T item) {
+        enqueue(new Change(key, item));
+    }
+
+    /**
+     * Records that the element with the given key is gone.
+     */
+    void remove(long key) {
+        enqueue(new Change(key, null));
+    }
+
+    /**
+     * Returns the current snapshot, including every change recorded before the call.
+     */
+    SnapshotList<T> snapshot() {
+        if (head.get() == tail) {
+            return published;
+        }
+        if (!publishLock.tryLock()) {
+            contended.increment();
+            publishLock.lock();
+        }
+        try {
+            return publishPending();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    long contendedCount() {
+        return contended.sum();
+    }
+
+    private void enqueue(Change change) {
+        Change previous = head.getAndSet(change);
+        // Only a trigger: a racing writer may not have numbered the previous change yet.
+        change.sequence = previous.sequence + 1;
+        previous.next = change;
+        if ((change.sequence & (FOLD_EVERY - 1)) == 0 && publishLock.tryLock()) {
+            try {
+                publishPending();
+            } finally {
+                publishLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Folds every change recorded so far into a new published version. Caller holds the lock.
+     */
+    private SnapshotList<T> publishPending() {
+        Change last = head.get();
+        if (last != tail) {
+            published = fold(last);
+        }
+        return published;
+    }
+
+    /**
+     * Drains the queue up to and including {@code last} into a new version. Only the
+     * latest change to each key matters, so changes are first collapsed per key in an
+     * open-addressing table and just the surviving keys are sorted.
+     */
+    @SuppressWarnings("unchecked")
+    private SnapshotList<T> fold(Change last) {
+        int count = 0;
+        for (Change change = tail; change != last; change = awaitNext(change)) {
+            count++;
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, count * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        long[] tableKeys = new long[capacity];
+        Object[] tableItems = new Object[capacity];
+        boolean[] used = new boolean[capacity];
+        long[] keys = new long[count];
+        int unique = 0;
+        Change change = tail;
+        for (int i = 0; i < count; i++) {
+            // Unlink drained changes: one that got promoted would otherwise keep every later
+            // change reachable through young collections and drag them into the old generation.
+            Change next = change.next;
+            change.next = null;
+            change = next;
+            int slot = slot(change.key, tableKeys, used, mask);
+            if (!used[slot]) {
+                used[slot] = true;
+                tableKeys[slot] = change.key;
+                keys[unique++] = change.key;
+            }
+            tableItems[slot] = change.item;
+        }
+        tail = last;
+        Arrays.sort(keys, 0, unique);
+        Object[] items = new Object[unique];
+        for (int i = 0; i < unique; i++) {
+            Object item = tableItems[slot(keys[i], tableKeys, used, mask)];
+            items[i] = item != null && retained.test((T) item) ? item : null;
+        }
+        return published.apply(keys, items, unique);
+    }
+
+    private static int slot(long key, long[] tableKeys, boolean[] used, int mask) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (used[slot] && tableKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Follows the queue link, waiting out the moment between a writer's swap of the head
+     * and its link from the previous change.
+     */
+    private static Change awaitNext(Change change) {
+        Change next;
+        for (int spins = 0; (next = change.next) == null; spins++) {
+            if (spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return next;
+    }
+
+    private static final class Change {
+        final long key;
+        final Object item;
+        long sequence;
+        volatile Change next;
+
+        Change(long key, Object item) {
+            this.key = key;
+            this.item = item;
+        }
+    }
+}
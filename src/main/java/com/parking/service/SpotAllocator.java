@@ -0,0 +1,300 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Owns the registered parking spots and hands them out to vehicles.
+ * Spots are partitioned into {@link SpotShard}s by a {@link SpotSharding} strategy
+ * and by size class, so every shard's free list holds spots of one size.
+ * An allocation is best-fit: it tries the smallest size class that fits the vehicle
+ * first and falls through to larger classes only once that class is full everywhere.
+ * Within a class it starts at the caller's home shard and only steals from the
+ * neighbouring shards once the home shard is exhausted, so gates working
+ * different zones never touch the same free list.
+ */
+class SpotAllocator {
+
+    private final SpotSharding sharding;
+    private final boolean holdsVehicles;
+    private final ConcurrentHashMap<String, SpotLocation> locationsBySpotId = new ConcurrentHashMap<>();
+    /** Shards of each zone indexed by size class; arrays are replaced, never mutated. */
+    private final ConcurrentHashMap<String, SpotShard[]> shardsByZone = new ConcurrentHashMap<>();
+    private volatile SpotShard[] shards = new SpotShard[0];
+    /** Shards indexed by size class, then by their ordinal within the class. */
+    private volatile SpotShard[][] shardsBySize = new SpotShard[ParkingSpot.MAX_SIZE + 1][0];
+    private volatile SpotLocation[] locationsByIndex = new SpotLocation[16];
+    private volatile int spotCount;
+
+    SpotAllocator(SpotSharding sharding) {
+        this(sharding, true);
+    }
+
+    /**
+     * @param holdsVehicles whether claimed spot objects are marked occupied and hold their
+     *                      vehicle; if not, the spot objects are never written and occupancy
+     *                      is only known to the allocator
+     */
+    SpotAllocator(SpotSharding sharding, boolean holdsVehicles) {
+        this.sharding = sharding;
+        this.holdsVehicles = holdsVehicles;
+    }
+
+    /**
+     * Registers a spot and assigns it the next index. The spot is not handed out
+     * until it is {@link #publish(ParkingSpot) published}.
+     *
+     * @return the spot's index, stable for the lifetime of the allocator
+     * @throws IllegalArgumentException if a spot with the same ID is already registered
+     */
+    synchronized int register(ParkingSpot spot) {
+        if (locationsBySpotId.containsKey(spot.getSpotId())) {
+            throw new IllegalArgumentException("Parking spot " + spot.getSpotId() + " is already registered");
+        }
+        String zone = sharding.shardKey(spot);
+        int size = spot.getSize();
+        SpotShard[] zoneShards = shardsByZone.get(zone);
+        SpotShard shard = zoneShards == null ? null : zoneShards[size];
+        if (shard == null) {
+            SpotShard[][] bySize = shardsBySize.clone();
+            shard = new SpotShard(zone, bySize[size].length, holdsVehicles);
+            bySize[size] = Arrays.copyOf(bySize[size], bySize[size].length + 1);
+            bySize[size][shard.ordinal()] = shard;
+            SpotShard[] all = Arrays.copyOf(shards, shards.length + 1);
+            all[all.length - 1] = shard;
+            zoneShards = zoneShards == null ? new SpotShard[ParkingSpot.MAX_SIZE + 1] : zoneShards.clone();
+            zoneShards[size] = shard;
+            shardsByZone.put(zone, zoneShards);
+            shardsBySize = bySize;
+            shards = all;
+        }
+        int slot = shard.add(spot);
+        int index = spotCount;
+        SpotLocation location = new SpotLocation(spot, shard, slot, index);
+        SpotLocation[] byIndex = locationsByIndex;
+        if (index == byIndex.length) {
+            byIndex = Arrays.copyOf(byIndex, byIndex.length * 2);
+        }
+        byIndex[index] = location;
+        locationsByIndex = byIndex;
+        locationsBySpotId.put(spot.getSpotId(), location);
+        spotCount = index + 1;
+        return index;
+    }
+
+    /**
+     * Makes a registered spot available for allocation if it is free.
+     */
+    void publish(ParkingSpot spot) {
+        SpotLocation location = locationsBySpotId.get(spot.getSpotId());
+        location.shard.publish(location.slot);
+    }
+
+    /**
+     * Returns the index assigned at registration, or -1 if the spot is not registered.
+     */
+    int indexOf(ParkingSpot spot) {
+        SpotLocation location = locationsBySpotId.get(spot.getSpotId());
+        return location == null ? -1 : location.index;
+    }
+
+    /**
+     * Returns the spot with the given index, or null if there is none.
+     */
+    ParkingSpot spotAt(int index) {
+        int count = spotCount;
+        return index >= 0 && index < count ? locationsByIndex[index].spot : null;
+    }
+
+    /**
+     * Whether the spot with the given index is claimed, or not yet published.
+     */
+    boolean isOccupied(int index) {
+        SpotLocation location = locationsByIndex[index];
+        return location.shard.isOccupied(location.slot);
+    }
+
+    /**
+     * Claims the smallest free spot that fits the vehicle, preferring the given home shard
+     * within each size class.
+     *
+     * @param homeShard shard key to try first, or null to pick one from the calling thread
+     * @return the claimed spot, or null if no fitting spot is free
+     */
+    ParkingSpot claim(Vehicle vehicle, String homeShard) {
+        return claim(vehicle, homeShard, null);
+    }
+
+    /**
+     * Claims the smallest free spot that fits the vehicle among those the filter accepts.
+     *
+     * @param accept filter on spots, or null to accept any
+     * @return the claimed spot, or null if no fitting, accepted spot is free
+     */
+    ParkingSpot claim(Vehicle vehicle, String homeShard, Predicate<ParkingSpot> accept) {
+        SpotShard[][] bySize = shardsBySize;
+        for (int size = vehicle.getType().getSize(); size <= ParkingSpot.MAX_SIZE; size++) {
+            SpotShard[] snapshot = bySize[size];
+            if (snapshot.length == 0) {
+                continue;
+            }
+            int start = homeOrdinal(snapshot, size, homeShard);
+            for (int i = 0; i < snapshot.length; i++) {
+                int ordinal = start + i;
+                if (ordinal >= snapshot.length) {
+                    ordinal -= snapshot.length;
+                }
+                ParkingSpot spot = snapshot[ordinal].claim(vehicle, accept);
+                if (spot != null) {
+                    return spot;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claims one particular spot for the vehicle.
+     *
+     * @return true if the spot was free and now holds the vehicle
+     */
+    boolean claim(ParkingSpot spot, Vehicle vehicle) {
+        SpotLocation location = locationsBySpotId.get(spot.getSpotId());
+        return location != null && location.shard.claim(location.slot, vehicle);
+    }
+
+    /**
+     * Empties the spot and returns it to its shard's free pool.
+     */
+    void release(ParkingSpot spot) {
+        SpotLocation location = locationsBySpotId.get(spot.getSpotId());
+        if (location == null) {
+            if (holdsVehicles) {
+                spot.releaseSpot();
+            }
+            return;
+        }
+        location.shard.release(location.slot);
+    }
+
+    Optional<ParkingSpot> peekFree() {
+        return peekFree(null);
+    }
+
+    /**
+     * Returns a free spot the filter accepts without claiming it.
+     *
+     * @param accept filter on spots, or null to accept any
+     */
+    Optional<ParkingSpot> peekFree(Predicate<ParkingSpot> accept) {
+        for (SpotShard shard : shards) {
+            ParkingSpot spot = shard.peekFree(accept);
+            if (spot != null) {
+                return Optional.of(spot);
+            }
+        }
+        return Optional.empty();
+    }
+
+    int size() {
+        return spotCount;
+    }
+
+    /**
+     * Number of claimed spots across all shards, read from per-shard counters.
+     */
+    long occupiedCount() {
+        long total = 0;
+        for (SpotShard shard : shards) {
+            total += shard.occupiedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Number of claims, across all shards, that had to retry after losing a race.
+     */
+    long contendedCount() {
+        long total = 0;
+        for (SpotShard shard : shards) {
+            total += shard.contendedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Number of registered spots of at least the given size class.
+     */
+    long size(int minSize) {
+        long total = 0;
+        SpotShard[][] bySize = shardsBySize;
+        for (int size = minSize; size < bySize.length; size++) {
+            for (SpotShard shard : bySize[size]) {
+                total += shard.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Number of claimed spots of at least the given size class, read from per-shard counters.
+     */
+    long occupiedCount(int minSize) {
+        long total = 0;
+        SpotShard[][] bySize = shardsBySize;
+        for (int size = minSize; size < bySize.length; size++) {
+            for (SpotShard shard : bySize[size]) {
+                total += shard.occupiedCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the registered spots in index order.
+     */
+    List<ParkingSpot> spots() {
+        int count = spotCount;
+        SpotLocation[] byIndex = locationsByIndex;
+        List<ParkingSpot> spots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            spots.add(byIndex[i].spot);
+        }
+        return spots;
+    }
+
+    private int homeOrdinal(SpotShard[] snapshot, int size, String homeShard) {
+        if (homeShard != null) {
+            SpotShard[] zoneShards = shardsByZone.get(homeShard);
+            SpotShard shard = zoneShards == null ? null : zoneShards[size];
+            if (shard != null && shard.ordinal() < snapshot.length) {
+                return shard.ordinal();
+            }
+        }
+        // Spread gate threads across shards so each keeps hitting the same free list.
+        long threadId = Thread.currentThread().getId();
+        int mixed = (int) (threadId * 0x9E3779B97F4A7C15L >>> 32);
+        return Math.floorMod(mixed, snapshot.length);
+    }
+
+    private static final class SpotLocation {
+        private final ParkingSpot spot;
+        private final SpotShard shard;
+        private final int slot;
+        private final int index;
+
+        private SpotLocation(ParkingSpot spot, SpotShard shard, int slot, int index) {
+            this.spot = spot;
+            this.shard = shard;
+            this.slot = slot;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.Vehicle;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * An independent partition of the spot pool with its own free list, holding the
+ * spots of one zone and one size class.
+ * Gates allocating from different shards touch disjoint bitmap words and
+ * therefore never contend with each other.
+ */
+final class SpotShard {
+
+    private final String key;
+    private final int ordinal;
+    private final boolean holdsVehicles;
+    private final FreeSpotIndex freeSlots = new FreeSpotIndex();
+    private final LongAdder occupied = new LongAdder();
+    private volatile ParkingSpot[] spots = new ParkingSpot[16];
+    private volatile int spotCount;
+
+    /**
+     * @param ordinal       position among the shards of the same size class
+     * @param holdsVehicles whether claims and releases are mirrored onto the spot objects;
+     *                      if not, occupancy is kept only in the bitmap
+     */
+    SpotShard(String key, int ordinal, boolean holdsVehicles) {
+        this.key = key;
+        this.ordinal = ordinal;
+        this.holdsVehicles = holdsVehicles;
+    }
+
+    String key() {
+        return key;
+    }
+
+    int ordinal() {
+        return ordinal;
+    }
+
+    /**
+     * Adds a spot to this shard; callers serialize registration. The spot counts as
+     * occupied until it is {@link #publish(int) published}.
+     *
+     * @return the slot assigned to the spot within this shard
+     */
+    int add(ParkingSpot spot) {
+        int slot = spotCount;
+        ParkingSpot[] current = spots;
+        if (slot == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[slot] = spot;
+        freeSlots.ensureCapacity(slot + 1);
+        spots = current;
+        spotCount = slot + 1;
+        occupied.increment();
+        return slot;
+    }
+
+    /**
+     * Makes a newly added spot available for allocation, unless it is already occupied.
+     */
+    void publish(int slot) {
+        if (!spots[slot].isOccupied() && freeSlots.release(slot)) {
+            occupied.decrement();
+        }
+    }
+
+    ParkingSpot claim(Vehicle vehicle) {
+        return claim(vehicle, null);
+    }
+
+    /**
+     * Claims a free spot for the vehicle among those the filter accepts. A spot whose
+     * object was occupied outside the allocator is held out of the search while it runs
+     * and then marked free again, so it is not lost once its occupant leaves.
+     *
+     * @param accept filter on spots, or null to accept any
+     * @return the claimed spot, or null if no accepted spot is free
+     */
+    ParkingSpot claim(Vehicle vehicle, Predicate<ParkingSpot> accept) {
+        IntPredicate acceptSlot = accept == null ? null : candidate -> accept.test(spots[candidate]);
+        int[] heldOut = null;
+        int heldOutCount = 0;
+        try {
+            int slot;
+            while ((slot = freeSlots.claimAny(acceptSlot)) >= 0) {
+                occupied.increment();
+                ParkingSpot spot = spots[slot];
+                if (!holdsVehicles || spot.tryParkVehicle(vehicle)) {
+                    return spot;
+                }
+                if (heldOut == null) {
+                    heldOut = new int[4];
+                } else if (heldOutCount == heldOut.length) {
+                    heldOut = Arrays.copyOf(heldOut, heldOutCount * 2);
+                }
+                heldOut[heldOutCount++] = slot;
+            }
+            return null;
+        } finally {
+            for (int i = 0; i < heldOutCount; i++) {
+                unclaim(heldOut[i]);
+            }
+        }
+    }
+
+    /**
+     * Claims one specific slot for the vehicle.
+     *
+     * @return false if the slot is taken, or its spot was occupied outside the allocator
+     */
+    boolean claim(int slot, Vehicle vehicle) {
+        if (!freeSlots.claim(slot)) {
+            return false;
+        }
+        occupied.increment();
+        if (!holdsVehicles || spots[slot].tryParkVehicle(vehicle)) {
+            return true;
+        }
+        unclaim(slot);
+        return false;
+    }
+
+    /**
+     * Hands back a slot this shard claimed without parking in its spot.
+     */
+    private void unclaim(int slot) {
+        if (freeSlots.release(slot)) {
+            occupied.decrement();
+        }
+    }
+
+    void release(int slot) {
+        if (holdsVehicles) {
+            spots[slot].releaseSpot();
+        }
+        if (freeSlots.release(slot)) {
+            occupied.decrement();
+        }
+    }
+
+    ParkingSpot peekFree() {
+        return peekFree(null);
+    }
+
+    /**
+     * Returns a free spot the filter accepts without claiming it, or null if there is none.
+     */
+    ParkingSpot peekFree(Predicate<ParkingSpot> accept) {
+        int slot = freeSlots.peekAny(accept == null ? null : candidate -> accept.test(spots[candidate]));
+        return slot < 0 ? null : spots[slot];
+    }
+
+    boolean isOccupied(int slot) {
+        return !freeSlots.isFree(slot);
+    }
+
+    int size() {
+        return spotCount;
+    }
+
+    /**
+     * Number of slots currently claimed; O(1) and allocation-free.
+     */
+    long occupiedCount() {
+        return occupied.sum();
+    }
+
+    /**
+     * Number of claims that had to retry after losing a race on the free list.
+     */
+    long contendedCount() {
+        return freeSlots.contendedCount();
+    }
+
+    ParkingSpot spot(int slot) {
+        return spots[slot];
+    }
+}
@@ -0,0 +1,40 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+
+/**
+ * Decides which allocation shard a parking spot belongs to.
+ * Spots with the same shard key share a free list; different keys allocate independently.
+ */
+@FunctionalInterface
+public interface SpotSharding {
+
+    String shardKey(ParkingSpot spot);
+
+    /**
+     * Shards by the level/zone prefix of the spot ID: everything before the first
+     * digit or separator, so "A1" and "A17" share zone "A" and "L2-B04" belongs to "L".
+     */
+    static SpotSharding byZonePrefix() {
+        return spot -> {
+            String spotId = spot.getSpotId();
+            int end = 0;
+            while (end < spotId.length() && Character.isLetter(spotId.charAt(end))) {
+                end++;
+            }
+            return end == 0 ? spotId.substring(0, 1) : spotId.substring(0, end);
+        };
+    }
+
+    /**
+     * Spreads spots over a fixed number of shards by hashing the spot ID.
+     *
+     * @param shardCount number of shards, must be positive
+     */
+    static SpotSharding byHash(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        return spot -> Integer.toString(Math.floorMod(spot.getSpotId().hashCode(), shardCount));
+    }
+}
@@ -0,0 +1,68 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.Vehicle;
+
+/**
+ * Read-only spot handed out by a {@link StorageEngine#COLUMNAR columnar} service.
+ * Occupancy is read live from the allocator and the parked vehicle from the open
+ * ticket on the spot; a spot held by an active reservation is occupied but names no
+ * vehicle. Spots change state only through the service.
+ */
+final class SpotView extends ParkingSpot {
+
+    private final int index;
+    private final SpotAllocator allocator;
+    private final ColumnarTicketStore tickets;
+
+    private SpotView(ParkingSpot spot, int index, SpotAllocator allocator, ColumnarTicketStore tickets) {
+        super(spot.getSpotId(), spot.getSize());
+        this.index = index;
+        this.allocator = allocator;
+        this.tickets = tickets;
+    }
+
+    static SpotView of(int index, SpotAllocator allocator, ColumnarTicketStore tickets) {
+        return new SpotView(allocator.spotAt(index), index, allocator, tickets);
+    }
+
+    @Override
+    public boolean isOccupied() {
+        return allocator.isOccupied(index);
+    }
+
+    @Override
+    public Vehicle getParkedVehicle() {
+        return tickets.vehicleOn(index);
+    }
+
+    @Override
+    public void setOccupied(boolean occupied) {
+        throw new UnsupportedOperationException("Spot " + getSpotId() + " is a read-only view");
+    }
+
+    @Override
+    public void setParkedVehicle(Vehicle parkedVehicle) {
+        throw new UnsupportedOperationException("Spot " + getSpotId() + " is a read-only view");
+    }
+
+    @Override
+    public boolean tryParkVehicle(Vehicle vehicle) {
+        throw new UnsupportedOperationException("Spot " + getSpotId() + " is a read-only view");
+    }
+
+    @Override
+    public void releaseSpot() {
+        throw new UnsupportedOperationException("Spot " + getSpotId() + " is a read-only view");
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingSpot{" +
+                "spotId='" + getSpotId() + '\'' +
+                ", size=" + getSize() +
+                ", occupied=" + isOccupied() +
+                ", parkedVehicle=" + getParkedVehicle() +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.parking.service;
+
+/**
+ * How a {@link ParkingService} keeps its open tickets and spot occupancy.
+ */
+public enum StorageEngine {
+
+    /**
+     * Every open ticket is a {@code ParkingTicket} object, and each spot object is marked
+     * occupied and holds its vehicle. Objects handed out stay live: the ticket returned by
+     * {@code parkVehicle} is the one later marked processed at exit.
+     */
+    HEAP,
+
+    /**
+     * Open tickets are rows in parallel primitive arrays (ticket ID, entry epoch second,
+     * vehicle type ordinal, plate bytes, spot index) and occupancy is kept only in the
+     * allocator's bitmap, so a parked vehicle costs no long-lived objects. Active plates
+     * are found through the service's off-heap plate index, as with {@link #HEAP}.
+     * Tickets and spots handed out are views created on demand: a ticket is a copy of its
+     * row at the time it was read, with entry times truncated to the second, and a spot
+     * reads its occupancy live. Registered spot objects are used as keys only and never
+     * updated.
+     */
+    COLUMNAR
+}
@@ -0,0 +1,91 @@
+package com.parking.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A recurring time-of-day window within a tariff, such as weekday nights or weekend days.
+ * Hours that start inside the band are charged at the base hourly rate times the band's
+ * multiplier. A band may also cap what one stay pays for a single occurrence of the band
+ * (e.g. "nights cost at most 3 hours").
+ */
+public final class TariffBand {
+    private final Set<DayOfWeek> days;
+    private final LocalTime from;
+    private final LocalTime to;
+    private final double rateMultiplier;
+    private final double capHours;
+
+    private TariffBand(Set<DayOfWeek> days, LocalTime from, LocalTime to, double rateMultiplier, double capHours) {
+        this.days = days;
+        this.from = from;
+        this.to = to;
+        this.rateMultiplier = rateMultiplier;
+        this.capHours = capHours;
+    }
+
+    /**
+     * Creates a band starting at {@code from} on each of the given days and running until
+     * {@code to}. When {@code to} is not after {@code from} the band runs past midnight into
+     * the next day, so 22:00-06:00 on FRIDAY covers Friday night until Saturday morning.
+     */
+    public static TariffBand of(Set<DayOfWeek> days, LocalTime from, LocalTime to, double rateMultiplier) {
+        if (days == null || days.isEmpty()) {
+            throw new IllegalArgumentException("Band days cannot be null or empty");
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Band start and end times cannot be null");
+        }
+        if (rateMultiplier < 0) {
+            throw new IllegalArgumentException("Rate multiplier cannot be negative");
+        }
+        return new TariffBand(EnumSet.copyOf(days), from, to, rateMultiplier, 0);
+    }
+
+    /**
+     * Returns a copy of this band whose charge per occurrence is capped at the given number
+     * of base-rate hours.
+     */
+    public TariffBand withCapHours(double capHours) {
+        if (capHours <= 0) {
+            throw new IllegalArgumentException("Cap must be positive");
+        }
+        return new TariffBand(days, from, to, rateMultiplier, capHours);
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return EnumSet.copyOf(days);
+    }
+
+    public LocalTime getFrom() {
+        return from;
+    }
+
+    public LocalTime getTo() {
+        return to;
+    }
+
+    public double getRateMultiplier() {
+        return rateMultiplier;
+    }
+
+    /**
+     * @return the cap in base-rate hours, or 0 if the band is uncapped
+     */
+    public double getCapHours() {
+        return capHours;
+    }
+
+    @Override
+    public String toString() {
+        return "TariffBand{" +
+                "days=" + days +
+                ", from=" + from +
+                ", to=" + to +
+                ", rateMultiplier=" + rateMultiplier +
+                ", capHours=" + capHours +
+                '}';
+    }
+}
@@ -0,0 +1,148 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative description of a parking tariff: base hourly rates per vehicle type,
+ * time-of-day/day-of-week bands, a daily maximum, a grace period and the reservation
+ * premium. A definition is compiled by {@link PricingService} into a segmented evaluator;
+ * it is never consulted on the pricing hot path itself.
+ * <p>
+ * Billing stays in whole hours from entry, partial hours rounded up with a one hour
+ * minimum. Each hour is charged at the rate in force when it starts. Where bands
+ * overlap, the band added last wins.
+ */
+public final class TariffDefinition {
+    private final Map<VehicleType, Double> hourlyRates;
+    private final List<TariffBand> bands;
+    private final double dailyMaximumHours;
+    private final Duration gracePeriod;
+    private final double reservationPremium;
+
+    private TariffDefinition(Builder builder) {
+        this.hourlyRates = Collections.unmodifiableMap(new EnumMap<>(builder.hourlyRates));
+        this.bands = List.copyOf(builder.bands);
+        this.dailyMaximumHours = builder.dailyMaximumHours;
+        this.gracePeriod = builder.gracePeriod;
+        this.reservationPremium = builder.reservationPremium;
+    }
+
+    /**
+     * The flat tariff: $2/$5/$7.50/$10 per hour for motorcycles/cars/vans/buses and a 20% reservation premium.
+     */
+    public static TariffDefinition standard() {
+        return builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 2.0)
+                .hourlyRate(VehicleType.CAR, 5.0)
+                .hourlyRate(VehicleType.VAN, 7.5)
+                .hourlyRate(VehicleType.BUS, 10.0)
+                .reservationPremium(1.2)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public double getHourlyRate(VehicleType vehicleType) {
+        return hourlyRates.get(vehicleType);
+    }
+
+    public List<TariffBand> getBands() {
+        return bands;
+    }
+
+    /**
+     * @return most a stay pays per 24 hours from entry, in base-rate hours, or 0 for no maximum
+     */
+    public double getDailyMaximumHours() {
+        return dailyMaximumHours;
+    }
+
+    public Duration getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public double getReservationPremium() {
+        return reservationPremium;
+    }
+
+    public static final class Builder {
+        private final Map<VehicleType, Double> hourlyRates = new EnumMap<>(VehicleType.class);
+        private final List<TariffBand> bands = new ArrayList<>();
+        private double dailyMaximumHours;
+        private Duration gracePeriod = Duration.ZERO;
+        private double reservationPremium = 1.0;
+
+        private Builder() {
+        }
+
+        public Builder hourlyRate(VehicleType vehicleType, double rate) {
+            if (vehicleType == null) {
+                throw new IllegalArgumentException("Vehicle type cannot be null");
+            }
+            if (rate < 0) {
+                throw new IllegalArgumentException("Hourly rate cannot be negative");
+            }
+            hourlyRates.put(vehicleType, rate);
+            return this;
+        }
+
+        public Builder band(TariffBand band) {
+            if (band == null) {
+                throw new IllegalArgumentException("Tariff band cannot be null");
+            }
+            bands.add(band);
+            return this;
+        }
+
+        /**
+         * Caps each 24 hours of a stay, counted from entry, at the given number of base-rate hours.
+         */
+        public Builder dailyMaximumHours(double hours) {
+            if (hours <= 0) {
+                throw new IllegalArgumentException("Daily maximum must be positive");
+            }
+            this.dailyMaximumHours = hours;
+            return this;
+        }
+
+        /**
+         * Stays no longer than the grace period are free.
+         */
+        public Builder gracePeriod(Duration gracePeriod) {
+            if (gracePeriod == null || gracePeriod.isNegative()) {
+                throw new IllegalArgumentException("Grace period cannot be null or negative");
+            }
+            this.gracePeriod = gracePeriod;
+            return this;
+        }
+
+        public Builder reservationPremium(double premium) {
+            if (premium < 0) {
+                throw new IllegalArgumentException("Reservation premium cannot be negative");
+            }
+            this.reservationPremium = premium;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a vehicle type has no hourly rate
+         */
+        public TariffDefinition build() {
+            for (VehicleType vehicleType : VehicleType.values()) {
+                if (!hourlyRates.containsKey(vehicleType)) {
+                    throw new IllegalArgumentException("No hourly rate for " + vehicleType);
+                }
+            }
+            return new TariffDefinition(this);
+        }
+    }
+}
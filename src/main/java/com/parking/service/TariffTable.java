@@ -0,0 +1,59 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+
+/**
+ * Precomputed fees for flat hourly tariffs, indexed by vehicle type and billable hours.
+ * Stays up to {@link #TABLE_HOURS} hours are a single array read; longer stays fall back
+ * to one multiplication with the same result.
+ */
+final class TariffTable {
+
+    /** One month of hourly entries per vehicle type. */
+    static final int TABLE_HOURS = 24 * 31;
+
+    private final double[] hourlyRates;
+    private final double premium;
+    private final double[][] fees;
+    private final double[][] premiumFees;
+
+    /**
+     * @param hourlyRates rate per hour indexed by {@link VehicleType#ordinal()}
+     * @param premium     multiplier applied on top of the base fee for the premium variant
+     */
+    TariffTable(double[] hourlyRates, double premium) {
+        this.hourlyRates = hourlyRates.clone();
+        this.premium = premium;
+        this.fees = new double[hourlyRates.length][TABLE_HOURS + 1];
+        this.premiumFees = new double[hourlyRates.length][TABLE_HOURS + 1];
+        for (int type = 0; type < hourlyRates.length; type++) {
+            for (int hours = 1; hours <= TABLE_HOURS; hours++) {
+                fees[type][hours] = hourlyRates[type] * hours;
+                premiumFees[type][hours] = fees[type][hours] * premium;
+            }
+        }
+    }
+
+    double fee(VehicleType vehicleType, long billableHours) {
+        int type = vehicleType.ordinal();
+        return billableHours <= TABLE_HOURS
+                ? fees[type][(int) billableHours]
+                : hourlyRates[type] * billableHours;
+    }
+
+    double premiumFee(VehicleType vehicleType, long billableHours) {
+        int type = vehicleType.ordinal();
+        return billableHours <= TABLE_HOURS
+                ? premiumFees[type][(int) billableHours]
+                : hourlyRates[type] * billableHours * premium;
+    }
+
+    /**
+     * Whole hours charged for a stay: partial hours round up and the minimum is one hour.
+     * Seconds beyond the last full minute are not billed.
+     */
+    static long billableHours(long entryEpochSecond, long exitEpochSecond) {
+        long minutes = (exitEpochSecond - entryEpochSecond) / 60;
+        return Math.max(1, (minutes + 59) / 60);
+    }
+}
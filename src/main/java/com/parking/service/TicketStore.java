@@ -0,0 +1,50 @@
+package com.parking.service;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Vehicle;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Open tickets of a {@link ParkingService}, indexed by ticket ID.
+ * Implementations are thread-safe; claiming spots and locking plates is left to the service.
+ */
+interface TicketStore {
+
+    /**
+     * Records a ticket whose plate is locked and whose spot is already claimed.
+     *
+     * @return the ticket to hand to the caller
+     */
+    ParkingTicket open(String ticketId, Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime);
+
+    /**
+     * Records a persisted open ticket.
+     */
+    void restore(ParkingTicket ticket);
+
+    boolean contains(String ticketId);
+
+    /**
+     * Returns the open ticket, or null if it is not open.
+     */
+    ParkingTicket get(String ticketId);
+
+    /**
+     * Closes an open ticket: it is marked processed and stamped with the exit time.
+     *
+     * @return the closed ticket, or null if the ticket is not open, e.g. because another
+     *         caller closed it first
+     */
+    ParkingTicket close(String ticketId, LocalDateTime exitTime);
+
+    /**
+     * Puts back a ticket returned by {@link #close}, undoing an exit that could not be
+     * recorded. Its spot and plate must still be held.
+     */
+    void reopen(ParkingTicket ticket);
+
+    List<ParkingTicket> openTickets();
+}
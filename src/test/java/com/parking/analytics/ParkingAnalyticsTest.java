@@ -0,0 +1,208 @@
+package com.parking.analytics;
+
+import com.parking.model.*;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingAnalyticsTest {
+
+    @Test
+    @DisplayName("Arrivals, dwell, revenue and occupancy are aggregated per minute and vehicle type")
+    void testWindowAggregates() {
+        ManualClock clock = new ManualClock();
+        LocalDateTime start = clock.now().truncatedTo(ChronoUnit.MINUTES);
+        ParkingAnalytics analytics = ParkingAnalytics.attach(lot(), Duration.ofHours(24), clock);
+
+        ParkingTicket car1 = ticket("C1", VehicleType.CAR, start.plusSeconds(10));
+        ParkingTicket car2 = ticket("C2", VehicleType.CAR, start.plusSeconds(20));
+        ParkingTicket bus = ticket("B1", VehicleType.BUS, start.plusMinutes(1));
+        analytics.onVehicleParked(car1);
+        analytics.onVehicleParked(car2);
+        analytics.onVehicleParked(bus);
+        exit(analytics, car1, start.plusMinutes(30).plusSeconds(10), 5.0);
+        exit(analytics, bus, start.plusMinutes(61), 20.5);
+        clock.set(start.plusMinutes(89).plusSeconds(30));
+
+        WindowSummary cars = analytics.summarize(VehicleType.CAR, start, start.plusMinutes(90));
+        assertEquals(90, cars.getMinutes());
+        assertEquals(2, cars.getArrivals());
+        assertEquals(1, cars.getExits());
+        assertEquals(Duration.ofMinutes(30), cars.getAverageDwell());
+        assertEquals(5.0, cars.getRevenue(), 1e-9);
+        assertEquals(2, cars.getPeakOccupancy());
+        assertEquals((30 * 2 + 60 * 1) / 90.0, cars.getAverageOccupancy(), 1e-9);
+
+        WindowSummary all = analytics.summarize(start, start.plusMinutes(90));
+        assertEquals(3, all.getArrivals());
+        assertEquals(25.5, all.getRevenue(), 1e-9);
+        assertEquals(Duration.ofMinutes(45), all.getAverageDwell());
+        assertEquals(3, all.getPeakOccupancy());
+        assertEquals(1, analytics.getOccupancy(VehicleType.CAR));
+        assertEquals(0, analytics.getOccupancy(VehicleType.BUS));
+
+        WindowSummary secondMinute = analytics.summarize(start.plusMinutes(1), start.plusMinutes(1).plusSeconds(1));
+        assertEquals(1, secondMinute.getMinutes());
+        assertEquals(1, secondMinute.getArrivals());
+        assertEquals(1.0, secondMinute.getArrivalsPerMinute(), 1e-9);
+        assertEquals(start.plusMinutes(2), secondMinute.getTo());
+        assertEquals(90, analytics.summarizeLast(null, 90).getMinutes());
+        assertThrows(IllegalArgumentException.class, () -> analytics.summarize(start, start));
+    }
+
+    @Test
+    @DisplayName("Minutes older than the retention period roll out of the ring")
+    void testRetention() {
+        ManualClock clock = new ManualClock();
+        LocalDateTime start = clock.now().truncatedTo(ChronoUnit.MINUTES);
+        ParkingAnalytics analytics = ParkingAnalytics.attach(lot(), Duration.ofMinutes(60), clock);
+
+        ParkingTicket early = ticket("E1", VehicleType.CAR, start);
+        analytics.onVehicleParked(early);
+        ParkingTicket late = ticket("L1", VehicleType.CAR, start.plusMinutes(100));
+        analytics.onVehicleParked(late);
+        exit(analytics, early, start.plusMinutes(100), 12.0);
+        // Too old to be retained: occupancy still falls, but no minute takes the exit.
+        exit(analytics, ticket("X1", VehicleType.CAR, start), start.plusMinutes(30), 3.0);
+        clock.set(start.plusMinutes(100));
+
+        WindowSummary day = analytics.summarize(start.minusDays(1), start.plusDays(1));
+        assertEquals(60, day.getMinutes());
+        assertEquals(start.minusDays(1), day.getFrom());
+        assertEquals(1, day.getArrivals());
+        assertEquals(12.0, day.getRevenue(), 1e-9);
+        assertEquals(Duration.ofMinutes(100), day.getAverageDwell());
+        assertEquals(0, analytics.getOccupancy(VehicleType.CAR));
+        assertEquals(0, analytics.summarize(start, start.plusMinutes(40)).getMinutes());
+    }
+
+    @Test
+    @DisplayName("Attached analytics follow the service's park and exit events until closed")
+    void testAttachedToService() {
+        ParkingService parkingService = lot();
+        parkingService.parkVehicle(new Vehicle("P0", VehicleType.CAR));
+        ParkingAnalytics analytics = ParkingAnalytics.attach(parkingService);
+        assertEquals(1, analytics.getOccupancy(VehicleType.CAR));
+
+        ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("P1", VehicleType.MOTORCYCLE));
+        parkingService.parkVehicle(new Vehicle("P2", VehicleType.CAR));
+        double fee = parkingService.exitVehicle(ticket.getTicketId());
+        WindowSummary lastHour = analytics.summarizeLast(null, 60);
+        assertEquals(2, lastHour.getArrivals());
+        assertEquals(1, lastHour.getExits());
+        assertEquals(fee, lastHour.getRevenue(), 0.005);
+        assertEquals(3, lastHour.getPeakOccupancy());
+        assertEquals(1, analytics.summarizeLast(VehicleType.MOTORCYCLE, 60).getArrivals());
+
+        analytics.close();
+        parkingService.parkVehicle(new Vehicle("P3", VehicleType.CAR));
+        assertEquals(2, analytics.getOccupancy(VehicleType.CAR));
+    }
+
+    @Test
+    @DisplayName("The all-types peak is the most vehicles parked at once, not the sum of per-type peaks")
+    void testAllTypesPeak() {
+        ManualClock clock = new ManualClock();
+        LocalDateTime start = clock.now().truncatedTo(ChronoUnit.MINUTES);
+        ParkingAnalytics analytics = ParkingAnalytics.attach(lot(), Duration.ofHours(24), clock);
+
+        ParkingTicket car = ticket("C1", VehicleType.CAR, start.plusSeconds(5));
+        analytics.onVehicleParked(car);
+        exit(analytics, car, start.plusSeconds(20), 1.0);
+        analytics.onVehicleParked(ticket("M1", VehicleType.MOTORCYCLE, start.plusSeconds(30)));
+        analytics.onVehicleParked(ticket("B1", VehicleType.BUS, start.plusSeconds(40)));
+        clock.set(start.plusSeconds(50));
+
+        WindowSummary minute = analytics.summarize(start, start.plusMinutes(1));
+        assertEquals(2, minute.getPeakOccupancy());
+        assertEquals(1, analytics.summarize(VehicleType.CAR, start, start.plusMinutes(1)).getPeakOccupancy());
+        clock.set(start.plusMinutes(5));
+        assertEquals(2, analytics.summarize(start.plusMinutes(3), start.plusMinutes(5)).getPeakOccupancy());
+    }
+
+    @Test
+    @DisplayName("A park racing the attach is counted once")
+    void testParkRacingAttach() throws InterruptedException {
+        Thread[] parker = new Thread[1];
+        ParkingService parkingService = new ParkingService(new PricingService()) {
+            @Override
+            public List<ParkingTicket> getActiveTickets() {
+                // Park while attach holds its lock: the ticket is listed here and notified afterwards.
+                if (parker[0] == null) {
+                    parker[0] = new Thread(() -> parkVehicle(new Vehicle("R1", VehicleType.CAR)));
+                    parker[0].start();
+                    while (super.getActiveTickets().size() < 2) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return super.getActiveTickets();
+            }
+        };
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+        parkingService.addParkingSpot(new ParkingSpot("A3"));
+        ParkingTicket before = parkingService.parkVehicle(new Vehicle("P0", VehicleType.CAR));
+
+        ParkingAnalytics analytics = ParkingAnalytics.attach(parkingService);
+        parker[0].join(10_000);
+        assertEquals(2, analytics.getOccupancy(VehicleType.CAR));
+        assertEquals(1, analytics.summarizeLast(null, 1).getArrivals());
+
+        parkingService.exitVehicle(before.getTicketId());
+        parkingService.parkVehicle(new Vehicle("P2", VehicleType.CAR));
+        assertEquals(2, analytics.getOccupancy(VehicleType.CAR));
+        assertEquals(2, analytics.summarizeLast(null, 60).getPeakOccupancy());
+    }
+
+    private static ParkingService lot() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 10; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        return parkingService;
+    }
+
+    private static ParkingTicket ticket(String plate, VehicleType type, LocalDateTime entryTime) {
+        return new ParkingTicket("TKT-" + plate, new Vehicle(plate, type), new ParkingSpot("S-" + plate), entryTime);
+    }
+
+    private static void exit(ParkingAnalytics analytics, ParkingTicket ticket, LocalDateTime exitTime, double fee) {
+        ticket.setExitTime(exitTime);
+        analytics.onVehicleExited(ticket, fee);
+    }
+
+    private static final class ManualClock extends Clock {
+        private final ZoneId zone = ZoneId.systemDefault();
+        private Instant instant = Instant.now();
+
+        LocalDateTime now() {
+            return LocalDateTime.ofInstant(instant, zone);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(zone).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
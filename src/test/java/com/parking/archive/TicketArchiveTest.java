@@ -0,0 +1,233 @@
+package com.parking.archive;
+
+import com.parking.model.*;
+import com.parking.persistence.ParkingStore;
+import com.parking.persistence.WriteAheadJournal;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketArchiveTest {
+
+    private static final LocalDateTime MIDNIGHT = LocalDate.of(2024, 3, 1).atStartOfDay();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Archived tickets read back column for column, across blocks and reopens")
+    void testRoundTrip() throws IOException {
+        Path path = directory.resolve("tickets.pka");
+        try (TicketArchive archive = TicketArchive.open(path, 2)) {
+            archive.append(ticket("T1", "P1", VehicleType.CAR, "A1", MIDNIGHT.plusHours(8), MIDNIGHT.plusHours(10)), 7.5);
+            archive.append(ticket("T2", "P2", VehicleType.BUS, "B1", MIDNIGHT.plusHours(9), MIDNIGHT.plusHours(9).plusMinutes(5)), 0);
+            archive.append(ticket("T3", "P1", VehicleType.CAR, "A1", MIDNIGHT.plusHours(7), MIDNIGHT.plusDays(1).plusHours(1)), 42.25);
+            assertEquals(3, archive.getTicketCount());
+        }
+        try (TicketArchive archive = TicketArchive.open(path, 2)) {
+            assertEquals(3, archive.getTicketCount());
+            archive.append(ticket("T4", "P2", VehicleType.MOTORCYCLE, "A2", MIDNIGHT.plusDays(1), MIDNIGHT.plusDays(1).plusHours(3)), 3);
+            archive.flush();
+        }
+
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            assertEquals(4, reader.getTicketCount());
+            List<ArchivedTicket> tickets = new ArrayList<>();
+            reader.forEach(tickets::add);
+            assertEquals(List.of("T1", "T2", "T3", "T4"), tickets.stream().map(ArchivedTicket::getTicketId).toList());
+            ArchivedTicket third = tickets.get(2);
+            assertEquals("P1", third.getLicensePlate());
+            assertEquals("A1", third.getSpotId());
+            assertEquals(VehicleType.CAR, third.getVehicleType());
+            assertEquals(MIDNIGHT.plusHours(7), third.getEntryTime());
+            assertEquals(MIDNIGHT.plusDays(1).plusHours(1), third.getExitTime());
+            assertEquals(42.25, third.getFee(), 1e-9);
+            assertEquals("P2", tickets.get(3).getLicensePlate());
+            assertEquals(MIDNIGHT.plusHours(9).plusMinutes(5), reader.getFirstExit().orElseThrow());
+
+            LocalDate day = MIDNIGHT.toLocalDate();
+            RevenueReport report = reader.revenueByDay(day, day.plusDays(2));
+            assertEquals(7.5, report.getRevenue(day, VehicleType.CAR), 1e-9);
+            assertEquals(1, report.getTicketCount(day, VehicleType.BUS));
+            assertEquals(45.25, report.getRevenue(day.plusDays(1)), 1e-9);
+            assertEquals(52.75, report.getTotalRevenue(), 1e-9);
+            assertThrows(IllegalArgumentException.class, () -> report.getRevenue(day.plusDays(2)));
+            assertEquals(45.25, reader.revenueByDay(day.plusDays(1), day.plusDays(5)).getTotalRevenue(), 1e-9);
+        }
+    }
+
+    @Test
+    @DisplayName("A snapshot writes the gathered tickets out before it truncates the journal")
+    void testSnapshotFlushesArchive() throws IOException {
+        Path path = directory.resolve("tickets.pka");
+        try (ParkingStore store = ParkingStore.open(directory.resolve("store"), WriteAheadJournal.Durability.SYNC);
+             TicketArchive archive = TicketArchive.open(path)) {
+            ParkingService service = new ParkingService(new PricingService());
+            store.recover(service);
+            archive.attach(service);
+            store.flushBeforeTruncation(archive);
+            service.addParkingSpot(new ParkingSpot("A1"));
+            service.exitVehicle(service.parkVehicle(new Vehicle("P1", VehicleType.CAR)).getTicketId());
+            try (ArchiveReader reader = ArchiveReader.open(path)) {
+                assertEquals(0, reader.getTicketCount());
+            }
+
+            store.snapshot();
+            try (ArchiveReader reader = ArchiveReader.open(path)) {
+                assertEquals(1, reader.getTicketCount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A torn block at the tail is ignored by readers and cut off when appending resumes")
+    void testTornTail() throws IOException {
+        Path path = directory.resolve("tickets.pka");
+        try (TicketArchive archive = TicketArchive.open(path, 1)) {
+            archive.append(ticket("T1", "P1", VehicleType.CAR, "A1", MIDNIGHT, MIDNIGHT.plusHours(1)), 5);
+            archive.append(ticket("T2", "P2", VehicleType.CAR, "A2", MIDNIGHT, MIDNIGHT.plusHours(2)), 6);
+        }
+        long intact = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(intact - 3);
+        }
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            assertEquals(1, reader.getTicketCount());
+        }
+
+        try (TicketArchive archive = TicketArchive.open(path, 1)) {
+            assertEquals(1, archive.getTicketCount());
+            archive.append(ticket("T3", "P2", VehicleType.CAR, "A2", MIDNIGHT, MIDNIGHT.plusHours(3)), 7);
+        }
+        List<ArchivedTicket> tickets = new ArrayList<>();
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            reader.forEach(tickets::add);
+        }
+        assertEquals(List.of("T1", "T3"), tickets.stream().map(ArchivedTicket::getTicketId).toList());
+        assertEquals("P2", tickets.get(1).getLicensePlate());
+
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> ArchiveReader.open(other));
+    }
+
+    @Test
+    @DisplayName("An attached archive receives the service's processed tickets with their fees")
+    void testAttachedToService() throws IOException {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        Path path = directory.resolve("tickets.pka");
+        double fee;
+        try (TicketArchive archive = TicketArchive.open(path)) {
+            archive.attach(parkingService);
+            assertThrows(IllegalStateException.class, () -> archive.attach(parkingService));
+            ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("S1", VehicleType.CAR));
+            fee = parkingService.exitVehicle(ticket.getTicketId());
+        }
+        ParkingTicket after = parkingService.parkVehicle(new Vehicle("S2", VehicleType.CAR));
+        parkingService.exitVehicle(after.getTicketId());
+
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            assertEquals(1, reader.getTicketCount());
+            List<ArchivedTicket> tickets = new ArrayList<>();
+            reader.forEach(tickets::add);
+            assertEquals("S1", tickets.get(0).getLicensePlate());
+            assertEquals(fee, tickets.get(0).getFee(), 0.005);
+        }
+    }
+
+    @Test
+    @DisplayName("A failed block write neither fails exits nor breaks later appends")
+    void testWriteFailureKeepsExitsGoing() throws IOException {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        Path path = directory.resolve("tickets.pka");
+        TicketArchive archive = TicketArchive.open(path, 2);
+        archive.attach(parkingService);
+        ParkingTicket first = parkingService.parkVehicle(new Vehicle("S1", VehicleType.CAR));
+        parkingService.exitVehicle(first.getTicketId());
+
+        // An interrupted write closes the channel, so this and every later write fails.
+        ParkingTicket second = parkingService.parkVehicle(new Vehicle("S2", VehicleType.CAR));
+        Thread.currentThread().interrupt();
+        try {
+            parkingService.exitVehicle(second.getTicketId());
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(second.isProcessed());
+        assertEquals(1, archive.getFailedAppendCount());
+        for (int i = 3; i <= 5; i++) {
+            ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("S" + i, VehicleType.CAR));
+            assertTrue(parkingService.exitVehicle(ticket.getTicketId()) >= 0);
+        }
+        assertEquals(4, archive.getFailedAppendCount());
+        assertEquals(2, archive.getTicketCount());
+        ParkingTicket direct = new ParkingTicket("TKT-9", new Vehicle("S9", VehicleType.CAR),
+                new ParkingSpot("A1"), MIDNIGHT);
+        direct.setExitTime(MIDNIGHT.plusHours(1));
+        assertThrows(IOException.class, () -> archive.append(direct, 2.0));
+        assertThrows(IOException.class, archive::close);
+
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            assertEquals(0, reader.getTicketCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Revenue scans over many tickets match their fees and the file stays compact")
+    void testLargeScan() throws IOException {
+        int count = 200_000;
+        VehicleType[] types = VehicleType.values();
+        Path path = directory.resolve("tickets.pka");
+        long[] expectedCents = new long[8 * types.length];
+        try (TicketArchive archive = TicketArchive.open(path)) {
+            for (int i = 0; i < count; i++) {
+                LocalDateTime entry = MIDNIGHT.plusSeconds(i * 3L);
+                LocalDateTime exit = entry.plusMinutes(30 + i % 240);
+                VehicleType type = types[i % types.length];
+                long cents = 100 + i % 5_000;
+                archive.append(ticket("T" + i, "P" + (i % 20_000), type, "S" + (i % 500), entry, exit), cents / 100.0);
+                int day = (int) (exit.toLocalDate().toEpochDay() - MIDNIGHT.toLocalDate().toEpochDay());
+                expectedCents[day * types.length + type.ordinal()] += cents;
+            }
+        }
+        assertTrue(Files.size(path) < count * 24L, "bytes per ticket: " + Files.size(path) / (double) count);
+
+        try (ArchiveReader reader = ArchiveReader.open(path)) {
+            LocalDate first = MIDNIGHT.toLocalDate();
+            RevenueReport report = reader.revenueByDay(first, first.plusDays(8));
+            for (int day = 0; day < 8; day++) {
+                for (VehicleType type : types) {
+                    assertEquals(expectedCents[day * types.length + type.ordinal()] / 100.0,
+                            report.getRevenue(first.plusDays(day), type), 1e-6, "day " + day + " " + type);
+                }
+            }
+            RevenueReport secondDay = reader.revenueByDay(first.plusDays(1), first.plusDays(2));
+            assertEquals(report.getRevenue(first.plusDays(1)), secondDay.getTotalRevenue(), 1e-6);
+        }
+    }
+
+    private static ParkingTicket ticket(String ticketId, String plate, VehicleType type, String spotId,
+                                        LocalDateTime entryTime, LocalDateTime exitTime) {
+        ParkingTicket ticket = new ParkingTicket(ticketId, new Vehicle(plate, type), new ParkingSpot(spotId), entryTime);
+        ticket.markAsProcessed();
+        ticket.setExitTime(exitTime);
+        return ticket;
+    }
+}
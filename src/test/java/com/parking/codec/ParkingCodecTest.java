@@ -0,0 +1,126 @@
+package com.parking.codec;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingCodecTest {
+
+    private final List<ParkingSpot> spots = new ArrayList<>();
+    private ParkingCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 8; i++) {
+            spots.add(new ParkingSpot("C" + i));
+        }
+        codec = new ParkingCodec(new SpotResolver() {
+            @Override
+            public int indexOf(ParkingSpot spot) {
+                return spots.indexOf(spot);
+            }
+
+            @Override
+            public ParkingSpot spotAt(int index) {
+                return spots.get(index);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Tickets, reservations and vehicles survive a round trip")
+    void testRoundTrip() {
+        LocalDateTime entry = LocalDateTime.of(2025, 3, 14, 9, 26, 53);
+        ParkingTicket open = new ParkingTicket("TKT-1", new Vehicle("KA-01-ÄB", VehicleType.VAN), spots.get(3), entry);
+        ParkingTicket closed = new ParkingTicket("TKT-2", new Vehicle("車牌😀", VehicleType.MOTORCYCLE), spots.get(7), entry);
+        closed.setExitTime(entry.plusHours(5));
+        closed.markAsProcessed();
+        Reservation reservation = new Reservation("RES-1", "user-1", new Vehicle("R1", VehicleType.BUS),
+                entry, entry.plusDays(1));
+        reservation.setAssignedSpot(spots.get(5));
+        reservation.setPaidAmount(96.5);
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        reservation.checkIn();
+        Reservation pending = new Reservation("RES-2", "user-2", new Vehicle("R2", VehicleType.CAR),
+                entry, entry.plusHours(1));
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+        ParkingCodec.writeVersion(buffer);
+        codec.writeTicket(buffer, open);
+        codec.writeTicket(buffer, closed);
+        codec.writeReservation(buffer, reservation);
+        codec.writeReservation(buffer, pending);
+        buffer.flip();
+
+        assertEquals(ParkingCodec.VERSION, ParkingCodec.readVersion(buffer));
+        ParkingTicket openCopy = codec.readTicket(buffer);
+        assertEquals(open, openCopy);
+        assertEquals(open.getVehicle(), openCopy.getVehicle());
+        assertSame(spots.get(3), openCopy.getSpot());
+        assertEquals(entry, openCopy.getEntryTime());
+        assertNull(openCopy.getExitTime());
+        assertFalse(openCopy.isProcessed());
+
+        ParkingTicket closedCopy = codec.readTicket(buffer);
+        assertEquals("車牌😀", closedCopy.getVehicle().getLicensePlate());
+        assertEquals(entry.plusHours(5), closedCopy.getExitTime());
+        assertTrue(closedCopy.isProcessed());
+
+        Reservation reservationCopy = codec.readReservation(buffer);
+        assertEquals(reservation, reservationCopy);
+        assertEquals("user-1", reservationCopy.getUserId());
+        assertEquals(VehicleType.BUS, reservationCopy.getVehicle().getType());
+        assertEquals(entry.plusDays(1), reservationCopy.getEndTime());
+        assertSame(spots.get(5), reservationCopy.getAssignedSpot());
+        assertEquals(96.5, reservationCopy.getPaidAmount());
+        assertEquals(ReservationStatus.ACTIVE, reservationCopy.getStatus());
+        assertTrue(reservationCopy.isCheckedIn());
+
+        Reservation pendingCopy = codec.readReservation(buffer);
+        assertNull(pendingCopy.getAssignedSpot());
+        assertEquals(ReservationStatus.PENDING, pendingCopy.getStatus());
+        assertFalse(pendingCopy.isCheckedIn());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Unknown versions and enum codes are rejected")
+    void testRejectsUnknownEncodings() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) (ParkingCodec.VERSION + 1)).put((byte) 42).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> ParkingCodec.readVersion(buffer));
+        assertThrows(IllegalArgumentException.class, () -> ParkingCodec.readVehicleType(buffer));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.writeSpot(ByteBuffer.allocate(4), new ParkingSpot("UNKNOWN")));
+    }
+
+    @Test
+    @DisplayName("One reused buffer encodes and decodes a large batch of tickets")
+    void testBulkThroughReusedBuffer() {
+        int count = 100_000;
+        LocalDateTime entry = LocalDateTime.of(2025, 1, 1, 0, 0);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        long started = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ParkingTicket ticket = new ParkingTicket("TKT-" + i, new Vehicle("P" + i, VehicleType.CAR),
+                    spots.get(i & 7), entry.plusSeconds(i));
+            buffer.clear();
+            codec.writeTicket(buffer, ticket);
+            buffer.flip();
+            ParkingTicket copy = codec.readTicket(buffer);
+            assertEquals(ticket.getTicketId(), copy.getTicketId());
+            assertEquals(ticket.getEntryTime(), copy.getEntryTime());
+        }
+        double micros = (System.nanoTime() - started) / 1_000.0 / count;
+        assertTrue(micros < 50, "round trip took " + micros + "us per ticket");
+    }
+}
@@ -115,7 +115,7 @@ class ParkingServiceTest1 {
         assertEquals(3L, status.get("totalSpots"));
         assertEquals(2L, status.get("occupiedSpots"));
         assertEquals(1L, status.get("availableSpots"));
-        assertEquals(2, status.get("activeTickets"));
+        assertEquals(2L, status.get("activeTickets"));
         assertEquals(1L, status.get("activeReservations"));
     }
 }
\ No newline at end of file
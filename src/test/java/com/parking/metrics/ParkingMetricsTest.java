@@ -0,0 +1,122 @@
+package com.parking.metrics;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.model.Vehicle;
+import com.parking.model.VehicleType;
+import com.parking.service.BatchResult;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingMetricsTest {
+
+    @Test
+    @DisplayName("Percentiles are reported within the bucket resolution across the whole range")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMaxNanos());
+        assertEquals(50_000_500.0, histogram.getMeanNanos(), 1e-6);
+        assertWithin(50_000_000L, histogram.getValueAtPercentile(50));
+        assertWithin(99_000_000L, histogram.getValueAtPercentile(99));
+        assertWithin(99_900_000L, histogram.getValueAtPercentile(99.9));
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+
+        for (long value : new long[]{0, 1, 63, 64, 65, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(bucket) >= value, "value " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value, "value " + value);
+        }
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("The service counts calls, failures and why allocations were refused")
+    void testServiceCounters() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        ParkingMetrics metrics = parkingService.getMetrics();
+
+        ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("M1", VehicleType.CAR));
+        assertThrows(IllegalStateException.class, () -> parkingService.parkVehicle(new Vehicle("M1", VehicleType.CAR)));
+        assertThrows(IllegalStateException.class, () -> parkingService.parkVehicle(new Vehicle("M2", VehicleType.CAR)));
+        assertTrue(parkingService.findAvailableSpot().isEmpty());
+        parkingService.exitVehicle(ticket.getTicketId());
+        assertThrows(RuntimeException.class, () -> parkingService.exitVehicle(ticket.getTicketId()));
+
+        OperationStats park = metrics.getStats(Operation.PARK);
+        assertEquals(3, park.getCalls());
+        assertEquals(2, park.getFailures());
+        assertTrue(park.getMaxNanos() >= park.getP50Nanos());
+        assertEquals(1, metrics.getStats(Operation.FIND_SPOT).getCalls());
+        assertEquals(2, metrics.getStats(Operation.EXIT).getCalls());
+        assertEquals(1, metrics.getStats(Operation.EXIT).getFailures());
+        assertEquals(1, metrics.getStats(Operation.CALCULATE_FEE).getCalls());
+        assertEquals(1, metrics.getNoSpotFailures());
+        assertEquals(1, metrics.getDuplicateVehicleFailures());
+        assertEquals(0, metrics.getLockContention());
+    }
+
+    @Test
+    @DisplayName("Batch calls are recorded once per batch, failing if any item failed")
+    void testBatchCounters() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+        ParkingMetrics metrics = parkingService.getMetrics();
+
+        List<BatchResult<ParkingTicket>> parked = parkingService.parkVehicles(List.of(
+                new Vehicle("B1", VehicleType.CAR), new Vehicle("B2", VehicleType.CAR)));
+        parkingService.parkVehicles(List.of(new Vehicle("B3", VehicleType.CAR)));
+        parkingService.exitVehicles(List.of(parked.get(0).getValue().getTicketId(),
+                parked.get(1).getValue().getTicketId()));
+        assertThrows(IllegalArgumentException.class, () -> parkingService.exitVehicles(null));
+
+        OperationStats parkBatch = metrics.getParkBatch();
+        assertEquals(2, parkBatch.getCalls());
+        assertEquals(1, parkBatch.getFailures());
+        assertEquals(2, metrics.getExitBatch().getCalls());
+        assertEquals(1, metrics.getExitBatch().getFailures());
+        assertEquals(0, metrics.getPark().getCalls());
+        assertEquals(1, metrics.getNoSpotFailures());
+    }
+
+    @Test
+    @DisplayName("Registered metrics can be read as open types over JMX")
+    void testJmx() throws Exception {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.parkVehicle(new Vehicle("J1", VehicleType.CAR));
+
+        ObjectName name = parkingService.getMetrics().registerMBean("jmx-test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            CompositeData park = (CompositeData) server.getAttribute(name, "Park");
+            assertEquals(1L, park.get("calls"));
+            assertEquals(0L, park.get("failures"));
+            assertEquals(0L, server.getAttribute(name, "NoSpotFailures"));
+            assertThrows(IllegalStateException.class, () -> parkingService.getMetrics().registerMBean("jmx-test"));
+        } finally {
+            ParkingMetrics.unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertEquals(expected, actual, expected / 32.0, "percentile");
+    }
+}
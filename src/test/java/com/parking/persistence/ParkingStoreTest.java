@@ -0,0 +1,159 @@
+package com.parking.persistence;
+
+import com.parking.model.*;
+import com.parking.service.ParkingEventListener;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Recovery combines the snapshot with the journal written after it")
+    void testRecoverFromSnapshotAndJournal() throws IOException {
+        String exitedTicketId;
+        String keptTicketId;
+        String laterTicketId;
+        String reservationId;
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.ASYNC)) {
+            ParkingService service = new ParkingService(new PricingService());
+            store.recover(service);
+            for (int i = 1; i <= 4; i++) {
+                service.addParkingSpot(new ParkingSpot("A" + i));
+            }
+            service.addParkingSpot(new ParkingSpot("M1", VehicleType.MOTORCYCLE.getSize()));
+            LocalDateTime start = LocalDateTime.now().plusHours(1);
+            reservationId = service.createReservation("user1", new Vehicle("S009", VehicleType.CAR),
+                    start, start.plusHours(2)).getReservationId();
+            service.activateReservation(reservationId);
+            exitedTicketId = service.parkVehicle(new Vehicle("S001", VehicleType.CAR)).getTicketId();
+            keptTicketId = service.parkVehicle(new Vehicle("S002", VehicleType.VAN)).getTicketId();
+
+            long lsn = store.snapshot();
+            assertEquals(lsn, store.snapshot());
+
+            service.exitVehicle(exitedTicketId);
+            service.addParkingSpot(new ParkingSpot("M2", VehicleType.MOTORCYCLE.getSize()));
+            laterTicketId = service.parkVehicle(new Vehicle("S003", VehicleType.BUS)).getTicketId();
+        }
+
+        ParkingService recovered = new ParkingService(new PricingService());
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.ASYNC)) {
+            store.recover(recovered);
+        }
+
+        assertEquals(6L, recovered.getParkingStatusSnapshot().getTotalSpots());
+        assertEquals(List.of(4, 4, 4, 4, 1, 1), recovered.getParkingSpots().stream()
+                .map(ParkingSpot::getSize)
+                .collect(Collectors.toList()));
+        assertEquals(3L, recovered.getParkingStatusSnapshot().getOccupiedSpots());
+        Set<String> ticketIds = recovered.getActiveTickets().stream()
+                .map(ParkingTicket::getTicketId)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(keptTicketId, laterTicketId), ticketIds);
+        assertEquals(ReservationStatus.ACTIVE, recovered.getAllReservations().get(0).getStatus());
+        assertEquals(reservationId, recovered.getAllReservations().get(0).getReservationId());
+    }
+
+    @Test
+    @DisplayName("A snapshot truncates the journal it covers")
+    void testSnapshotTruncatesJournal() throws IOException {
+        Path journal = dir.resolve(ParkingStore.JOURNAL_FILE);
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.SYNC)) {
+            ParkingService service = new ParkingService(new PricingService());
+            store.recover(service);
+            for (int i = 0; i < 100; i++) {
+                service.addParkingSpot(new ParkingSpot("B" + i));
+            }
+            long before = Files.size(journal);
+            store.snapshot();
+            assertTrue(Files.size(journal) < before);
+            service.parkVehicle(new Vehicle("S100", VehicleType.CAR));
+        }
+
+        // The truncated journal alone no longer describes the lot.
+        try (WriteAheadJournal alone = WriteAheadJournal.open(journal, WriteAheadJournal.Durability.SYNC)) {
+            assertThrows(IOException.class, () -> alone.replayInto(new ParkingService(new PricingService())));
+        }
+        ParkingService recovered = new ParkingService(new PricingService());
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.SYNC)) {
+            store.recover(recovered);
+        }
+        assertEquals(100L, recovered.getParkingStatusSnapshot().getTotalSpots());
+        assertEquals(1, recovered.getActiveTickets().size());
+    }
+
+    @Test
+    @DisplayName("An exit journaled before its park is not undone by a snapshot taken in between")
+    void testExitJournaledBeforeParkAroundSnapshot() throws Exception {
+        CountDownLatch parkApplied = new CountDownLatch(1);
+        CountDownLatch releasePark = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.ASYNC)) {
+            ParkingService service = new ParkingService(new PricingService());
+            // Registered ahead of the journal, so the park record waits until it returns.
+            service.addEventListener(new ParkingEventListener() {
+                @Override
+                public void onVehicleParked(ParkingTicket ticket) {
+                    parkApplied.countDown();
+                    try {
+                        releasePark.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            store.recover(service);
+            service.addParkingSpot(new ParkingSpot("A1"));
+
+            Future<ParkingTicket> park = executor.submit(() -> service.parkVehicle(new Vehicle("S001", VehicleType.CAR)));
+            assertTrue(parkApplied.await(10, TimeUnit.SECONDS));
+            service.exitVehicleByPlate("S001");
+            Future<Long> snapshot = executor.submit(() -> {
+                try {
+                    return store.snapshot();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            assertThrows(TimeoutException.class, () -> snapshot.get(200, TimeUnit.MILLISECONDS));
+
+            releasePark.countDown();
+            park.get(10, TimeUnit.SECONDS);
+            snapshot.get(10, TimeUnit.SECONDS);
+        } finally {
+            releasePark.countDown();
+            executor.shutdown();
+        }
+
+        ParkingService recovered = new ParkingService(new PricingService());
+        try (ParkingStore store = ParkingStore.open(dir, WriteAheadJournal.Durability.ASYNC)) {
+            store.recover(recovered);
+        }
+        assertTrue(recovered.getActiveTickets().isEmpty());
+        assertEquals(0L, recovered.getParkingStatusSnapshot().getOccupiedSpots());
+        assertTrue(recovered.findActiveTicket("S001").isEmpty());
+    }
+}
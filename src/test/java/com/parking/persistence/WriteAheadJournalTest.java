@@ -0,0 +1,101 @@
+package com.parking.persistence;
+
+import com.parking.model.*;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Replaying the journal restores spots, open tickets and reservations")
+    void testRecoveryRestoresState() throws IOException {
+        Path file = dir.resolve("parking.journal");
+        String openTicketId;
+        String reservationId;
+        String cancelledId;
+        try (WriteAheadJournal journal = WriteAheadJournal.open(file, WriteAheadJournal.Durability.SYNC)) {
+            ParkingService service = new ParkingService(new PricingService());
+            journal.attach(service);
+            service.addParkingSpot(new ParkingSpot("A1"));
+            service.addParkingSpot(new ParkingSpot("A2"));
+            service.addParkingSpot(new ParkingSpot("A3"));
+            LocalDateTime start = LocalDateTime.now().plusHours(1);
+            reservationId = service.createReservation("user1", new Vehicle("J003", VehicleType.CAR),
+                    start, start.plusHours(2)).getReservationId();
+            service.activateReservation(reservationId);
+            service.checkInReservation(reservationId);
+            cancelledId = service.createReservation("user2", new Vehicle("J004", VehicleType.CAR),
+                    start, start.plusHours(2)).getReservationId();
+            service.cancelReservation(cancelledId);
+            openTicketId = service.parkVehicle(new Vehicle("J001", VehicleType.CAR)).getTicketId();
+            service.exitVehicle(service.parkVehicle(new Vehicle("J002", VehicleType.VAN)).getTicketId());
+        }
+
+        ParkingService recovered = new ParkingService(new PricingService());
+        try (WriteAheadJournal journal = WriteAheadJournal.open(file, WriteAheadJournal.Durability.SYNC)) {
+            assertEquals(11, journal.replayInto(recovered));
+        }
+
+        assertEquals(3L, recovered.getParkingStatusSnapshot().getTotalSpots());
+        assertEquals(2L, recovered.getParkingStatusSnapshot().getOccupiedSpots());
+        assertEquals(1, recovered.getActiveTickets().size());
+        assertEquals(openTicketId, recovered.getActiveTickets().get(0).getTicketId());
+        Map<String, Reservation> reservations = recovered.getAllReservations().stream()
+                .collect(Collectors.toMap(Reservation::getReservationId, Function.identity()));
+        assertEquals(ReservationStatus.ACTIVE, reservations.get(reservationId).getStatus());
+        assertTrue(reservations.get(reservationId).isCheckedIn());
+        assertEquals(ReservationStatus.CANCELLED, reservations.get(cancelledId).getStatus());
+        assertThrows(IllegalArgumentException.class,
+                () -> recovered.exitVehicle(openTicketId.replace('0', '1')));
+        assertTrue(recovered.exitVehicle(openTicketId) > 0);
+        recovered.completeReservation(reservationId);
+        assertEquals(0L, recovered.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("A torn record at the tail is discarded and appending continues after it")
+    void testTornTailIsTruncated() throws IOException {
+        Path file = dir.resolve("parking.journal");
+        try (WriteAheadJournal journal = WriteAheadJournal.open(file, WriteAheadJournal.Durability.ASYNC)) {
+            ParkingService service = new ParkingService(new PricingService());
+            journal.attach(service);
+            service.addParkingSpot(new ParkingSpot("A1"));
+            service.addParkingSpot(new ParkingSpot("A2"));
+            service.parkVehicle(new Vehicle("T001", VehicleType.CAR));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (WriteAheadJournal journal = WriteAheadJournal.open(file, WriteAheadJournal.Durability.SYNC)) {
+            assertEquals(2, journal.getDurableLsn());
+            ParkingService service = new ParkingService(new PricingService());
+            journal.attach(service);
+            assertEquals(0, service.getActiveTickets().size());
+            service.parkVehicle(new Vehicle("T002", VehicleType.CAR));
+        }
+
+        ParkingService recovered = new ParkingService(new PricingService());
+        try (WriteAheadJournal journal = WriteAheadJournal.open(file, WriteAheadJournal.Durability.SYNC)) {
+            assertEquals(3, journal.replayInto(recovered));
+        }
+        assertEquals("T002", recovered.getActiveTickets().get(0).getVehicle().getLicensePlate());
+    }
+}
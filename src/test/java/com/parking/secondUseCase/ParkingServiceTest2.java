@@ -316,7 +316,7 @@ class ParkingServiceTest2 {
         Map<String, Object> status = (Map<String, Object>) parkingService.getParkingStatus();
         long occupiedSpots = ((Number) status.get("occupiedSpots")).longValue();
         long availableSpots = ((Number) status.get("availableSpots")).longValue();
-        int activeTicketCount = (int) status.get("activeTickets");
+        long activeTicketCount = (long) status.get("activeTickets");
 
         // Total should equal original spot count
         assertEquals(totalSpots, occupiedSpots + availableSpots,
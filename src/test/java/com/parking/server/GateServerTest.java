@@ -0,0 +1,164 @@
+package com.parking.server;
+
+import com.parking.model.ParkingSpot;
+import com.parking.model.ParkingTicket;
+import com.parking.service.ParkingEventListener;
+import com.parking.service.ParkingService;
+import com.parking.service.PricingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GateServerTest {
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private ParkingService parkingService;
+    private GateServer server;
+    private URI baseUri;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+        start(16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private void start(int maxInFlight) throws Exception {
+        if (server != null) {
+            server.close();
+        }
+        server = GateServer.start(parkingService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), maxInFlight);
+        baseUri = URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Park, reserve, status and exit round trip over HTTP")
+    void testRoundTrip() throws Exception {
+        HttpResponse<String> parked = send(post("/park?plate=KA01%20AB1234&type=car"));
+        assertEquals(200, parked.statusCode());
+        ParkingTicket ticket = parkingService.findActiveTicket("KA01AB1234").orElseThrow();
+        assertTrue(parked.body().contains("\"ticketId\":\"" + ticket.getTicketId() + "\""));
+
+        LocalDateTime start = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        HttpResponse<String> reserved = send(post("/reserve?user=u1&plate=MH12&type=CAR&start=" + start
+                + "&end=" + start.plusHours(2)));
+        assertEquals(200, reserved.statusCode());
+        assertTrue(reserved.body().contains("\"reservationId\""));
+
+        HttpResponse<String> status = send(HttpRequest.newBuilder(baseUri.resolve("/status")).build());
+        assertEquals(200, status.statusCode());
+        assertTrue(status.body().contains("\"activeTickets\":1"));
+        assertTrue(status.body().contains("\"activeReservations\":1"));
+        assertEquals("application/json", status.headers().firstValue("Content-Type").orElseThrow());
+
+        HttpResponse<String> exited = send(post("/exit?ticket=" + ticket.getTicketId()));
+        assertEquals(200, exited.statusCode());
+        assertTrue(exited.body().contains("\"fee\":5.0"));
+        assertTrue(ticket.isProcessed());
+
+        send(post("/park?plate=KA02&type=BUS"));
+        assertEquals(200, send(post("/exit?plate=ka-02")).statusCode());
+    }
+
+    @Test
+    @DisplayName("Bad input, conflicts and unknown routes map to 4xx codes")
+    void testErrorStatuses() throws Exception {
+        assertEquals(400, send(post("/park?plate=X1&type=TRUCK")).statusCode());
+        assertEquals(400, send(post("/park?type=CAR")).statusCode());
+        assertEquals(400, send(post("/exit?ticket=nope")).statusCode());
+        assertEquals(400, send(post("/reserve?user=u&plate=R1&type=CAR&start=tomorrow&end=later")).statusCode());
+
+        assertEquals(200, send(post("/park?plate=X1&type=CAR")).statusCode());
+        HttpResponse<String> duplicate = send(post("/park?plate=X1&type=CAR"));
+        assertEquals(409, duplicate.statusCode());
+        assertTrue(duplicate.body().startsWith("{\"error\":"));
+        assertEquals(200, send(post("/park?plate=X2&type=CAR")).statusCode());
+        assertEquals(409, send(post("/park?plate=X3&type=CAR")).statusCode());
+
+        assertEquals(405, send(HttpRequest.newBuilder(baseUri.resolve("/park?plate=X4&type=CAR")).build()).statusCode());
+        assertEquals(404, send(post("/gates")).statusCode());
+        assertEquals(2L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("Requests beyond the in-flight limit are refused with 503 until capacity frees up")
+    void testBackpressure() throws Exception {
+        start(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        parkingService.addEventListener(new ParkingEventListener() {
+            @Override
+            public void onVehicleParked(ParkingTicket ticket) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        CompletableFuture<HttpResponse<String>> slow =
+                http.sendAsync(post("/park?plate=SLOW1&type=CAR"), HttpResponse.BodyHandlers.ofString());
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        HttpResponse<String> refused = send(HttpRequest.newBuilder(baseUri.resolve("/status")).build());
+        assertEquals(503, refused.statusCode());
+        assertEquals("1", refused.headers().firstValue("Retry-After").orElseThrow());
+        assertEquals(1, server.getRejectedCount());
+
+        release.countDown();
+        assertEquals(200, slow.get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(200, send(HttpRequest.newBuilder(baseUri.resolve("/status")).build()).statusCode());
+    }
+
+    @Test
+    @DisplayName("Without virtual threads the in-flight limit is capped at the pool size")
+    void testInFlightCappedWithoutVirtualThreads() throws Exception {
+        start(1024);
+        assertEquals(server.usesVirtualThreads() ? 1024 : 256, server.getMaxInFlight());
+    }
+
+    @Test
+    @DisplayName("Load generator keeps concurrent clients parking and exiting")
+    void testLoadGenerator() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("L" + i));
+        }
+        GateLoadGenerator.Report report = GateLoadGenerator.run(baseUri, 50, Duration.ofMillis(500));
+
+        assertTrue(report.getCompleted() > 0);
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getP99Nanos() >= report.getP50Nanos());
+    }
+}
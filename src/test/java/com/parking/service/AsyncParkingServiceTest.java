@@ -0,0 +1,120 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import com.parking.payment.PaymentReceipt;
+import com.parking.payment.SimulatedPaymentGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncParkingServiceTest {
+
+    private ExecutorService executor;
+    private ParkingService parkingService;
+    private AsyncParkingService asyncService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4, task -> new Thread(task, "lane-worker"));
+        parkingService = new ParkingService(new PricingService());
+        asyncService = new AsyncParkingService(parkingService, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Operations run on the configured executor and complete with the synchronous results")
+    void testOperationsRunOnExecutor() throws Exception {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+
+        List<String> parkingThreads = new CopyOnWriteArrayList<>();
+        parkingService.addEventListener(new ParkingEventListener() {
+            @Override
+            public void onVehicleParked(ParkingTicket ticket) {
+                parkingThreads.add(Thread.currentThread().getName());
+            }
+        });
+
+        ParkingTicket ticket = asyncService.parkVehicleAsync(new Vehicle("CAR1", VehicleType.CAR)).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("lane-worker"), parkingThreads);
+        assertEquals(ticket, parkingService.findActiveTicket("CAR1").orElseThrow());
+
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Reservation reservation = asyncService.createReservationAsync("u1", new Vehicle("CAR2", VehicleType.CAR),
+                start, start.plusHours(2)).get(5, TimeUnit.SECONDS);
+        assertEquals(ReservationStatus.CONFIRMED, reservation.getStatus());
+
+        assertEquals(5.0, asyncService.exitVehicleAsync(ticket.getTicketId()).get(5, TimeUnit.SECONDS), 0.01);
+        assertTrue(ticket.isProcessed());
+    }
+
+    @Test
+    @DisplayName("Failures complete the future with the synchronous call's exception as the cause")
+    void testFailuresCompleteExceptionally() {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        asyncService.parkVehicleAsync(new Vehicle("CAR1", VehicleType.CAR)).join();
+
+        ExecutionException full = assertThrows(ExecutionException.class,
+                () -> asyncService.parkVehicleAsync(new Vehicle("CAR2", VehicleType.CAR)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, full.getCause());
+        ExecutionException invalid = assertThrows(ExecutionException.class,
+                () -> asyncService.exitVehicleAsync("TKT-UNKNOWN").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, invalid.getCause());
+        CompletionException joined = assertThrows(CompletionException.class,
+                () -> asyncService.exitVehicleAsync("TKT-UNKNOWN").join());
+        assertInstanceOf(IllegalArgumentException.class, joined.getCause());
+    }
+
+    @Test
+    @DisplayName("Many lanes waiting on payment share a small pool")
+    void testLanesComposeWithPayment() throws Exception {
+        int lanes = 500;
+        for (int i = 0; i < lanes; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("P" + i));
+        }
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(Duration.ofMillis(100), 0, executor);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<PaymentReceipt>> receipts = new ArrayList<>();
+        for (int i = 0; i < lanes; i++) {
+            receipts.add(asyncService.parkVehicleAsync(new Vehicle("LANE" + i, VehicleType.CAR))
+                    .thenCompose(ticket -> asyncService.exitAndPayAsync(ticket.getTicketId(), gateway)));
+        }
+        CompletableFuture.allOf(receipts.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Blocking four threads on each 100 ms payment would take over 12 seconds.
+        assertTrue(elapsedMillis < 5_000, "took " + elapsedMillis + " ms");
+        for (CompletableFuture<PaymentReceipt> receipt : receipts) {
+            assertEquals(5.0, receipt.join().getAmount(), 0.01);
+        }
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("A declined payment fails the lane after the exit is recorded")
+    void testDeclinedPayment() {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(Duration.ofMillis(1), 1, executor);
+        ParkingTicket ticket = asyncService.parkVehicleAsync(new Vehicle("CAR1", VehicleType.CAR)).join();
+
+        ExecutionException declined = assertThrows(ExecutionException.class,
+                () -> asyncService.exitAndPayAsync(ticket.getTicketId(), gateway).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, declined.getCause());
+        assertTrue(ticket.isProcessed());
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+}
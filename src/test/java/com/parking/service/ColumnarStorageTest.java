@@ -0,0 +1,153 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import com.parking.persistence.ParkingStore;
+import com.parking.persistence.WriteAheadJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private ParkingService parkingService;
+
+    @BeforeEach
+    void setUp() {
+        parkingService = columnarService();
+        for (int i = 1; i <= 200; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("C" + i));
+        }
+    }
+
+    private static ParkingService columnarService() {
+        return new ParkingService(new PricingService(), SpotSharding.byZonePrefix(), 0, StorageEngine.COLUMNAR);
+    }
+
+    @Test
+    @DisplayName("Tickets and spots are views of the columnar rows")
+    void testParkAndExitThroughViews() {
+        Vehicle car = new Vehicle("KA01AB1234", VehicleType.CAR);
+        Vehicle longPlate = new Vehicle("TEMPORARY-REGISTRATION-0042", VehicleType.VAN);
+        Vehicle unicodePlate = new Vehicle("車牌-7", VehicleType.MOTORCYCLE);
+
+        ParkingTicket ticket = parkingService.parkVehicle(car);
+        ParkingTicket longTicket = parkingService.parkVehicle(longPlate);
+        parkingService.parkVehicle(unicodePlate);
+
+        assertTrue(ticket.getSpot().isOccupied());
+        assertEquals(car, ticket.getSpot().getParkedVehicle());
+        assertEquals(0, ticket.getEntryTime().getNano());
+        assertThrows(UnsupportedOperationException.class, () -> ticket.getSpot().releaseSpot());
+        assertThrows(IllegalStateException.class, () -> parkingService.parkVehicle(new Vehicle("車牌-7", VehicleType.CAR)));
+
+        Map<String, ParkingTicket> open = parkingService.getActiveTickets().stream()
+                .collect(Collectors.toMap(ParkingTicket::getTicketId, t -> t));
+        assertEquals(3, open.size());
+        assertEquals(longPlate, open.get(longTicket.getTicketId()).getVehicle());
+        assertEquals(VehicleType.VAN, open.get(longTicket.getTicketId()).getVehicle().getType());
+        assertEquals(ticket.getSpot().getSpotId(), open.get(ticket.getTicketId()).getSpot().getSpotId());
+
+        assertEquals(5.0, parkingService.exitVehicle(ticket.getTicketId()), 0.01);
+        assertFalse(ticket.getSpot().isOccupied());
+        assertNull(ticket.getSpot().getParkedVehicle());
+        assertThrows(IllegalArgumentException.class, () -> parkingService.exitVehicle(ticket.getTicketId()));
+        assertThrows(IllegalArgumentException.class, () -> parkingService.exitVehicle("INVALID"));
+
+        parkingService.parkVehicle(car);
+        assertEquals(3, parkingService.getActiveTickets().size());
+        assertEquals(3L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("Concurrent parking and exits keep the rows and the allocator consistent")
+    void testConcurrentParkingAndExits() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<ParkingTicket>> parked = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Vehicle vehicle = new Vehicle("CC" + i, VehicleType.values()[i % VehicleType.values().length]);
+            parked.add(executor.submit(() -> {
+                try {
+                    return parkingService.parkVehicle(vehicle);
+                } catch (IllegalStateException e) {
+                    return null;
+                }
+            }));
+        }
+        List<ParkingTicket> tickets = new ArrayList<>();
+        for (Future<ParkingTicket> future : parked) {
+            try {
+                ParkingTicket ticket = future.get();
+                if (ticket != null) {
+                    tickets.add(ticket);
+                }
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            }
+        }
+        assertEquals(200, tickets.size());
+        assertEquals(200, tickets.stream().map(t -> t.getSpot().getSpotId()).distinct().count());
+
+        CountDownLatch done = new CountDownLatch(tickets.size());
+        ConcurrentLinkedQueue<Double> fees = new ConcurrentLinkedQueue<>();
+        for (ParkingTicket ticket : tickets) {
+            executor.submit(() -> {
+                try {
+                    fees.add(parkingService.exitVehicle(ticket.getTicketId()));
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(200, fees.size());
+        assertTrue(parkingService.getActiveTickets().isEmpty());
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        assertTrue(parkingService.getParkingSpots().stream().noneMatch(ParkingSpot::isOccupied));
+    }
+
+    @Test
+    @DisplayName("A columnar service is journaled and recovered like a heap one")
+    void testRecoveryIntoColumnarService() throws IOException {
+        Map<String, String> spotsByTicket = new HashMap<>();
+        try (ParkingStore store = ParkingStore.open(directory, WriteAheadJournal.Durability.SYNC)) {
+            ParkingService original = columnarService();
+            store.recover(original);
+            for (int i = 1; i <= 20; i++) {
+                original.addParkingSpot(new ParkingSpot("R" + i));
+            }
+            for (int i = 0; i < 10; i++) {
+                ParkingTicket ticket = original.parkVehicle(new Vehicle("RV" + i, VehicleType.CAR));
+                spotsByTicket.put(ticket.getTicketId(), ticket.getSpot().getSpotId());
+            }
+            store.snapshot();
+            original.exitVehicle(spotsByTicket.keySet().iterator().next());
+        }
+
+        ParkingService recovered = columnarService();
+        try (ParkingStore store = ParkingStore.open(directory, WriteAheadJournal.Durability.SYNC)) {
+            store.recover(recovered);
+        }
+        List<ParkingTicket> open = recovered.getActiveTickets();
+        assertEquals(9, open.size());
+        for (ParkingTicket ticket : open) {
+            assertEquals(spotsByTicket.get(ticket.getTicketId()), ticket.getSpot().getSpotId());
+            assertTrue(ticket.getSpot().isOccupied());
+            assertEquals(ticket.getVehicle(), ticket.getSpot().getParkedVehicle());
+        }
+        assertEquals(9L, recovered.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+}
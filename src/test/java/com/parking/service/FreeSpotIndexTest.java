@@ -0,0 +1,117 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeSpotIndexTest {
+
+    @Test
+    @DisplayName("Concurrent claims hand out every slot exactly once, and released slots can be claimed again")
+    void testConcurrentClaims() throws Exception {
+        int slots = 5000;
+        FreeSpotIndex index = new FreeSpotIndex();
+        index.ensureCapacity(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            index.release(slot);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+            List<Integer> duplicates = new CopyOnWriteArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    int slot;
+                    while ((slot = index.claimAny()) >= 0) {
+                        if (!claimed.add(slot)) {
+                            duplicates.add(slot);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            assertTrue(duplicates.isEmpty());
+            assertEquals(slots, claimed.size());
+            assertEquals(-1, index.claimAny());
+            for (int slot : claimed) {
+                assertFalse(index.isFree(slot));
+                assertTrue(index.release(slot));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent parks into a lot fill every spot exactly once")
+    void testConcurrentParks() throws Exception {
+        int spots = 200;
+        ParkingService parkingService = new ParkingService(new PricingService(), SpotSharding.byHash(4));
+        for (int i = 0; i < spots; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("S" + i));
+        }
+
+        List<ParkingTicket> tickets = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        tickets.add(parkingService.parkVehicle(new Vehicle("T" + thread + "-" + i, VehicleType.CAR)));
+                    } catch (IllegalStateException e) {
+                        // Lot full.
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(spots, tickets.size());
+        assertEquals(spots, tickets.stream().map(ticket -> ticket.getSpot().getSpotId()).distinct().count());
+        assertEquals(spots, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+
+        for (ParkingTicket ticket : tickets) {
+            parkingService.exitVehicle(ticket.getTicketId());
+        }
+        for (int i = 0; i < spots; i++) {
+            parkingService.parkVehicle(new Vehicle("R" + i, VehicleType.CAR));
+        }
+        assertEquals(spots, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("A spot occupied outside the allocator is not claimed, and its slot stays free")
+    void testClaimSkipsSpotOccupiedElsewhere() {
+        SpotShard shard = new SpotShard("A", 0, true);
+        ParkingSpot spot = new ParkingSpot("A1");
+        int slot = shard.add(spot);
+        shard.publish(slot);
+        spot.parkVehicle(new Vehicle("OUTSIDE", VehicleType.CAR));
+
+        assertNull(shard.claim(new Vehicle("V1", VehicleType.CAR)));
+        assertFalse(shard.claim(slot, new Vehicle("V1", VehicleType.CAR)));
+        assertFalse(shard.isOccupied(slot));
+        assertEquals(0, shard.occupiedCount());
+
+        spot.releaseSpot();
+        assertSame(spot, shard.claim(new Vehicle("V1", VehicleType.CAR)));
+        assertTrue(shard.isOccupied(slot));
+        assertEquals(1, shard.occupiedCount());
+    }
+}
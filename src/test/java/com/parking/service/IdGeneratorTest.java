@@ -0,0 +1,103 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    @Test
+    @DisplayName("IDs are unique across threads and nodes")
+    void testUniqueAcrossThreadsAndNodes() throws Exception {
+        IdGenerator nodeA = new IdGenerator("TKT-", 1);
+        IdGenerator nodeB = new IdGenerator("TKT-", 2);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            IdGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextFormattedId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Formatted IDs sort like their numeric values and parse back")
+    void testSortableAndParseable() {
+        long[] now = {1_760_000_000_000L};
+        IdGenerator generator = new IdGenerator("RES-", 7, () -> now[0]);
+
+        long first = generator.nextId();
+        long block = generator.nextBlock(5000);
+        now[0] += 1;
+        long later = generator.nextId();
+
+        assertTrue(first < block);
+        assertTrue(IdGenerator.idInBlock(block, 4999) < later);
+        assertTrue(generator.format(first).compareTo(generator.format(later)) < 0);
+        assertEquals(later, generator.parse(generator.format(later)));
+        assertEquals(7, IdGenerator.nodeOf(later));
+        assertThrows(IllegalArgumentException.class, () -> generator.parse("TKT-0000000000000"));
+    }
+
+    @Test
+    @DisplayName("IDs minted after advancing past a restored ID sort after it, even when the clock is behind")
+    void testAdvancePastRestoredIds() {
+        long[] now = {1_760_000_000_000L};
+        IdGenerator before = new IdGenerator("TKT-", 3, () -> now[0]);
+        long restored = before.nextBlock(10);
+        long otherNode = new IdGenerator("TKT-", 9, () -> now[0]).nextId();
+
+        now[0] -= 60_000;
+        IdGenerator after = new IdGenerator("TKT-", 3, () -> now[0]);
+        assertTrue(after.nextId() < restored);
+        after.advancePast(IdGenerator.idInBlock(restored, 9));
+        after.advancePast(restored);
+        long next = after.nextId();
+        assertTrue(next > IdGenerator.idInBlock(restored, 9));
+        after.advancePast(otherNode);
+        assertTrue(after.nextId() > otherNode);
+    }
+
+    @Test
+    @DisplayName("Restoring state moves the service's ID generators past every restored ID")
+    void testRestoreAdvancesIds() {
+        ParkingSpot spot = new ParkingSpot("A1");
+        ParkingSpot other = new ParkingSpot("A2");
+        long future = new IdGenerator("TKT-", 0, () -> System.currentTimeMillis() + 3_600_000).nextId();
+        IdGenerator tickets = new IdGenerator("TKT-", 0);
+        IdGenerator reservations = new IdGenerator("RES-", 0);
+        ParkingTicket ticket = new ParkingTicket(tickets.format(future), new Vehicle("ABC123", VehicleType.CAR),
+                spot, LocalDateTime.now());
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Reservation reservation = new Reservation(reservations.format(future), "user1",
+                new Vehicle("R1", VehicleType.CAR), start, start.plusHours(1));
+        reservation.setAssignedSpot(spot);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.restore(List.of(spot, other), List.of(ticket), List.of(reservation));
+        String parked = parkingService.parkVehicle(new Vehicle("XYZ789", VehicleType.CAR)).getTicketId();
+        assertTrue(tickets.parse(parked) > future);
+        String booked = parkingService.createReservation("user2", new Vehicle("R2", VehicleType.CAR),
+                start.plusHours(2), start.plusHours(3)).getReservationId();
+        assertTrue(reservations.parse(booked) > future);
+    }
+}
@@ -0,0 +1,171 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerRollbackTest {
+
+    /** Stands in for a journal whose disk has gone away: every append fails while broken. */
+    private static final class FailingJournal implements ParkingEventListener {
+        volatile boolean broken;
+
+        private void append() {
+            if (broken) {
+                throw new UncheckedIOException(new IOException("fsync failed"));
+            }
+        }
+
+        @Override
+        public void onVehicleParked(ParkingTicket ticket) {
+            append();
+        }
+
+        @Override
+        public void onVehicleExited(ParkingTicket ticket, double fee) {
+            append();
+        }
+
+        @Override
+        public void onReservationCreated(Reservation reservation) {
+            append();
+        }
+
+        @Override
+        public void onReservationActivated(Reservation reservation) {
+            append();
+        }
+
+        @Override
+        public void onReservationCompleted(Reservation reservation) {
+            append();
+        }
+
+        @Override
+        public void onReservationCheckedIn(Reservation reservation) {
+            append();
+        }
+
+        @Override
+        public void onReservationCancelled(Reservation reservation) {
+            append();
+        }
+
+        @Override
+        public void onReservationExpired(Reservation reservation) {
+            append();
+        }
+    }
+
+    @Test
+    @DisplayName("A park or exit the journal fails to record is rolled back, in both storage engines")
+    void testParkAndExitRollBack() {
+        for (StorageEngine engine : StorageEngine.values()) {
+            ParkingService parkingService = new ParkingService(new PricingService(),
+                    SpotSharding.byZonePrefix(), 0, engine);
+            FailingJournal journal = new FailingJournal();
+            parkingService.addEventListener(journal);
+            parkingService.addParkingSpot(new ParkingSpot("A1"));
+
+            journal.broken = true;
+            assertThrows(UncheckedIOException.class,
+                    () -> parkingService.parkVehicle(new Vehicle("ABC123", VehicleType.CAR)));
+            assertTrue(parkingService.findAvailableSpot().isPresent(), engine.name());
+            assertTrue(parkingService.findActiveTicket("ABC123").isEmpty(), engine.name());
+            assertEquals(0, parkingService.getParkingStatusSnapshot().getActiveTickets(), engine.name());
+
+            journal.broken = false;
+            ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("ABC123", VehicleType.CAR));
+            journal.broken = true;
+            assertThrows(UncheckedIOException.class, () -> parkingService.exitVehicle(ticket.getTicketId()));
+            assertFalse(ticket.isProcessed(), engine.name());
+            assertNull(ticket.getExitTime(), engine.name());
+            assertTrue(parkingService.findAvailableSpot().isEmpty(), engine.name());
+            assertEquals(ticket.getTicketId(), parkingService.findActiveTicket("ABC123").orElseThrow().getTicketId());
+            assertEquals(1, parkingService.getActiveTickets().size(), engine.name());
+
+            journal.broken = false;
+            parkingService.exitVehicle(ticket.getTicketId());
+            assertTrue(parkingService.findAvailableSpot().isPresent(), engine.name());
+            assertTrue(parkingService.getActiveTickets().isEmpty(), engine.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Batch items the journal fails to record are reported as failures and rolled back")
+    void testBatchItemsRollBack() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        FailingJournal journal = new FailingJournal();
+        parkingService.addEventListener(journal);
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+
+        journal.broken = true;
+        List<BatchResult<ParkingTicket>> parked = parkingService.parkVehicles(List.of(
+                new Vehicle("ABC123", VehicleType.CAR), new Vehicle("XYZ789", VehicleType.CAR)));
+        assertFalse(parked.get(0).isSuccess());
+        assertFalse(parked.get(1).isSuccess());
+        assertEquals("java.io.IOException: fsync failed", parked.get(0).getFailureReason());
+        assertEquals(0, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+
+        journal.broken = false;
+        String ticketId = parkingService.parkVehicle(new Vehicle("ABC123", VehicleType.CAR)).getTicketId();
+        journal.broken = true;
+        List<BatchResult<Double>> exited = parkingService.exitVehicles(List.of(ticketId));
+        assertFalse(exited.get(0).isSuccess());
+        assertTrue(parkingService.findActiveTicket("ABC123").isPresent());
+    }
+
+    @Test
+    @DisplayName("Reservation changes the journal fails to record are rolled back")
+    void testReservationChangesRollBack() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        FailingJournal journal = new FailingJournal();
+        parkingService.addEventListener(journal);
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        LocalDateTime start = LocalDateTime.now().plusMinutes(30);
+        Vehicle vehicle = new Vehicle("R1", VehicleType.CAR);
+
+        journal.broken = true;
+        assertThrows(UncheckedIOException.class,
+                () -> parkingService.createReservation("user1", vehicle, start, start.plusHours(1)));
+        assertTrue(parkingService.getAllReservations().isEmpty());
+        assertTrue(parkingService.findSpotFreeBetween(start, start.plusHours(1)).isPresent());
+
+        journal.broken = false;
+        Reservation reservation = parkingService.createReservation("user1", vehicle, start, start.plusHours(1));
+        String id = reservation.getReservationId();
+        journal.broken = true;
+        assertThrows(UncheckedIOException.class, () -> parkingService.cancelReservation(id));
+        assertEquals(ReservationStatus.CONFIRMED, reservation.getStatus());
+        assertThrows(UncheckedIOException.class, () -> parkingService.activateReservation(id));
+        assertEquals(ReservationStatus.CONFIRMED, reservation.getStatus());
+        assertTrue(parkingService.findAvailableSpot().isEmpty());
+        assertEquals(0, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+
+        journal.broken = false;
+        parkingService.activateReservation(id);
+        journal.broken = true;
+        assertThrows(UncheckedIOException.class, () -> parkingService.checkInReservation(id));
+        assertFalse(reservation.isCheckedIn());
+        assertThrows(UncheckedIOException.class, () -> parkingService.expireReservation(id));
+        assertEquals(ReservationStatus.ACTIVE, reservation.getStatus());
+        assertThrows(UncheckedIOException.class, () -> parkingService.completeReservation(id));
+        assertEquals(ReservationStatus.ACTIVE, reservation.getStatus());
+        assertEquals(1, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+
+        journal.broken = false;
+        parkingService.checkInReservation(id);
+        assertTrue(reservation.isCheckedIn());
+        parkingService.completeReservation(id);
+        assertEquals(0, parkingService.getParkingStatusSnapshot().getActiveReservations());
+        assertEquals(0, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+}
@@ -0,0 +1,57 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingServiceBatchTest {
+
+    private ParkingService parkingService;
+
+    @BeforeEach
+    void setUp() {
+        parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+    }
+
+    @Test
+    @DisplayName("Batch park reports per-vehicle failures without aborting the batch")
+    void testParkVehiclesReportsFailuresPerItem() {
+        List<BatchResult<ParkingTicket>> results = parkingService.parkVehicles(List.of(
+                new Vehicle("B001", VehicleType.CAR),
+                new Vehicle("B001", VehicleType.CAR),
+                new Vehicle("B002", VehicleType.VAN),
+                new Vehicle("B003", VehicleType.CAR)));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).getFailureReason().contains("already has an active parking ticket"));
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("No available parking spots", results.get(3).getFailureReason());
+        assertNotEquals(results.get(0).getValue().getTicketId(), results.get(2).getValue().getTicketId());
+        assertEquals(results.get(0).getValue().getEntryTime(), results.get(2).getValue().getEntryTime());
+    }
+
+    @Test
+    @DisplayName("Batch exit computes fees and frees spots")
+    void testExitVehiclesComputesFees() {
+        ParkingTicket car = parkingService.parkVehicle(new Vehicle("E001", VehicleType.CAR));
+        ParkingTicket van = parkingService.parkVehicle(new Vehicle("E002", VehicleType.VAN));
+
+        List<BatchResult<Double>> results = parkingService.exitVehicles(
+                List.of(car.getTicketId(), "UNKNOWN", van.getTicketId(), car.getTicketId()));
+
+        assertEquals(5.0, results.get(0).getValue(), 0.01);
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(7.5, results.get(2).getValue(), 0.01);
+        assertFalse(results.get(3).isSuccess());
+        assertTrue(car.isProcessed());
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+}
@@ -0,0 +1,79 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingStatusTest {
+
+    /** Checks the counter-backed status against the values found by scanning spots, tickets and reservations. */
+    private static void assertMatchesScan(ParkingService parkingService) {
+        long occupied = parkingService.getParkingSpots().stream().filter(ParkingSpot::isOccupied).count();
+        long activeReservations = parkingService.getAllReservations().stream()
+                .filter(r -> r.getStatus() == ReservationStatus.CONFIRMED || r.getStatus() == ReservationStatus.ACTIVE)
+                .count();
+
+        ParkingStatus status = parkingService.getParkingStatusSnapshot();
+        assertEquals(parkingService.getParkingSpots().size(), status.getTotalSpots());
+        assertEquals(occupied, status.getOccupiedSpots());
+        assertEquals(parkingService.getParkingSpots().size() - occupied, status.getAvailableSpots());
+        assertEquals(parkingService.getActiveTickets().size(), status.getActiveTickets());
+        assertEquals(activeReservations, status.getActiveReservations());
+        assertEquals(status.toMap(), parkingService.getParkingStatus());
+    }
+
+    @Test
+    @DisplayName("Status counters match a scan of the lot after parks, exits, reservations and cancellations")
+    void testCountersMatchScan() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 1; i <= 5; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        assertMatchesScan(parkingService);
+
+        ParkingTicket first = parkingService.parkVehicle(new Vehicle("P1", VehicleType.CAR));
+        parkingService.parkVehicle(new Vehicle("P2", VehicleType.CAR));
+        assertMatchesScan(parkingService);
+
+        parkingService.exitVehicle(first.getTicketId());
+        assertMatchesScan(parkingService);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Reservation kept = parkingService.createReservation("user1", new Vehicle("R1", VehicleType.CAR),
+                start, start.plusHours(2));
+        Reservation cancelled = parkingService.createReservation("user2", new Vehicle("R2", VehicleType.CAR),
+                start, start.plusHours(2));
+        assertMatchesScan(parkingService);
+
+        parkingService.cancelReservation(cancelled.getReservationId());
+        assertMatchesScan(parkingService);
+
+        parkingService.activateReservation(kept.getReservationId());
+        assertMatchesScan(parkingService);
+
+        parkingService.completeReservation(kept.getReservationId());
+        parkingService.exitVehicleByPlate("P2");
+        assertMatchesScan(parkingService);
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+
+    @Test
+    @DisplayName("Every status value in the map is a long")
+    void testMapValuesAreLongs() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.parkVehicle(new Vehicle("P1", VehicleType.CAR));
+
+        Map<String, Object> status = parkingService.getParkingStatusSnapshot().toMap();
+        assertEquals(5, status.size());
+        for (Object value : status.values()) {
+            assertInstanceOf(Long.class, value);
+        }
+        assertEquals(1L, status.get("activeTickets"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateIndexTest {
+
+    @Test
+    @DisplayName("Plates match in normalized form and irregular plates still work")
+    void testNormalizedKeys() {
+        PlateIndex index = new PlateIndex();
+
+        assertTrue(index.putIfAbsent("ka-01 ab.1234", 7));
+        assertFalse(index.putIfAbsent("KA01AB1234", 8));
+        assertEquals(7, index.get("Ka01-Ab-1234"));
+        assertTrue(index.putIfAbsent("車牌-7", 9));
+        assertFalse(index.putIfAbsent("車牌 7", 10));
+        assertTrue(index.putIfAbsent("TEMPORARY-REGISTRATION-000042", 11));
+        assertEquals(11, index.get("temporary registration 000042"));
+
+        index.remove("KA01AB1234", 8);
+        assertEquals(7, index.get("KA01AB1234"));
+        index.remove("KA01AB1234", 7);
+        index.remove("車牌7", 9);
+        assertEquals(0, index.get("KA01AB1234"));
+        assertEquals(0, index.get("車牌-7"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent inserts, lookups and removals across table growth")
+    void testConcurrentChurn() throws Exception {
+        PlateIndex index = new PlateIndex();
+        int threads = 8;
+        int perThread = 25_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    long id = (long) thread * perThread + i + 1;
+                    assertTrue(index.putIfAbsent("T" + thread + "-" + i, id));
+                    assertEquals(id, index.get("t" + thread + i));
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    index.remove("T" + thread + "-" + i, (long) thread * perThread + i + 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals((long) threads * perThread / 2, index.size());
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                long expected = i % 2 == 0 ? 0 : (long) t * perThread + i + 1;
+                assertEquals(expected, index.get("T" + t + "-" + i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Vehicles can be found and checked out by plate")
+    void testExitByPlate() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("P1"));
+        parkingService.addParkingSpot(new ParkingSpot("P2"));
+        ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("MH-12 DE 1433", VehicleType.CAR));
+
+        assertThrows(IllegalStateException.class,
+                () -> parkingService.parkVehicle(new Vehicle("mh12de1433", VehicleType.CAR)));
+        assertEquals(ticket, parkingService.findActiveTicket("MH12DE1433").orElseThrow());
+        assertEquals(5.0, parkingService.exitVehicleByPlate("MH12DE1433"), 0.01);
+        assertTrue(ticket.isProcessed());
+        assertTrue(parkingService.findActiveTicket("MH12DE1433").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> parkingService.exitVehicleByPlate("MH12DE1433"));
+        parkingService.parkVehicle(new Vehicle("MH12DE1433", VehicleType.CAR));
+    }
+}
@@ -0,0 +1,251 @@
+package com.parking.service;
+
+import com.parking.model.VehicleType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingServiceTest {
+
+    private final PricingService pricingService = new PricingService();
+
+    @Test
+    @DisplayName("Fees round partial hours up with a one hour minimum")
+    void testFeeRounding() {
+        LocalDateTime entry = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+        assertEquals(5.0, pricingService.calculateFee(VehicleType.CAR, entry, entry), 0.001);
+        assertEquals(5.0, pricingService.calculateFee(VehicleType.CAR, entry, entry.plusMinutes(60)), 0.001);
+        assertEquals(10.0, pricingService.calculateFee(VehicleType.CAR, entry, entry.plusMinutes(61)), 0.001);
+        assertEquals(5.0, pricingService.calculateFee(VehicleType.CAR, entry, entry.plusMinutes(60).plusSeconds(59)), 0.001);
+        assertEquals(2.0 * 24 * 40, pricingService.calculateFee(VehicleType.MOTORCYCLE, entry, entry.plusDays(40)), 0.001);
+        assertEquals(10.0 * 3 * 1.2, pricingService.calculateReservationFee(VehicleType.BUS, entry, entry.plusHours(3)), 0.001);
+    }
+
+    @Test
+    @DisplayName("Epoch-second overload matches the date-time API")
+    void testEpochSecondOverload() {
+        LocalDateTime entry = LocalDateTime.of(2025, 3, 1, 22, 15);
+        LocalDateTime exit = entry.plusHours(5).plusMinutes(7);
+
+        assertEquals(pricingService.calculateFee(VehicleType.VAN, entry, exit),
+                pricingService.calculateFee(VehicleType.VAN, entry.toEpochSecond(ZoneOffset.UTC), exit.toEpochSecond(ZoneOffset.UTC)));
+        assertThrows(IllegalArgumentException.class, () -> pricingService.calculateFee(VehicleType.VAN, 100L, 99L));
+    }
+
+    @Test
+    @DisplayName("Bands, caps, daily maximum and grace period apply")
+    void testTariffRules() {
+        PricingService rules = new PricingService(TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 4.0)
+                .hourlyRate(VehicleType.VAN, 6.0)
+                .hourlyRate(VehicleType.BUS, 8.0)
+                .band(TariffBand.of(EnumSet.allOf(DayOfWeek.class), LocalTime.of(22, 0), LocalTime.of(6, 0), 0.5)
+                        .withCapHours(2))
+                .band(TariffBand.of(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), LocalTime.of(9, 0), LocalTime.of(18, 0), 1.5))
+                .dailyMaximumHours(10)
+                .gracePeriod(Duration.ofMinutes(10))
+                .build());
+        LocalDateTime mondayEvening = LocalDateTime.of(2025, 3, 3, 20, 0);
+
+        // 20:00 and 21:00 at full rate, then 8 night hours at half rate capped at 2 hours.
+        assertEquals(4.0 * (2 + 2), rules.calculateFee(VehicleType.CAR, mondayEvening, mondayEvening.plusHours(10)), 0.001);
+        // Saturday 09:00-12:00 at 1.5x.
+        LocalDateTime saturday = LocalDateTime.of(2025, 3, 8, 9, 0);
+        assertEquals(4.0 * 4.5, rules.calculateFee(VehicleType.CAR, saturday, saturday.plusHours(3)), 0.001);
+        // Saturday 09:00-18:00 is 13.5 hours, held to the 10 hour daily maximum.
+        assertEquals(4.0 * 10, rules.calculateFee(VehicleType.CAR, saturday, saturday.plusHours(9)), 0.001);
+        assertEquals(0.0, rules.calculateFee(VehicleType.CAR, mondayEvening, mondayEvening.plusMinutes(10)), 0.001);
+    }
+
+    @Test
+    @DisplayName("Segmented evaluation matches hour-by-hour pricing on long stays")
+    void testSegmentedMatchesHourByHour() {
+        TariffBand night = TariffBand.of(EnumSet.allOf(DayOfWeek.class), LocalTime.of(23, 30), LocalTime.of(7, 0), 0.25)
+                .withCapHours(1.5);
+        TariffBand weekend = TariffBand.of(EnumSet.of(DayOfWeek.SATURDAY), LocalTime.of(8, 0), LocalTime.of(20, 0), 2.0);
+        TariffDefinition definition = TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 3.0)
+                .hourlyRate(VehicleType.VAN, 5.0)
+                .hourlyRate(VehicleType.BUS, 7.0)
+                .band(night)
+                .band(weekend)
+                .dailyMaximumHours(12)
+                .build();
+        TariffDefinition uncapped = TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 3.0)
+                .hourlyRate(VehicleType.VAN, 5.0)
+                .hourlyRate(VehicleType.BUS, 7.0)
+                .band(night)
+                .band(weekend)
+                .band(TariffBand.of(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), LocalTime.of(20, 0),
+                        LocalTime.of(20, 0), 1.25).withCapHours(9))
+                .build();
+        Random random = new Random(99);
+
+        for (TariffDefinition tariff : new TariffDefinition[]{definition, uncapped}) {
+            PricingService rules = new PricingService(tariff);
+            for (int i = 0; i < 500; i++) {
+                LocalDateTime entry = LocalDateTime.of(2025, 1, 1, 0, 0)
+                        .plusMinutes(random.nextInt(60 * 24 * 365)).plusSeconds(random.nextInt(60));
+                LocalDateTime exit = entry.plusMinutes(random.nextInt(60 * 24 * 45));
+                assertEquals(hourByHour(tariff, VehicleType.CAR, entry, exit),
+                        rules.calculateFee(VehicleType.CAR, entry, exit), 1e-6, "stay " + entry + " -> " + exit);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A band occurrence is capped once, across 24-hour windows and consecutive band days")
+    void testOccurrenceCaps() {
+        PricingService nights = new PricingService(TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 1.0)
+                .hourlyRate(VehicleType.VAN, 1.0)
+                .hourlyRate(VehicleType.BUS, 1.0)
+                .band(TariffBand.of(EnumSet.allOf(DayOfWeek.class), LocalTime.of(22, 0), LocalTime.of(6, 0), 0.5)
+                        .withCapHours(2))
+                .build());
+        LocalDateTime monday = LocalDateTime.of(2025, 3, 3, 3, 0);
+        // Monday 03:00-06:00 is 1.5, the day 16, and Monday night 4 capped at 2.
+        assertEquals(19.5, nights.calculateFee(VehicleType.CAR, monday, monday.plusHours(27)), 1e-9);
+        // Sunday night runs over the week boundary into Monday as one occurrence.
+        LocalDateTime sunday = LocalDateTime.of(2025, 3, 9, 22, 0);
+        assertEquals(2.0, nights.calculateFee(VehicleType.CAR, sunday, sunday.plusHours(8)), 1e-9);
+        assertEquals(2.0 + 16 + 2.0 + 8, nights.calculateFee(VehicleType.CAR, sunday, sunday.plusHours(40)), 1e-9);
+
+        PricingService weekend = new PricingService(TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 1.0)
+                .hourlyRate(VehicleType.VAN, 1.0)
+                .hourlyRate(VehicleType.BUS, 1.0)
+                .band(TariffBand.of(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), LocalTime.MIDNIGHT,
+                        LocalTime.MIDNIGHT, 1.0).withCapHours(5))
+                .build());
+        LocalDateTime saturday = LocalDateTime.of(2025, 3, 8, 12, 0);
+        assertEquals(10.0, weekend.calculateFee(VehicleType.CAR, saturday, saturday.plusHours(24)), 1e-9);
+        // Three weeks; after the first, each Saturday afternoon continues an occurrence already at its cap.
+        assertEquals((5 + 5 + 5 * 24 + 5) + 2 * (5 + 5 * 24 + 5),
+                weekend.calculateFee(VehicleType.CAR, saturday, saturday.plusWeeks(3)), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Reloading the tariff takes effect for the next calculation")
+    void testReloadTariff() {
+        LocalDateTime entry = LocalDateTime.of(2025, 3, 1, 10, 0);
+        pricingService.reloadTariff(TariffDefinition.builder()
+                .hourlyRate(VehicleType.MOTORCYCLE, 1.0)
+                .hourlyRate(VehicleType.CAR, 6.0)
+                .hourlyRate(VehicleType.VAN, 9.0)
+                .hourlyRate(VehicleType.BUS, 12.0)
+                .reservationPremium(1.5)
+                .build());
+
+        assertEquals(12.0, pricingService.calculateFee(VehicleType.CAR, entry, entry.plusHours(2)), 0.001);
+        assertEquals(1.5, pricingService.getReservationPremium(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Quotes follow smoothed occupancy when demand pricing is enabled")
+    void testDemandPricing() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 10, 0);
+        assertEquals(18.0, pricingService.quoteReservation(VehicleType.CAR, start, start.plusHours(3)), 0.001);
+
+        pricingService.enableDemandPricing(type -> 0.95, DemandCurve.standard());
+        assertEquals(1.5, pricingService.demandMultiplier(VehicleType.CAR), 0.001);
+        assertEquals(7.5, pricingService.quote(VehicleType.CAR, start, start.plusHours(1)), 0.001);
+        assertEquals(5.0, pricingService.calculateFee(VehicleType.CAR, start, start.plusHours(1)), 0.001);
+
+        double[] occupancy = {0.0};
+        long[] nanos = {0};
+        DemandModel model = new DemandModel(type -> occupancy[0],
+                new DemandCurve(0.0, 1.0, 1.0, 2.0, Duration.ofMinutes(10)), () -> nanos[0]);
+        occupancy[0] = 1.0;
+        assertEquals(0.0, model.smoothedOccupancy(VehicleType.CAR), 1e-9);
+        nanos[0] = Duration.ofMinutes(10).toNanos();
+        assertEquals(1 - Math.exp(-1), model.smoothedOccupancy(VehicleType.CAR), 1e-9);
+    }
+
+    /**
+     * Reference implementation: walks every billing hour and every band explicitly.
+     */
+    private static double hourByHour(TariffDefinition definition, VehicleType type, LocalDateTime entry, LocalDateTime exit) {
+        long minutes = Duration.between(entry, exit).toMinutes();
+        long hours = Math.max(1, (minutes + 59) / 60);
+        double total = 0;
+        double window = 0;
+        double occurrence = 0;
+        int occurrenceBand = -2;
+        LocalDateTime occurrenceStart = null;
+        for (long h = 0; h < hours; h++) {
+            if (h % 24 == 0) {
+                total += dailyCapped(definition, window);
+                window = 0;
+            }
+            LocalDateTime start = entry.plusHours(h);
+            int band = bandAt(definition, start);
+            LocalDateTime bandStart = band < 0 ? null : occurrenceStartOf(definition.getBands().get(band), start);
+            if (band != occurrenceBand || (band >= 0 && !bandStart.equals(occurrenceStart))) {
+                occurrence = 0;
+                occurrenceBand = band;
+                occurrenceStart = bandStart;
+            }
+            // An occurrence is capped as a whole; each hour adds what it raises the capped total by.
+            double rate = band < 0 ? 1.0 : definition.getBands().get(band).getRateMultiplier();
+            window += capped(definition, band, occurrence + rate) - capped(definition, band, occurrence);
+            occurrence += rate;
+        }
+        total += dailyCapped(definition, window);
+        return total * definition.getHourlyRate(type);
+    }
+
+    private static double dailyCapped(TariffDefinition definition, double window) {
+        return definition.getDailyMaximumHours() > 0 ? Math.min(window, definition.getDailyMaximumHours()) : window;
+    }
+
+    private static double capped(TariffDefinition definition, int band, double amount) {
+        if (band < 0 || definition.getBands().get(band).getCapHours() == 0) {
+            return amount;
+        }
+        return Math.min(amount, definition.getBands().get(band).getCapHours());
+    }
+
+    private static int bandAt(TariffDefinition definition, LocalDateTime time) {
+        for (int band = definition.getBands().size() - 1; band >= 0; band--) {
+            if (occurrenceStartOf(definition.getBands().get(band), time) != null) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private static LocalDateTime occurrenceStartOf(TariffBand band, LocalDateTime time) {
+        LocalDateTime minute = time.withSecond(0).withNano(0);
+        for (int daysBack = 0; daysBack <= 1; daysBack++) {
+            LocalDateTime day = minute.toLocalDate().minusDays(daysBack).atStartOfDay();
+            if (!band.getDays().contains(day.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime start = day.with(band.getFrom());
+            LocalDateTime end = band.getTo().isAfter(band.getFrom())
+                    ? day.with(band.getTo())
+                    : day.plusDays(1).with(band.getTo());
+            if (!minute.isBefore(start) && minute.isBefore(end)) {
+                return start;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,145 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationHoldTest {
+
+    @Test
+    @DisplayName("Walk-ins are kept off a spot whose reservation starts before they are expected to leave")
+    void testWalkInsAvoidUpcomingReservations() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+        LocalDateTime start = LocalDateTime.now().plusMinutes(10);
+        Reservation reservation = parkingService.createReservation("user1", new Vehicle("R1", VehicleType.CAR),
+                start, start.plusHours(2));
+        ParkingSpot held = reservation.getAssignedSpot();
+
+        ParkingTicket first = parkingService.parkVehicle(new Vehicle("W1", VehicleType.CAR));
+        assertNotEquals(held.getSpotId(), first.getSpot().getSpotId());
+        assertTrue(parkingService.findAvailableSpot().isEmpty());
+        IllegalStateException full = assertThrows(IllegalStateException.class,
+                () -> parkingService.parkVehicle(new Vehicle("W2", VehicleType.CAR)));
+        assertEquals("No available parking spots", full.getMessage());
+
+        ParkingTicket quick = parkingService.parkVehicle(new Vehicle("W3", VehicleType.CAR), null, Duration.ofMinutes(5));
+        assertEquals(held.getSpotId(), quick.getSpot().getSpotId());
+        assertThrows(IllegalArgumentException.class,
+                () -> parkingService.parkVehicle(new Vehicle("W4", VehicleType.CAR), null, Duration.ZERO));
+    }
+
+    @Test
+    @DisplayName("Cancelled or completed reservations stop holding their spot")
+    void testHoldsEndWithTheReservation() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        LocalDateTime start = LocalDateTime.now().plusMinutes(30);
+        Reservation cancelled = parkingService.createReservation("user1", new Vehicle("R1", VehicleType.CAR),
+                start, start.plusHours(1));
+        assertTrue(parkingService.findAvailableSpot().isEmpty());
+        parkingService.cancelReservation(cancelled.getReservationId());
+        assertTrue(parkingService.findAvailableSpot().isPresent());
+
+        Reservation later = parkingService.createReservation("user2", new Vehicle("R2", VehicleType.CAR),
+                start.plusHours(3), start.plusHours(4));
+        ParkingTicket walkIn = parkingService.parkVehicle(new Vehicle("W1", VehicleType.CAR), null, Duration.ofHours(2));
+        parkingService.exitVehicle(walkIn.getTicketId());
+        parkingService.activateReservation(later.getReservationId());
+        parkingService.completeReservation(later.getReservationId());
+        assertEquals("A1", parkingService.parkVehicle(new Vehicle("W2", VehicleType.CAR)).getSpot().getSpotId());
+    }
+
+    @Test
+    @DisplayName("Only spots clear for the whole stay are handed out, across shards and size classes")
+    void testManySpotsWithHolds() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 400; i++) {
+            parkingService.addParkingSpot(new ParkingSpot((char) ('A' + i % 4) + "" + i, i % 2 == 0 ? 2 : 3));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> heldSoon = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            LocalDateTime start = now.plusMinutes(20 + i % 3 * 60);
+            Reservation reservation = parkingService.createReservation("user" + i,
+                    new Vehicle("R" + i, VehicleType.CAR), start, start.plusMinutes(30));
+            if (i % 3 == 0) {
+                heldSoon.add(reservation.getAssignedSpot().getSpotId());
+            }
+        }
+
+        List<ParkingTicket> parked = new ArrayList<>();
+        while (true) {
+            try {
+                parked.add(parkingService.parkVehicle(new Vehicle("W" + parked.size(), VehicleType.CAR)));
+            } catch (IllegalStateException full) {
+                break;
+            }
+        }
+        assertEquals(400 - heldSoon.size(), parked.size());
+        for (ParkingTicket ticket : parked) {
+            assertFalse(heldSoon.contains(ticket.getSpot().getSpotId()), ticket.getSpot().getSpotId());
+        }
+    }
+
+    @Test
+    @DisplayName("A reservation whose quote fails books nothing")
+    void testFailedQuoteLeavesNoBooking() {
+        ParkingService parkingService = new ParkingService(new PricingService() {
+            @Override
+            public double quoteReservation(VehicleType vehicleType, LocalDateTime startTime, LocalDateTime endTime) {
+                throw new IllegalStateException("Pricing unavailable");
+            }
+        });
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        LocalDateTime start = LocalDateTime.now().plusMinutes(30);
+        assertThrows(IllegalStateException.class, () -> parkingService.createReservation("user1",
+                new Vehicle("R1", VehicleType.CAR), start, start.plusHours(1)));
+        assertTrue(parkingService.findSpotFreeBetween(start, start.plusHours(1)).isPresent());
+        assertTrue(parkingService.findAvailableSpot().isPresent());
+    }
+
+    @Test
+    @DisplayName("Spots freed by cancellations are booked again, and overlapping bookings never share a spot")
+    void testBookingsReuseFreedSpots() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 50; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i, i % 2 == 0 ? 2 : 3));
+        }
+        LocalDateTime start = LocalDateTime.now().plusMinutes(30);
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            booked.add(parkingService.createReservation("user" + i, new Vehicle("R" + i, VehicleType.CAR),
+                    start, start.plusHours(2)));
+        }
+        assertTrue(parkingService.findSpotFreeBetween(start.plusHours(1), start.plusHours(3)).isEmpty());
+        assertThrows(IllegalStateException.class, () -> parkingService.createReservation("late",
+                new Vehicle("L0", VehicleType.CAR), start, start.plusHours(2)));
+
+        for (int i = 0; i < 50; i += 5) {
+            parkingService.cancelReservation(booked.get(i).getReservationId());
+        }
+        Set<String> spots = new HashSet<>();
+        for (Reservation reservation : parkingService.findReservations(ReservationStatus.CONFIRMED, null, null, null, 0, 100)) {
+            assertTrue(spots.add(reservation.getAssignedSpot().getSpotId()));
+        }
+        for (int i = 0; i < 10; i++) {
+            Reservation again = parkingService.createReservation("again" + i, new Vehicle("G" + i, VehicleType.CAR),
+                    start.plusHours(1), start.plusHours(3));
+            assertTrue(spots.add(again.getAssignedSpot().getSpotId()), again.getAssignedSpot().getSpotId());
+        }
+        assertThrows(IllegalStateException.class, () -> parkingService.createReservation("late",
+                new Vehicle("L1", VehicleType.CAR), start.plusHours(1), start.plusHours(2)));
+        assertTrue(parkingService.findSpotFreeBetween(start.plusHours(3), start.plusHours(4)).isPresent());
+    }
+}
@@ -0,0 +1,121 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private static Reservation window(int fromHour, int toHour) {
+        return new Reservation("R" + IDS.incrementAndGet(), "user", new Vehicle("V1", VehicleType.CAR),
+                START.plusHours(fromHour), START.plusHours(toHour));
+    }
+
+    private static ReservationIndex index(String... spotIds) {
+        ReservationIndex index = new ReservationIndex();
+        for (String spotId : spotIds) {
+            index.addSpot(new ParkingSpot(spotId));
+        }
+        return index;
+    }
+
+    private static String bookedSpot(ReservationIndex index, Reservation reservation) {
+        return index.book(reservation).map(ParkingSpot::getSpotId).orElse(null);
+    }
+
+    @Test
+    @DisplayName("A window starting after a spot's last booking goes to the spot free the longest, empty spots first")
+    void testBookingFollowsFreeFromOrder() {
+        ReservationIndex index = index("A1", "A2");
+
+        String first = bookedSpot(index, window(0, 3));
+        String second = bookedSpot(index, window(0, 1));
+        assertNotEquals(first, second);
+
+        assertEquals(second, bookedSpot(index, window(1, 2)));
+        assertEquals(second, bookedSpot(index, window(2, 4)));
+        assertEquals(first, bookedSpot(index, window(3, 5)));
+        assertEquals(second, bookedSpot(index, window(4, 6)));
+        assertNull(bookedSpot(index, window(4, 6)));
+        assertTrue(index.findFreeSpot(START.plusHours(4), START.plusHours(6)).isEmpty());
+        assertTrue(index.findFreeSpot(START.plusHours(6), START.plusHours(7)).isPresent());
+    }
+
+    @Test
+    @DisplayName("A window in a gap between bookings is still found, and removing the last booking frees the spot earlier")
+    void testGapFillAndRemove() {
+        ReservationIndex index = index("A1");
+        Reservation early = window(0, 1);
+        Reservation late = window(3, 4);
+        assertEquals("A1", bookedSpot(index, early));
+        assertEquals("A1", bookedSpot(index, late));
+
+        assertTrue(index.findFreeSpot(START.plusHours(1), START.plusHours(3)).isPresent());
+        assertEquals("A1", bookedSpot(index, window(1, 2)));
+        assertNull(bookedSpot(index, window(1, 3)));
+        assertTrue(index.findFreeSpot(START.plusHours(2), START.plusHours(4)).isEmpty());
+
+        index.remove(late);
+        assertTrue(index.findFreeSpot(START.plusHours(2), START.plusHours(4)).isPresent());
+        assertEquals("A1", bookedSpot(index, window(2, 4)));
+
+        index.remove(early);
+        assertEquals("A1", bookedSpot(index, window(0, 1)));
+        assertFalse(index.isFree(new ParkingSpot("A1"), START, START.plusHours(4)));
+    }
+
+    @Test
+    @DisplayName("Concurrent bookings fill every spot-hour exactly once without overlapping windows")
+    void testConcurrentBookings() throws Exception {
+        int spots = 20;
+        int hours = 10;
+        ReservationIndex index = new ReservationIndex();
+        for (int i = 0; i < spots; i++) {
+            index.addSpot(new ParkingSpot("S" + i));
+        }
+
+        List<Reservation> booked = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int round = 0; round < 5; round++) {
+                    for (int hour = 0; hour < hours; hour++) {
+                        Reservation reservation = window(hour, hour + 1);
+                        if (index.book(reservation).isPresent()) {
+                            booked.add(reservation);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(spots * hours, booked.size());
+        Map<String, TreeMap<LocalDateTime, Reservation>> bySpot = new TreeMap<>();
+        for (Reservation reservation : booked) {
+            Reservation clash = bySpot.computeIfAbsent(reservation.getAssignedSpot().getSpotId(), id -> new TreeMap<>())
+                    .put(reservation.getStartTime(), reservation);
+            assertNull(clash, "Two bookings start together on " + reservation.getAssignedSpot().getSpotId());
+        }
+        assertEquals(spots, bySpot.size());
+        assertTrue(index.findFreeSpot(START, START.plusHours(hours)).isEmpty());
+        assertTrue(index.findFreeSpot(START.plusHours(hours), START.plusHours(hours + 1)).isPresent());
+    }
+}
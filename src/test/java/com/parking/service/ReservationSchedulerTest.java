@@ -0,0 +1,187 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationSchedulerTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(15);
+
+    @Test
+    @DisplayName("Reservations start on time, no-shows expire after the grace period and check-ins complete at the end")
+    void testLifecycle() {
+        ParkingService parkingService = lot(3);
+        ManualClock clock = new ManualClock();
+        ReservationScheduler scheduler = ReservationScheduler.manual(parkingService, GRACE, Duration.ofSeconds(1), clock);
+        LocalDateTime start = clock.now().plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        Reservation arrives = reserve(parkingService, "R1", start, start.plusHours(2));
+        Reservation noShow = reserve(parkingService, "R2", start, start.plusHours(2));
+        Reservation cancelled = reserve(parkingService, "R3", start, start.plusHours(2));
+        assertEquals(3, scheduler.getPendingCount());
+
+        parkingService.cancelReservation(cancelled.getReservationId());
+        clock.set(start.minusSeconds(1));
+        scheduler.advance();
+        assertEquals(ReservationStatus.CONFIRMED, arrives.getStatus());
+        assertEquals(2, scheduler.getPendingCount());
+
+        clock.set(start);
+        scheduler.advance();
+        assertEquals(ReservationStatus.ACTIVE, arrives.getStatus());
+        assertEquals(ReservationStatus.ACTIVE, noShow.getStatus());
+        assertEquals(ReservationStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(2L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+
+        parkingService.checkInReservation(arrives.getReservationId());
+        clock.set(start.plus(GRACE));
+        scheduler.advance();
+        assertEquals(ReservationStatus.ACTIVE, arrives.getStatus());
+        assertEquals(ReservationStatus.EXPIRED, noShow.getStatus());
+        assertEquals(1L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        assertThrows(IllegalStateException.class, () -> parkingService.checkInReservation(noShow.getReservationId()));
+
+        clock.set(start.plusHours(2));
+        scheduler.advance();
+        assertEquals(ReservationStatus.COMPLETED, arrives.getStatus());
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getActiveReservations());
+        scheduler.close();
+    }
+
+    @Test
+    @DisplayName("A reserved spot still occupied at the start is retried until it frees up or the grace period ends")
+    void testOccupiedSpotIsRetried() {
+        ParkingService parkingService = lot(1);
+        ManualClock clock = new ManualClock();
+        ReservationScheduler scheduler = ReservationScheduler.manual(parkingService, GRACE, Duration.ofSeconds(1), clock);
+        LocalDateTime start = clock.now().plusHours(1).truncatedTo(ChronoUnit.MINUTES);
+        Reservation late = reserve(parkingService, "R1", start, start.plusHours(1));
+        Reservation blocked = reserve(parkingService, "R2", start.plusHours(2), start.plusHours(3));
+
+        // Expected to leave well before the reservation starts, but overstays.
+        ParkingTicket walkIn = parkingService.parkVehicle(new Vehicle("W1", VehicleType.CAR), null, Duration.ofMinutes(30));
+        clock.set(start.plusMinutes(5));
+        scheduler.advance();
+        assertEquals(ReservationStatus.CONFIRMED, late.getStatus());
+
+        parkingService.exitVehicle(walkIn.getTicketId());
+        clock.set(start.plusMinutes(5).plusSeconds(1));
+        scheduler.advance();
+        assertEquals(ReservationStatus.ACTIVE, late.getStatus());
+        parkingService.checkInReservation(late.getReservationId());
+
+        clock.set(start.plusHours(1));
+        scheduler.advance();
+        assertEquals(ReservationStatus.COMPLETED, late.getStatus());
+        parkingService.parkVehicle(new Vehicle("W2", VehicleType.CAR));
+        clock.set(start.plusHours(2).plus(GRACE));
+        scheduler.advance();
+        assertEquals(ReservationStatus.EXPIRED, blocked.getStatus());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Reservations spread over days cascade through the wheel and each fires once, on time")
+    void testManyReservations() {
+        int spots = 500;
+        int slotsPerSpot = 40;
+        ParkingService parkingService = lot(spots);
+        ManualClock clock = new ManualClock();
+        LocalDateTime first = clock.now().plusMinutes(10).truncatedTo(ChronoUnit.MINUTES);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int slot = 0; slot < slotsPerSpot; slot++) {
+            LocalDateTime start = first.plusHours(slot * 2L);
+            for (int spot = 0; spot < spots; spot++) {
+                reservations.add(reserve(parkingService, "R" + slot + "-" + spot,
+                        start.plusSeconds(spot), start.plusHours(1)));
+            }
+        }
+        // Created before the scheduler, as after a restart: picked up from the service.
+        ReservationScheduler scheduler = ReservationScheduler.manual(parkingService, GRACE, Duration.ofSeconds(1), clock);
+        assertEquals(reservations.size(), scheduler.getPendingCount());
+
+        for (int slot = 0; slot < slotsPerSpot; slot++) {
+            LocalDateTime start = first.plusHours(slot * 2L);
+            clock.set(start.plusSeconds(spots - 1));
+            scheduler.advance();
+            assertEquals(spots, parkingService.getParkingStatusSnapshot().getOccupiedSpots(), "slot " + slot);
+            clock.set(start.plus(GRACE).plusSeconds(spots / 2 - 1));
+            scheduler.advance();
+            assertEquals(spots / 2, parkingService.getParkingStatusSnapshot().getOccupiedSpots(), "slot " + slot);
+            clock.set(start.plusHours(1).plusSeconds(spots));
+            scheduler.advance();
+            assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots(), "slot " + slot);
+        }
+        assertEquals(0, scheduler.getPendingCount());
+        assertTrue(reservations.stream().allMatch(r -> r.getStatus() == ReservationStatus.EXPIRED));
+    }
+
+    @Test
+    @DisplayName("The background thread starts reservations on the system clock")
+    void testBackgroundThread() throws InterruptedException {
+        ParkingService parkingService = lot(1);
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        Reservation reservation = reserve(parkingService, "R1", start, start.plusHours(1));
+        try (ReservationScheduler scheduler = ReservationScheduler.start(parkingService, parkingService, GRACE,
+                Duration.ofMillis(10), Clock.systemDefaultZone())) {
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (reservation.getStatus() != ReservationStatus.ACTIVE && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(ReservationStatus.ACTIVE, reservation.getStatus());
+            assertEquals(1, scheduler.getPendingCount());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> ReservationScheduler.start(parkingService, Duration.ofMinutes(-1)));
+    }
+
+    private static ParkingService lot(int spots) {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < spots; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        return parkingService;
+    }
+
+    private static Reservation reserve(ParkingService parkingService, String plate,
+                                       LocalDateTime start, LocalDateTime end) {
+        return parkingService.createReservation("user-" + plate, new Vehicle(plate, VehicleType.CAR), start, end);
+    }
+
+    private static final class ManualClock extends Clock {
+        private final ZoneId zone = ZoneId.systemDefault();
+        private Instant instant = Instant.now();
+
+        LocalDateTime now() {
+            return LocalDateTime.ofInstant(instant, zone);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(zone).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
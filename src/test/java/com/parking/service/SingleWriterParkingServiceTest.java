@@ -0,0 +1,124 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleWriterParkingServiceTest {
+
+    private SingleWriterParkingService parkingService;
+
+    @BeforeEach
+    void setUp() {
+        parkingService = new SingleWriterParkingService(new ParkingService(new PricingService()), 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parkingService.close();
+    }
+
+    @Test
+    @DisplayName("Commands apply in order and callers see their own writes in the published snapshots")
+    void testCommandsAndSnapshots() {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.addParkingSpot(new ParkingSpot("A2"));
+        ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("CAR1", VehicleType.CAR));
+
+        assertEquals(1L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        List<ParkingTicket> active = parkingService.getActiveTickets();
+        assertEquals(List.of(ticket), active);
+        assertSame(active, parkingService.getActiveTickets());
+        assertThrows(UnsupportedOperationException.class, () -> active.add(ticket));
+
+        assertEquals(5.0, parkingService.exitVehicleByPlate("CAR1"), 0.01);
+        assertTrue(parkingService.getActiveTickets().isEmpty());
+
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Reservation reservation = parkingService.createReservation("u1", new Vehicle("CAR2", VehicleType.CAR),
+                start, start.plusHours(1));
+        parkingService.activateReservation(reservation.getReservationId());
+        assertEquals(1L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        parkingService.completeReservation(reservation.getReservationId());
+        assertEquals(0L, ((Map<?, ?>) parkingService.getParkingStatus()).get("occupiedSpots"));
+    }
+
+    @Test
+    @DisplayName("Failed commands rethrow the service's exception on the calling thread")
+    void testErrorsPropagate() {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("CAR1", VehicleType.CAR));
+
+        assertThrows(IllegalStateException.class, () -> parkingService.parkVehicle(new Vehicle("CAR2", VehicleType.CAR)));
+        assertThrows(IllegalArgumentException.class, () -> parkingService.exitVehicle("TKT-UNKNOWN"));
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Reservation reservation = parkingService.createReservation("u1", new Vehicle("CAR3", VehicleType.CAR),
+                start, start.plusHours(1));
+        assertThrows(IllegalStateException.class,
+                () -> parkingService.completeReservation(reservation.getReservationId()));
+        assertThrows(IllegalArgumentException.class, () -> parkingService.parkVehicle(null));
+    }
+
+    @Test
+    @DisplayName("Concurrent gates wrapping a small ring never double-book a spot")
+    void testConcurrentGates() throws Exception {
+        int spots = 64;
+        for (int i = 0; i < spots; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("S" + i));
+        }
+        int threads = 16;
+        int rounds = 2_000;
+        Set<String> occupied = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                int parked = 0;
+                for (int i = 0; i < rounds; i++) {
+                    ParkingTicket ticket;
+                    try {
+                        ticket = parkingService.parkVehicle(new Vehicle("T" + thread + "-" + i, VehicleType.CAR));
+                    } catch (IllegalStateException lotFull) {
+                        continue;
+                    }
+                    assertTrue(occupied.add(ticket.getSpot().getSpotId()));
+                    parked++;
+                    occupied.remove(ticket.getSpot().getSpotId());
+                    parkingService.exitVehicle(ticket.getTicketId());
+                }
+                return parked;
+            }));
+        }
+        int parked = 0;
+        for (Future<Integer> future : futures) {
+            parked += future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(threads * rounds, parked);
+        assertEquals(0L, parkingService.getParkingStatusSnapshot().getOccupiedSpots());
+        assertTrue(parkingService.getActiveTickets().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A closed service refuses new commands")
+    void testClose() {
+        parkingService.addParkingSpot(new ParkingSpot("A1"));
+        parkingService.close();
+
+        assertThrows(IllegalStateException.class, () -> parkingService.parkVehicle(new Vehicle("CAR1", VehicleType.CAR)));
+        assertEquals(1L, parkingService.getParkingStatusSnapshot().getTotalSpots());
+    }
+}
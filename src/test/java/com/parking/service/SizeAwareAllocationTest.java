@@ -0,0 +1,103 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeAwareAllocationTest {
+
+    private ParkingService parkingService;
+
+    @BeforeEach
+    void setUp() {
+        parkingService = new ParkingService(new PricingService());
+        parkingService.addParkingSpot(new ParkingSpot("M1", 1));
+        parkingService.addParkingSpot(new ParkingSpot("C1", 2));
+        parkingService.addParkingSpot(new ParkingSpot("C2", 2));
+        parkingService.addParkingSpot(new ParkingSpot("B1", 4));
+    }
+
+    @Test
+    @DisplayName("Vehicles get the smallest free spot that fits and fall through to larger ones")
+    void testBestFitWithFallThrough() {
+        assertEquals("M1", parkingService.parkVehicle(new Vehicle("MOTO1", VehicleType.MOTORCYCLE)).getSpot().getSpotId());
+        assertEquals(2, parkingService.parkVehicle(new Vehicle("MOTO2", VehicleType.MOTORCYCLE)).getSpot().getSize());
+        assertEquals(2, parkingService.parkVehicle(new Vehicle("CAR1", VehicleType.CAR)).getSpot().getSize());
+        assertEquals("B1", parkingService.parkVehicle(new Vehicle("CAR2", VehicleType.CAR)).getSpot().getSpotId());
+
+        assertThrows(IllegalStateException.class,
+                () -> parkingService.parkVehicle(new Vehicle("BUS1", VehicleType.BUS)));
+    }
+
+    @Test
+    @DisplayName("A large vehicle is refused when only smaller spots are free")
+    void testNoFittingSpot() {
+        ParkingTicket bus = parkingService.parkVehicle(new Vehicle("BUS1", VehicleType.BUS));
+        assertEquals("B1", bus.getSpot().getSpotId());
+        assertThrows(IllegalStateException.class,
+                () -> parkingService.parkVehicle(new Vehicle("VAN1", VehicleType.VAN)));
+
+        OccupancySignal signal = parkingService.getOccupancySignal();
+        assertEquals(1.0, signal.occupancy(VehicleType.VAN));
+        assertEquals(0.25, signal.occupancy(VehicleType.MOTORCYCLE));
+
+        parkingService.exitVehicle(bus.getTicketId());
+        assertEquals("B1", parkingService.parkVehicle(new Vehicle("VAN1", VehicleType.VAN)).getSpot().getSpotId());
+    }
+
+    @Test
+    @DisplayName("Reservations are booked on the smallest fitting spot")
+    void testReservationBestFit() {
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        Reservation bus = parkingService.createReservation("u1", new Vehicle("BUS1", VehicleType.BUS),
+                start, start.plusHours(2));
+        Reservation moto = parkingService.createReservation("u2", new Vehicle("MOTO1", VehicleType.MOTORCYCLE),
+                start, start.plusHours(2));
+
+        assertEquals("B1", bus.getAssignedSpot().getSpotId());
+        assertEquals("M1", moto.getAssignedSpot().getSpotId());
+        assertThrows(IllegalStateException.class, () -> parkingService.createReservation("u3",
+                new Vehicle("VAN1", VehicleType.VAN), start, start.plusHours(2)));
+    }
+
+    @Test
+    @DisplayName("Concurrent mixed traffic never puts a vehicle in a spot too small for it")
+    void testConcurrentMixedTraffic() throws Exception {
+        ParkingService lot = new ParkingService(new PricingService());
+        for (int i = 0; i < 200; i++) {
+            lot.addParkingSpot(new ParkingSpot("Z" + i, 1 + i % ParkingSpot.MAX_SIZE));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<ParkingTicket>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Vehicle vehicle = new Vehicle("V" + i, VehicleType.values()[i % VehicleType.values().length]);
+            futures.add(executor.submit(() -> {
+                try {
+                    return lot.parkVehicle(vehicle);
+                } catch (IllegalStateException e) {
+                    return null;
+                }
+            }));
+        }
+        Set<String> spots = new HashSet<>();
+        int parked = 0;
+        for (Future<ParkingTicket> future : futures) {
+            ParkingTicket ticket = future.get(10, TimeUnit.SECONDS);
+            if (ticket != null) {
+                parked++;
+                assertTrue(ticket.getSpot().fits(ticket.getVehicle().getType()));
+                assertTrue(spots.add(ticket.getSpot().getSpotId()));
+            }
+        }
+        executor.shutdown();
+        assertEquals(200, parked);
+        assertEquals(200L, lot.getParkingStatusSnapshot().getOccupiedSpots());
+    }
+}
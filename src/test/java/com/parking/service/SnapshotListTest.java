@@ -0,0 +1,192 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotListTest {
+
+    @Test
+    @DisplayName("Published versions track a sorted model through random puts and removes")
+    void testMatchesModel() {
+        SnapshotPublisher<Long> publisher = new SnapshotPublisher<>();
+        TreeMap<Long, Long> model = new TreeMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        List<Long> previous = publisher.snapshot();
+        List<Long> previousCopy = new ArrayList<>(previous);
+
+        for (int round = 0; round < 200; round++) {
+            int changes = 1 + random.nextInt(300);
+            for (int i = 0; i < changes; i++) {
+                long key = random.nextInt(5_000);
+                if (random.nextInt(3) == 0) {
+                    publisher.remove(key);
+                    model.remove(key);
+                } else {
+                    publisher.put(key, key * 10);
+                    model.put(key, key * 10);
+                }
+            }
+            SnapshotList<Long> snapshot = publisher.snapshot();
+            assertEquals(new ArrayList<>(model.values()), snapshot);
+            assertEquals(model.size(), snapshot.size());
+            if (!model.isEmpty()) {
+                assertEquals(model.lastEntry().getValue(), snapshot.get(snapshot.size() - 1));
+            }
+            assertEquals(previousCopy, previous);
+            previous = snapshot;
+            previousCopy = new ArrayList<>(snapshot);
+        }
+    }
+
+    @Test
+    @DisplayName("Readers share one instance until the next change and keep old versions intact")
+    void testServiceSnapshots() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 300; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        List<ParkingTicket> parked = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            parked.add(parkingService.parkVehicle(new Vehicle("V" + i, VehicleType.values()[i % 4])));
+        }
+
+        List<ParkingTicket> before = parkingService.getActiveTickets();
+        assertEquals(parked, before);
+        assertSame(before, parkingService.getActiveTickets());
+        assertThrows(UnsupportedOperationException.class, () -> before.remove(0));
+
+        parkingService.exitVehicle(parked.get(5).getTicketId());
+        List<ParkingTicket> after = parkingService.getActiveTickets();
+        assertNotSame(before, after);
+        assertTrue(((SnapshotList<ParkingTicket>) after).getVersion() > ((SnapshotList<ParkingTicket>) before).getVersion());
+        assertEquals(200, before.size());
+        assertEquals(199, after.size());
+        assertFalse(after.contains(parked.get(5)));
+    }
+
+    @Test
+    @DisplayName("Paged and filtered queries walk the snapshot in issue order")
+    void testPagedQueries() {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 40; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        List<ParkingTicket> cars = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("V" + i, i % 2 == 0 ? VehicleType.CAR : VehicleType.VAN));
+            if (i % 2 == 0) {
+                cars.add(ticket);
+            }
+        }
+
+        assertEquals(cars.subList(3, 7), parkingService.findActiveTickets(VehicleType.CAR, null, null, 3, 4));
+        assertEquals(cars.subList(8, 10), parkingService.findActiveTickets(VehicleType.CAR, null, null, 8, 4));
+        assertEquals(20, parkingService.findActiveTickets(null, cars.get(0).getEntryTime(), null, 0, 100).size());
+        assertTrue(parkingService.findActiveTickets(null, null, cars.get(0).getEntryTime(), 0, 100).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> parkingService.findActiveTickets(null, null, null, -1, 5));
+
+        ParkingService lot = new ParkingService(new PricingService());
+        lot.addParkingSpot(new ParkingSpot("B1"));
+        lot.addParkingSpot(new ParkingSpot("B2"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            reservations.add(lot.createReservation("u" + i, new Vehicle("R" + i, VehicleType.CAR),
+                    start.plusHours(i * 2), start.plusHours(i * 2 + 1)));
+        }
+        lot.activateReservation(reservations.get(1).getReservationId());
+
+        assertEquals(reservations, lot.getAllReservations());
+        assertEquals(List.of(reservations.get(1)),
+                lot.findReservations(ReservationStatus.ACTIVE, null, null, null, 0, 10));
+        assertEquals(reservations.subList(2, 4), lot.findReservations(ReservationStatus.CONFIRMED,
+                VehicleType.CAR, start.plusHours(4), start.plusHours(7).plusMinutes(30), 0, 10));
+    }
+
+    @Test
+    @DisplayName("Concurrent writers never block and readers see their own writes")
+    void testConcurrentReadersAndWriters() throws Exception {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 512; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    ParkingTicket ticket = parkingService.parkVehicle(new Vehicle("T" + thread + "-" + i, VehicleType.CAR));
+                    if (i % 50 == 0) {
+                        assertTrue(parkingService.getActiveTickets().contains(ticket));
+                    }
+                    parkingService.exitVehicle(ticket.getTicketId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(parkingService.getActiveTickets().isEmpty());
+    }
+
+    @Test
+    @DisplayName("An exit by plate racing the park that opened the ticket never leaves it listed")
+    void testExitByPlateRacingPark() throws Exception {
+        ParkingService parkingService = new ParkingService(new PricingService());
+        for (int i = 0; i < 64; i++) {
+            parkingService.addParkingSpot(new ParkingSpot("A" + i));
+        }
+        int rounds = 5_000;
+        AtomicInteger exited = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> parker = executor.submit(() -> {
+            for (int i = 0; i < rounds; i++) {
+                while (i - exited.get() >= 32) {
+                    Thread.onSpinWait();
+                }
+                parkingService.parkVehicle(new Vehicle("R" + i, VehicleType.CAR));
+            }
+        });
+        Future<?> exiter = executor.submit(() -> {
+            for (int i = 0; i < rounds; i++) {
+                // Exit as soon as the plate becomes reachable, possibly before the park has returned.
+                while (true) {
+                    try {
+                        parkingService.exitVehicleByPlate("R" + i);
+                        exited.incrementAndGet();
+                        break;
+                    } catch (IllegalArgumentException | IllegalStateException notYet) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }
+        });
+        parker.get(60, TimeUnit.SECONDS);
+        exiter.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertTrue(parkingService.getActiveTickets().isEmpty());
+        assertEquals(0, parkingService.findActiveTickets(null, null, null, 0, 10).size());
+
+        // The same interleaving made deterministic: the removal is recorded before the put.
+        SnapshotPublisher<ParkingTicket> publisher = new SnapshotPublisher<>(ticket -> !ticket.isProcessed());
+        ParkingTicket ticket = new ParkingTicket("TKT-1", new Vehicle("L1", VehicleType.CAR),
+                new ParkingSpot("A1"), LocalDateTime.now());
+        ticket.markAsProcessed();
+        publisher.remove(1);
+        publisher.put(1, ticket);
+        assertTrue(publisher.snapshot().isEmpty());
+    }
+}
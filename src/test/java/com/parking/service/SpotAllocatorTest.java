@@ -0,0 +1,92 @@
+package com.parking.service;
+
+import com.parking.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpotAllocatorTest {
+
+    private static final Vehicle CAR = new Vehicle("C1", VehicleType.CAR);
+
+    private static SpotAllocator allocator(SpotSharding sharding, String... spotIds) {
+        SpotAllocator allocator = new SpotAllocator(sharding);
+        for (String spotId : spotIds) {
+            ParkingSpot spot = new ParkingSpot(spotId);
+            allocator.register(spot);
+            allocator.publish(spot);
+        }
+        return allocator;
+    }
+
+    @Test
+    @DisplayName("A gate gets spots from its home zone while the zone has any")
+    void testHomeZonePreferred() {
+        SpotAllocator allocator = allocator(SpotSharding.byZonePrefix(), "A1", "A2", "B1", "B2", "C1", "C2");
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(allocator.claim(CAR, "B").getSpotId().startsWith("B"));
+            assertTrue(allocator.claim(CAR, "C").getSpotId().startsWith("C"));
+        }
+        assertEquals(4, allocator.occupiedCount());
+        assertTrue(allocator.claim(CAR, "A").getSpotId().startsWith("A"));
+    }
+
+    @Test
+    @DisplayName("Once the home zone is full, spots come from the other zones until the lot is full")
+    void testFallbackToOtherShards() {
+        SpotAllocator allocator = allocator(SpotSharding.byZonePrefix(), "A1", "B1", "B2", "C1");
+
+        assertEquals("A1", allocator.claim(CAR, "A").getSpotId());
+        Set<String> stolen = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            ParkingSpot spot = allocator.claim(CAR, "A");
+            assertNotNull(spot);
+            assertFalse(spot.getSpotId().startsWith("A"));
+            stolen.add(spot.getSpotId());
+        }
+        assertEquals(Set.of("B1", "B2", "C1"), stolen);
+        assertNull(allocator.claim(CAR, "A"));
+        assertNull(allocator.claim(CAR, "unknown"));
+
+        allocator.release(new ParkingSpot("B2"));
+        assertEquals("B2", allocator.claim(CAR, "A").getSpotId());
+    }
+
+    @Test
+    @DisplayName("Without a home zone each thread keeps to one shard, and threads spread over the shards")
+    void testThreadHashShardSelection() throws Exception {
+        SpotSharding sharding = SpotSharding.byHash(8);
+        List<String> spotIds = new ArrayList<>();
+        for (int i = 0; i < 800; i++) {
+            spotIds.add("S" + i);
+        }
+        SpotAllocator allocator = allocator(sharding, spotIds.toArray(new String[0]));
+
+        Set<String> firstShards = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                String first = sharding.shardKey(allocator.claim(CAR, null));
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(first, sharding.shardKey(allocator.claim(CAR, null)));
+                }
+                firstShards.add(first);
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(firstShards.size() > 1, "Threads all started at shard " + firstShards);
+    }
+}